@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ * Copyright (c) 2020, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -722,6 +722,13 @@ public class DirectConnection implements jakarta.jms.QueueConnection, jakarta.jm
         return this.jmsservice;
     }
 
+    /**
+     * Return the compression codecs supported by the broker of this DirectConnection
+     */
+    protected String _getBrokerCompressionCodecs() {
+        return this.dcf.getBrokerCompressionCodecs();
+    }
+
     protected synchronized void _activate(String clientId) throws JMSException {
         if (this.isManaged) {
             if (clientId != null && !"".equals(clientId)) {
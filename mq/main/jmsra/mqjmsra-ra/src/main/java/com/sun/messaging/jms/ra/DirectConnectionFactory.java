@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2020, 2024 Contributors to the Eclipse Foundation
+ * Copyright (c) 2020, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -81,6 +81,11 @@ public class DirectConnectionFactory extends ConnectionCreator implements jakart
      */
     private transient JMSService jmsservice = null;
 
+    /**
+     * Compression codecs other than deflate that the JMSService accepts, from the createConnection JMSServiceReply
+     */
+    private transient volatile String brokerCompressionCodecs = null;
+
     /** The ConnectionManager instance */
     private jakarta.resource.spi.ConnectionManager cm = null;
 
@@ -390,6 +395,11 @@ public class DirectConnectionFactory extends ConnectionCreator implements jakart
         assert (this.jmsservice != null);
         try {
             reply = jmsservice.createConnection(username, password);
+            try {
+                brokerCompressionCodecs = reply.getStringProp("JMQCompressionCodecs");
+            } catch (NoSuchFieldException nsfe) {
+                brokerCompressionCodecs = null;
+            }
             try {
                 connectionId = reply.getJMQConnectionID();
             } catch (NoSuchFieldException nsfe) {
@@ -475,6 +485,15 @@ public class DirectConnectionFactory extends ConnectionCreator implements jakart
         return this.raNameSpace;
     }
 
+    /**
+     * Returns the compression codecs other than deflate that the JMSService accepts.
+     *
+     * @return The comma separated codec names, or {@code null} if the JMSService did not send any
+     */
+    protected String getBrokerCompressionCodecs() {
+        return this.brokerCompressionCodecs;
+    }
+
     @Override
     protected Connection _createConnection(String username, String password) throws JMSException {
         long connectionId = _createConnectionId(username, password);
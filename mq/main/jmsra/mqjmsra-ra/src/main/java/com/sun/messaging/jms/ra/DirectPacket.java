@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2020, 2025 Contributors to the Eclipse Foundation
+ * Copyright (c) 2020, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -46,6 +46,7 @@ import com.sun.messaging.jmq.io.SysMessageID;
 import com.sun.messaging.jmq.jmsclient.MessageImpl;
 import com.sun.messaging.jmq.jmsclient.zip.Compressor;
 import com.sun.messaging.jmq.jmsclient.zip.Decompressor;
+import com.sun.messaging.jmq.jmsclient.zip.DeflateCodec;
 import com.sun.messaging.jmq.jmsservice.JMSService;
 import com.sun.messaging.jmq.util.net.IPAddress;
 
@@ -65,6 +66,12 @@ public class DirectPacket implements JMSPacket, jakarta.jms.Message, com.sun.mes
     /** The Properties of the JMS Message */
     private Hashtable<String, Object> properties = null;
 
+    /** Whether the properties of a received JMS Message are still to be read from its Packet */
+    private boolean propertiesInPacket = false;
+
+    /** The JMSXDeliveryCount of a received JMS Message whose properties are still in its Packet */
+    private int deliveryCount = 0;
+
     /** The consumerId sent by the broker if this is a delivered JMS Message */
     private long consumerId = 0L;
 
@@ -129,6 +136,8 @@ public class DirectPacket implements JMSPacket, jakarta.jms.Message, com.sun.mes
 
     public static final String JMS_SUN_COMPRESSED_SIZE = "JMS_SUN_COMPRESSED_SIZE";
 
+    public static final String JMS_SUN_COMPRESSION_CODEC = "JMS_SUN_COMPRESSION_CODEC";
+
     private boolean enableZip = Boolean.getBoolean("imq.zip.enable");
 
     static {
@@ -173,16 +182,9 @@ public class DirectPacket implements JMSPacket, jakarta.jms.Message, com.sun.mes
             this.pkt = jmsPacket.getPacket();
             this.consumerId = consumerId;
             this.ds = ds;
-            try {
-                this.properties = this.pkt.getProperties();
-            } catch (Exception ex) {
-                this.properties = null;
-                ex.printStackTrace();
-                String exerrmsg = _lgrMID_EXC + "DirectPacket:Constructor on deliver:Unable to get properties from JMSPacket.";
-                JMSException jmse = new JMSException(exerrmsg);
-                throw jmse;
-            }
-            this.setIntProperty(JMSService.JMSXProperties.JMSXDeliveryCount.toString(), jmsPacket.getPacket().getDeliveryCount());
+            // Many consumers never look at the properties, so they are only read from the packet when first used
+            this.propertiesInPacket = true;
+            this.deliveryCount = this.pkt.getDeliveryCount();
             this.readOnlyProperties = true;
             this.readOnlyBody = true;
         } else {
@@ -464,6 +466,7 @@ public class DirectPacket implements JMSPacket, jakarta.jms.Message, com.sun.mes
             _loggerJM.fine(_lgrMID_INF + /* "messageId="+messageId+":"+ */"clearProperties()");
         }
         this._setReadOnlyProperties(false);
+        this._loadProperties();
         if (this.properties != null) {
             this.properties.clear();
         }
@@ -490,6 +493,7 @@ public class DirectPacket implements JMSPacket, jakarta.jms.Message, com.sun.mes
                     methodName + name);
         }
         Object obj = null;
+        this._loadProperties();
         if (this.properties != null) {
             obj = this.properties.get(name);
         }
@@ -515,6 +519,7 @@ public class DirectPacket implements JMSPacket, jakarta.jms.Message, com.sun.mes
         }
 
         Object obj = null;
+        this._loadProperties();
         if (this.properties != null) {
             obj = this.properties.get(name);
         }
@@ -539,6 +544,7 @@ public class DirectPacket implements JMSPacket, jakarta.jms.Message, com.sun.mes
                     methodName + name);
         }
         Object obj = null;
+        this._loadProperties();
         if (this.properties != null) {
             obj = this.properties.get(name);
         }
@@ -563,6 +569,7 @@ public class DirectPacket implements JMSPacket, jakarta.jms.Message, com.sun.mes
                     methodName + name);
         }
         Object obj = null;
+        this._loadProperties();
         if (this.properties != null) {
             obj = this.properties.get(name);
         }
@@ -587,6 +594,7 @@ public class DirectPacket implements JMSPacket, jakarta.jms.Message, com.sun.mes
                     methodName + name);
         }
         Object obj = null;
+        this._loadProperties();
         if (this.properties != null) {
             obj = this.properties.get(name);
         }
@@ -1023,6 +1031,7 @@ public class DirectPacket implements JMSPacket, jakarta.jms.Message, com.sun.mes
                     methodName + name);
         }
         Object obj = null;
+        this._loadProperties();
         if (this.properties != null) {
             obj = this.properties.get(name);
         }
@@ -1053,6 +1062,7 @@ public class DirectPacket implements JMSPacket, jakarta.jms.Message, com.sun.mes
                     methodName + name);
         }
         // String and Object properties return null if the value doesn't exist
+        this._loadProperties();
         if (this.properties == null) {
             return null;
         }
@@ -1076,6 +1086,7 @@ public class DirectPacket implements JMSPacket, jakarta.jms.Message, com.sun.mes
             _loggerJM.fine(_lgrMID_INF + /* "messageId="+messageId+":"+ */
                     methodName);
         }
+        this._loadProperties();
         if (this.properties == null) {
             // Returns empty Enumeration
             this.properties = new Hashtable<>();
@@ -1101,6 +1112,7 @@ public class DirectPacket implements JMSPacket, jakarta.jms.Message, com.sun.mes
                     methodName + name);
         }
         Object obj = null;
+        this._loadProperties();
         if (this.properties != null) {
             obj = this.properties.get(name);
         }
@@ -1126,6 +1138,7 @@ public class DirectPacket implements JMSPacket, jakarta.jms.Message, com.sun.mes
         }
         // String and Object properties return null if the value doesn't exist
         Object obj;
+        this._loadProperties();
         if ((this.properties == null) || ((obj = properties.get(name)) == null)) {
             return null;
         }
@@ -1148,6 +1161,7 @@ public class DirectPacket implements JMSPacket, jakarta.jms.Message, com.sun.mes
             _loggerJM.fine(_lgrMID_INF + /* "messageId="+messageId+":"+ */
                     methodName + name);
         }
+        this._loadProperties();
         if (this.properties == null) {
             return false;
         }
@@ -1533,6 +1547,7 @@ public class DirectPacket implements JMSPacket, jakarta.jms.Message, com.sun.mes
             throw new jakarta.jms.MessageFormatException(errMsg);
         }
         this._checkValidPropertyName(methodName, name);
+        this._loadProperties();
         if (this.properties == null) {
             this.properties = new Hashtable<>();
         }
@@ -1640,14 +1655,14 @@ public class DirectPacket implements JMSPacket, jakarta.jms.Message, com.sun.mes
     /**
      * Prepare a DirectPacket foe a JMS Message produce operation
      */
-    protected void preparePacketForSend() throws JMSException {
+    protected void preparePacketForSend(String brokerCodecs) throws JMSException {
 
         // if enable zip all messages, compress the message
         if (enableZip) {
-            compress();
+            compress(brokerCodecs);
         } else if (shouldCompress) {
             // if message JMS_SUN_COMPRESS is set in the prop, zip it.
-            compress();
+            compress(brokerCodecs);
         } else {
             // clear the bit.
             pkt.setFlag(PacketFlag.Z_FLAG, false);
@@ -1665,6 +1680,7 @@ public class DirectPacket implements JMSPacket, jakarta.jms.Message, com.sun.mes
             this.pkt.setReplyToClass(this.jmsReplyTo.getClass().getName());
         }
         this._setBodyToPacket();
+        this._loadProperties();
         this.pkt.setProperties(this.properties);
         this.jmsMessageIDSet = false;
         this.pkt.prepareToSend();
@@ -1766,9 +1782,10 @@ public class DirectPacket implements JMSPacket, jakarta.jms.Message, com.sun.mes
      * NOTE: This code is duplicated from MessageImpl.compress(). Any changes to either method should be made to both in
      * order to keep them in sync.
      *
+     * @param brokerCodecs the codecs other than deflate accepted by the JMSService, null if none
      * @throws JMSException if cannot compress the message.
      */
-    protected void compress() throws JMSException {
+    protected void compress(String brokerCodecs) throws JMSException {
 
         try {
             /**
@@ -1795,8 +1812,12 @@ public class DirectPacket implements JMSPacket, jakarta.jms.Message, com.sun.mes
             // get a compressor instance.
             Compressor compressor = Compressor.getInstance();
 
+            // codec requested for this message, or the default one.
+            Object codec = getObjectProperty(JMS_SUN_COMPRESSION_CODEC);
+            String codecName = compressor.negotiateCodec(codec == null ? compressor.getDefaultCodecName() : codec.toString(), brokerCodecs);
+
             // compress body into baos.
-            compressor.compress(body, offset, unzipSize, baos);
+            compressor.compress(body, offset, unzipSize, baos, codecName);
 
             baos.flush();
 
@@ -1813,6 +1834,13 @@ public class DirectPacket implements JMSPacket, jakarta.jms.Message, com.sun.mes
             setIntProperty(JMS_SUN_UNCOMPRESSED_SIZE, unzipSize);
             // set zip size prop.
             setIntProperty(JMS_SUN_COMPRESSED_SIZE, zipSize);
+            // set codec prop, absent means deflate.
+            if (!DeflateCodec.NAME.equalsIgnoreCase(codecName)) {
+                setStringProperty(JMS_SUN_COMPRESSION_CODEC, codecName);
+            } else if (codec != null && properties != null) {
+                // the requested codec was not negotiated
+                properties.remove(JMS_SUN_COMPRESSION_CODEC);
+            }
 
             // set zip flag to true.
             pkt.setFlag(PacketFlag.Z_FLAG, true);
@@ -1848,8 +1876,11 @@ public class DirectPacket implements JMSPacket, jakarta.jms.Message, com.sun.mes
         // byte[] to hold unzip body
         byte[] unzipBody = new byte[unzipSize];
 
+        // get codec, absent means deflate
+        Object codec = getObjectProperty(JMS_SUN_COMPRESSION_CODEC);
+
         // decompress zip body into unzip body
-        decomp.decompress(zipBody, unzipBody);
+        decomp.decompress(zipBody, unzipBody, codec == null ? null : codec.toString());
 
         // set unzip body into packet
         pkt.setMessageBody(unzipBody, 0, unzipSize);
@@ -1873,12 +1904,36 @@ public class DirectPacket implements JMSPacket, jakarta.jms.Message, com.sun.mes
     }
 
     public void updateDeliveryCount(int newDeliveryCount) {
+        if (this.propertiesInPacket) {
+            this.deliveryCount = newDeliveryCount;
+            return;
+        }
         if (this.properties == null) {
             this.properties = new Hashtable<>();
         }
         this.properties.put(JMSService.JMSXProperties.JMSXDeliveryCount.toString(), Integer.valueOf(newDeliveryCount));
     }
 
+    /**
+     * Read the properties of a received JMS Message from its Packet, if this has not been done yet
+     */
+    private void _loadProperties() throws JMSException {
+        if (!this.propertiesInPacket) {
+            return;
+        }
+        try {
+            this.properties = this.pkt.getProperties();
+        } catch (Exception ex) {
+            this.properties = null;
+            ex.printStackTrace();
+            String exerrmsg = _lgrMID_EXC + "DirectPacket:Unable to get properties from JMSPacket.";
+            JMSException jmse = new JMSException(exerrmsg);
+            throw jmse;
+        }
+        this.propertiesInPacket = false;
+        this.updateDeliveryCount(this.deliveryCount);
+    }
+
     public int getClientRetries() {
         return clientRetries;
     }
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2020, 2024 Contributors to the Eclipse Foundation
+ * Copyright (c) 2020, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -968,7 +968,7 @@ public class DirectProducer implements QueueSender, TopicPublisher {
         dPkt.setJMSPriority((priority));
         dPkt.setJMSExpiration(timeToLive);
         dPkt.setJMSDeliveryTime(jmsDeliveryDelay);
-        dPkt.preparePacketForSend();
+        dPkt.preparePacketForSend(this.ds.getConnection()._getBrokerCompressionCodecs());
         JMSPacket msgPkt = dPkt;
         this.ds._sendMessage(msgPkt);
         if (foreignMessageConverted) {
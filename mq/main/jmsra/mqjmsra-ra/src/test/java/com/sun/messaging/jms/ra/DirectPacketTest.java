@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2021 Contributors to Eclipse Foundation. All rights reserved.
+ * Copyright (c) 2021, 2026 Contributors to Eclipse Foundation. All rights reserved.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -16,11 +16,17 @@
 
 package com.sun.messaging.jms.ra;
 
+import java.util.Collections;
+import java.util.Hashtable;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.sun.messaging.jmq.io.Packet;
+
 import jakarta.jms.JMSException;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 class DirectPacketTest {
@@ -38,4 +44,20 @@ class DirectPacketTest {
           .isThrownBy(() -> { directPacket.setJMSExpiration(expiration); })
           .withMessage("MQJMSRA_DM4001: %s:Invalid expiration=%d", "setJMSExpiration()", expiration);
     }
+
+    @Test
+    void receivedMessageShouldReadItsPropertiesWhenFirstUsed() throws JMSException {
+        Packet pkt = new Packet(false);
+        Hashtable<String, Object> props = new Hashtable<>();
+        props.put("color", "red");
+        pkt.setProperties(props);
+        pkt.setDeliveryCount(2);
+
+        DirectPacket received = new DirectPacket(() -> pkt, 1L, null);
+        received.updateDeliveryCount(3);
+
+        assertThat(received.getStringProperty("color")).isEqualTo("red");
+        assertThat(received.getIntProperty("JMSXDeliveryCount")).isEqualTo(3);
+        assertThat(Collections.list(received.getPropertyNames())).containsExactlyInAnyOrder("color", "JMSXDeliveryCount");
+    }
 }
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -334,6 +334,7 @@ public interface BrokerCmdOptions {
     String PROP_VALUE_METRICS_CONSUMER = "con";
     String PROP_VALUE_METRICS_DISK = "dsk";
     String PROP_VALUE_METRICS_REMOVE = "rem";
+    String PROP_VALUE_METRICS_LATENCY = "lat";
 
     /*
      * String values for pause type
@@ -542,10 +543,11 @@ public interface BrokerCmdOptions {
 
     String[] UPDATE_SVC_VALID_ATTRS = { PROP_NAME_SVC_PORT, PROP_NAME_SVC_MIN_THREADS, PROP_NAME_SVC_MAX_THREADS };
 
-    String[] METRIC_TYPE_VALID_VALUES = { PROP_VALUE_METRICS_TOTALS, PROP_VALUE_METRICS_RATES, PROP_VALUE_METRICS_CONNECTIONS };
+    String[] METRIC_TYPE_VALID_VALUES = { PROP_VALUE_METRICS_TOTALS, PROP_VALUE_METRICS_RATES, PROP_VALUE_METRICS_CONNECTIONS,
+            PROP_VALUE_METRICS_LATENCY };
 
     String[] METRIC_DST_TYPE_VALID_VALUES = { PROP_VALUE_METRICS_TOTALS, PROP_VALUE_METRICS_RATES, PROP_VALUE_METRICS_CONSUMER,
-            PROP_VALUE_METRICS_DISK
+            PROP_VALUE_METRICS_DISK, PROP_VALUE_METRICS_LATENCY
             /*
              * PROP_VALUE_METRICS_REMOVE
              */
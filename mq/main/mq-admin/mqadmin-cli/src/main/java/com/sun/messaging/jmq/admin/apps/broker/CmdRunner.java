@@ -1,7 +1,7 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
  * Copyright (c) 2020 Payara Services Ltd.
- * Copyright (c) 2020 Contributors to Eclipse Foundation. All rights reserved.
+ * Copyright (c) 2020, 2026 Contributors to Eclipse Foundation. All rights reserved.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -76,6 +76,7 @@ public class CmdRunner implements BrokerCmdOptions, BrokerConstants, AdminEventL
     private static final int METRICS_CONSUMER = 3;
     private static final int METRICS_DISK = 4;
     private static final int METRICS_REMOVE = 5;
+    private static final int METRICS_LATENCY = 6;
 
     /*
      * List types
@@ -4604,11 +4605,49 @@ public class CmdRunner implements BrokerCmdOptions, BrokerConstants, AdminEventL
             titleRow[i++] = ar.getString(ar.I_METRICS_LOW);
             titleRow[i++] = ar.getString(ar.I_METRICS_HIGH);
             bcp.addTitle(titleRow);
+        } else if (metricType == METRICS_LATENCY) {
+            bcp = setupLatencyMetricTitle();
         }
 
         return (bcp);
     }
 
+    private BrokerCmdPrinter setupLatencyMetricTitle() {
+        int i = 0;
+        int span[] = new int[6];
+
+        BrokerCmdPrinter bcp = new BrokerCmdPrinter(6, 2, "-", BrokerCmdPrinter.CENTER);
+        bcp.setTitleAlign(BrokerCmdPrinter.CENTER);
+        String titleRow[] = new String[6];
+
+        span[i++] = 2;
+        span[i++] = 0;
+        span[i++] = 2;
+        span[i++] = 0;
+        span[i++] = 2;
+        span[i++] = 0;
+
+        i = 0;
+        titleRow[i++] = ar.getString(ar.I_METRICS_PRODUCE_TO_PERSIST);
+        titleRow[i++] = "";
+        titleRow[i++] = ar.getString(ar.I_METRICS_PERSIST_TO_DELIVER);
+        titleRow[i++] = "";
+        titleRow[i++] = ar.getString(ar.I_METRICS_ACK_ROUND_TRIP);
+        titleRow[i++] = "";
+        bcp.addTitle(titleRow, span);
+
+        i = 0;
+        titleRow[i++] = ar.getString(ar.I_METRICS_P50);
+        titleRow[i++] = ar.getString(ar.I_METRICS_P99);
+        titleRow[i++] = ar.getString(ar.I_METRICS_P50);
+        titleRow[i++] = ar.getString(ar.I_METRICS_P99);
+        titleRow[i++] = ar.getString(ar.I_METRICS_P50);
+        titleRow[i++] = ar.getString(ar.I_METRICS_P99);
+        bcp.addTitle(titleRow);
+
+        return (bcp);
+    }
+
     private BrokerCmdPrinter setupDestMetricTitle(String commandArg, int metricType, int destTypeMask) {
         String titleRow[];
         BrokerCmdPrinter bcp = null;
@@ -4815,6 +4854,8 @@ public class CmdRunner implements BrokerCmdOptions, BrokerConstants, AdminEventL
             titleRow[i++] = "Discarded";
             titleRow[i++] = "Purged";
             bcp.addTitle(titleRow);
+        } else if (metricType == METRICS_LATENCY) {
+            bcp = setupLatencyMetricTitle();
         }
 
         return (bcp);
@@ -4881,6 +4922,15 @@ public class CmdRunner implements BrokerCmdOptions, BrokerConstants, AdminEventL
             metricRow[4] = Integer.toString(latest.threadsLowWater);
             metricRow[5] = Integer.toString(latest.threadsHighWater);
             bcp.add(metricRow);
+        } else if (metricType == METRICS_LATENCY) {
+            metricRow = new String[6];
+            metricRow[0] = Long.toString(latest.produceToPersistP50);
+            metricRow[1] = Long.toString(latest.produceToPersistP99);
+            metricRow[2] = Long.toString(latest.persistToDeliverP50);
+            metricRow[3] = Long.toString(latest.persistToDeliverP99);
+            metricRow[4] = Long.toString(latest.ackRoundTripP50);
+            metricRow[5] = Long.toString(latest.ackRoundTripP99);
+            bcp.add(metricRow);
         }
     }
 
@@ -4983,6 +5033,17 @@ public class CmdRunner implements BrokerCmdOptions, BrokerConstants, AdminEventL
             metricRow[1] = "0";
             metricRow[2] = "0";
 
+            bcp.add(metricRow);
+        } else if (metricType == METRICS_LATENCY) {
+            metricRow = new String[6];
+
+            metricRow[0] = Long.toString(latestDest.getLongProperty(DestMetricsCounters.PRODUCE_TO_PERSIST_P50));
+            metricRow[1] = Long.toString(latestDest.getLongProperty(DestMetricsCounters.PRODUCE_TO_PERSIST_P99));
+            metricRow[2] = Long.toString(latestDest.getLongProperty(DestMetricsCounters.PERSIST_TO_DELIVER_P50));
+            metricRow[3] = Long.toString(latestDest.getLongProperty(DestMetricsCounters.PERSIST_TO_DELIVER_P99));
+            metricRow[4] = Long.toString(latestDest.getLongProperty(DestMetricsCounters.ACK_ROUND_TRIP_P50));
+            metricRow[5] = Long.toString(latestDest.getLongProperty(DestMetricsCounters.ACK_ROUND_TRIP_P99));
+
             bcp.add(metricRow);
         }
 
@@ -7472,6 +7533,8 @@ public class CmdRunner implements BrokerCmdOptions, BrokerConstants, AdminEventL
             return (METRICS_DISK);
         } else if (s.equals(PROP_VALUE_METRICS_REMOVE)) {
             return (METRICS_REMOVE);
+        } else if (s.equals(PROP_VALUE_METRICS_LATENCY)) {
+            return (METRICS_LATENCY);
         }
 
         return (METRICS_TOTALS);
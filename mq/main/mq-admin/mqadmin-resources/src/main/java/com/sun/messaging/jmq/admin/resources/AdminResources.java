@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ * Copyright (c) 2020, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -875,6 +875,12 @@ public class AdminResources extends MQResourceBundle {
     public static final String I_JMQCMD_MIGRATE_PARTITION_FAIL_STATUS = "A1821";
     public static final String I_JMQCMD_MIGRATE_PARTITION_NOOP = "A1822";
 
+    public static final String I_METRICS_PRODUCE_TO_PERSIST = "A1823";
+    public static final String I_METRICS_PERSIST_TO_DELIVER = "A1824";
+    public static final String I_METRICS_ACK_ROUND_TRIP = "A1825";
+    public static final String I_METRICS_P50 = "A1826";
+    public static final String I_METRICS_P99 = "A1827";
+
     // 2000-2999 Warning Messages
     public static final String W_OBJ_ALREADY_EXISTS = "A2000";
     public static final String W_ADD_OBJ_BE_OVERWRITTEN = "A2001";
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -33,6 +33,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import com.sun.messaging.jmq.io.Status;
 import com.sun.messaging.jmq.io.SysMessageID;
 import com.sun.messaging.jmq.util.timer.WakeupableTimer;
@@ -78,23 +80,29 @@ import com.sun.messaging.jmq.jmsserver.persist.api.NoPersistPartitionedStoreImpl
 
 /**
  * This class represents the remote Consumers associated with the brokers in this cluster.
+ *
+ * Messages are delivered to busy remote consumers by imq.cluster.consumerDispatchThreads dispatch threads. Each
+ * consumer is assigned to one of them by its ConsumerUID, so the messages of a consumer are still delivered in order.
  */
 @SuppressWarnings({"JdkObsolete", "ForEachIterable"})
-class BrokerConsumers implements Runnable, com.sun.messaging.jmq.util.lists.EventListener {
+class BrokerConsumers implements com.sun.messaging.jmq.util.lists.EventListener {
     Thread thr = null;
 
     Logger logger = Globals.getLogger();
     BrokerResources br = Globals.getBrokerResources();
     Protocol protocol = null;
     boolean valid = true;
-    Set activeConsumers = Collections.synchronizedSet(new LinkedHashSet());
-    Map consumers = Collections.synchronizedMap(new HashMap());
+    Map consumers = new ConcurrentHashMap();
     Map listeners = Collections.synchronizedMap(new HashMap());
 
     private FaultInjection fi = null;
 
     public static int BTOBFLOW = Globals.getConfig().getIntProperty(Globals.IMQ + ".cluster.consumerFlowLimit", 1000);
 
+    public static int DISPATCH_THREADS = Globals.getConfig().getIntProperty(Globals.IMQ + ".cluster.consumerDispatchThreads", 1);
+
+    private final DispatchShard[] shards;
+
     DestinationList DL = Globals.getDestinationList();
     Map deliveredMessages = new LinkedHashMap();
     Map cleanupList = new HashMap();
@@ -119,9 +127,36 @@ class BrokerConsumers implements Runnable, com.sun.messaging.jmq.util.lists.Even
             pendingCheckInterval = p.getClusterAckWaitTimeout(); //NOPMD
         }
         this.fi = FaultInjection.getInjection();
-        Thread thr = new MQThread(this, "Cluster-BrokerConsumers");
-        thr.setDaemon(true);
-        thr.start();
+        int n = Math.max(1, DISPATCH_THREADS);
+        shards = new DispatchShard[n];
+        for (int i = 0; i < n; i++) {
+            shards[i] = new DispatchShard();
+            Thread thr = new MQThread(shards[i], (n == 1 ? "Cluster-BrokerConsumers" : "Cluster-BrokerConsumers-" + i));
+            thr.setDaemon(true);
+            thr.start();
+        }
+    }
+
+    int[] getDispatchQueueDepths() {
+        int[] depths = new int[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            synchronized (shards[i].activeConsumers) {
+                depths[i] = shards[i].activeConsumers.size();
+            }
+        }
+        return depths;
+    }
+
+    long[] getDispatchCounts() {
+        long[] counts = new long[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            counts[i] = shards[i].dispatched.get();
+        }
+        return counts;
+    }
+
+    private DispatchShard shardFor(com.sun.messaging.jmq.jmsserver.core.ConsumerUID uid) {
+        return shards[(uid.hashCode() & 0x7fffffff) % shards.length];
     }
 
     public void notifyPendingCheckTimer() {
@@ -363,24 +398,27 @@ class BrokerConsumers implements Runnable, com.sun.messaging.jmq.util.lists.Even
             ht.put("[deliveredMessages]" + id.toString(), e.toString());
         }
 
-        synchronized (consumers) {
-            l = new ArrayList(consumers.keySet());
-        }
+        l = new ArrayList(consumers.values());
         ht.put("consumersCount", l.size());
         itr = l.iterator();
         while (itr.hasNext()) {
-            ConsumerUID cuid = (com.sun.messaging.jmq.jmsserver.core.ConsumerUID) itr.next();
-            Consumer c = (Consumer) consumers.get(cuid);
-            if (c instanceof Subscription) {
-                ht.put("[consumers]" + cuid.toString(), "Subscription: " + c);
-            } else {
-                ht.put("[consumers]" + cuid.toString(), c.toString());
-            }
+            Consumer c = (Consumer) itr.next();
+            ht.put("[consumers]" + c.getConsumerUID().toString(), c.toString());
         }
 
-        synchronized (activeConsumers) {
-            l = new ArrayList(activeConsumers);
+        l = new ArrayList();
+        Hashtable shardht = null;
+        for (int i = 0; i < shards.length; i++) {
+            DispatchShard shard = shards[i];
+            synchronized (shard.activeConsumers) {
+                l.addAll(shard.activeConsumers);
+                shardht = new Hashtable();
+                shardht.put("activeConsumersCount", shard.activeConsumers.size());
+            }
+            shardht.put("dispatchedCount", shard.dispatched.get());
+            ht.put("[dispatchShard]" + i, shardht);
         }
+        ht.put("dispatchShardsCount", shards.length);
         ht.put("activeConsumersCount", l.size());
         Vector v = new Vector();
         itr = l.iterator();
@@ -453,8 +491,10 @@ class BrokerConsumers implements Runnable, com.sun.messaging.jmq.util.lists.Even
 
     public void destroy() {
         valid = false;
-        synchronized (activeConsumers) {
-            activeConsumers.notifyAll();
+        for (int i = 0; i < shards.length; i++) {
+            synchronized (shards[i].activeConsumers) {
+                shards[i].activeConsumers.notifyAll();
+            }
         }
         synchronized (pendingCheckTimerLock) {
             pendingCheckTimerShutdown = true;
@@ -472,6 +512,7 @@ class BrokerConsumers implements Runnable, com.sun.messaging.jmq.util.lists.Even
         // OK .. add to busy list
         Consumer c = (Consumer) target;
 
+        Set activeConsumers = shardFor(c.getConsumerUID()).activeConsumers;
         synchronized (activeConsumers) {
             if (c.isBusy()) {
                 activeConsumers.add(c);
@@ -487,17 +528,15 @@ class BrokerConsumers implements Runnable, com.sun.messaging.jmq.util.lists.Even
 
         Set removedConsumers = new HashSet();
         com.sun.messaging.jmq.jmsserver.core.ConsumerUID cuid = null;
-        synchronized (consumers) {
-            Iterator itr = consumers.keySet().iterator();
-            while (itr.hasNext()) {
-                cuid = (com.sun.messaging.jmq.jmsserver.core.ConsumerUID) itr.next();
-                if (getDEBUG()) {
-                    logger.log(logger.INFO, "Check remote consumer " + cuid + " from " + cuid.getBrokerAddress());
-                }
-                if (address.equals(cuid.getBrokerAddress())) {
-                    if (address.getBrokerSessionUID() == null || address.getBrokerSessionUID().equals(cuid.getBrokerAddress().getBrokerSessionUID())) {
-                        removedConsumers.add(cuid);
-                    }
+        Iterator citr = consumers.keySet().iterator();
+        while (citr.hasNext()) {
+            cuid = (com.sun.messaging.jmq.jmsserver.core.ConsumerUID) citr.next();
+            if (getDEBUG()) {
+                logger.log(logger.INFO, "Check remote consumer " + cuid + " from " + cuid.getBrokerAddress());
+            }
+            if (address.equals(cuid.getBrokerAddress())) {
+                if (address.getBrokerSessionUID() == null || address.getBrokerSessionUID().equals(cuid.getBrokerAddress().getBrokerSessionUID())) {
+                    removedConsumers.add(cuid);
                 }
             }
         }
@@ -537,7 +576,7 @@ class BrokerConsumers implements Runnable, com.sun.messaging.jmq.util.lists.Even
                 continue;
             }
 
-            synchronized (removeConsumerLock) {
+            synchronized (shardFor(uid).removeConsumerLock) {
                 if (consumers.get(uid) == null) {
                     if (getDEBUG()) {
                         Globals.getLogger().log(Logger.INFO, "BrokerConsumers.forwardMessageToRemote(): " + ref + ", ignore removed consumer: " + consumer);
@@ -569,14 +608,12 @@ class BrokerConsumers implements Runnable, com.sun.messaging.jmq.util.lists.Even
         }
         Set removedConsumers = new HashSet();
         com.sun.messaging.jmq.jmsserver.core.ConsumerUID cuid = null;
-        synchronized (consumers) {
-            Iterator itr = consumers.keySet().iterator();
-            while (itr.hasNext()) {
-                cuid = (com.sun.messaging.jmq.jmsserver.core.ConsumerUID) itr.next();
-                if (uid.equals(cuid.getConnectionUID())) {
-                    // found one
-                    removedConsumers.add(cuid);
-                }
+        Iterator citr = consumers.keySet().iterator();
+        while (citr.hasNext()) {
+            cuid = (com.sun.messaging.jmq.jmsserver.core.ConsumerUID) citr.next();
+            if (uid.equals(cuid.getConnectionUID())) {
+                // found one
+                removedConsumers.add(cuid);
             }
         }
 
@@ -598,8 +635,6 @@ class BrokerConsumers implements Runnable, com.sun.messaging.jmq.util.lists.Even
         }
     }
 
-    private Object removeConsumerLock = new Object();
-
     public void removeConsumer(com.sun.messaging.jmq.jmsserver.core.ConsumerUID uid, boolean cleanup) throws BrokerException {
         removeConsumer(uid, null, cleanup);
     }
@@ -611,7 +646,8 @@ class BrokerConsumers implements Runnable, com.sun.messaging.jmq.util.lists.Even
             logger.log(logger.INFO, "BrokerConsumers.removeConsumer(" + uid + ", " + pendingMsgs + ", " + cleanup + ")");
         }
         Consumer c = null;
-        synchronized (removeConsumerLock) {
+        DispatchShard shard = shardFor(uid);
+        synchronized (shard.removeConsumerLock) {
             c = (Consumer) consumers.remove(uid);
         }
         if (c == null && !cleanup) {
@@ -632,7 +668,9 @@ class BrokerConsumers implements Runnable, com.sun.messaging.jmq.util.lists.Even
             }
 
             // remove it from the active list
-            activeConsumers.remove(c);
+            synchronized (shard.activeConsumers) {
+                shard.activeConsumers.remove(c);
+            }
         }
 
         Set destroySet = new LinkedHashSet();
@@ -1827,6 +1865,7 @@ class BrokerConsumers implements Runnable, com.sun.messaging.jmq.util.lists.Even
 
                 if (!(c instanceof Subscription)) {
                     if (c.isBusy()) {
+                        Set activeConsumers = shardFor(cuid).activeConsumers;
                         synchronized (activeConsumers) {
                             activeConsumers.add(c);
                             activeConsumers.notifyAll();
@@ -1846,62 +1885,75 @@ class BrokerConsumers implements Runnable, com.sun.messaging.jmq.util.lists.Even
         }
     }
 
-    @Override
-    public void run() {
-        while (valid) {
-            Consumer c = null;
-            synchronized (activeConsumers) {
-                while (valid && activeConsumers.isEmpty()) {
-                    try {
-                        activeConsumers.wait();
-                    } catch (InterruptedException ex) {
+    /**
+     * Delivers messages to the busy remote consumers assigned to it, on its own thread.
+     */
+    private class DispatchShard implements Runnable {
+        // busy consumers of this shard, also used to wake up the dispatch thread
+        final Set activeConsumers = new LinkedHashSet();
+
+        // prevents delivery to a consumer of this shard while it is removed
+        final Object removeConsumerLock = new Object();
+
+        final AtomicLong dispatched = new AtomicLong(0);
+
+        @Override
+        public void run() {
+            while (valid) {
+                Consumer c = null;
+                synchronized (activeConsumers) {
+                    while (valid && activeConsumers.isEmpty()) {
+                        try {
+                            activeConsumers.wait();
+                        } catch (InterruptedException ex) {
+                        }
                     }
-                }
-                if (valid) {
-                    Iterator itr = activeConsumers.iterator();
-                    c = (Consumer) itr.next();
-                    itr.remove();
-                    if (c.isBusy()) {
-                        activeConsumers.add(c);
+                    if (valid) {
+                        Iterator itr = activeConsumers.iterator();
+                        c = (Consumer) itr.next();
+                        itr.remove();
+                        if (c.isBusy()) {
+                            activeConsumers.add(c);
+                        }
                     }
                 }
-            }
-            if (c == null) {
-                continue;
-            }
-
-            PacketReference ref = null;
-            HashSet s = null;
-            boolean cb = false;
-            synchronized (removeConsumerLock) {
-                if (consumers.get(c.getConsumerUID()) == null) {
-                    if (getDEBUG()) {
-                        Globals.getLogger().log(Logger.INFO, "BrokerConsumers.run(): ignore removed consumer: " + c);
-                    }
+                if (c == null) {
                     continue;
                 }
 
-                ref = (PacketReference) c.getAndFillNextPacket(null);
-                if (ref == null) {
-                    continue;
-                }
+                PacketReference ref = null;
+                HashSet s = null;
+                boolean cb = false;
+                synchronized (removeConsumerLock) {
+                    if (consumers.get(c.getConsumerUID()) == null) {
+                        if (getDEBUG()) {
+                            Globals.getLogger().log(Logger.INFO, "BrokerConsumers.run(): ignore removed consumer: " + c);
+                        }
+                        continue;
+                    }
 
-                s = new HashSet();
-                s.add(c);
-                cb = ref.getMessageDeliveredAck(c.getConsumerUID()) || c.isPaused();
+                    ref = (PacketReference) c.getAndFillNextPacket(null);
+                    if (ref == null) {
+                        continue;
+                    }
 
-                if (!c.getConsumerUID().isNoAck()) {
-                    AckEntry entry = new AckEntry(ref, c.getConsumerUID(), c.getStoredConsumerUID());
-                    synchronized (deliveredMessages) {
-                        deliveredMessages.put(entry, entry);
-                        if (getDEBUG()) {
-                            logger.log(logger.DEBUG, "deliveredMessages:" + entry);
+                    s = new HashSet();
+                    s.add(c);
+                    cb = ref.getMessageDeliveredAck(c.getConsumerUID()) || c.isPaused();
+
+                    if (!c.getConsumerUID().isNoAck()) {
+                        AckEntry entry = new AckEntry(ref, c.getConsumerUID(), c.getStoredConsumerUID());
+                        synchronized (deliveredMessages) {
+                            deliveredMessages.put(entry, entry);
+                            if (getDEBUG()) {
+                                logger.log(logger.DEBUG, "deliveredMessages:" + entry);
+                            }
                         }
                     }
                 }
+                dispatched.incrementAndGet();
+                protocol.sendMessage(ref, s, cb);
             }
-            protocol.sendMessage(ref, s, cb);
         }
     }
 }
-
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -59,4 +59,8 @@ public interface ClusterRouter {
     void handleCtrlMsg(int type, HashMap props) throws BrokerException;
 
     Hashtable getDebugState();
+
+    int[] getConsumerDispatchQueueDepths();
+
+    long[] getConsumerDispatchCounts();
 }
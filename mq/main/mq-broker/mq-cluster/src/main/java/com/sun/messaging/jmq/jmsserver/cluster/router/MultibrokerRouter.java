@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  * Copyright (c) 2020 Payara Services Ltd.
  *
  * This program and the accompanying materials are made available under the
@@ -420,5 +420,15 @@ public class MultibrokerRouter implements ClusterRouter {
     public Hashtable getDebugState() {
         return bc.getDebugState();
     }
+
+    @Override
+    public int[] getConsumerDispatchQueueDepths() {
+        return bc.getDispatchQueueDepths();
+    }
+
+    @Override
+    public long[] getConsumerDispatchCounts() {
+        return bc.getDispatchCounts();
+    }
 }
 
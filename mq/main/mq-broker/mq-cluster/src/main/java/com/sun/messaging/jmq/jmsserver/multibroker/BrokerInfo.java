@@ -1,7 +1,7 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
  * Copyright (c) 2020 Payara Services Ltd.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -41,6 +41,12 @@ public class BrokerInfo implements Serializable {
 
     private Integer clusterProtocolVersion = null;
 
+    // false when received from a broker which does not know about G_BATCH packets
+    private boolean gpacketBatchSupported = false;
+
+    // false when received from a broker which does not accept cluster data links
+    private boolean dataLinksSupported = false;
+
     private transient String realRemote = null;
 
     public Integer getClusterProtocolVersion() {
@@ -51,6 +57,22 @@ public class BrokerInfo implements Serializable {
         this.clusterProtocolVersion = v;
     }
 
+    public boolean getGPacketBatchSupported() {
+        return gpacketBatchSupported;
+    }
+
+    public void setGPacketBatchSupported(boolean b) {
+        this.gpacketBatchSupported = b;
+    }
+
+    public boolean getDataLinksSupported() {
+        return dataLinksSupported;
+    }
+
+    public void setDataLinksSupported(boolean b) {
+        this.dataLinksSupported = b;
+    }
+
     public void setBrokerAddr(BrokerAddress brokerAddr) {
         this.brokerAddr = brokerAddr;
     }
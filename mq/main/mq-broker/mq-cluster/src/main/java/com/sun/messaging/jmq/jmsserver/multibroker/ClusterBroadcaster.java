@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2020, 2022 Contributors to the Eclipse Foundation
+ * Copyright (c) 2020, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -150,6 +150,16 @@ public class ClusterBroadcaster implements ClusterBroadcast, MessageBusCallback,
         return ht;
     }
 
+    @Override
+    public int[] getConsumerDispatchQueueDepths() {
+        return clusterRouter.getConsumerDispatchQueueDepths();
+    }
+
+    @Override
+    public long[] getConsumerDispatchCounts() {
+        return clusterRouter.getConsumerDispatchCounts();
+    }
+
     /*
      * public void shutdown() { protocol.shutdown(); }
      */
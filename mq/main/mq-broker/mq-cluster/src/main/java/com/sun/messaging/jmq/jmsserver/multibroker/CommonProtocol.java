@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -133,6 +133,8 @@ public class CommonProtocol implements Protocol {
         selfInfo.setStartTime(startTime);
         selfInfo.setStoreDirtyFlag(false);
         selfInfo.setClusterProtocolVersion(Integer.valueOf(ProtocolGlobals.getCurrentVersion()));
+        selfInfo.setGPacketBatchSupported(true);
+        selfInfo.setDataLinksSupported(true);
 
         if (Globals.getHAEnabled()) {
             selfInfo.setHeartbeatHostAddress(((HeartbeatService) Globals.getHeartbeatService()).getHeartbeatHostAddress());
@@ -1,7 +1,7 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
  * Copyright (c) 2020 Payara Services Ltd.
- * Copyright (c) 2021, 2022 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -58,6 +58,12 @@ public class BrokerLink extends Thread {
     private OutputStream os;
     private BrokerLinkWriter writer;
 
+    // message data links to the remote broker, null if message data is sent on conn
+    private DataLink[] dataLinks = null;
+
+    // data links accepted from the remote broker
+    private final List<DataLinkReader> dataLinkReaders = new ArrayList<>();
+
     private BrokerAddressImpl self;
     private BrokerAddressImpl remote;
     // Note: Initially we don't know the remote instance name.
@@ -215,6 +221,11 @@ public class BrokerLink extends Thread {
         }
 
         writer.setFlowControl(enabled);
+        if (dataLinks != null) {
+            for (int i = 0; i < dataLinks.length; i++) {
+                dataLinks[i].setFlowControl(enabled);
+            }
+        }
     }
 
     protected synchronized boolean isModified(Object o) {
@@ -292,6 +303,9 @@ public class BrokerLink extends Thread {
             }
         }
 
+        if (DataLink.sendPacket(dataLinks, gp, close, urgent)) {
+            return writer;
+        }
         writer.sendPacket(gp, close, urgent);
         return writer;
     }
@@ -362,6 +376,7 @@ public class BrokerLink extends Thread {
 
                 writer.shutdown();
                 writer = null;
+                closeDataLinks();
 
                 try {
                     is.close();
@@ -388,6 +403,71 @@ public class BrokerLink extends Thread {
         }
     }
 
+    /**
+     * Open the data links to the remote broker. Message data is sent on this link's connection if any of them can't be
+     * opened.
+     */
+    private void openDataLinks(boolean batching) {
+        DataLink[] links = new DataLink[DataLink.COUNT];
+        int n = 0;
+        try {
+            for (; n < links.length; n++) {
+                links[n] = DataLink.open(this, parent, n, batching);
+            }
+        } catch (Exception e) {
+            logger.log(Logger.WARNING, "Unable to open cluster data link to " + getRemoteString() + ", sending message data on the cluster connection: " + e);
+            for (int i = 0; i < n; i++) {
+                links[i].close();
+            }
+            return;
+        }
+        synchronized (this) {
+            if (writer != null) {
+                dataLinks = links;
+                return;
+            }
+        }
+        for (int i = 0; i < links.length; i++) {
+            links[i].close();
+        }
+    }
+
+    /**
+     * Close the data links to and from the remote broker. Called with this link's lock held.
+     */
+    private void closeDataLinks() {
+        if (dataLinks != null) {
+            for (int i = 0; i < dataLinks.length; i++) {
+                dataLinks[i].close();
+            }
+            dataLinks = null;
+        }
+        for (int i = 0; i < dataLinkReaders.size(); i++) {
+            dataLinkReaders.get(i).close();
+        }
+        dataLinkReaders.clear();
+    }
+
+    /**
+     * Attach a data link accepted from the remote broker to this link.
+     *
+     * @return false if this link is not connected to the broker which opened the data link
+     */
+    synchronized boolean addDataLinkReader(DataLinkReader r, BrokerAddressImpl from) {
+        if (!connected || writer == null || !remote.equals(from)) {
+            return false;
+        }
+        if (remote.getBrokerSessionUID() != null && !remote.getBrokerSessionUID().equals(from.getBrokerSessionUID())) {
+            return false;
+        }
+        dataLinkReaders.add(r);
+        return true;
+    }
+
+    synchronized void removeDataLinkReader(DataLinkReader r) {
+        dataLinkReaders.remove(r);
+    }
+
     private static SSLSocketFactory factory = null;
 
     private static synchronized SSLSocketFactory getTrustSocketFactory() throws Exception {
@@ -1011,6 +1091,13 @@ public class BrokerLink extends Thread {
 
         expectBrokerInfoPkt = false;
 
+        boolean batching = GPacketBatch.ENABLED && bi.getGPacketBatchSupported();
+        synchronized (this) {
+            if (writer != null) {
+                writer.setBatching(batching);
+            }
+        }
+
         Integer v = bi.getClusterProtocolVersion();
         if (v != null && v.intValue() >= ProtocolGlobals.VERSION_400) {
             com.sun.messaging.jmq.jmsserver.core.BrokerAddress configServer = null;
@@ -1038,6 +1125,10 @@ public class BrokerLink extends Thread {
             }
 
         }
+        // open the data links before anything else can be sent on this link
+        if (DataLink.COUNT > 0 && bi.getDataLinksSupported()) {
+            openDataLinks(batching);
+        }
         synchronized (handshakeLock) {
             handshakeSent = true;
         }
@@ -1130,6 +1221,31 @@ public class BrokerLink extends Thread {
             }
         }
 
+        dispatchGPacket(gp);
+    }
+
+    /**
+     * Pass on a packet read from a data link of the remote broker.
+     */
+    void receiveDataLinkPacket(GPacket gp) throws IOException {
+        if (ClusterManagerImpl.isDEBUG_CLUSTER_PACKET() || ClusterManagerImpl.isDEBUG_CLUSTER_ALL()) {
+            logger.log(Logger.INFO, "RECEIVING DATA LINK PACKET : " + this + "\nPacket = " + gp.toLongString());
+        }
+        dispatchGPacket(gp);
+    }
+
+    private void dispatchGPacket(GPacket gp) throws IOException {
+        if (gp.getType() == ProtocolGlobals.G_BATCH) {
+            GPacket[] gps = GPacketBatch.unpack(gp);
+            for (int i = 0; i < gps.length; i++) {
+                receiveGPacket(gps[i]);
+            }
+            return;
+        }
+        receiveGPacket(gp);
+    }
+
+    private void receiveGPacket(GPacket gp) {
         try {
             parent.receivePacket(remote, gp, null);
         } catch (Exception e) {
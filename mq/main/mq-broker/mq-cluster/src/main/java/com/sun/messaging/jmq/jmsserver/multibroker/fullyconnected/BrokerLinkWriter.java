@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -19,8 +19,10 @@ package com.sun.messaging.jmq.jmsserver.multibroker.fullyconnected;
 
 import java.util.*;
 import java.io.*;
+import com.sun.messaging.jmq.jmsserver.Globals;
 import com.sun.messaging.jmq.jmsserver.multibroker.raptor.ProtocolGlobals;
 import com.sun.messaging.jmq.io.*;
+import com.sun.messaging.jmq.util.log.Logger;
 
 /**
  * This class implements a dedicated packet writer thread. Each BrokerLink instance has its own BrokerLinkWriter
@@ -36,7 +38,7 @@ class BrokerLinkWriter extends Thread {
     private ArrayList backupQ = null;
 
     private static final int MAX_BUFFER_SIZE = 8192;
-    // private Logger logger = Globals.getLogger();
+    private static final Logger logger = Globals.getLogger();
 
     private boolean stopThread = false;
     private boolean threadInWaiting = false;
@@ -44,12 +46,29 @@ class BrokerLinkWriter extends Thread {
 
     private boolean writeActive = false;
 
+    // coalesce message data and ack packets into G_BATCH packets, set when the remote broker supports them
+    private boolean batching = false;
+
+    // true if this writer writes to a DataLink of the parent link instead of its connection
+    private boolean dataLink = false;
+    private boolean dataLinkFailed = false;
+
     BrokerLinkWriter(BrokerLink parent) {
         this.parent = parent;
         setName("BrokerLinkWriter:" + parent.getRemoteString());
         setDaemon(true);
     }
 
+    /**
+     * Create the writer of data link <code>index</code> of the parent link.
+     */
+    BrokerLinkWriter(BrokerLink parent, int index) {
+        this.parent = parent;
+        this.dataLink = true;
+        setName("BrokerLinkWriter[" + index + "]:" + parent.getRemoteString());
+        setDaemon(true);
+    }
+
     /**
      * Set the output stream and start the writer thread.
      */
@@ -79,6 +98,12 @@ class BrokerLinkWriter extends Thread {
         }
     }
 
+    public void setBatching(boolean enabled) {
+        synchronized (q) {
+            batching = enabled;
+        }
+    }
+
     /**
      * Terminate the writer thread.
      */
@@ -212,12 +237,78 @@ class BrokerLinkWriter extends Thread {
         return writeActive;
     }
 
+    /**
+     * Wait up to GPacketBatch.LINGER_MICROS for more packets to be queued. Called with the q lock held.
+     */
+    private void lingerForBatch() {
+        long deadline = System.nanoTime() + GPacketBatch.LINGER_MICROS * 1000L;
+        long remaining;
+        while (!stopThread && (remaining = deadline - System.nanoTime()) > 0) {
+            int n = 0;
+            Iterator itr = q.iterator();
+            while (itr.hasNext() && n < GPacketBatch.MAX_BYTES) {
+                Object o = itr.next();
+                n += (o instanceof GPacket ? ((GPacket) o).getSize() : ((Packet) o).getPacketSize());
+            }
+            if (n >= GPacketBatch.MAX_BYTES) {
+                return;
+            }
+            try {
+                q.wait(remaining / 1000000L, (int) (remaining % 1000000L));
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Write the packets, coalescing consecutive batchable GPackets into G_BATCH packets.
+     */
+    private void sendPacketsBatched(ArrayList l) throws IOException {
+        ArrayList<GPacket> batch = new ArrayList<>();
+        int size = 0;
+        for (int i = 0; i < l.size(); i++) {
+            Object o = l.get(i);
+            if (o instanceof GPacket && GPacketBatch.isBatchable((GPacket) o)) {
+                GPacket gp = (GPacket) o;
+                if (!batch.isEmpty() && size + gp.getSize() > GPacketBatch.MAX_BYTES) {
+                    sendBatch(batch, size);
+                    size = 0;
+                }
+                batch.add(gp);
+                size += gp.getSize();
+                continue;
+            }
+            sendBatch(batch, size);
+            size = 0;
+            if (o instanceof GPacket) {
+                sendPacketDirect((GPacket) o, false);
+            } else {
+                sendPacketDirect((Packet) o, false);
+            }
+        }
+        sendBatch(batch, size);
+    }
+
+    private void sendBatch(ArrayList<GPacket> batch, int size) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (batch.size() == 1) {
+            sendPacketDirect(batch.get(0), false);
+        } else {
+            sendPacketDirect(GPacketBatch.pack(batch, size), false);
+        }
+        batch.clear();
+    }
+
     @Override
     public void run() {
         ArrayList l = new ArrayList();
 
         while (true) {
             l.clear();
+            boolean batch = false;
             synchronized (q) {
                 while (q.isEmpty() && stopThread == false) {
                     try {
@@ -233,6 +324,15 @@ class BrokerLinkWriter extends Thread {
                     return;
                 }
 
+                batch = batching;
+                if (batch && GPacketBatch.LINGER_MICROS > 0) {
+                    lingerForBatch();
+                    if (stopThread) {
+                        return;
+                    }
+                }
+                int maxSize = (batch ? GPacketBatch.MAX_BYTES : MAX_BUFFER_SIZE);
+
                 int n = 0;
                 boolean bufferFull = false;
 
@@ -253,7 +353,7 @@ class BrokerLinkWriter extends Thread {
                         if (flowControl && gp.getBit(gp.F_BIT)) {
                             backupQ.add(gp);
                         } else {
-                            if (n + gp.getSize() > MAX_BUFFER_SIZE) {
+                            if (n + gp.getSize() > maxSize) {
                                 bufferFull = true;
                                 break;
                             }
@@ -265,7 +365,7 @@ class BrokerLinkWriter extends Thread {
                         if (flowControl && p.getFlag(p.USE_FLOW_CONTROL)) {
                             backupQ.add(p);
                         } else {
-                            if (n + p.getPacketSize() > MAX_BUFFER_SIZE) {
+                            if (n + p.getPacketSize() > maxSize) {
                                 bufferFull = true;
                                 break;
                             }
@@ -288,13 +388,17 @@ class BrokerLinkWriter extends Thread {
             // The following operations do the actual socket I/O,
             // and must be done outside the synchronized block.
             try {
-                for (int i = 0; i < l.size(); i++) {
-                    try {
-                        GPacket gp = (GPacket) l.get(i);
-                        sendPacketDirect(gp, false);
-                    } catch (ClassCastException cce) {
-                        Packet p = (Packet) l.get(i);
-                        sendPacketDirect(p, false);
+                if (batch) {
+                    sendPacketsBatched(l);
+                } else {
+                    for (int i = 0; i < l.size(); i++) {
+                        try {
+                            GPacket gp = (GPacket) l.get(i);
+                            sendPacketDirect(gp, false);
+                        } catch (ClassCastException cce) {
+                            Packet p = (Packet) l.get(i);
+                            sendPacketDirect(p, false);
+                        }
                     }
                 }
 
@@ -303,8 +407,26 @@ class BrokerLinkWriter extends Thread {
                 }
             } catch (Exception e) {
                 os = null;
+                if (dataLink) {
+                    dataLinkFailed(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * The packets written since the last successful flush may be lost, so close the parent link connection and let the
+     * link recover as if its own connection had failed.
+     */
+    private void dataLinkFailed(Exception e) {
+        synchronized (q) {
+            if (stopThread || dataLinkFailed) {
+                return;
             }
+            dataLinkFailed = true;
         }
+        logger.log(Logger.INFO, "IOException on data link " + getName() + ": " + e);
+        parent.closeConn(true);
     }
 }
 
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ * Copyright (c) 2020, 2026 Contributors to the Eclipse Foundation
  * Copyright (c) 2021 Payara Services Ltd.
  *
  * This program and the accompanying materials are made available under the
@@ -364,6 +364,12 @@ public class ClusterImpl implements Cluster, ClusterListener {
         brokerList = new HashMap();
     }
 
+    protected BrokerLink getBrokerLink(BrokerAddressImpl b) {
+        synchronized (brokerList) {
+            return (BrokerLink) brokerList.get(b);
+        }
+    }
+
     private BrokerLink searchBrokerList(BrokerMQAddress key) {
         if (brokerList == null) {
             return null;
@@ -581,6 +587,9 @@ public class ClusterImpl implements Cluster, ClusterListener {
                     FileTransferRunnable runner = new FileTransferRunnable(conn, FILE_TRANSFER_SOTIMEOUT_IN, remote, es, this);
                     es.execute(runner);
                     return;
+                } else if (li.isDataLinkRequest()) {
+                    new DataLinkReader(conn, ssl, remote, this).start();
+                    return;
                 } else {
                     logger.log(Logger.ERROR, br.getKString(br.E_CLUSTER_UNEXPECTED_PACKET_FROM, "LINK_INIT[" + remote.getClusterVersion() + "]",
                             remote + "[" + conn.getInetAddress() + "]"));
@@ -653,7 +662,7 @@ public class ClusterImpl implements Cluster, ClusterListener {
         return getLinkInitPkt((Integer) null);
     }
 
-    private Packet getLinkInitPkt(Integer service) {
+    protected Packet getLinkInitPkt(Integer service) {
         ByteArrayOutputStream bos = new ByteArrayOutputStream();
         DataOutputStream dos = new DataOutputStream(bos);
         try {
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.multibroker.fullyconnected;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.sun.messaging.jmq.io.GPacket;
+import com.sun.messaging.jmq.jmsserver.Globals;
+import com.sun.messaging.jmq.jmsserver.multibroker.raptor.ClusterMessageInfo;
+import com.sun.messaging.jmq.jmsserver.multibroker.raptor.ProtocolGlobals;
+
+/**
+ * An additional one way connection to a remote broker which only carries message data packets. A BrokerLink opens
+ * imq.cluster.dataLinks of them after the link handshake if the remote broker announced in its BrokerInfo that it
+ * accepts them. Message data packets are spread over the data links by destination, so the packets of one destination
+ * stay in order. All other packets, and urgent packets, are still sent on the BrokerLink connection, which is no longer
+ * held up behind message data.
+ *
+ * A data link has no life of its own: it is closed with its BrokerLink, and a data link I/O error closes the BrokerLink
+ * connection so that the usual link recovery applies to the packets in flight.
+ */
+public final class DataLink {
+
+    /**
+     * The number of data links opened to each remote broker, 0 sends message data on the BrokerLink connection
+     */
+    static final int COUNT = Math.max(0, Globals.getConfig().getIntProperty(Globals.IMQ + ".cluster.dataLinks", 0));
+
+    private final Socket socket;
+    private final BrokerLinkWriter writer;
+
+    private DataLink(Socket socket, BrokerLinkWriter writer) {
+        this.socket = socket;
+        this.writer = writer;
+    }
+
+    /**
+     * @return true if message data packets are spread over data links, so they need the destination hash
+     */
+    public static boolean isEnabled() {
+        return COUNT > 0;
+    }
+
+    static boolean isStriped(GPacket gp) {
+        return gp.getType() == ProtocolGlobals.G_MESSAGE_DATA;
+    }
+
+    /**
+     * @return the index of the data link which carries the message data packet
+     */
+    static int indexFor(GPacket gp, int count) {
+        Object h = gp.getProp(ClusterMessageInfo.PROP_DEST_HASH);
+        int hash = (h instanceof Integer ? ((Integer) h).intValue() : 0);
+        return (hash & 0x7fffffff) % count;
+    }
+
+    /**
+     * Send a packet on the data link which carries its destination.
+     *
+     * @param links the data links of a BrokerLink, null if it has none
+     * @return false if the packet has to be sent on the BrokerLink connection
+     */
+    static boolean sendPacket(DataLink[] links, GPacket gp, boolean close, boolean urgent) throws IOException {
+        if (links == null || close || urgent || !isStriped(gp)) {
+            return false;
+        }
+        links[indexFor(gp, links.length)].sendPacket(gp);
+        return true;
+    }
+
+    /**
+     * Connect to the remote broker of the link and start the data link writer thread.
+     */
+    static DataLink open(BrokerLink link, ClusterImpl cluster, int index, boolean batching) throws Exception {
+        Map props = new HashMap();
+        Socket s = BrokerLink.makeSocket(link.getRemote(), cluster, true, props);
+        try {
+            int outbufsize = (props.get("ssl") == null ? cluster.getTCPOutputBufferSize() : cluster.getSSLOutputBufferSize());
+            OutputStream os = s.getOutputStream();
+            if (outbufsize > 0) {
+                os = new BufferedOutputStream(os, outbufsize);
+            }
+            cluster.getLinkInitPkt(Integer.valueOf(LinkInfo.SERVICE_DATA_LINK)).writePacket(os);
+            os.flush();
+
+            return start(link, s, os, index, batching);
+        } catch (Exception e) {
+            try {
+                s.close();
+            } catch (IOException ce) {
+                /* Ignore */ }
+            throw e;
+        }
+    }
+
+    /**
+     * Start the writer thread of a data link connected to the remote broker of the link.
+     */
+    static DataLink start(BrokerLink link, Socket s, OutputStream os, int index, boolean batching) {
+        BrokerLinkWriter writer = new BrokerLinkWriter(link, index);
+        writer.startWriterThread(os);
+        writer.setBatching(batching);
+        return new DataLink(s, writer);
+    }
+
+    void sendPacket(GPacket gp) throws IOException {
+        writer.sendPacket(gp);
+    }
+
+    void setFlowControl(boolean enabled) {
+        writer.setFlowControl(enabled);
+    }
+
+    void close() {
+        writer.shutdown();
+        try {
+            socket.close();
+        } catch (IOException e) {
+            /* Ignore */ }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.multibroker.fullyconnected;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+
+import com.sun.messaging.jmq.io.GPacket;
+import com.sun.messaging.jmq.jmsserver.Globals;
+import com.sun.messaging.jmq.util.log.Logger;
+
+/**
+ * Reads the packets of a data link accepted from a remote broker and passes them on through the BrokerLink to that
+ * broker.
+ *
+ * @see DataLink
+ */
+class DataLinkReader extends Thread {
+
+    private static final Logger logger = Globals.getLogger();
+
+    // how long to wait for the BrokerLink of the remote broker to be added, its handshake may still be in progress
+    private static final long LINK_WAIT_TIME = 30 * 1000L;
+    private static final long LINK_WAIT_INTERVAL = 100L;
+
+    private final Socket conn;
+    private final boolean ssl;
+    private final BrokerAddressImpl remote;
+    private final ClusterImpl parent;
+
+    private volatile boolean closed = false;
+
+    DataLinkReader(Socket conn, boolean ssl, BrokerAddressImpl remote, ClusterImpl parent) {
+        this.conn = conn;
+        this.ssl = ssl;
+        this.remote = remote;
+        this.parent = parent;
+        setName("DataLinkReader:" + BrokerLink.getRemoteString(conn, remote));
+        setDaemon(true);
+    }
+
+    void close() {
+        closed = true;
+        try {
+            conn.close();
+        } catch (IOException e) {
+            /* Ignore */ }
+    }
+
+    private BrokerLink waitForLink() {
+        long endtime = System.currentTimeMillis() + LINK_WAIT_TIME;
+        while (!closed) {
+            BrokerLink link = parent.getBrokerLink(remote);
+            if (link != null && link.addDataLinkReader(this, remote)) {
+                return link;
+            }
+            if (System.currentTimeMillis() >= endtime) {
+                break;
+            }
+            try {
+                Thread.sleep(LINK_WAIT_INTERVAL);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void run() {
+        BrokerLink link = waitForLink();
+        if (link == null) {
+            logger.log(Logger.WARNING, "No cluster connection for data link from " + getName() + ", closing it");
+            close();
+            return;
+        }
+        try {
+            int inbufsize = (ssl ? parent.getSSLInputBufferSize() : parent.getTCPInputBufferSize());
+            InputStream is = conn.getInputStream();
+            if (inbufsize > 0) {
+                is = new BufferedInputStream(is, inbufsize);
+            }
+            while (!closed) {
+                GPacket gp = GPacket.getInstance();
+                gp.read(is);
+                link.receiveDataLinkPacket(gp);
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                // packets may have been lost, let the link recover
+                logger.log(Logger.INFO, "IOException on data link " + getName() + ": " + e);
+                link.closeConn(true);
+            }
+        } finally {
+            link.removeDataLinkReader(this);
+            close();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.multibroker.fullyconnected;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import com.sun.messaging.jmq.io.GPacket;
+import com.sun.messaging.jmq.jmsserver.Globals;
+import com.sun.messaging.jmq.jmsserver.multibroker.raptor.ProtocolGlobals;
+
+/**
+ * Packs consecutive message data and message ack GPackets sent on a broker link into one G_BATCH GPacket, and unpacks
+ * them on the receiving link, which passes them on in their original order. The payload of a G_BATCH packet is the
+ * wire format of the packets it contains.
+ *
+ * A G_BATCH packet is only sent to a broker which announced in its BrokerInfo during the link handshake that it can
+ * unpack it.
+ */
+final class GPacketBatch {
+
+    /**
+     * Whether this broker sends G_BATCH packets to brokers which support them
+     */
+    static final boolean ENABLED = Globals.getConfig().getBooleanProperty(Globals.IMQ + ".cluster.batch.enabled", true);
+
+    /**
+     * The maximum size in bytes of the packets coalesced into one G_BATCH packet
+     */
+    static final int MAX_BYTES = Math.max(8192, Globals.getConfig().getIntProperty(Globals.IMQ + ".cluster.batch.maxBytes", 65536));
+
+    /**
+     * How long the link writer waits for more packets to fill a batch, in microseconds
+     */
+    static final long LINGER_MICROS = Math.max(0L, Globals.getConfig().getLongProperty(Globals.IMQ + ".cluster.batch.lingerMicros", 0L));
+
+    private static final String PROP_COUNT = "C";
+
+    private GPacketBatch() {
+    }
+
+    static boolean isBatchable(GPacket gp) {
+        switch (gp.getType()) {
+        case ProtocolGlobals.G_MESSAGE_DATA:
+        case ProtocolGlobals.G_MESSAGE_DATA_REPLY:
+        case ProtocolGlobals.G_MESSAGE_ACK:
+        case ProtocolGlobals.G_MESSAGE_ACK_REPLY:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    static GPacket pack(List<GPacket> gps, int size) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(size);
+        for (int i = 0; i < gps.size(); i++) {
+            gps.get(i).write(bos);
+        }
+        GPacket batch = GPacket.getInstance();
+        batch.setType(ProtocolGlobals.G_BATCH);
+        batch.putProp(PROP_COUNT, Integer.valueOf(gps.size()));
+        batch.setPayload(ByteBuffer.wrap(bos.toByteArray()));
+        return batch;
+    }
+
+    static GPacket[] unpack(GPacket batch) throws IOException {
+        Integer count = (Integer) batch.getProp(PROP_COUNT);
+        ByteBuffer payload = batch.getPayload();
+        if (count == null || payload == null) {
+            throw new StreamCorruptedException("Bad " + ProtocolGlobals.getPacketTypeString(ProtocolGlobals.G_BATCH) + " packet");
+        }
+        ByteArrayInputStream bis = new ByteArrayInputStream(payload.array(), payload.arrayOffset(), payload.limit());
+        GPacket[] gps = new GPacket[count.intValue()];
+        for (int i = 0; i < gps.length; i++) {
+            gps[i] = GPacket.getInstance();
+            gps[i].read(bis);
+        }
+        return gps;
+    }
+}
@@ -1,5 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -31,6 +32,7 @@ public class LinkInfo implements Serializable {
      * non-link request must be negative
      */
     public static final int SERVICE_FILE_TRANSFER = -5000;
+    public static final int SERVICE_DATA_LINK = -5001;
 
     BrokerAddressImpl address;
     BrokerAddressImpl configServer;
@@ -57,7 +59,7 @@ public class LinkInfo implements Serializable {
     }
 
     public void setServiceRequestType(int type) throws BrokerException {
-        if (type != SERVICE_FILE_TRANSFER) {
+        if (type != SERVICE_FILE_TRANSFER && type != SERVICE_DATA_LINK) {
             throw new BrokerException("Unknown link service request type " + type);
         }
         serviceRequestType = type;
@@ -75,6 +77,10 @@ public class LinkInfo implements Serializable {
         return serviceRequestType == SERVICE_FILE_TRANSFER;
     }
 
+    public boolean isDataLinkRequest() {
+        return serviceRequestType == SERVICE_DATA_LINK;
+    }
+
     @Override
     public String toString() {
         return "Address = " + address + " configServer = " + configServer;
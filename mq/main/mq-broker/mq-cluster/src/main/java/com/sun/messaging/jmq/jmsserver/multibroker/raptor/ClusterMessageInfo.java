@@ -1,7 +1,7 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
  * Copyright (c) 2020 Payara Services Ltd.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -31,6 +31,7 @@ import com.sun.messaging.jmq.jmsserver.core.PacketReference;
 import com.sun.messaging.jmq.jmsserver.core.BrokerAddress;
 import com.sun.messaging.jmq.jmsserver.resources.BrokerResources;
 import com.sun.messaging.jmq.jmsserver.multibroker.Cluster;
+import com.sun.messaging.jmq.jmsserver.multibroker.fullyconnected.DataLink;
 import com.sun.messaging.jmq.jmsserver.util.BrokerException;
 
 /**
@@ -43,6 +44,12 @@ public class ClusterMessageInfo {
     private static final String PROP_PREFIX_CUID_DCT = "CUID-DCT:";
     private static final String PROP_REDELIVERED = "redelivered";
 
+    /**
+     * Hash of the destination of the message, used by the cluster transport to keep the messages of a destination in
+     * order on the same connection. Only set when data links are configured.
+     */
+    public static final String PROP_DEST_HASH = "dh";
+
     private PacketReference ref = null;
     private ArrayList<Consumer> consumers = null;
     private ArrayList<Integer> deliveryCnts = null;
@@ -95,6 +102,9 @@ public class ClusterMessageInfo {
         gp.setType(ProtocolGlobals.G_MESSAGE_DATA);
         gp.putProp("D", Boolean.valueOf(sendMessageDeliveredAck));
         gp.putProp("C", Integer.valueOf(consumers.size()));
+        if (DataLink.isEnabled()) {
+            gp.putProp(PROP_DEST_HASH, Integer.valueOf(ref.getDestinationUID().hashCode()));
+        }
         if (Globals.getDestinationList().isPartitionMode()) {
             gp.putProp("partitionID", Long.valueOf(ref.getPartitionedStore().getPartitionID().longValue()));
         }
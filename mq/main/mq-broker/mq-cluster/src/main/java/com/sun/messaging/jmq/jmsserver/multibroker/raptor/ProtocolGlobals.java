@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2022 Contributors to Eclipse Foundation. All rights reserved.
+ * Copyright (c) 2022, 2026 Contributors to Eclipse Foundation. All rights reserved.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -138,7 +138,13 @@ public class ProtocolGlobals {
     public static final short G_NOTIFY_PARTITION_ARRIVAL = 75;
     public static final short G_NOTIFY_PARTITION_ARRIVAL_REPLY = 76;
 
-    public static final short G_MAX_PACKET_TYPE = 76;
+    /*
+     * Message data and ack packets coalesced by a broker link, only sent to brokers which support it (see
+     * BrokerInfo.getGPacketBatchSupported)
+     */
+    public static final short G_BATCH = 77;
+
+    public static final short G_MAX_PACKET_TYPE = 77;
 
     private static final String[] packetTypeNames = { "NULL", "G_MESSAGE_DATA", /* = 1 */
             "G_MESSAGE_DATA_REPLY", /* = 2 */
@@ -232,7 +238,9 @@ public class ProtocolGlobals {
             "G_INFO", /* = 74 */
 
             "G_NOTIFY_PARTITION_ARRIVAL", /* = 75 */
-            "G_NOTIFY_PARTITION_ARRIVAL_REPLY" /* = 76 */
+            "G_NOTIFY_PARTITION_ARRIVAL_REPLY", /* = 76 */
+
+            "G_BATCH" /* = 77 */
 
     };
 
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  * Copyright (c) 2020 Payara Services Ltd.
  *
  * This program and the accompanying materials are made available under the
@@ -310,6 +310,9 @@ public class RaptorProtocol implements Protocol, PartitionListener, StoreSession
         addHandler(ProtocolGlobals.G_NOTIFY_PARTITION_ARRIVAL_REPLY, h);
 
         unknownPacketHandler = new UnknownPacketHandler(this);
+
+        // unpacked by the broker link, never passed to the protocol
+        addHandler(ProtocolGlobals.G_BATCH, unknownPacketHandler);
     }
 
     @Override
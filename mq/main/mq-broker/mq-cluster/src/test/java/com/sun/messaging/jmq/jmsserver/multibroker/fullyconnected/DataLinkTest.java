@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.multibroker.fullyconnected;
+
+import static com.sun.messaging.jmq.jmsserver.multibroker.fullyconnected.GPackets.newPacket;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.messaging.jmq.io.GPacket;
+import com.sun.messaging.jmq.jmsserver.multibroker.raptor.ClusterMessageInfo;
+import com.sun.messaging.jmq.jmsserver.multibroker.raptor.ProtocolGlobals;
+
+class DataLinkTest {
+
+    @Test
+    void testMessagesOfOneDestinationShouldUseTheSameDataLink() {
+        int hash = "Queue:orders".hashCode();
+        int index = DataLink.indexFor(newPacket(ProtocolGlobals.G_MESSAGE_DATA, 0, hash), 4);
+        assertThat(index).isBetween(0, 3);
+        for (int i = 0; i < 10; i++) {
+            assertThat(DataLink.indexFor(newPacket(ProtocolGlobals.G_MESSAGE_DATA, 0, hash), 4)).isEqualTo(index);
+        }
+        assertThat(DataLink.indexFor(newPacket(ProtocolGlobals.G_MESSAGE_DATA, 0, Integer.MIN_VALUE), 3)).isBetween(0, 2);
+        assertThat(DataLink.indexFor(newPacket(ProtocolGlobals.G_MESSAGE_DATA, 0, null), 3)).isZero();
+    }
+
+    @Test
+    void testOnlyMessageDataShouldBeStriped() {
+        assertThat(DataLink.isStriped(newPacket(ProtocolGlobals.G_MESSAGE_DATA, 0, 1))).isTrue();
+        assertThat(DataLink.isStriped(newPacket(ProtocolGlobals.G_MESSAGE_ACK, 0, null))).isFalse();
+        assertThat(DataLink.isStriped(newPacket(ProtocolGlobals.G_PING, 0, null))).isFalse();
+        assertThat(DataLink.isStriped(newPacket(ProtocolGlobals.G_TAKEOVER_PENDING, 0, null))).isFalse();
+    }
+
+    @Test
+    void testMessageDataShouldBeSentThroughTheStripedLinks() throws Exception {
+        BrokerLink link = new BrokerLink(null, new BrokerAddressImpl("192.0.2.1", "remote", 7676, false, null, null, null), null);
+        int[] destHashes = { "Queue:orders".hashCode(), "Queue:invoices".hashCode(), "Topic:prices".hashCode(), 5, 6 };
+        int perDest = 50;
+
+        DataLink[] links = new DataLink[3];
+        Socket[] ins = new Socket[links.length];
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            for (int i = 0; i < links.length; i++) {
+                Socket s = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort());
+                ins[i] = server.accept();
+                ins[i].setSoTimeout(30000);
+                links[i] = DataLink.start(link, s, s.getOutputStream(), i, i % 2 == 0);
+            }
+        }
+        try {
+            int[] expected = new int[links.length];
+            for (int seq = 0; seq < perDest; seq++) {
+                for (int destHash : destHashes) {
+                    assertThat(DataLink.sendPacket(links, newPacket(ProtocolGlobals.G_MESSAGE_DATA, seq, destHash), false, false)).isTrue();
+                    expected[DataLink.indexFor(newPacket(ProtocolGlobals.G_MESSAGE_DATA, seq, destHash), links.length)]++;
+                }
+                assertThat(DataLink.sendPacket(links, newPacket(ProtocolGlobals.G_MESSAGE_ACK, seq), false, false)).isFalse();
+            }
+            assertThat(DataLink.sendPacket(null, newPacket(ProtocolGlobals.G_MESSAGE_DATA, 0, destHashes[0]), false, false)).isFalse();
+            assertThat(DataLink.sendPacket(links, newPacket(ProtocolGlobals.G_MESSAGE_DATA, 0, destHashes[0]), false, true)).isFalse();
+            assertThat(DataLink.sendPacket(links, newPacket(ProtocolGlobals.G_MESSAGE_DATA, 0, destHashes[0]), true, false)).isFalse();
+
+            Map<Integer, Integer> nextSeq = new HashMap<>();
+            for (int i = 0; i < links.length; i++) {
+                InputStream is = ins[i].getInputStream();
+                int received = 0;
+                while (received < expected[i]) {
+                    GPacket gp = GPacket.getInstance();
+                    gp.read(is);
+                    GPacket[] gps = gp.getType() == ProtocolGlobals.G_BATCH ? GPacketBatch.unpack(gp) : new GPacket[] { gp };
+                    for (GPacket p : gps) {
+                        assertThat(p.getType()).isEqualTo(ProtocolGlobals.G_MESSAGE_DATA);
+                        assertThat(DataLink.indexFor(p, links.length)).isEqualTo(i);
+                        Integer destHash = (Integer) p.getProp(ClusterMessageInfo.PROP_DEST_HASH);
+                        int seq = nextSeq.getOrDefault(destHash, 0);
+                        assertThat(p.getProp(GPackets.PROP_SEQ)).as("destination " + destHash).isEqualTo(Integer.valueOf(seq));
+                        nextSeq.put(destHash, seq + 1);
+                        received++;
+                    }
+                }
+                assertThat(received).isEqualTo(expected[i]);
+            }
+            for (int destHash : destHashes) {
+                assertThat(nextSeq.get(destHash)).isEqualTo(perDest);
+            }
+        } finally {
+            for (int i = 0; i < links.length; i++) {
+                links[i].close();
+                ins[i].close();
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.multibroker.fullyconnected;
+
+import static com.sun.messaging.jmq.jmsserver.multibroker.fullyconnected.GPackets.newPacket;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.messaging.jmq.io.GPacket;
+import com.sun.messaging.jmq.jmsserver.multibroker.raptor.ProtocolGlobals;
+
+class GPacketBatchTest {
+
+    @Test
+    void testUnpackShouldReturnPackedPacketsInOrder() throws Exception {
+        List<GPacket> gps = new ArrayList<>();
+        int size = 0;
+        for (int i = 0; i < 5; i++) {
+            GPacket gp = newPacket(i % 2 == 0 ? ProtocolGlobals.G_MESSAGE_DATA : ProtocolGlobals.G_MESSAGE_ACK, i);
+            gps.add(gp);
+            size += gp.getSize();
+        }
+        GPacket batch = GPacketBatch.pack(gps, size);
+
+        // as sent over a broker link
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        batch.write(bos);
+        GPacket received = GPacket.getInstance();
+        received.read(new ByteArrayInputStream(bos.toByteArray()));
+
+        assertThat(received.getType()).isEqualTo(ProtocolGlobals.G_BATCH);
+        GPacket[] unpacked = GPacketBatch.unpack(received);
+        assertThat(unpacked).hasSize(5);
+        for (int i = 0; i < 5; i++) {
+            assertThat(unpacked[i].getType()).isEqualTo(gps.get(i).getType());
+            assertThat(unpacked[i].getProp(GPackets.PROP_SEQ)).isEqualTo(Integer.valueOf(i));
+            assertThat(unpacked[i].getPayload()).isEqualTo(gps.get(i).getPayload());
+        }
+    }
+
+    @Test
+    void testOnlyMessageDataAndAckPacketsShouldBeBatchable() {
+        assertThat(GPacketBatch.isBatchable(newPacket(ProtocolGlobals.G_MESSAGE_DATA, 0))).isTrue();
+        assertThat(GPacketBatch.isBatchable(newPacket(ProtocolGlobals.G_MESSAGE_ACK_REPLY, 0))).isTrue();
+        assertThat(GPacketBatch.isBatchable(newPacket(ProtocolGlobals.G_PING, 0))).isFalse();
+        assertThat(GPacketBatch.isBatchable(newPacket(ProtocolGlobals.G_FIRST_INFO, 0))).isFalse();
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.multibroker.fullyconnected;
+
+import java.nio.ByteBuffer;
+
+import com.sun.messaging.jmq.io.GPacket;
+import com.sun.messaging.jmq.jmsserver.multibroker.raptor.ClusterMessageInfo;
+
+/**
+ * Packets for the cluster transport tests.
+ */
+final class GPackets {
+
+    static final String PROP_SEQ = "I";
+
+    private GPackets() {
+    }
+
+    static GPacket newPacket(short type, int seq) {
+        return newPacket(type, seq, null);
+    }
+
+    /**
+     * @return a packet with sequence number <code>seq</code> in prop "I", a small payload, and the destination hash if not
+     * null
+     */
+    static GPacket newPacket(short type, int seq, Integer destHash) {
+        GPacket gp = GPacket.getInstance();
+        gp.setType(type);
+        gp.putProp(PROP_SEQ, Integer.valueOf(seq));
+        if (destHash != null) {
+            gp.putProp(ClusterMessageInfo.PROP_DEST_HASH, destHash);
+        }
+        gp.setPayload(ByteBuffer.wrap(new byte[] { (byte) seq, (byte) (seq + 1), (byte) (seq + 2) }));
+        return gp;
+    }
+}
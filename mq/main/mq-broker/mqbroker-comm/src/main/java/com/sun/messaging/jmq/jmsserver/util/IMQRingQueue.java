@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.util;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import com.sun.messaging.jmq.jmsservice.HandOffQueue;
+
+/**
+ * A bounded HandOffQueue on an array ring which needs no lock to add or remove an element, for the queues between a
+ * direct mode client and the broker. Any number of threads can put and take elements. Each slot of the ring has a
+ * sequence number which tells whether the slot is free for the producer or filled for the consumer of a position, so a
+ * producer and a consumer only compete for the slot when the queue is full or empty.
+ *
+ * A thread which finds the queue full in put() or empty in take() first spins for a while, as the other side is
+ * usually about to come along on a multi-core machine, and then parks until it is woken.
+ */
+public class IMQRingQueue<E> implements HandOffQueue<E> {
+
+    // spin before parking only if another core can make progress meanwhile
+    private static final int DEFAULT_SPINS = (Runtime.getRuntime().availableProcessors() > 1 ? 128 : 0);
+
+    private final int mask;
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong putIndex = new AtomicLong();
+    private final AtomicLong takeIndex = new AtomicLong();
+    private final int spins;
+
+    // threads parked in take() and put()
+    private final ConcurrentLinkedQueue<Thread> takers = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Thread> putters = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param capacity the maximum number of elements in the queue, rounded up to a power of 2
+     */
+    public IMQRingQueue(int capacity) {
+        this(capacity, DEFAULT_SPINS);
+    }
+
+    /**
+     * @param capacity the maximum number of elements in the queue, rounded up to a power of 2
+     * @param spins how many times to retry a full or empty queue before parking
+     */
+    public IMQRingQueue(int capacity, int spins) {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Bad capacity " + capacity);
+        }
+        int size = (capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1);
+        mask = size - 1;
+        elements = new Object[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.spins = Math.max(0, spins);
+    }
+
+    public int capacity() {
+        return elements.length;
+    }
+
+    public int size() {
+        long size = putIndex.get() - takeIndex.get();
+        return (int) Math.max(0L, Math.min(size, elements.length));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Add e to the queue if it is not full.
+     *
+     * @return false if the queue is full
+     */
+    public boolean offer(E e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+        long pos = putIndex.get();
+        for (;;) {
+            int slot = (int) pos & mask;
+            long dif = sequences.get(slot) - pos;
+            if (dif == 0) {
+                if (putIndex.compareAndSet(pos, pos + 1)) {
+                    elements[slot] = e;
+                    // publishes the element to the consumer of this position
+                    sequences.set(slot, pos + 1);
+                    wakeOne(takers);
+                    return true;
+                }
+                pos = putIndex.get();
+            } else if (dif < 0) {
+                // the slot still holds the element of the previous round
+                return false;
+            } else {
+                pos = putIndex.get();
+            }
+        }
+    }
+
+    /**
+     * Remove the head of the queue if there is one.
+     *
+     * @return the head of the queue, or null if it is empty
+     */
+    public E poll() {
+        E e = dequeue();
+        if (e != null) {
+            wakeOne(putters);
+        }
+        return e;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E dequeue() {
+        long pos = takeIndex.get();
+        for (;;) {
+            int slot = (int) pos & mask;
+            long dif = sequences.get(slot) - (pos + 1);
+            if (dif == 0) {
+                if (takeIndex.compareAndSet(pos, pos + 1)) {
+                    E e = (E) elements[slot];
+                    elements[slot] = null;
+                    // frees the slot for the producer of the next round
+                    sequences.set(slot, pos + mask + 1);
+                    return e;
+                }
+                pos = takeIndex.get();
+            } else if (dif < 0) {
+                // nothing was put at this position yet
+                return null;
+            } else {
+                pos = takeIndex.get();
+            }
+        }
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        if (offer(e)) {
+            return;
+        }
+        Thread current = Thread.currentThread();
+        int spun = 0;
+        for (;;) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (spun < spins) {
+                spun++;
+                Thread.onSpinWait();
+            } else {
+                putters.add(current);
+                if (offer(e)) {
+                    putters.remove(current);
+                    return;
+                }
+                LockSupport.park(this);
+                putters.remove(current);
+            }
+            if (offer(e)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        E e = poll();
+        if (e != null) {
+            return e;
+        }
+        Thread current = Thread.currentThread();
+        int spun = 0;
+        for (;;) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (spun < spins) {
+                spun++;
+                Thread.onSpinWait();
+            } else {
+                takers.add(current);
+                e = poll();
+                if (e != null) {
+                    takers.remove(current);
+                    passOnWakeup();
+                    return e;
+                }
+                LockSupport.park(this);
+                takers.remove(current);
+            }
+            e = poll();
+            if (e != null) {
+                passOnWakeup();
+                return e;
+            }
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        int n = 0;
+        while (n < maxElements) {
+            E e = dequeue();
+            if (e == null) {
+                break;
+            }
+            c.add(e);
+            n++;
+        }
+        if (n > 0) {
+            wakeAll(putters);
+        }
+        return n;
+    }
+
+    // a taker may have taken the wakeup of an element meant for another one
+    private void passOnWakeup() {
+        if (!takers.isEmpty() && !isEmpty()) {
+            wakeOne(takers);
+        }
+    }
+
+    private static void wakeOne(ConcurrentLinkedQueue<Thread> waiters) {
+        if (!waiters.isEmpty()) {
+            Thread t = waiters.poll();
+            if (t != null) {
+                LockSupport.unpark(t);
+            }
+        }
+    }
+
+    private static void wakeAll(ConcurrentLinkedQueue<Thread> waiters) {
+        Thread t;
+        while ((t = waiters.poll()) != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "IMQRingQueue[size=" + size() + ", capacity=" + capacity() + "]";
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+class IMQRingQueueTest {
+
+    @Test
+    void shouldRoundCapacityUpToPowerOfTwo() {
+        assertThat(new IMQRingQueue<String>(5).capacity()).isEqualTo(8);
+        assertThat(new IMQRingQueue<String>(8).capacity()).isEqualTo(8);
+        assertThat(new IMQRingQueue<String>(1).capacity()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectOfferWhenFullAndDrainInOrder() {
+        IMQRingQueue<Integer> q = new IMQRingQueue<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(q.offer(i)).isTrue();
+        }
+        assertThat(q.offer(4)).isFalse();
+        assertThat(q.poll()).isEqualTo(0);
+        assertThat(q.offer(4)).isTrue();
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(q.drainTo(drained, 3)).isEqualTo(3);
+        assertThat(drained).containsExactly(1, 2, 3);
+        assertThat(q.drainTo(drained, 10)).isEqualTo(1);
+        assertThat(drained).containsExactly(1, 2, 3, 4);
+        assertThat(q.poll()).isNull();
+        assertThat(q.isEmpty()).isTrue();
+    }
+
+    @Test
+    @Timeout(value = 60, unit = TimeUnit.SECONDS)
+    void shouldHandOffAllElementsOfConcurrentProducersInProducerOrder() throws Exception {
+        int producers = 4;
+        int count = 50000;
+        IMQRingQueue<int[]> q = new IMQRingQueue<>(16);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int id = p;
+            Thread t = new Thread(() -> {
+                try {
+                    for (int i = 0; i < count; i++) {
+                        q.put(new int[] {id, i});
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads.add(t);
+            t.start();
+        }
+
+        int[] next = new int[producers];
+        List<int[]> batch = new ArrayList<>();
+        int received = 0;
+        while (received < producers * count) {
+            batch.clear();
+            batch.add(q.take());
+            q.drainTo(batch, 31);
+            for (int[] e : batch) {
+                assertThat(e[1]).isEqualTo(next[e[0]]);
+                next[e[0]]++;
+            }
+            received += batch.size();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertThat(next).containsOnly(count);
+        assertThat(q.poll()).isNull();
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void takeShouldThrowWhenInterrupted() throws Exception {
+        IMQRingQueue<String> q = new IMQRingQueue<>(4);
+        Thread.currentThread().interrupt();
+
+        assertThatThrownBy(q::take).isInstanceOf(InterruptedException.class);
+        assertThat(Thread.currentThread().isInterrupted()).isFalse();
+    }
+}
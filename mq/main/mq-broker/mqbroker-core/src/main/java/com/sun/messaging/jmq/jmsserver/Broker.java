@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2020 Contributors to Eclipse Foundation. All rights reserved.
+ * Copyright (c) 2020, 2026 Contributors to Eclipse Foundation. All rights reserved.
  * Copyright (c) 2020 Payara Services Ltd.
  *
  * This program and the accompanying materials are made available under the
@@ -1085,6 +1085,11 @@ public class Broker implements GlobalErrorHandler, CommBroker {
              */
             SelectorConfig.setShortCircuitCompileTimeTest(conf.getBooleanProperty(Globals.IMQ + ".selector.shortCircuitCompileTimeTest", true));
 
+            /*
+             * Number of evaluations after which a selector is compiled into a predicate tree. A negative value disables this.
+             */
+            SelectorConfig.setCompileThreshold(conf.getIntProperty(Globals.IMQ + ".selector.compileThreshold", SelectorConfig.getCompileThreshold()));
+
             // create the handlers - these handle the message processing
             PacketRouter pktrtr = new PacketRouter();
 
@@ -1281,6 +1286,9 @@ public class Broker implements GlobalErrorHandler, CommBroker {
                     + pm.getPort() };
             logger.logToAll(Logger.INFO, rb.I_BROKER_READY, sargs);
 
+            // load the stored messages in the background, the services already load them on demand
+            DestinationPreloader.start();
+
             // Load MQ Mbeans in JMX agent
             Agent agent = Globals.getAgent();
             if (agent != null) {
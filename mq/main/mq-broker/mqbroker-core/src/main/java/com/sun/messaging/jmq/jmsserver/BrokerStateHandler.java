@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ * Copyright (c) 2020, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -27,6 +27,7 @@ import com.sun.messaging.jmq.io.MQAddress;
 import com.sun.messaging.jmq.util.GoodbyeReason;
 import com.sun.messaging.jmq.util.admin.MessageType;
 import com.sun.messaging.jmq.jmsserver.core.BrokerAddress;
+import com.sun.messaging.jmq.jmsserver.core.DestinationPreloader;
 import com.sun.messaging.jmq.jmsserver.common.handlers.InfoRequestHandler;
 import com.sun.messaging.jmq.jmsserver.util.BrokerException;
 import com.sun.messaging.jmq.jmsserver.util.OperationNotAllowedException;
@@ -387,6 +388,9 @@ public class BrokerStateHandler {
             Globals.getMemManager().stopManagement();
         }
 
+        // stop loading stored messages in the background
+        DestinationPreloader.shutdown();
+
         // First stop creating new destinations
         if (excludedBroker == null) {
             Globals.getDestinationList().shutdown();
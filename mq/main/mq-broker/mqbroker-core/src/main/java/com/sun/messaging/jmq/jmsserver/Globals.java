@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -24,6 +24,9 @@ import java.util.HashMap;
 import java.util.Locale;
 import java.util.Properties;
 import java.net.InetAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import com.sun.messaging.jmq.jmsserver.data.PacketRouter;
 import com.sun.messaging.jmq.jmsserver.service.ConnectionManager;
 import com.sun.messaging.jmq.jmsservice.BrokerEvent;
@@ -45,6 +48,7 @@ import com.sun.messaging.jmq.jmsserver.service.MetricManager;
 import com.sun.messaging.jmq.jmsserver.memory.MemoryManager;
 import com.sun.messaging.jmq.util.log.Logger;
 import com.sun.messaging.jmq.util.timer.MQTimer;
+import com.sun.messaging.jmq.util.timer.TimingWheel;
 import com.sun.messaging.jmq.Version;
 import com.sun.messaging.jmq.io.MQAddress;
 import com.sun.messaging.jmq.io.Status;
@@ -100,6 +104,10 @@ public final class Globals extends CommGlobals {
 
     private static volatile MQTimer timer = null;
 
+    private static volatile TimingWheel timingWheel = null;
+
+    private static volatile ExecutorService timingWheelExecutor = null;
+
     private static volatile Boolean HAEnabled = null;
     private static volatile Boolean useSharedConfigRecord = null;
 
@@ -167,6 +175,14 @@ public final class Globals extends CommGlobals {
         heartbeatService = null;
         metricManager = null;
         timer = null;
+        if (timingWheel != null) {
+            timingWheel.stop();
+            timingWheel = null;
+        }
+        if (timingWheelExecutor != null) {
+            timingWheelExecutor.shutdownNow();
+            timingWheelExecutor = null;
+        }
         HAEnabled = null;
         useSharedConfigRecord = null;
         clusterID = null;
@@ -329,6 +345,40 @@ public final class Globals extends CommGlobals {
         return timer;
     }
 
+    /**
+     * The broker wide timing wheel used for message expiration and delivery times
+     */
+    public static TimingWheel getTimingWheel() {
+        if (timingWheel == null) {
+            synchronized (lock) {
+                if (timingWheel == null) {
+                    timingWheel = new TimingWheel("MQTimingWheel-Thread", getConfig().getLongProperty(IMQ + ".timingwheel.tickInterval", 10L), getLogger());
+                }
+            }
+        }
+        return timingWheel;
+    }
+
+    /**
+     * The threads that run the timing wheel handlers which do store or delivery work, see TimingWheel.onExecutor()
+     */
+    public static ExecutorService getTimingWheelExecutor() {
+        if (timingWheelExecutor == null) {
+            synchronized (lock) {
+                if (timingWheelExecutor == null) {
+                    int n = Math.max(1, getConfig().getIntProperty(IMQ + ".timingwheel.handlerThreads", 4));
+                    AtomicInteger seq = new AtomicInteger();
+                    timingWheelExecutor = Executors.newFixedThreadPool(n, r -> {
+                        Thread t = new Thread(r, "MQTimingWheel-Handler-" + seq.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+                }
+            }
+        }
+        return timingWheelExecutor;
+    }
+
     public static MBeanResources getMBeanResources() {
         if (mbr == null) {
             synchronized (lock) {
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2020, 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2020, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -179,6 +179,16 @@ public interface ClusterBroadcast {
 
     Hashtable getAllDebugState();
 
+    /**
+     * @return for each thread that dispatches to remote consumers, the number of busy consumers waiting for it
+     */
+    int[] getConsumerDispatchQueueDepths();
+
+    /**
+     * @return for each thread that dispatches to remote consumers, the number of messages it has dispatched
+     */
+    long[] getConsumerDispatchCounts();
+
     /**
      * Ensures that the given "prefix" number is unique in the cluster. This method is used to ensure the uniqueness of the
      * UIDs generated by a broker.
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2020, 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2020, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -316,6 +316,16 @@ public class NoCluster implements ClusterBroadcast {
         return new Hashtable();
     }
 
+    @Override
+    public int[] getConsumerDispatchQueueDepths() {
+        return new int[0];
+    }
+
+    @Override
+    public long[] getConsumerDispatchCounts() {
+        return new long[0];
+    }
+
     @Override
     public boolean lockUIDPrefix(short p) {
         return true;
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -78,14 +78,14 @@ public class RemoteConsumer extends Consumer {
 
                 if (selector.usesProperties()) {
                     try {
-                        props = msg.getProperties();
+                        props = msg.getSelectorProperties();
                     } catch (ClassNotFoundException ex) {
                         logger.logStack(Logger.ERROR, "INTERNAL ERROR", ex);
                         props = new HashMap();
                     }
                 }
                 if (selector.usesFields()) {
-                    headers = msg.getHeaders();
+                    headers = msg.getSelectorHeaders();
                 }
                 if (selector.match(props, headers)) {
                     match = true;
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ * Copyright (c) 2020, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -426,6 +426,11 @@ public class HelloHandler extends PacketHandler {
         hash.put("JMQConnectionID", Long.valueOf(con.getConnectionUID().longValue()));
         hash.put("JMQProtocolLevel", Integer.valueOf(supportedProtocol));
         hash.put("JMQVersion", Globals.getVersion().getProductVersion());
+        // compression codecs other than deflate that clients may use
+        String codecs = Globals.getConfig().getProperty(Globals.IMQ + ".message.compression.codecs", "lz");
+        if (codecs != null && !codecs.isBlank()) {
+            hash.put("JMQCompressionCodecs", codecs);
+        }
         if (((IMQBasicConnection) con).getDumpPacket() || ((IMQBasicConnection) con).getDumpOutPacket()) {
             hash.put("JMQReqID", msg.getSysMessageID().toString());
         }
@@ -1,7 +1,7 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
  * Copyright (c) 2020 Payara Services Ltd.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -63,6 +63,8 @@ import com.sun.messaging.jmq.jmsserver.management.agent.Agent;
 import com.sun.messaging.jmq.util.lists.*;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Predicate;
 import java.io.*;
 
@@ -805,123 +807,155 @@ public abstract class Destination implements DestinationSpi, Serializable, com.s
 
     transient MsgExpirationReaper expireReaper = new MsgExpirationReaper();
 
-    class MsgExpirationReaper {
-        SortedSet messages = null;
-        TimerTask mytimer = null;
+    /**
+     * Removes the expired messages of this destination. Expiration times are rounded up to a multiple of
+     * DL.MESSAGE_EXPIRE, so the messages of a destination that expire in the same interval are reaped in one batch. The
+     * batches are removed from the store on the timing wheel handler threads, not on the wheel thread.
+     */
+    class MsgExpirationReaper implements TimingWheel.Handler<ExpirationInfo> {
+        Map<ExpirationInfo, TimingWheel.Timeout> messages = new ConcurrentHashMap<>();
+        private volatile TimingWheel.Handler<ExpirationInfo> handler = null;
+        private volatile boolean destroyed = false;
 
         MsgExpirationReaper() {
-            messages = new TreeSet(ExpirationInfo.getComparator());
         }
 
-        public synchronized void addExpiringMessage(ExpirationInfo ei) {
-            messages.add(ei);
-            if (mytimer == null) {
-                addTimer();
+        public void addExpiringMessage(ExpirationInfo ei) {
+            long time = ei.getExpireTime();
+            if (FI.FAULT_INJECTION) {
+                if (FI.checkFault(FI.FAULT_MSG_EXPIRE_REAPER_EXPIRE1, null)) {
+                    FI.unsetFault(FI.FAULT_MSG_EXPIRE_REAPER_EXPIRE1);
+                    time = System.currentTimeMillis();
+                }
             }
+            schedule(ei, getReapTime(time));
         }
 
-        public synchronized void removeMessage(ExpirationInfo ei) {
-            boolean rem = messages.remove(ei);
-            // assert rem;
-            if (rem && messages.isEmpty()) {
-                removeTimer();
+        public void removeMessage(ExpirationInfo ei) {
+            TimingWheel.Timeout t = messages.remove(ei);
+            if (t != null) {
+                t.cancel();
             }
         }
 
-        public synchronized void destroy() {
-            if (mytimer != null) {
-                removeTimer();
+        public void destroy() {
+            destroyed = true;
+            Iterator<TimingWheel.Timeout> itr = messages.values().iterator();
+            while (itr.hasNext()) {
+                itr.next().cancel();
             }
             messages.clear();
         }
 
-        void addTimer() {
-            assert Thread.holdsLock(this);
-            assert mytimer == null;
-            mytimer = new MyExpireTimerTask();
-            try {
-                timer.schedule(mytimer, DL.MESSAGE_EXPIRE, DL.MESSAGE_EXPIRE);
-            } catch (IllegalStateException ex) {
-                logger.log(Logger.INFO, BrokerResources.E_INTERNAL_BROKER_ERROR, "Canceling message expiration on " + this, ex);
+        private long getReapTime(long time) {
+            long interval = DL.MESSAGE_EXPIRE;
+            if (interval <= 0L || time >= Long.MAX_VALUE - interval) {
+                return time;
+            }
+            return ((time + interval - 1) / interval) * interval;
+        }
+
+        private void schedule(ExpirationInfo ei, long time) {
+            TimingWheel.Timeout t = newTimeout(ei, time);
+            if (t == null) {
+                return;
+            }
+            TimingWheel.Timeout old = messages.put(ei, t);
+            if (old != null) {
+                old.cancel();
             }
         }
 
-        void removeTimer() {
-            assert Thread.holdsLock(this);
+        /**
+         * Schedule a message again after its timeout expired, unless it has been removed in the meantime
+         */
+        private void reschedule(ExpirationInfo ei, TimingWheel.Timeout expired, long time) {
+            TimingWheel.Timeout t = newTimeout(ei, time);
+            if (t != null && !messages.replace(ei, expired, t)) {
+                t.cancel();
+            }
+        }
+
+        private TimingWheel.Timeout newTimeout(ExpirationInfo ei, long time) {
+            if (destroyed) {
+                return null;
+            }
             try {
-                if (mytimer != null) {
-                    mytimer.cancel();
-                }
+                return Globals.getTimingWheel().schedule(getHandler(), ei, time);
             } catch (IllegalStateException ex) {
-                logger.logStack(Logger.DEBUG, "timer canceled ", ex);
+                logger.log(Logger.INFO, BrokerResources.E_INTERNAL_BROKER_ERROR, "Canceling message expiration on " + this, ex);
+                return null;
             }
-            mytimer = null;
         }
 
-        class MyExpireTimerTask extends TimerTask {
-            @Override
-            public void run() {
-                long currentTime = System.currentTimeMillis();
-                int removedCount = 0;
-                int indeliveryCount = 0;
-
-                LinkedHashSet removed = new LinkedHashSet();
-                DestinationUID duid = Destination.this.uid;
-                synchronized (MsgExpirationReaper.this) {
-                    Iterator itr = messages.iterator();
-                    while (itr.hasNext()) {
-                        ExpirationInfo ei = (ExpirationInfo) itr.next();
-                        if (ei.getExpireTime() > currentTime) {
-                            if (FI.FAULT_INJECTION) {
-                                if (FI.checkFault(FI.FAULT_MSG_EXPIRE_REAPER_EXPIRE1, null)) {
-                                    FI.unsetFault(FI.FAULT_MSG_EXPIRE_REAPER_EXPIRE1);
-                                    removed.add(ei);
-                                    continue;
-                                }
-                            }
-                            break;
-                        }
-                        removed.add(ei);
+        private TimingWheel.Handler<ExpirationInfo> getHandler() {
+            if (handler == null) {
+                synchronized (this) {
+                    if (handler == null) {
+                        handler = Globals.getTimingWheel().onExecutor(this, Globals.getTimingWheelExecutor());
                     }
                 }
+            }
+            return handler;
+        }
 
-                // we don't want to do this inside the loop because
-                // removeExpiredMessage can generate a callback which
-                // can generate a deadlock .. bummer
-                Iterator itr = removed.iterator();
-                while (itr.hasNext()) {
-                    ExpirationInfo ei = (ExpirationInfo) itr.next();
-                    try {
-                        ei.incrementReapCount();
-                        RemoveMessageReturnInfo ret = removeExpiredMessage(duid, ei.id);
-                        if (ret.removed) {
-                            removeMessage(ei);
-                            removedCount++;
-                        } else if (ret.indelivery) {
-                            indeliveryCount++;
-                        } else if (ei.getReapCount() > 1) {
-                            removeMessage(ei);
-                            removedCount++;
-                        }
-                    } catch (Exception ex) {
-                        logger.logStack(Logger.WARNING, ex.getMessage(), ex);
-                    }
+        @Override
+        public String toString() {
+            return "MsgExpirationReaper[" + Destination.this.uid + "]";
+        }
 
+        @Override
+        public void timeoutsExpired(List<ExpirationInfo> expired) {
+            if (destroyed) {
+                return;
+            }
+            int removedCount = 0;
+            int indeliveryCount = 0;
+            DestinationUID duid = Destination.this.uid;
+
+            for (ExpirationInfo ei : expired) {
+                TimingWheel.Timeout t = messages.get(ei);
+                if (t == null || !t.isExpired()) {
+                    // removed or rescheduled while the timeout was firing
+                    continue;
                 }
-                if (removedCount > 0) {
-                    logger.log(Logger.INFO, BrokerResources.I_REMOVE_DSTEXP_MSGS, String.valueOf(removedCount), duid.getLocalizedName());
-                }
-                if (indeliveryCount > 0) {
-                    logger.log(Logger.INFO, BrokerResources.I_NUM_MSGS_INDELIVERY_NOT_EXPIRED_FROM_DEST, String.valueOf(indeliveryCount),
-                            duid.getLocalizedName());
+                try {
+                    ei.incrementReapCount();
+                    RemoveMessageReturnInfo ret = removeExpiredMessage(duid, ei.id);
+                    if (ret.removed) {
+                        messages.remove(ei, t);
+                        removedCount++;
+                    } else if (ret.indelivery) {
+                        reschedule(ei, t, System.currentTimeMillis() + DL.MESSAGE_EXPIRE);
+                        indeliveryCount++;
+                    } else if (ei.getReapCount() > 1) {
+                        messages.remove(ei, t);
+                        removedCount++;
+                    } else {
+                        reschedule(ei, t, System.currentTimeMillis() + DL.MESSAGE_EXPIRE);
+                    }
+                } catch (Exception ex) {
+                    logger.logStack(Logger.WARNING, ex.getMessage(), ex);
+                    reschedule(ei, t, System.currentTimeMillis() + DL.MESSAGE_EXPIRE);
                 }
-                removed.clear();
+            }
+            if (removedCount > 0) {
+                logger.log(Logger.INFO, BrokerResources.I_REMOVE_DSTEXP_MSGS, String.valueOf(removedCount), duid.getLocalizedName());
+            }
+            if (indeliveryCount > 0) {
+                logger.log(Logger.INFO, BrokerResources.I_NUM_MSGS_INDELIVERY_NOT_EXPIRED_FROM_DEST, String.valueOf(indeliveryCount),
+                        duid.getLocalizedName());
             }
         }
     }
 
     protected transient DestMetricsCounters dmc = new DestMetricsCounters();
 
+    private transient MessageLatency latency = new MessageLatency();
+
+    private transient LongAdder bodyCacheHits = new LongAdder();
+    private transient LongAdder bodyCacheMisses = new LongAdder();
+
     protected transient MessageDeliveryTimeTimer deliveryTimeTimer = null;
 
     protected synchronized void initialize() {
@@ -1001,6 +1035,9 @@ public abstract class Destination implements DestinationSpi, Serializable, com.s
             producers.setCapacity(maxProducerLimit);
         }
         dmc = new DestMetricsCounters();
+        latency = new MessageLatency();
+        bodyCacheHits = new LongAdder();
+        bodyCacheMisses = new LongAdder();
         stored = true;
         setMaxPrefetch(maxPrefetch);
         logsuffix = "";
@@ -1353,9 +1390,41 @@ public abstract class Destination implements DestinationSpi, Serializable, com.s
             lastMsgBytesOut = 0;
             destMessages.reset();
             consumers.reset();
+            latency.reset();
+            bodyCacheHits.reset();
+            bodyCacheMisses.reset();
         }
     }
 
+    /**
+     * @return the latency histograms of the messages of this destination
+     */
+    public MessageLatency getMessageLatency() {
+        return latency;
+    }
+
+    void countBodyCacheHit() {
+        bodyCacheHits.increment();
+    }
+
+    void countBodyCacheMiss() {
+        bodyCacheMisses.increment();
+    }
+
+    /**
+     * @return the number of times the packet of a stored message was found in memory
+     */
+    public long getBodyCacheHits() {
+        return bodyCacheHits.sum();
+    }
+
+    /**
+     * @return the number of times the packet of a stored message had to be read back from the store
+     */
+    public long getBodyCacheMisses() {
+        return bodyCacheMisses.sum();
+    }
+
     public DestMetricsCounters getMetrics() {
         synchronized (dmc) {
 
@@ -1428,7 +1497,8 @@ public abstract class Destination implements DestinationSpi, Serializable, com.s
             if (isStored()) {
 
                 try {
-                    if (Globals.getStore().getStoreType().equals(Store.FILE_STORE_TYPE)) {
+                    String storeType = Globals.getStore().getStoreType();
+                    if (storeType.equals(Store.FILE_STORE_TYPE) || storeType.equals(Store.JOURNAL_STORE_TYPE)) {
 
                         HashMap map = ((DiskFileStore) pstore).getStorageInfo(this);
                         Object obj = null;
@@ -1453,6 +1523,7 @@ public abstract class Destination implements DestinationSpi, Serializable, com.s
             dmc.setDiscardedMsgCnt(discardedCnt);
             dmc.setRejectedMsgCnt(overflowCnt + errorCnt);
             dmc.setRollbackMsgCnt(rollbackCnt);
+            latency.copyTo(dmc);
 
             lastMetricsTime = currentTime;
             lastMsgsIn = msgsIn;
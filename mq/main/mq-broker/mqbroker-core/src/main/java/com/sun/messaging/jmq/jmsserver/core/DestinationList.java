@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2020 Contributors to Eclipse Foundation
+ * Copyright (c) 2020, 2026 Contributors to Eclipse Foundation
  * Copyright (c) 2020 Payara Services Ltd.
  *
  * This program and the accompanying materials are made available under the
@@ -560,6 +560,7 @@ public final class DestinationList implements ConnToPartitionStrategyContext {
         ht.put("autoCreateTopics", String.valueOf(ALLOW_TOPIC_AUTOCREATE));
         ht.put("autoCreateQueue", String.valueOf(ALLOW_QUEUE_AUTOCREATE));
         ht.put("messageExpiration", String.valueOf(MESSAGE_EXPIRE));
+        ht.put("timingWheel", Globals.getTimingWheel().toString());
         ht.put("producerBatch", String.valueOf(MAX_PRODUCER_BATCH));
         ht.put("QueueSpecific", Queue.getAllDebugState());
 
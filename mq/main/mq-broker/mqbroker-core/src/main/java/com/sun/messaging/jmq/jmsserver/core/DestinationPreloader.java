@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.messaging.jmq.jmsserver.BrokerStateHandler;
+import com.sun.messaging.jmq.jmsserver.Globals;
+import com.sun.messaging.jmq.util.log.Logger;
+
+/**
+ * Loads the stored messages of the destinations in the background once the broker services are up, several
+ * destinations at a time. Destinations with consumers are loaded first, then the smaller ones, so that as many
+ * destinations as possible are ready early.
+ *
+ * A destination which is used before its turn comes is still loaded on demand by the thread which uses it:
+ * Destination.load() is synchronized and returns at once for a destination which is already loaded, so the preload
+ * and the on demand load of a destination never both read its messages.
+ */
+public final class DestinationPreloader {
+
+    /**
+     * Whether the stored messages are loaded in the background after startup rather than only on demand
+     */
+    public static final boolean ENABLED = Globals.getConfig().getBooleanProperty(Globals.IMQ + ".destination.preload.enabled", false);
+
+    /**
+     * The number of destinations loaded at the same time
+     */
+    static final int THREADS = Math.max(1,
+            Globals.getConfig().getIntProperty(Globals.IMQ + ".destination.preload.threads", Runtime.getRuntime().availableProcessors()));
+
+    public static final String STATE_ON_DEMAND = "ON_DEMAND";
+    public static final String STATE_PENDING = "PENDING";
+    public static final String STATE_LOADING = "LOADING";
+    public static final String STATE_LOADED = "LOADED";
+
+    // how long broker shutdown waits for the destinations being loaded
+    private static final long SHUTDOWN_WAIT_SECONDS = 30;
+
+    private static final Logger logger = Globals.getLogger();
+
+    private static volatile String state = (ENABLED ? STATE_PENDING : STATE_ON_DEMAND);
+    private static final AtomicInteger dstsToLoad = new AtomicInteger();
+    private static final AtomicInteger dstsLoaded = new AtomicInteger();
+    private static final AtomicLong msgsLoaded = new AtomicLong();
+    private static ExecutorService executor = null;
+
+    private DestinationPreloader() {
+    }
+
+    /**
+     * @return ON_DEMAND if the preload is disabled, else PENDING, LOADING or LOADED
+     */
+    public static String getState() {
+        return state;
+    }
+
+    /**
+     * @return the number of destinations the preload started with
+     */
+    public static int getNumDestinationsToLoad() {
+        return dstsToLoad.get();
+    }
+
+    /**
+     * @return the number of destinations the preload has finished with, including the ones loaded on demand meanwhile
+     */
+    public static int getNumDestinationsLoaded() {
+        return dstsLoaded.get();
+    }
+
+    /**
+     * @return the number of messages in the destinations the preload has finished with
+     */
+    public static long getNumMsgsLoaded() {
+        return msgsLoaded.get();
+    }
+
+    /**
+     * Start loading the messages of all destinations which are not loaded yet. Does nothing if the preload is disabled or
+     * has already been started.
+     */
+    public static synchronized void start() {
+        if (!ENABLED || state != STATE_PENDING) {
+            return;
+        }
+        List<Destination> dsts = new ArrayList<>();
+        Iterator[] itrs = DestinationList.getAllDestinations(null);
+        for (int i = 0; i < itrs.length; i++) {
+            Iterator itr = itrs[i];
+            while (itr != null && itr.hasNext()) {
+                Destination d = (Destination) itr.next();
+                if (!d.isLoaded() && !d.isAdmin()) {
+                    dsts.add(d);
+                }
+            }
+        }
+        start(dsts, THREADS);
+    }
+
+    /**
+     * Start loading the messages of the given destinations with the given number of threads, if the preload is still
+     * pending.
+     */
+    static synchronized void start(List<Destination> dsts, int threads) {
+        if (state != STATE_PENDING) {
+            return;
+        }
+        sort(dsts);
+
+        dstsToLoad.set(dsts.size());
+        if (dsts.isEmpty()) {
+            state = STATE_LOADED;
+            return;
+        }
+        state = STATE_LOADING;
+        logger.log(Logger.INFO, "Preloading the stored messages of " + dsts.size() + " destinations with " + threads + " threads");
+
+        long starttime = System.currentTimeMillis();
+        AtomicInteger threadnum = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.min(threads, dsts.size()), r -> {
+            Thread t = new Thread(r, "DestinationPreloader-" + threadnum.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (Destination d : dsts) {
+            executor.execute(() -> {
+                preload(d);
+                if (dstsLoaded.incrementAndGet() == dsts.size()) {
+                    loadComplete(starttime);
+                }
+            });
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Sort destinations into load order: the ones with consumers first, then the smaller ones.
+     */
+    static void sort(List<Destination> dsts) {
+        dsts.sort(Comparator.comparing((Destination d) -> d.getConsumerCount() == 0).thenComparingInt(Destination::size));
+    }
+
+    /**
+     * Stop the preload on broker shutdown. Destinations not started yet are left to be loaded on demand, the ones being
+     * loaded are waited for so that they are done before the store is closed.
+     */
+    public static void shutdown() {
+        ExecutorService ex;
+        synchronized (DestinationPreloader.class) {
+            ex = executor;
+            executor = null;
+        }
+        if (ex == null) {
+            return;
+        }
+        ex.shutdownNow();
+        try {
+            if (!ex.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                logger.log(Logger.WARNING, "Destination preload threads did not stop within " + SHUTDOWN_WAIT_SECONDS + " seconds");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reset the preload to PENDING, for tests.
+     */
+    static synchronized void reset() {
+        state = STATE_PENDING;
+        dstsToLoad.set(0);
+        dstsLoaded.set(0);
+        msgsLoaded.set(0);
+        executor = null;
+    }
+
+    private static void preload(Destination d) {
+        if (BrokerStateHandler.isShuttingDown() || !d.isValid()) {
+            return;
+        }
+        if (d.isLoaded()) {
+            // loaded on demand meanwhile
+            msgsLoaded.addAndGet(d.size());
+            return;
+        }
+        try {
+            d.load(true);
+            msgsLoaded.addAndGet(d.size());
+        } catch (Throwable t) {
+            // the destination is loaded again on demand
+            logger.logStack(Logger.WARNING, "Failed to preload the stored messages of " + d + ": " + t.getMessage(), t);
+        }
+    }
+
+    private static synchronized void loadComplete(long starttime) {
+        state = STATE_LOADED;
+        logger.log(Logger.INFO, "Preloaded " + msgsLoaded.get() + " stored messages of " + dstsLoaded.get() + " destinations in "
+                + (System.currentTimeMillis() - starttime) + " ms");
+    }
+}
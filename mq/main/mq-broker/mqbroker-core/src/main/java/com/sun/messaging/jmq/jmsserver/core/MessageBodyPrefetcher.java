@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.core;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.messaging.jmq.jmsserver.Globals;
+import com.sun.messaging.jmq.util.log.Logger;
+
+/**
+ * Reads back the packets of the messages at the head of a queue after a message body cache miss in that queue, so that
+ * the next deliveries find them in memory. A queue has at most one prefetch pending at a time.
+ */
+final class MessageBodyPrefetcher {
+
+    /**
+     * The number of messages at the head of a queue whose packets are prefetched, 0 disables the prefetch
+     */
+    static final int COUNT = Math.max(0, Globals.getConfig().getIntProperty(Globals.IMQ + ".message.bodyCache.prefetch", 16));
+
+    private static final Set<Queue> scheduled = ConcurrentHashMap.newKeySet();
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "MessageBodyPrefetcher");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private MessageBodyPrefetcher() {
+    }
+
+    static void schedule(Queue q) {
+        if (COUNT == 0 || !scheduled.add(q)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                q.prefetchBodies(COUNT);
+            } catch (RuntimeException e) {
+                // the head of the queue changed under us, the next miss tries again
+                Globals.getLogger().log(Logger.DEBUG, "Failed to prefetch message bodies of " + q + ": " + e);
+            } finally {
+                scheduled.remove(q);
+            }
+        });
+    }
+}
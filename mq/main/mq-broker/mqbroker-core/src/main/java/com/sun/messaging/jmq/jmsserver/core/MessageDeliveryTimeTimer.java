@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -18,41 +18,41 @@
 package com.sun.messaging.jmq.jmsserver.core;
 
 import java.util.Set;
+import java.util.Map;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.TreeSet;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.SortedSet;
 import java.util.Collection;
-import java.util.LinkedHashSet;
+import java.util.concurrent.ConcurrentHashMap;
 import com.sun.messaging.jmq.util.log.Logger;
 import com.sun.messaging.jmq.util.admin.DestinationInfo;
 import com.sun.messaging.jmq.jmsserver.util.lists.RemoveReason;
-import com.sun.messaging.jmq.jmsservice.BrokerEvent;
-import com.sun.messaging.jmq.jmsserver.Broker;
 import com.sun.messaging.jmq.jmsserver.Globals;
 import com.sun.messaging.jmq.jmsserver.resources.BrokerResources;
 import com.sun.messaging.jmq.jmsserver.util.BrokerException;
-import com.sun.messaging.jmq.util.timer.WakeupableTimer;
-import com.sun.messaging.jmq.util.timer.TimerEventHandler;
+import com.sun.messaging.jmq.util.timer.TimingWheel;
 
+/**
+ * Holds the messages of a destination whose delivery time has not arrived yet. Each message has a timeout on the broker
+ * wide timing wheel; the messages whose delivery time arrives at the same time are forwarded in one batch, at most
+ * max prefetch of them at a time, on the timing wheel handler threads.
+ */
 @SuppressWarnings({"ForEachIterable"})
-public class MessageDeliveryTimeTimer implements TimerEventHandler {
+public class MessageDeliveryTimeTimer implements TimingWheel.Handler<MessageDeliveryTimeInfo> {
 
     protected static boolean DEBUG = getDEBUG();
 
     private Logger logger = Globals.getLogger();
     private BrokerResources br = Globals.getBrokerResources();
 
-    private SortedSet<MessageDeliveryTimeInfo> messages = null;
-    private WakeupableTimer mytimer = null;
-    private String startLogString = null;
-    private String exitLogString = null;
+    private Map<MessageDeliveryTimeInfo, TimingWheel.Timeout> messages = new ConcurrentHashMap<>();
+    private volatile TimingWheel.Handler<MessageDeliveryTimeInfo> handler = null;
     private Destination destination = null;
     private DestinationList DL = Globals.getDestinationList();
 
-    private boolean destroyed = false;
+    private volatile boolean destroyed = false;
 
     private static boolean getDEBUG() {
         if (Destination.DEBUG || Globals.getLogger().getLevel() <= Logger.DEBUG) {
@@ -63,10 +63,6 @@ public class MessageDeliveryTimeTimer implements TimerEventHandler {
 
     public MessageDeliveryTimeTimer(Destination d) {
         this.destination = d;
-        this.messages = new TreeSet<>(MessageDeliveryTimeInfo.getComparator());
-
-        this.startLogString = br.getKString(br.I_MSG_DELIVERY_TIME_TIMER_START, d.getDestinationUID());
-        this.exitLogString = br.getKString(br.I_MSG_DELIVERY_TIME_TIMER_EXIT, d.getDestinationUID());
     }
 
     @Override
@@ -78,76 +74,95 @@ public class MessageDeliveryTimeTimer implements TimerEventHandler {
         if (DEBUG) {
             logger.log(logger.INFO, "DeliveryTimeTimer.addMessage(" + di + ")");
         }
-        long dtime = di.getDeliveryTime();
-        boolean notify = di.isDeliveryReady();
-        if (!notify) {
+        if (!di.isDeliveryReady()) {
             di.setDeliveryReadyListener(this);
         }
         di.setOnTimerState();
-        notify = di.isDeliveryReady();
-        synchronized (this) {
-            if (destroyed) {
-                return;
-            }
-            if (notify && messages.size() > 0) {
-                MessageDeliveryTimeInfo first = messages.first();
-                if (dtime > first.getDeliveryTime()) {
-                    notify = false;
+        schedule(di, di.getDeliveryTime());
+    }
+
+    private void schedule(MessageDeliveryTimeInfo di, long time) {
+        TimingWheel.Timeout t = newTimeout(di, time);
+        if (t == null) {
+            return;
+        }
+        TimingWheel.Timeout old = messages.put(di, t);
+        if (old != null) {
+            old.cancel();
+        }
+    }
+
+    /**
+     * Schedule a message again after its timeout expired, unless it has been removed in the meantime
+     */
+    private void reschedule(MessageDeliveryTimeInfo di, TimingWheel.Timeout expired, long time) {
+        TimingWheel.Timeout t = newTimeout(di, time);
+        if (t != null && !messages.replace(di, expired, t)) {
+            t.cancel();
+        }
+    }
+
+    private TimingWheel.Handler<MessageDeliveryTimeInfo> getHandler() {
+        if (handler == null) {
+            synchronized (this) {
+                if (handler == null) {
+                    handler = Globals.getTimingWheel().onExecutor(this, Globals.getTimingWheelExecutor());
                 }
             }
-            messages.add(di);
-            if (mytimer == null) {
-                addTimer();
-            }
-            if (notify) {
-                mytimer.wakeup(dtime);
-            }
+        }
+        return handler;
+    }
+
+    private TimingWheel.Timeout newTimeout(MessageDeliveryTimeInfo di, long time) {
+        if (destroyed) {
+            return null;
+        }
+        try {
+            return Globals.getTimingWheel().schedule(getHandler(), di, time);
+        } catch (IllegalStateException ex) {
+            logger.logStack(Logger.ERROR, br.getKString(br.X_MSG_DELIVERY_TIME_TIMER_START_FAIL, destination.getDestinationUID()), ex);
+            return null;
         }
     }
 
+    /**
+     * Called when the transaction of a message has been committed
+     */
     protected void deliveryReady(MessageDeliveryTimeInfo di) {
-        boolean notify = true;
-        long dtime = di.getDeliveryTime();
-        synchronized (this) {
-            if (destroyed) {
-                return;
-            }
-            if (messages.size() > 0) {
-                MessageDeliveryTimeInfo first = messages.first();
-                if (dtime > first.getDeliveryTime()) {
-                    notify = false;
-                }
-            }
-            if (notify) {
-                mytimer.wakeup(dtime);
-            }
+        if (destroyed) {
+            return;
+        }
+        TimingWheel.Timeout t = messages.get(di);
+        if (t != null && t.isExpired()) {
+            // The delivery time arrived before the message was ready
+            reschedule(di, t, System.currentTimeMillis());
         }
     }
 
-    public synchronized void removeMessage(MessageDeliveryTimeInfo di) {
-        boolean b = messages.remove(di);
-        if (DEBUG && b) {
+    public void removeMessage(MessageDeliveryTimeInfo di) {
+        TimingWheel.Timeout t = messages.remove(di);
+        if (t != null) {
+            t.cancel();
+        }
+        if (DEBUG && t != null) {
             logger.log(logger.INFO, "Removed message " + di + " from delivery delay timer " + this);
         }
-
     }
 
-    public synchronized void destroy() {
-        if (mytimer != null) {
-            removeTimer();
+    public void destroy() {
+        destroyed = true;
+        Iterator<TimingWheel.Timeout> itr = messages.values().iterator();
+        while (itr.hasNext()) {
+            itr.next().cancel();
         }
         messages.clear();
-        destroyed = true;
     }
 
     public int getSizeInfo(Set msgset, DestinationInfo dinfo) {
-        Set<MessageDeliveryTimeInfo> s = null;
-        synchronized (this) {
-            if (messages.size() == 0) {
-                return 0;
-            }
-            s = new HashSet(messages);
+        if (messages.isEmpty()) {
+            return 0;
         }
+        Set<MessageDeliveryTimeInfo> s = new HashSet<>(messages.keySet());
         List<MessageDeliveryTimeInfo> indelays = new ArrayList<>();
         int cnt = 0;
         MessageDeliveryTimeInfo di = null;
@@ -185,24 +200,6 @@ public class MessageDeliveryTimeTimer implements TimerEventHandler {
         return cnt;
     }
 
-    private void addTimer() {
-        try {
-            mytimer = new WakeupableTimer("MessageDeliveryTimeTimer", this, 0L, 0L, startLogString, exitLogString);
-        } catch (Exception ex) {
-            logger.logStack(Logger.ERROR, br.getKString(br.X_MSG_DELIVERY_TIME_TIMER_START_FAIL, destination.getDestinationUID()), ex);
-        }
-    }
-
-    private void removeTimer() {
-        try {
-            if (mytimer != null) {
-                mytimer.cancel();
-            }
-        } catch (IllegalStateException ex) {
-            logger.logStack(Logger.DEBUG, "Exception on cancel " + this, ex);
-        }
-    }
-
     protected void routeTransactedMessage(PacketReference ref) throws BrokerException {
 
         MessageDeliveryTimeInfo di = ref.getDeliveryTimeInfo();
@@ -226,10 +223,8 @@ public class MessageDeliveryTimeTimer implements TimerEventHandler {
         if (DEBUG) {
             logger.log(logger.INFO, "Processing delivery delayed messages in destination " + destination.getDestinationUID() + " on closing consumer " + c);
         }
-        TreeSet<MessageDeliveryTimeInfo> s = null;
-        synchronized (this) {
-            s = new TreeSet(messages);
-        }
+        TreeSet<MessageDeliveryTimeInfo> s = new TreeSet<>(MessageDeliveryTimeInfo.getComparator());
+        s.addAll(messages.keySet());
         int cnt = 0;
         PacketReference ref = null;
         MessageDeliveryTimeInfo di = null;
@@ -271,39 +266,43 @@ public class MessageDeliveryTimeTimer implements TimerEventHandler {
     }
 
     @Override
-    public long runTask() {
-        LinkedHashSet<MessageDeliveryTimeInfo> dues = new LinkedHashSet<>();
-        // DestinationUID duid = destination.getDestinationUID();
-        MessageDeliveryTimeInfo di = null;
-        int count = 0;
-        synchronized (this) {
-            Iterator<MessageDeliveryTimeInfo> itr = messages.iterator();
-            while (itr.hasNext()) {
-                di = itr.next();
-                if (!di.isDeliveryReady()) {
-                    continue;
-                }
-                if (!di.isDeliveryDue() || count > destination.getMaxPrefetch()) {
-                    break;
-                }
-                if (!di.setInProcessing(true)) {
-                    continue;
-                }
-                dues.add(di);
-                count++;
+    public void timeoutsExpired(List<MessageDeliveryTimeInfo> expired) {
+        if (destroyed) {
+            return;
+        }
+        List<MessageDeliveryTimeInfo> dues = new ArrayList<>(expired.size());
+        long retry = System.currentTimeMillis() + Globals.getTimingWheel().getTickInterval();
+        expired.sort(MessageDeliveryTimeInfo.getComparator());
+        for (MessageDeliveryTimeInfo di : expired) {
+            TimingWheel.Timeout t = messages.get(di);
+            if (t == null || !t.isExpired()) {
+                // removed or rescheduled
+                continue;
             }
+            if (!di.isDeliveryReady()) {
+                // deliveryReady() reschedules it once its transaction commits
+                continue;
+            }
+            if (dues.size() > destination.getMaxPrefetch()) {
+                // don't flood delivery, forward the rest on the next tick
+                reschedule(di, t, retry);
+                continue;
+            }
+            if (!di.setInProcessing(true)) {
+                // in processing on consumer close, retry
+                reschedule(di, t, retry);
+                continue;
+            }
+            dues.add(di);
         }
+        int count = dues.size();
         if (count > 0) {
             logger.log(logger.INFO, br.getKString(br.I_MSGS_DELIVERY_TIME_ARRIVED, Integer.valueOf(count), destination.getDestinationUID()));
         }
 
-        Iterator<MessageDeliveryTimeInfo> itr = dues.iterator();
         PacketReference ref = null;
-        while (itr.hasNext()) {
-            di = itr.next();
-            synchronized (this) {
-                messages.remove(di);
-            }
+        for (MessageDeliveryTimeInfo di : dues) {
+            messages.remove(di);
             di.setOffTimerState();
             ref = DL.get(destination.getPartitionedStore(), di.getSysMessageID());
             if (ref == null || ref.isDestroyed() || ref.isInvalid()) {
@@ -334,64 +333,9 @@ public class MessageDeliveryTimeTimer implements TimerEventHandler {
                 logger.logStack(logger.ERROR, br.getKString(br.X_FORWARD_DELIVERY_TIME_ARRIVED_MSG, ref, destination.getDestinationUID()) + "[" + s + "]", e);
             }
         }
-        dues.clear();
-        di = null;
-        int msize = 0;
-        synchronized (this) {
-            msize = messages.size();
-            itr = messages.iterator();
-            while (itr.hasNext()) {
-                di = itr.next();
-                if (di.isDeliveryReady()) {
-                    break;
-                }
-            }
-        }
-        long ret = 0L;
-        if (di != null) {
-            ret = di.getDeliveryTime();
-        }
         if (DEBUG) {
-            logger.log(logger.INFO, "MessageDeliveryTimeTimer:runTask() return " + ret + " , next ready message " + di + ", destination "
-                    + destination.getDestinationUID() + " with current delivery delay messages " + msize);
-        }
-        return ret;
-    }
-
-    @Override
-    public void handleOOMError(Throwable e) {
-        Globals.handleGlobalError(e, "OOM:MessageDeliveryTimeTimer");
-    }
-
-    @Override
-    public void handleLogInfo(String msg) {
-        logger.log(Logger.INFO, msg);
-    }
-
-    @Override
-    public void handleLogWarn(String msg, Throwable e) {
-        if (e == null) {
-            logger.log(Logger.WARNING, msg);
-        } else {
-            logger.logStack(Logger.WARNING, msg, e);
-        }
-    }
-
-    @Override
-    public void handleLogError(String msg, Throwable e) {
-        if (e == null) {
-            logger.log(Logger.ERROR, msg);
-        } else {
-            logger.logStack(Logger.ERROR, msg, e);
-        }
-    }
-
-    @Override
-    public void handleTimerExit(Throwable e) {
-        if (!destination.isValid() || mytimer == null) {
-            return;
+            logger.log(logger.INFO, "MessageDeliveryTimeTimer.timeoutsExpired(): forwarded " + count + " messages, destination "
+                    + destination.getDestinationUID() + " with current delivery delay messages " + messages.size());
         }
-        String emsg = exitLogString + ": " + e.getMessage();
-        Broker.getBroker().exit(Globals.getBrokerStateHandler().getRestartCode(), emsg, BrokerEvent.Type.RESTART, e, false, true, false);
     }
 }
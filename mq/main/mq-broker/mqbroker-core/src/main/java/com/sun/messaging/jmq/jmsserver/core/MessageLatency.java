@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.core;
+
+import com.sun.messaging.jmq.jmsserver.Globals;
+import com.sun.messaging.jmq.jmsserver.service.Service;
+import com.sun.messaging.jmq.util.DestMetricsCounters;
+import com.sun.messaging.jmq.util.Histogram;
+import com.sun.messaging.jmq.util.MetricCounters;
+
+/**
+ * Latency histograms, in microseconds, of the messages of a service or a destination:
+ * <ul>
+ * <li>produce to persist: from the arrival of a persistent message to the end of its store
+ * <li>persist to deliver: from the end of the store of a persistent message to its first delivery to a consumer
+ * <li>ack round trip: from the delivery of a message to a consumer to the consumer's acknowledgement
+ * </ul>
+ * A message which is only stored when its transaction commits is not measured on produce.
+ */
+public final class MessageLatency {
+
+    /**
+     * Whether the message latencies are measured
+     */
+    public static final boolean ENABLED = Globals.getConfig().getBooleanProperty(Globals.IMQ + ".metrics.latency.enabled", true);
+
+    private final Histogram produceToPersist = new Histogram("produceToPersistMicros");
+    private final Histogram persistToDeliver = new Histogram("persistToDeliverMicros");
+    private final Histogram ackRoundTrip = new Histogram("ackRoundTripMicros");
+
+    public Histogram getProduceToPersist() {
+        return produceToPersist;
+    }
+
+    public Histogram getPersistToDeliver() {
+        return persistToDeliver;
+    }
+
+    public Histogram getAckRoundTrip() {
+        return ackRoundTrip;
+    }
+
+    /**
+     * Record the produce to persist latency of a message which has just been routed by a producer of the service
+     */
+    public static void recordPersisted(Service svc, Destination d, PacketReference ref) {
+        long persisted = ref.getPersistNanos();
+        if (persisted == 0L) {
+            return;
+        }
+        long micros = (persisted - ref.getArrivalNanos()) / 1000L;
+        if (d != null) {
+            d.getMessageLatency().produceToPersist.record(micros);
+        }
+        if (svc != null) {
+            Globals.getMetricManager().getMessageLatency(svc.getName()).produceToPersist.record(micros);
+        }
+    }
+
+    /**
+     * Record the persist to deliver latency of a stored message delivered now
+     */
+    void recordDelivered(MessageLatency dst, PacketReference ref, long now) {
+        long micros = (now - ref.getPersistNanos()) / 1000L;
+        persistToDeliver.record(micros);
+        if (dst != null) {
+            dst.persistToDeliver.record(micros);
+        }
+    }
+
+    /**
+     * Record the round trip latency of a message acknowledged now
+     */
+    void recordAcknowledged(MessageLatency dst, long delivered, long now) {
+        long micros = (now - delivered) / 1000L;
+        ackRoundTrip.record(micros);
+        if (dst != null) {
+            dst.ackRoundTrip.record(micros);
+        }
+    }
+
+    public void add(MessageLatency other) {
+        produceToPersist.add(other.produceToPersist);
+        persistToDeliver.add(other.persistToDeliver);
+        ackRoundTrip.add(other.ackRoundTrip);
+    }
+
+    public void reset() {
+        produceToPersist.reset();
+        persistToDeliver.reset();
+        ackRoundTrip.reset();
+    }
+
+    public void copyTo(MetricCounters mc) {
+        mc.produceToPersistP50 = produceToPersist.getPercentile(50);
+        mc.produceToPersistP99 = produceToPersist.getPercentile(99);
+        mc.persistToDeliverP50 = persistToDeliver.getPercentile(50);
+        mc.persistToDeliverP99 = persistToDeliver.getPercentile(99);
+        mc.ackRoundTripP50 = ackRoundTrip.getPercentile(50);
+        mc.ackRoundTripP99 = ackRoundTrip.getPercentile(99);
+    }
+
+    public void copyTo(DestMetricsCounters dmc) {
+        dmc.setLongProperty(DestMetricsCounters.PRODUCE_TO_PERSIST_P50, produceToPersist.getPercentile(50));
+        dmc.setLongProperty(DestMetricsCounters.PRODUCE_TO_PERSIST_P99, produceToPersist.getPercentile(99));
+        dmc.setLongProperty(DestMetricsCounters.PERSIST_TO_DELIVER_P50, persistToDeliver.getPercentile(50));
+        dmc.setLongProperty(DestMetricsCounters.PERSIST_TO_DELIVER_P99, persistToDeliver.getPercentile(99));
+        dmc.setLongProperty(DestMetricsCounters.ACK_ROUND_TRIP_P50, ackRoundTrip.getPercentile(50));
+        dmc.setLongProperty(DestMetricsCounters.ACK_ROUND_TRIP_P99, ackRoundTrip.getPercentile(99));
+    }
+
+    /**
+     * @return the histograms which have recorded values, one per line
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Histogram h : new Histogram[] { produceToPersist, persistToDeliver, ackRoundTrip }) {
+            if (h.getCount() > 0) {
+                if (sb.length() > 0) {
+                    sb.append('\n');
+                }
+                sb.append(h);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.core;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.sun.messaging.jmq.io.Packet;
+
+/**
+ * JMS header fields for selector evaluation, read from the packet reference and packet when asked for instead of
+ * being copied into a HashMap.
+ *
+ * @see PacketReference#getSelectorHeaders()
+ */
+final class PacketHeaderAccessor extends AbstractMap<String, Object> {
+
+    private final PacketReference ref;
+    private final Packet pkt;
+
+    PacketHeaderAccessor(PacketReference ref, Packet pkt) {
+        this.ref = ref;
+        this.pkt = pkt;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (!(key instanceof String name)) {
+            return null;
+        }
+        return switch (name) {
+        case "JMSPriority" -> Integer.valueOf(ref.getPriority());
+        case "JMSMessageID" -> ref.getJMSMessageID();
+        case "JMSTimestamp" -> Long.valueOf(ref.getTimestamp());
+        case "JMSDeliveryMode" -> pkt.getPersistent() ? "PERSISTENT" : "NON_PERSISTENT";
+        case "JMSCorrelationID" -> pkt.getCorrelationID();
+        case "JMSType" -> pkt.getMessageType();
+        default -> null;
+        };
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return ref.getHeaders().containsKey(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return ref.getHeaders().entrySet();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.core;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.sun.messaging.jmq.io.Packet;
+import com.sun.messaging.jmq.jmsserver.Globals;
+import com.sun.messaging.jmq.util.log.Logger;
+
+/**
+ * Message properties for selector evaluation. Each property is read from the packet bytes the first time it is asked
+ * for and then cached, the others are never decoded. Not thread safe, an accessor is used by one routing call.
+ *
+ * @see PacketReference#getSelectorProperties()
+ */
+final class PacketPropertyAccessor extends AbstractMap<String, Object> {
+
+    private final Packet pkt;
+
+    // decoded properties, null values included
+    private Map<String, Object> decoded;
+
+    PacketPropertyAccessor(Packet pkt) {
+        this.pkt = pkt;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (!(key instanceof String name)) {
+            return null;
+        }
+        if (decoded == null) {
+            decoded = new HashMap<>(4);
+        } else if (decoded.containsKey(name)) {
+            return decoded.get(name);
+        }
+        Object value = null;
+        try {
+            value = pkt.getProperty(name);
+        } catch (IOException ex) {
+            // no properties
+            Globals.getLogger().log(Logger.INFO, "Internal Exception: ", ex);
+        } catch (ClassNotFoundException ex) {
+            throw new RuntimeException("error with properties", ex);
+        }
+        decoded.put(name, value);
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        try {
+            Map<String, Object> all = pkt.getPropertiesView();
+            return all == null ? Map.<String, Object> of().entrySet() : all.entrySet();
+        } catch (IOException ex) {
+            Globals.getLogger().log(Logger.INFO, "Internal Exception: ", ex);
+            return Map.<String, Object> of().entrySet();
+        } catch (ClassNotFoundException ex) {
+            throw new RuntimeException("error with properties", ex);
+        }
+    }
+}
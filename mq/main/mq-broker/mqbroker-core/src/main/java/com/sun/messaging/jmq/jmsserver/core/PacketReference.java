@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -46,6 +46,8 @@ import lombok.NoArgsConstructor;
 
 import com.sun.messaging.jmq.jmsserver.cluster.api.ClusterBroadcast;
 import com.sun.messaging.jmq.jmsserver.memory.MemoryGlobals;
+import com.sun.messaging.jmq.jmsserver.memory.MessageBodyCache;
+import com.sun.messaging.jmq.jmsserver.memory.OffHeapPayloads;
 import com.sun.messaging.jmq.jmsserver.FaultInjection;
 
 /**
@@ -82,6 +84,16 @@ public class PacketReference implements Sized, Ordered {
 
     private static boolean DEBUG_CLUSTER_TXN = Globals.getConfig().getBooleanProperty(Globals.IMQ + ".cluster.debug.txn") || DEBUG;
 
+    /**
+     * the cache which keeps the packets of stored messages in memory, null if they are kept through SoftReferences
+     */
+    private static final MessageBodyCache bodyCache = MessageBodyCache.getCache();
+
+    /**
+     * moves the payloads of the packets off the heap, null if they stay on the heap
+     */
+    private static final OffHeapPayloads offHeapPayloads = OffHeapPayloads.getPayloads();
+
     /**
      * set once store() is called
      */
@@ -111,6 +123,16 @@ public class PacketReference implements Sized, Ordered {
      */
     private long creationtime;
 
+    /**
+     * System.nanoTime() when the packet reference was created, 0 if message latencies are not measured
+     */
+    private long arrivalNanos;
+
+    /**
+     * System.nanoTime() when the message was stored, 0 if it has not been stored by this broker
+     */
+    private volatile long persistNanos;
+
     /**
      * time the packet reference was last accessed
      */
@@ -144,7 +166,8 @@ public class PacketReference implements Sized, Ordered {
     private HashMap headers;
 
     /**
-     * original packet or SoftReference (null if swapped)
+     * original packet, or once stored a SoftReference, or a WeakReference if the bodyCache keeps the packet (null if
+     * swapped)
      */
     private Object pktPtr;
 
@@ -514,6 +537,9 @@ public class PacketReference implements Sized, Ordered {
         this.pstore = ps;
         this.creationtime = System.currentTimeMillis();
         this.lastaccesstime = creationtime;
+        if (MessageLatency.ENABLED) {
+            this.arrivalNanos = System.nanoTime();
+        }
         this.msgid = (SysMessageID) pkt.getSysMessageID().clone();
         this.isQueue = pkt.getIsQueue();
         this.persist = pkt.getPersistent();
@@ -893,23 +919,26 @@ public class PacketReference implements Sized, Ordered {
 
     private Packet getPacketObject() {
 
-        assert (pktPtr == null || pktPtr instanceof SoftReference || pktPtr instanceof Packet) : pktPtr;
-
         Object ptr = pktPtr;
+        assert (ptr == null || ptr instanceof Reference || ptr instanceof Packet) : ptr;
+
         if (ptr == null) {
             return null;
         }
-        if (ptr instanceof SoftReference) {
-            return (Packet) ((SoftReference) pktPtr).get();
+        if (ptr instanceof Reference) {
+            return (Packet) ((Reference) ptr).get();
         }
-        return (Packet) pktPtr;
+        return (Packet) ptr;
     }
 
     private void setPacketObject(boolean soft, Packet p) {
 
         assert Thread.holdsLock(this);
+        if (offHeapPayloads != null && p != null) {
+            offHeapPayloads.moveOffHeap(p);
+        }
         if (soft) {
-            pktPtr = new SoftReference(p);
+            pktPtr = softRef(p);
         } else {
             pktPtr = p;
         }
@@ -919,7 +948,25 @@ public class PacketReference implements Sized, Ordered {
         assert Thread.holdsLock(this);
         Object ptr = pktPtr;
         if (ptr instanceof Packet) {
-            pktPtr = new SoftReference(ptr);
+            pktPtr = softRef((Packet) ptr);
+        }
+    }
+
+    /**
+     * With the bodyCache, the packet is only weakly referenced here so that the cache alone decides how long it stays
+     * in memory
+     */
+    private Reference softRef(Packet p) {
+        if (bodyCache == null) {
+            return new SoftReference(p);
+        }
+        bodyCache.put(msgid, p, size);
+        return new WeakReference(p);
+    }
+
+    private void uncachePacket() {
+        if (bodyCache != null && msgid != null) {
+            bodyCache.remove(msgid);
         }
     }
 
@@ -1055,6 +1102,9 @@ public class PacketReference implements Sized, Ordered {
     public synchronized Packet getPacket() {
         Packet pkt = getPacketObject();
         if (pkt != null || destroyed) {
+            if (pkt != null && pktPtr instanceof Reference) {
+                bodyCacheHit(pkt);
+            }
             return pkt;
         }
 
@@ -1069,13 +1119,48 @@ public class PacketReference implements Sized, Ordered {
         assert pkt != null;
 
         setPacketObject(true, pkt);
+        bodyCacheMiss();
         return pkt;
     }
 
+    private void bodyCacheHit(Packet pkt) {
+        if (bodyCache != null && bodyCache.get(msgid) == null) {
+            // evicted but not yet collected
+            bodyCache.put(msgid, pkt, size);
+        }
+        Destination dst = getDestination();
+        if (dst != null) {
+            dst.countBodyCacheHit();
+        }
+    }
+
+    private void bodyCacheMiss() {
+        Destination dst = getDestination();
+        if (dst != null) {
+            dst.countBodyCacheMiss();
+            if (bodyCache != null && dst instanceof Queue) {
+                MessageBodyPrefetcher.schedule((Queue) dst);
+            }
+        }
+    }
+
+    /**
+     * Read the packet back from the store if it is no longer in memory, without counting a body cache miss
+     */
+    synchronized void prefetchPacket() {
+        if (destroyed || invalid || !persist || !isStored || getPacketObject() != null) {
+            return;
+        }
+        Packet pkt = recoverPacket();
+        if (pkt != null) {
+            setPacketObject(true, pkt);
+        }
+    }
+
     private Packet recoverPacket() {
         // recover from the database
         assert Thread.holdsLock(this);
-        assert pktPtr == null || (pktPtr instanceof SoftReference && ((Reference) pktPtr).get() == null);
+        assert pktPtr == null || (pktPtr instanceof Reference && ((Reference) pktPtr).get() == null);
 
         try {
             Packet p = pstore.getMessage(destination, msgid);
@@ -1137,11 +1222,7 @@ public class PacketReference implements Sized, Ordered {
                 }
             }
             headers.put("JMSPriority", Integer.valueOf(priority));
-
-            /*
-             * XXX If the fix for bug 6196233 is enabled, then prepend the messageid with "ID:".
-             */
-            headers.put("JMSMessageID", (PREPEND_ID ? "ID:" : "") + msgid.toString());
+            headers.put("JMSMessageID", getJMSMessageID());
             headers.put("JMSTimestamp", Long.valueOf(timestamp));
             headers.put("JMSDeliveryMode", (pkt.getPersistent() ? "PERSISTENT" : "NON_PERSISTENT"));
             headers.put("JMSCorrelationID", pkt.getCorrelationID());
@@ -1150,6 +1231,55 @@ public class PacketReference implements Sized, Ordered {
         return headers;
     }
 
+    /**
+     * Return the message properties for selector evaluation. Unless the properties have already been parsed, the
+     * returned Map reads a property from the packet bytes the first time it is asked for, so matching a selector that
+     * uses one property does not parse all of them. The Map is meant to be used by the calling thread only.
+     */
+    public Map getSelectorProperties() throws ClassNotFoundException {
+        Packet pkt = null;
+        synchronized (this) {
+            if (props == null && !destroyed && !invalid) {
+                this.lastaccesstime = System.currentTimeMillis();
+                pkt = getPacketObject();
+                if (pkt == null) {
+                    pkt = getPacket();
+                }
+            }
+        }
+        if (pkt == null) {
+            return getProperties();
+        }
+        return new PacketPropertyAccessor(pkt);
+    }
+
+    /**
+     * Return the JMS header fields for selector evaluation. Unless getHeaders() has already been called, the fields are
+     * read from this reference and its packet when asked for instead of being copied into a HashMap.
+     */
+    public Map getSelectorHeaders() {
+        Packet pkt = null;
+        synchronized (this) {
+            if (headers == null && !destroyed && !invalid) {
+                pkt = getPacketObject();
+                if (pkt == null) {
+                    pkt = getPacket();
+                }
+            }
+        }
+        if (pkt == null) {
+            return getHeaders();
+        }
+        return new PacketHeaderAccessor(this, pkt);
+    }
+
+    String getJMSMessageID() {
+        /*
+         * XXX If the fix for bug 6196233 is enabled, then prepend the messageid with "ID:".
+         */
+        return (PREPEND_ID ? "ID:" : "") + msgid.toString();
+    }
+
     public SysMessageID getSysMessageID() {
         return msgid;
     }
@@ -1169,6 +1299,14 @@ public class PacketReference implements Sized, Ordered {
         return lastaccesstime;
     }
 
+    public long getArrivalNanos() {
+        return arrivalNanos;
+    }
+
+    public long getPersistNanos() {
+        return persistNanos;
+    }
+
     public long getTimestamp() {
         return timestamp;
     }
@@ -1345,6 +1483,9 @@ public class PacketReference implements Sized, Ordered {
             assert pktPtr instanceof Packet;
             try {
                 pstore.storeMessage(destination, getPacket(), Destination.PERSIST_SYNC);
+                if (arrivalNanos != 0L) {
+                    persistNanos = System.nanoTime();
+                }
                 makePacketSoftRef();
             } catch (IOException ex) {
                 throw new BrokerException(ex.toString(), ex);
@@ -1394,6 +1535,9 @@ public class PacketReference implements Sized, Ordered {
                 pstore.storeInterestStates(destination, msgid, info.uids, info.states, Destination.PERSIST_SYNC, getPacket());
             } else {
                 pstore.storeMessage(destination, (Packet) pktPtr, info.uids, info.states, Destination.PERSIST_SYNC);
+                if (arrivalNanos != 0L) {
+                    persistNanos = System.nanoTime();
+                }
                 synchronized (this) {
                     makePacketSoftRef();
                 }
@@ -2217,6 +2361,7 @@ public class PacketReference implements Sized, Ordered {
             ((Reference) pktPtr).enqueue();
         }
         pktPtr = null;
+        uncachePacket();
         msgid = null;
     }
 
@@ -2404,12 +2549,14 @@ public class PacketReference implements Sized, Ordered {
             ((Reference) pktPtr).enqueue();
         }
         pktPtr = null;
+        uncachePacket();
     }
 
     void unload() {
         // clears out the reference
-        if (pktPtr instanceof SoftReference) {
-            ((SoftReference) pktPtr).clear();
+        if (pktPtr instanceof Reference) {
+            ((Reference) pktPtr).clear();
+            uncachePacket();
         }
     }
 
@@ -1,7 +1,7 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
  * Copyright (c) 2020 Payara Services Ltd.
- * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ * Copyright (c) 2020, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -122,6 +122,19 @@ public class Queue extends Destination {
         return pending.peekNext();
     }
 
+    /**
+     * Read back from the store the packets of up to max messages at the head of the queue which are no longer in memory
+     */
+    void prefetchBodies(int max) {
+        if (!loaded) {
+            return;
+        }
+        Iterator<PacketReference> itr = pending.iterator();
+        for (int i = 0; i < max && itr.hasNext(); i++) {
+            itr.next().prefetchPacket();
+        }
+    }
+
     @Override
     public int getUnackSize(Set msgset) {
         throw new UnsupportedOperationException("Unsupported operation: getUnackSize(Set)");
@@ -47,10 +47,10 @@ public class SelectorFilter {
                 // As an optimization, only extract these if the
                 // selector needs them.
                 if (selector.usesProperties()) {
-                    props = ref.getProperties();
+                    props = ref.getSelectorProperties();
                 }
                 if (selector.usesFields()) {
-                    headers = ref.getHeaders();
+                    headers = ref.getSelectorHeaders();
                 }
             } catch (ClassNotFoundException ex) {
                 // this is not a valid error
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2020, 2025 Contributors to Eclipse Foundation. All rights reserved.
+ * Copyright (c) 2020, 2026 Contributors to Eclipse Foundation. All rights reserved.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -59,6 +59,9 @@ public class SessionOp extends SessionOpSpi {
     private Map storeMap = new HashMap();
     private DestinationList DL = Globals.getDestinationList();
 
+    // message latencies of the service of the session's connection
+    private MessageLatency serviceLatency = null;
+
     private SessionOp(Session s) {
         super(s);
         deliveredMessages = Collections.synchronizedMap(new LinkedHashMap());
@@ -77,6 +80,7 @@ public class SessionOp extends SessionOpSpi {
         TransactionUID tuid = null;
         int hc = 0;
         boolean markConsumed = false;
+        long deliverNanos = 0L;
 
         ackEntry(SysMessageID id, ConsumerUID uid) {
             assert id != null;
@@ -227,6 +231,17 @@ public class SessionOp extends SessionOpSpi {
         }
     }
 
+    private MessageLatency getServiceLatency() {
+        if (serviceLatency == null) {
+            Connection con = Globals.getConnectionManager().getConnection(session.getConnectionUID());
+            if (con == null) {
+                return null;
+            }
+            serviceLatency = Globals.getMetricManager().getMessageLatency(con.getService().getName());
+        }
+        return serviceLatency;
+    }
+
     public ConsumerUID getStoredIDForDetatchedConsumer(ConsumerUID cuid) {
         return (ConsumerUID) storeMap.get(cuid);
     }
@@ -326,13 +341,22 @@ public class SessionOp extends SessionOpSpi {
         ConsumerUID cuid = consumer.getConsumerUID();
         ConsumerUID suid = consumer.getStoredConsumerUID();
 
+        long now = (MessageLatency.ENABLED ? System.nanoTime() : 0L);
         ackEntry entry = null;
         if (!consumer.getConsumerUID().isNoAck()) {
             entry = new ackEntry(ref, cuid, suid);
+            entry.deliverNanos = now;
             synchronized (deliveredMessages) {
                 deliveredMessages.put(entry, entry);
             }
         }
+        if (now != 0L && ref.getPersistNanos() != 0L && !ref.getRedeliverFlag(suid)) {
+            MessageLatency latency = getServiceLatency();
+            Destination d = ref.getDestination();
+            if (latency != null) {
+                latency.recordDelivered(d == null ? null : d.getMessageLatency(), ref, now);
+            }
+        }
 
         try {
             boolean store = !session.isAutoAck(cuid) || deliveredMessages.size() == 1;
@@ -923,6 +947,14 @@ public class SessionOp extends SessionOpSpi {
             logger.log(Logger.WARNING, emsg);
             throw new BrokerException(emsg, Status.CONFLICT);
         }
+        if (entry.deliverNanos != 0L) {
+            MessageLatency latency = getServiceLatency();
+            PacketReference delivered = entry.getReference();
+            Destination d = (delivered == null ? null : delivered.getDestination());
+            if (latency != null) {
+                latency.recordAcknowledged(d == null ? null : d.getMessageLatency(), entry.deliverNanos, System.nanoTime());
+            }
+        }
         ref = entry.acknowledged(true, tuid, (TransactionList) translist, (HashMap<TransactionBroker, Object>) remoteNotified, ackack);
         return ref;
     }
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -41,12 +41,19 @@ public class Topic extends Destination {
 
     private transient Map<Selector, Set<Consumer>> selectorToInterest;
     private transient List<Selector> selectors;
+    private transient SelectorIndex selectorIndex;
 
     private transient Map<Integer, Integer> remoteConsumers;
     private static int TOPIC_DEFAULT_PREFETCH = Globals.getConfig().getIntProperty(Globals.IMQ + ".autocreate.topic.consumerFlowLimit", 1000);
 
     private boolean hasNoLocalConsumers = false;
 
+    /**
+     * Use a SelectorIndex to only evaluate the selectors that can match a message when routing it, instead of evaluating
+     * every selector on the topic.
+     */
+    private static final boolean USE_SELECTOR_INDEX = Globals.getConfig().getBooleanProperty(Globals.IMQ + ".topic.selectorIndex.enabled", true);
+
     int maxSharedConsumers = 0;
     int sharedPrefetch = 0;
 
@@ -109,6 +116,7 @@ public class Topic extends Destination {
     protected void initVar() {
         selectorToInterest = new HashMap<>();
         selectors = new ArrayList<>();
+        selectorIndex = new SelectorIndex();
         remoteConsumers = new HashMap<>();
     }
 
@@ -201,14 +209,14 @@ public class Topic extends Destination {
                 if (selector != null) {
                     if (props == null && selector.usesProperties()) {
                         try {
-                            props = msg.getProperties();
+                            props = msg.getSelectorProperties();
                         } catch (ClassNotFoundException ex) {
                             logger.logStack(Logger.ERROR, "INTERNAL ERROR", ex);
                             props = new HashMap();
                         }
                     }
                     if (headers == null && selector.usesFields()) {
-                        headers = msg.getHeaders();
+                        headers = msg.getSelectorHeaders();
                     }
                 }
 
@@ -287,11 +295,16 @@ public class Topic extends Destination {
         Map props = null;
         Map headers = null;
 
-        for (int i = 0; i < selectors.size(); i++) {
+        if (USE_SELECTOR_INDEX && selectorIndex.usesProperties()) {
+            props = getMessageProperties(msg);
+        }
+        List<Selector> candidates = getRoutingSelectors(props);
+
+        for (int i = 0; i < candidates.size(); i++) {
             Selector selector = null;
             try {
                 // LKS-XXX NOTE: don't need selectors !!!
-                selector = selectors.get(i);
+                selector = candidates.get(i);
             } catch (Exception ex) {
                 continue; // selector was removed
             }
@@ -305,15 +318,10 @@ public class Topic extends Destination {
                 }
             } else {
                 if (props == null && selector.usesProperties()) {
-                    try {
-                        props = msg.getProperties();
-                    } catch (ClassNotFoundException ex) {
-                        logger.logStack(Logger.ERROR, "INTERNAL ERROR", ex);
-                        props = new HashMap();
-                    }
+                    props = getMessageProperties(msg);
                 }
                 if (headers == null && selector.usesFields()) {
-                    headers = msg.getHeaders();
+                    headers = msg.getSelectorHeaders();
                 }
                 if (selector.match(props, headers)) {
                     Set<Consumer> s = selectorToInterest.get(selector);
@@ -356,6 +364,32 @@ public class Topic extends Destination {
         return matching;
     }
 
+    /**
+     * Returns the selectors to evaluate when routing a message, the null selector included. Without the selector index
+     * these are all selectors on the topic.
+     *
+     * @param props the message properties, must not be null if the selector index uses properties
+     */
+    private List<Selector> getRoutingSelectors(Map props) {
+        if (!USE_SELECTOR_INDEX) {
+            return selectors;
+        }
+        List<Selector> candidates = selectorIndex.getCandidates(props);
+        if (selectorToInterest.containsKey(null)) {
+            candidates.add(null);
+        }
+        return candidates;
+    }
+
+    private Map getMessageProperties(PacketReference msg) {
+        try {
+            return msg.getSelectorProperties();
+        } catch (ClassNotFoundException ex) {
+            logger.logStack(Logger.ERROR, "INTERNAL ERROR", ex);
+            return new HashMap();
+        }
+    }
+
     /**
      * @param forStoreOnly specifies the routing info is for storage only, so only need to apply selectors for consumers
      * that
@@ -366,11 +400,16 @@ public class Topic extends Destination {
         Map props = null;
         Map headers = null;
 
-        for (int i = 0; i < selectors.size(); i++) {
+        if (USE_SELECTOR_INDEX && selectorIndex.usesProperties()) {
+            props = getMessageProperties(msg);
+        }
+        List<Selector> candidates = getRoutingSelectors(props);
+
+        for (int i = 0; i < candidates.size(); i++) {
             Selector selector = null;
             try {
                 // LKS-XXX NOTE: don't need selectors !!!
-                selector = selectors.get(i);
+                selector = candidates.get(i);
             } catch (Exception ex) {
                 continue; // selector was removed
             }
@@ -385,15 +424,10 @@ public class Topic extends Destination {
             } else {
 
                 if (props == null && selector.usesProperties()) {
-                    try {
-                        props = msg.getProperties();
-                    } catch (ClassNotFoundException ex) {
-                        logger.logStack(Logger.ERROR, "INTERNAL ERROR", ex);
-                        props = new HashMap();
-                    }
+                    props = getMessageProperties(msg);
                 }
                 if (headers == null && selector.usesFields()) {
-                    headers = msg.getHeaders();
+                    headers = msg.getSelectorHeaders();
                 }
                 Set<Consumer> s = selectorToInterest.get(selector);
                 if (s == null) {
@@ -627,6 +661,9 @@ public class Topic extends Destination {
                 s = new HashSet<>();
                 selectorToInterest.put(selector, s);
                 selectors.add(selector);
+                if (selector != null) {
+                    selectorIndex.add(selector);
+                }
             }
         }
         synchronized (s) {
@@ -661,6 +698,9 @@ public class Topic extends Destination {
                     if (s.isEmpty()) {
                         selectorToInterest.remove(c.getSelector());
                         selectors.remove(c.getSelector());
+                        if (c.getSelector() != null) {
+                            selectorIndex.remove(c.getSelector());
+                        }
                     }
                 }
             }
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -26,6 +26,7 @@ import com.sun.messaging.jmq.jmsserver.core.Producer;
 import com.sun.messaging.jmq.jmsserver.core.ProducerUID;
 import com.sun.messaging.jmq.jmsserver.core.DestinationUID;
 import com.sun.messaging.jmq.jmsserver.core.MessageDeliveryTimeInfo;
+import com.sun.messaging.jmq.jmsserver.core.MessageLatency;
 import com.sun.messaging.jmq.jmsserver.persist.api.PartitionedStore;
 import com.sun.messaging.jmq.io.*;
 import com.sun.messaging.jmq.jmsserver.service.imq.IMQConnection;
@@ -208,6 +209,9 @@ public class DataHandler extends PacketHandler {
                         }
 
                         Set s = routeMessage(con.getPartitionedStore(), transacted, ref, route, d, deliveryDelayReadyList);
+                        if (MessageLatency.ENABLED) {
+                            MessageLatency.recordPersisted(con.getService(), d, ref);
+                        }
 
                         if (s != null && !s.isEmpty()) {
                             if (routedSet == null) {
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2022 Contributors to Eclipse Foundation. All rights reserved.
+ * Copyright (c) 2022, 2026 Contributors to Eclipse Foundation. All rights reserved.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -22,7 +22,6 @@ import java.io.ObjectInputStream;
 import java.util.Vector;
 import java.util.Hashtable;
 import java.util.HashMap;
-import java.nio.ByteBuffer;
 import com.sun.messaging.jmq.jmsserver.service.imq.IMQConnection;
 import com.sun.messaging.jmq.util.DestType;
 import com.sun.messaging.jmq.io.*;
@@ -275,10 +274,7 @@ public class GetMessagesHandler extends AdminCmdHandler {
 
         byte[] msgBody = null;
         if (getBody) {
-            ByteBuffer bb = pr.getPacket().getMessageBodyByteBuffer();
-            if (bb != null && bb.hasArray()) {
-                msgBody = bb.array();
-            }
+            msgBody = pr.getPacket().getMessageBodyByteArray();
         }
         if (msgBody != null) {
 
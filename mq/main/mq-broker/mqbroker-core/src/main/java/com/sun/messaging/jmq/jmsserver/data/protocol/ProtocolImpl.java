@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -48,6 +48,7 @@ import com.sun.messaging.jmq.jmsserver.core.ProducerUID;
 import com.sun.messaging.jmq.jmsserver.core.Session;
 import com.sun.messaging.jmq.jmsserver.core.SessionUID;
 import com.sun.messaging.jmq.jmsserver.core.MessageDeliveryTimeInfo;
+import com.sun.messaging.jmq.jmsserver.core.MessageLatency;
 import com.sun.messaging.jmq.jmsserver.data.AutoRollbackType;
 import com.sun.messaging.jmq.jmsserver.data.PacketHandler;
 import com.sun.messaging.jmq.jmsserver.data.PacketRouter;
@@ -1036,6 +1037,9 @@ public class ProtocolImpl implements Protocol {
             route = handler.queueMessage(d, ref, transacted);
 
             s = handler.routeMessage(con.getPartitionedStore(), transacted, ref, route, d, deliveryDelayReadyList);
+            if (MessageLatency.ENABLED) {
+                MessageLatency.recordPersisted(con.getService(), d, ref);
+            }
 
             // handle producer flow control
             handler.pauseProducer(d, pausedProducer, con);
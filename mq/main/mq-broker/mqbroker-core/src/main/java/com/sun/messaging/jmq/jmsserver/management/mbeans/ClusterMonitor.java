@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021, 2022 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -59,7 +59,13 @@ public class ClusterMonitor extends MQMBeanReadOnly {
                     true, false, false),
 
             new MBeanAttributeInfo(ClusterAttributes.MASTER_BROKER_INFO, CompositeData.class.getName(), mbr.getString(mbr.I_CLS_ATTR_MASTER_BROKER_INFO_DESC),
-                    true, false, false) };
+                    true, false, false),
+
+            new MBeanAttributeInfo(ClusterAttributes.CONSUMER_DISPATCH_QUEUE_DEPTHS, Integer[].class.getName(),
+                    mbr.getString(mbr.I_CLS_ATTR_CONSUMER_DISPATCH_QUEUE_DEPTHS_DESC), true, false, false),
+
+            new MBeanAttributeInfo(ClusterAttributes.CONSUMER_DISPATCH_COUNTS, Long[].class.getName(),
+                    mbr.getString(mbr.I_CLS_ATTR_CONSUMER_DISPATCH_COUNTS_DESC), true, false, false) };
 
     private static MBeanParameterInfo[] getBrokerInfoByAddrSignature = {
             new MBeanParameterInfo("BrokerAddress", String.class.getName(), mbr.getString(mbr.I_CLS_OP_GET_BROKER_INFO_BY_ADDRESS_PARAM_ADDR_DESC)) };
@@ -235,6 +241,24 @@ public class ClusterMonitor extends MQMBeanReadOnly {
         return (cd);
     }
 
+    public Integer[] getConsumerDispatchQueueDepths() {
+        int[] depths = Globals.getClusterBroadcast().getConsumerDispatchQueueDepths();
+        Integer[] ret = new Integer[depths.length];
+        for (int i = 0; i < depths.length; i++) {
+            ret[i] = Integer.valueOf(depths[i]);
+        }
+        return (ret);
+    }
+
+    public Long[] getConsumerDispatchCounts() {
+        long[] counts = Globals.getClusterBroadcast().getConsumerDispatchCounts();
+        Long[] ret = new Long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            ret[i] = Long.valueOf(counts[i]);
+        }
+        return (ret);
+    }
+
     public String[] getBrokerAddresses() {
         return (getBrokerIDsOrAddresses(false));
     }
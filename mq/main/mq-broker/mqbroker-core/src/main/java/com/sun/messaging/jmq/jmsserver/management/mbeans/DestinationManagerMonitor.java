@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -27,7 +27,9 @@ import javax.management.MBeanException;
 
 import com.sun.messaging.jms.management.server.*;
 
+import com.sun.messaging.jmq.jmsserver.Globals;
 import com.sun.messaging.jmq.jmsserver.core.Destination;
+import com.sun.messaging.jmq.jmsserver.core.DestinationPreloader;
 import com.sun.messaging.jmq.jmsserver.core.Queue;
 import com.sun.messaging.jmq.jmsserver.management.util.DestinationUtil;
 
@@ -45,7 +47,26 @@ public class DestinationManagerMonitor extends MQMBeanReadOnly {
                     false),
 
             new MBeanAttributeInfo(DestinationAttributes.TOTAL_MSG_BYTES_IN_DMQ, Long.class.getName(), mbr.getString(mbr.I_DST_MGR_ATTR_TOTAL_MSG_BYTES_IN_DMQ),
-                    true, false, false) };
+                    true, false, false),
+
+            new MBeanAttributeInfo(DestinationAttributes.LOAD_STATE, String.class.getName(), mbr.getString(mbr.I_DST_MGR_ATTR_LOAD_STATE), true, false, false),
+
+            new MBeanAttributeInfo(DestinationAttributes.NUM_DESTINATIONS_TO_LOAD, Integer.class.getName(),
+                    mbr.getString(mbr.I_DST_MGR_ATTR_NUM_DESTINATIONS_TO_LOAD), true, false, false),
+
+            new MBeanAttributeInfo(DestinationAttributes.NUM_DESTINATIONS_LOADED, Integer.class.getName(),
+                    mbr.getString(mbr.I_DST_MGR_ATTR_NUM_DESTINATIONS_LOADED), true, false, false),
+
+            new MBeanAttributeInfo(DestinationAttributes.NUM_MSGS_LOADED, Long.class.getName(), mbr.getString(mbr.I_DST_MGR_ATTR_NUM_MSGS_LOADED), true, false,
+                    false),
+
+            new MBeanAttributeInfo(DestinationAttributes.NUM_SCHEDULED_TIMEOUTS, Integer.class.getName(),
+                    mbr.getString(mbr.I_DST_MGR_ATTR_NUM_SCHEDULED_TIMEOUTS), true, false, false),
+
+            new MBeanAttributeInfo(DestinationAttributes.TIMEOUT_LAG, Long.class.getName(), mbr.getString(mbr.I_DST_MGR_ATTR_TIMEOUT_LAG), true, false, false),
+
+            new MBeanAttributeInfo(DestinationAttributes.PEAK_TIMEOUT_LAG, Long.class.getName(), mbr.getString(mbr.I_DST_MGR_ATTR_PEAK_TIMEOUT_LAG), true,
+                    false, false) };
 
     private static MBeanOperationInfo[] ops = { new MBeanOperationInfo(DestinationOperations.GET_DESTINATIONS,
             mbr.getString(mbr.I_DST_MGR_MON_OP_GET_DESTINATIONS), null, ObjectName[].class.getName(), MBeanOperationInfo.INFO) };
@@ -83,6 +104,34 @@ public class DestinationManagerMonitor extends MQMBeanReadOnly {
         return (Long.valueOf(dmq.byteSize()));
     }
 
+    public String getLoadState() {
+        return DestinationPreloader.getState();
+    }
+
+    public Integer getNumDestinationsToLoad() {
+        return (Integer.valueOf(DestinationPreloader.getNumDestinationsToLoad()));
+    }
+
+    public Integer getNumDestinationsLoaded() {
+        return (Integer.valueOf(DestinationPreloader.getNumDestinationsLoaded()));
+    }
+
+    public Long getNumMsgsLoaded() {
+        return (Long.valueOf(DestinationPreloader.getNumMsgsLoaded()));
+    }
+
+    public Integer getNumScheduledTimeouts() {
+        return (Integer.valueOf(Globals.getTimingWheel().size()));
+    }
+
+    public Long getTimeoutLag() {
+        return (Long.valueOf(Globals.getTimingWheel().getLastLag()));
+    }
+
+    public Long getPeakTimeoutLag() {
+        return (Long.valueOf(Globals.getTimingWheel().getMaxLag()));
+    }
+
     public ObjectName[] getDestinations() throws MBeanException {
         List dests = DestinationUtil.getVisibleDestinations();
 
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021, 2024 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -26,10 +26,16 @@ import javax.management.MBeanOperationInfo;
 import javax.management.MBeanNotificationInfo;
 import javax.management.MBeanParameterInfo;
 import javax.management.MBeanException;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.OpenDataException;
 
 import com.sun.messaging.jmq.util.DestMetricsCounters;
+import com.sun.messaging.jmq.util.Histogram;
+import com.sun.messaging.jmq.util.log.Logger;
 import com.sun.messaging.jmq.jmsserver.management.util.DestinationUtil;
+import com.sun.messaging.jmq.jmsserver.management.util.HistogramUtil;
 import com.sun.messaging.jmq.jmsserver.core.Destination;
+import com.sun.messaging.jmq.jmsserver.core.MessageLatency;
 import com.sun.messaging.jmq.jmsserver.core.PacketReference;
 import com.sun.messaging.jmq.jmsserver.plugin.spi.ProducerSpi;
 import com.sun.messaging.jmq.jmsserver.core.Consumer;
@@ -150,7 +156,22 @@ public class DestinationMonitor extends MQMBeanReadOnly {
             new MBeanAttributeInfo(DestinationAttributes.TOTAL_MSG_BYTES_HELD_IN_TRANSACTION, Long.class.getName(),
                     mbr.getString(mbr.I_DST_ATTR_TOTAL_MSG_BYTES_HELD_IN_TRANSACTION), true, false, false),
 
-            new MBeanAttributeInfo(/* name=*/DestinationAttributes.TYPE, /* type=*/String.class.getName(), mbr.getString(mbr.I_DST_ATTR_TYPE), true, false, false) };
+            new MBeanAttributeInfo(/* name=*/DestinationAttributes.TYPE, /* type=*/String.class.getName(), mbr.getString(mbr.I_DST_ATTR_TYPE), true, false, false),
+
+            new MBeanAttributeInfo(DestinationAttributes.PRODUCE_TO_PERSIST_LATENCY, CompositeData.class.getName(),
+                    mbr.getString(mbr.I_DST_ATTR_PRODUCE_TO_PERSIST_LATENCY), true, false, false),
+
+            new MBeanAttributeInfo(DestinationAttributes.PERSIST_TO_DELIVER_LATENCY, CompositeData.class.getName(),
+                    mbr.getString(mbr.I_DST_ATTR_PERSIST_TO_DELIVER_LATENCY), true, false, false),
+
+            new MBeanAttributeInfo(DestinationAttributes.ACK_ROUND_TRIP_LATENCY, CompositeData.class.getName(),
+                    mbr.getString(mbr.I_DST_ATTR_ACK_ROUND_TRIP_LATENCY), true, false, false),
+
+            new MBeanAttributeInfo(DestinationAttributes.BODY_CACHE_HITS, Long.class.getName(), mbr.getString(mbr.I_DST_ATTR_BODY_CACHE_HITS), true, false,
+                    false),
+
+            new MBeanAttributeInfo(DestinationAttributes.BODY_CACHE_MISSES, Long.class.getName(), mbr.getString(mbr.I_DST_ATTR_BODY_CACHE_MISSES), true, false,
+                    false) };
 
     private static MBeanParameterInfo[] numWildcardConsumersSignature = {
             new MBeanParameterInfo("wildcard", String.class.getName(), mbr.getString(mbr.I_BKR_OP_WILDCARD_CONSUMERS_DESC)) };
@@ -681,6 +702,39 @@ public class DestinationMonitor extends MQMBeanReadOnly {
         return (d.isQueue() ? DestinationType.QUEUE : DestinationType.TOPIC);
     }
 
+    public CompositeData getProduceToPersistLatency() {
+        return (toCompositeData(getMessageLatency().getProduceToPersist()));
+    }
+
+    public CompositeData getPersistToDeliverLatency() {
+        return (toCompositeData(getMessageLatency().getPersistToDeliver()));
+    }
+
+    public CompositeData getAckRoundTripLatency() {
+        return (toCompositeData(getMessageLatency().getAckRoundTrip()));
+    }
+
+    public Long getBodyCacheHits() {
+        return (Long.valueOf(d.getBodyCacheHits()));
+    }
+
+    public Long getBodyCacheMisses() {
+        return (Long.valueOf(d.getBodyCacheMisses()));
+    }
+
+    private CompositeData toCompositeData(Histogram h) {
+        try {
+            return (HistogramUtil.toCompositeData(h));
+        } catch (OpenDataException e) {
+            logger.log(Logger.WARNING, "Failed to get " + h.getName() + " histogram", e);
+            return (null);
+        }
+    }
+
+    private MessageLatency getMessageLatency() {
+        return (d.getMessageLatency());
+    }
+
     public String[] getActiveConsumerIDs() throws MBeanException {
         int numConsumers = getNumActiveConsumers().intValue();
         String ids[];
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021, 2022 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -22,7 +22,6 @@ import java.io.ObjectInputStream;
 import java.util.Vector;
 import java.util.Hashtable;
 import java.util.HashMap;
-import java.nio.ByteBuffer;
 
 import javax.management.MBeanAttributeInfo;
 import javax.management.MBeanOperationInfo;
@@ -254,12 +253,7 @@ public class MessageManagerMonitor extends MQMBeanReadOnly {
         h.put("MessageBodyType", Integer.valueOf(packetType));
 
         if (getBody) {
-            ByteBuffer bb = pr.getPacket().getMessageBodyByteBuffer();
-            byte[] msgBody = null;
-
-            if (bb.hasArray()) {
-                msgBody = bb.array();
-            }
+            byte[] msgBody = pr.getPacket().getMessageBodyByteArray();
 
             switch (packetType) {
             case PacketType.TEXT_MESSAGE:
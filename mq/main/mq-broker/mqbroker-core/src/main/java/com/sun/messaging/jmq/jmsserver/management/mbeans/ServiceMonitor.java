@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -25,13 +25,20 @@ import javax.management.MBeanAttributeInfo;
 import javax.management.MBeanOperationInfo;
 import javax.management.MBeanNotificationInfo;
 import javax.management.MBeanException;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.OpenDataException;
 
 import com.sun.messaging.jms.management.server.*;
+import com.sun.messaging.jmq.util.Histogram;
 import com.sun.messaging.jmq.util.MetricCounters;
+import com.sun.messaging.jmq.util.log.Logger;
+import com.sun.messaging.jmq.jmsserver.Globals;
 import com.sun.messaging.jmq.jmsserver.core.ConsumerUID;
+import com.sun.messaging.jmq.jmsserver.core.MessageLatency;
 import com.sun.messaging.jmq.jmsserver.core.ProducerUID;
 import com.sun.messaging.jmq.jmsserver.management.util.ServiceUtil;
 import com.sun.messaging.jmq.jmsserver.management.util.ConnectionUtil;
+import com.sun.messaging.jmq.jmsserver.management.util.HistogramUtil;
 import com.sun.messaging.jmq.util.admin.ServiceInfo;
 import com.sun.messaging.jmq.util.admin.ConnectionInfo;
 
@@ -77,7 +84,16 @@ public class ServiceMonitor extends MQMBeanReadOnly {
 
             new MBeanAttributeInfo(ServiceAttributes.STATE, Integer.class.getName(), mbr.getString(mbr.I_SVC_ATTR_STATE), true, false, false),
 
-            new MBeanAttributeInfo(ServiceAttributes.STATE_LABEL, String.class.getName(), mbr.getString(mbr.I_SVC_ATTR_STATE_LABEL), true, false, false) };
+            new MBeanAttributeInfo(ServiceAttributes.STATE_LABEL, String.class.getName(), mbr.getString(mbr.I_SVC_ATTR_STATE_LABEL), true, false, false),
+
+            new MBeanAttributeInfo(ServiceAttributes.PRODUCE_TO_PERSIST_LATENCY, CompositeData.class.getName(),
+                    mbr.getString(mbr.I_SVC_ATTR_PRODUCE_TO_PERSIST_LATENCY), true, false, false),
+
+            new MBeanAttributeInfo(ServiceAttributes.PERSIST_TO_DELIVER_LATENCY, CompositeData.class.getName(),
+                    mbr.getString(mbr.I_SVC_ATTR_PERSIST_TO_DELIVER_LATENCY), true, false, false),
+
+            new MBeanAttributeInfo(ServiceAttributes.ACK_ROUND_TRIP_LATENCY, CompositeData.class.getName(),
+                    mbr.getString(mbr.I_SVC_ATTR_ACK_ROUND_TRIP_LATENCY), true, false, false) };
 
     private static MBeanOperationInfo[] ops = {
             new MBeanOperationInfo(ServiceOperations.GET_CONNECTIONS, mbr.getString(mbr.I_SVC_OP_GET_CONNECTIONS), null, ObjectName[].class.getName(),
@@ -337,6 +353,31 @@ public class ServiceMonitor extends MQMBeanReadOnly {
         return (oNames);
     }
 
+    public CompositeData getProduceToPersistLatency() {
+        return (toCompositeData(getMessageLatency().getProduceToPersist()));
+    }
+
+    public CompositeData getPersistToDeliverLatency() {
+        return (toCompositeData(getMessageLatency().getPersistToDeliver()));
+    }
+
+    public CompositeData getAckRoundTripLatency() {
+        return (toCompositeData(getMessageLatency().getAckRoundTrip()));
+    }
+
+    private CompositeData toCompositeData(Histogram h) {
+        try {
+            return (HistogramUtil.toCompositeData(h));
+        } catch (OpenDataException e) {
+            logger.log(Logger.WARNING, "Failed to get " + h.getName() + " histogram", e);
+            return (null);
+        }
+    }
+
+    private MessageLatency getMessageLatency() {
+        return (Globals.getMetricManager().getMessageLatency(service));
+    }
+
     public void resetMetrics() {
         numConnectionsOpened = 0;
         numConnectionsRejected = 0;
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -24,10 +24,15 @@ import javax.management.MBeanNotificationInfo;
 import javax.management.MBeanParameterInfo;
 import javax.management.MBeanException;
 import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.OpenDataException;
 
 import com.sun.messaging.jms.management.server.*;
 import com.sun.messaging.jmq.jmsserver.Globals;
 import com.sun.messaging.jmq.jmsserver.data.TransactionList;
+import com.sun.messaging.jmq.jmsserver.management.util.HistogramUtil;
+import com.sun.messaging.jmq.jmsserver.persist.api.Store;
+import com.sun.messaging.jmq.util.Histogram;
+import com.sun.messaging.jmq.util.log.Logger;
 
 public class TransactionManagerMonitor extends MQMBeanReadOnly {
     private static MBeanAttributeInfo[] attrs = {
@@ -38,7 +43,13 @@ public class TransactionManagerMonitor extends MQMBeanReadOnly {
                     mbr.getString(mbr.I_TXN_MGR_ATTR_NUM_TRANSACTIONS_COMMITTED), true, false, false),
 
             new MBeanAttributeInfo(TransactionAttributes.NUM_TRANSACTIONS_ROLLBACK, Long.class.getName(),
-                    mbr.getString(mbr.I_TXN_MGR_ATTR_NUM_TRANSACTIONS_ROLLBACK), true, false, false) };
+                    mbr.getString(mbr.I_TXN_MGR_ATTR_NUM_TRANSACTIONS_ROLLBACK), true, false, false),
+
+            new MBeanAttributeInfo(TransactionAttributes.TXN_LOG_COMMIT_BATCH_SIZE, CompositeData.class.getName(),
+                    mbr.getString(mbr.I_TXN_MGR_ATTR_TXN_LOG_COMMIT_BATCH_SIZE), true, false, false),
+
+            new MBeanAttributeInfo(TransactionAttributes.TXN_LOG_SYNC_LATENCY, CompositeData.class.getName(),
+                    mbr.getString(mbr.I_TXN_MGR_ATTR_TXN_LOG_SYNC_LATENCY), true, false, false) };
 
     private static MBeanParameterInfo[] getTransactionInfoByIDSignature = {
             new MBeanParameterInfo("transactionID", String.class.getName(), mbr.getString(mbr.I_TXN_MGR_OP_PARAM_TXN_ID)) };
@@ -78,6 +89,25 @@ public class TransactionManagerMonitor extends MQMBeanReadOnly {
         return (Long.valueOf(numTransactionsRollback));
     }
 
+    public CompositeData getTxnLogCommitBatchSize() {
+        return (getStoreHistogram(Store.TXN_LOG_COMMIT_BATCH_SIZE_HISTOGRAM));
+    }
+
+    public CompositeData getTxnLogSyncLatency() {
+        return (getStoreHistogram(Store.TXN_LOG_SYNC_LATENCY_HISTOGRAM));
+    }
+
+    private CompositeData getStoreHistogram(String name) {
+        Histogram h = Globals.getMetricManager().getStoreHistograms().get(name);
+
+        try {
+            return (HistogramUtil.toCompositeData(h));
+        } catch (OpenDataException e) {
+            logger.log(Logger.WARNING, "Failed to get " + name + " histogram", e);
+            return (null);
+        }
+    }
+
     public void resetMetrics() {
         numTransactionsCommitted = 0;
         numTransactionsRollback = 0;
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2022 Contributors to Eclipse Foundation. All rights reserved.
+ * Copyright (c) 2022, 2026 Contributors to Eclipse Foundation. All rights reserved.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -369,6 +369,31 @@ public class MBeanResources extends MQResourceBundle {
     public static final String I_LOG_ATTR_LOG_DIRECTORY = "MB1274";
     public static final String I_LOG_ATTR_LOG_FILE_NAME = "MB1275";
 
+    public static final String I_TXN_MGR_ATTR_TXN_LOG_COMMIT_BATCH_SIZE = "MB1276";
+    public static final String I_TXN_MGR_ATTR_TXN_LOG_SYNC_LATENCY = "MB1277";
+
+    public static final String I_SVC_ATTR_PRODUCE_TO_PERSIST_LATENCY = "MB1278";
+    public static final String I_SVC_ATTR_PERSIST_TO_DELIVER_LATENCY = "MB1279";
+    public static final String I_SVC_ATTR_ACK_ROUND_TRIP_LATENCY = "MB1280";
+    public static final String I_DST_ATTR_PRODUCE_TO_PERSIST_LATENCY = "MB1281";
+    public static final String I_DST_ATTR_PERSIST_TO_DELIVER_LATENCY = "MB1282";
+    public static final String I_DST_ATTR_ACK_ROUND_TRIP_LATENCY = "MB1283";
+
+    public static final String I_DST_MGR_ATTR_LOAD_STATE = "MB1284";
+    public static final String I_DST_MGR_ATTR_NUM_DESTINATIONS_TO_LOAD = "MB1285";
+    public static final String I_DST_MGR_ATTR_NUM_DESTINATIONS_LOADED = "MB1286";
+    public static final String I_DST_MGR_ATTR_NUM_MSGS_LOADED = "MB1287";
+
+    public static final String I_DST_ATTR_BODY_CACHE_HITS = "MB1288";
+    public static final String I_DST_ATTR_BODY_CACHE_MISSES = "MB1289";
+
+    public static final String I_DST_MGR_ATTR_NUM_SCHEDULED_TIMEOUTS = "MB1290";
+    public static final String I_DST_MGR_ATTR_TIMEOUT_LAG = "MB1291";
+    public static final String I_DST_MGR_ATTR_PEAK_TIMEOUT_LAG = "MB1292";
+
+    public static final String I_CLS_ATTR_CONSUMER_DISPATCH_QUEUE_DEPTHS_DESC = "MB1293";
+    public static final String I_CLS_ATTR_CONSUMER_DISPATCH_COUNTS_DESC = "MB1294";
+
     // 2000-2999 Warning Messages
     public static final String W_DUMMY = "MB2000";
 
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.management.util;
+
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenDataException;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
+
+import com.sun.messaging.jmq.util.Histogram;
+
+public class HistogramUtil {
+
+    private static final String[] histogramItemNames = { "count", "mean", "p50", "p90", "p99", "max" };
+
+    private static final OpenType[] histogramItemTypes = {
+            SimpleType.LONG,   // count
+            SimpleType.DOUBLE, // mean
+            SimpleType.LONG,   // p50
+            SimpleType.LONG,   // p90
+            SimpleType.LONG,   // p99
+            SimpleType.LONG    // max
+    };
+
+    private static volatile CompositeType histogramCompType = null;
+
+    /**
+     * Return a summary of the histogram as CompositeData, or null if there is no histogram.
+     */
+    public static CompositeData toCompositeData(Histogram h) throws OpenDataException {
+        if (h == null) {
+            return (null);
+        }
+
+        if (histogramCompType == null) {
+            histogramCompType = new CompositeType("HistogramInfo", "HistogramInfo", histogramItemNames, histogramItemNames, histogramItemTypes);
+        }
+
+        Object[] histogramItemValues = { h.getCount(), h.getMean(), h.getPercentile(50), h.getPercentile(90), h.getPercentile(99), h.getMax() };
+
+        return (new CompositeDataSupport(histogramCompType, histogramItemNames, histogramItemValues));
+    }
+
+    private HistogramUtil() {
+    }
+}
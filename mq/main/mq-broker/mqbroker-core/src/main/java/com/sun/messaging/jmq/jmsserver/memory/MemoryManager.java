@@ -1,7 +1,7 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
  * Copyright (c) 2020 Payara Services Ltd.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -221,6 +221,13 @@ public class MemoryManager implements DiagManager.Data {
         ht.put("GC_DELTA", Integer.valueOf(GC_DELTA));
         ht.put("THRESHOLD_DELTA", Integer.valueOf(THRESHOLD_DELTA));
         ht.put("currentLevelString", currentLevelString);
+        OffHeapPayloads offHeap = OffHeapPayloads.getPayloads();
+        if (offHeap != null) {
+            ht.put("offHeapBytes", Long.valueOf(offHeap.getBytes()));
+            ht.put("offHeapMaxBytes", Long.valueOf(offHeap.getMaxBytes()));
+            ht.put("offHeapBuffers", Long.valueOf(offHeap.getBufferCount()));
+            ht.put("offHeapRejections", Long.valueOf(offHeap.getRejections()));
+        }
         if (byteLevels != null) {
             ht.put("byteLevels#", Integer.valueOf(byteLevels.length));
             Vector v = new Vector();
@@ -730,8 +737,13 @@ public class MemoryManager implements DiagManager.Data {
         if (newState != oldLevel) {
 
             MemoryLevelHandler newHandler = levelHandlers[newState];
+            MessageBodyCache cache = MessageBodyCache.getCache();
 
             if (newState > oldLevel) { // entered new state
+                if (cache != null) {
+                    // shrink first so that the gc frees the evicted packets
+                    cache.setMemoryLevel(newState, levelHandlers.length);
+                }
                 gc(newHandler.gcCount());
                 newState = calculateState();
             }
@@ -745,6 +757,10 @@ public class MemoryManager implements DiagManager.Data {
             }
             newHandler = levelHandlers[newState];
 
+            if (cache != null) {
+                cache.setMemoryLevel(newState, levelHandlers.length);
+            }
+
             // update variables
             synchronized (valuesObjectLock) {
                 JMQSizeValue = newHandler.getMessageCount(availMemory, producerCount);
@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.memory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import com.sun.messaging.jmq.io.Packet;
+import com.sun.messaging.jmq.io.SysMessageID;
+import com.sun.messaging.jmq.jmsserver.Globals;
+
+/**
+ * A size bounded cache of the packets of stored messages, which decides which message bodies stay in memory instead
+ * of leaving it to the garbage collector through SoftReferences.
+ *
+ * The cache follows the W-TinyLFU policy: a new packet goes into a small LRU window; a packet leaving the window is
+ * only admitted into the main space if it has been used more often than the packet it would evict. The use counts are
+ * kept in an aging count-min sketch, so packets which have left the cache keep their history. The main space is a
+ * segmented LRU, a packet used again while on probation moves to the protected segment.
+ *
+ * The capacity shrinks as the memory level of the MemoryManager goes up: the full size in the lowest level, halved for
+ * each level above it, and nothing in the highest level.
+ */
+public final class MessageBodyCache {
+
+    /**
+     * Whether the stored message packets are kept in this cache rather than through SoftReferences
+     */
+    public static final boolean ENABLED = Globals.getConfig().getBooleanProperty(Globals.IMQ + ".message.bodyCache.enabled", false);
+
+    /**
+     * The maximum size in bytes of the cached packets
+     */
+    static final long MAX_BYTES = Math.max(0L,
+            Globals.getConfig().getLongProperty(Globals.IMQ + ".message.bodyCache.maxBytes", Runtime.getRuntime().maxMemory() / 8));
+
+    private static final MessageBodyCache cache = (ENABLED ? new MessageBodyCache(MAX_BYTES) : null);
+
+    private static final int WINDOW_PERCENT = 1;
+    private static final int PROTECTED_PERCENT = 80;
+
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_MAX_COUNT = 15;
+    private static final int[] SKETCH_SEEDS = { 0x97cb3127, 0xbe5466cf, 0x4c3a7d1b, 0x0d63f1e5 };
+
+    private static final class Entry {
+        final SysMessageID id;
+        Packet pkt;
+        long bytes;
+
+        Entry(SysMessageID id, Packet pkt, long bytes) {
+            this.id = id;
+            this.pkt = pkt;
+            this.bytes = bytes;
+        }
+    }
+
+    private final long maxBytes;
+    private long capacity;
+    private long windowMax;
+    private long mainMax;
+    private long protectedMax;
+
+    // access ordered, the eldest entry is the least recently used
+    private final LinkedHashMap<SysMessageID, Entry> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<SysMessageID, Entry> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<SysMessageID, Entry> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private long windowBytes = 0L;
+    private long probationBytes = 0L;
+    private long protectedBytes = 0L;
+
+    private final int[] sketch;
+    private final int sketchMask;
+    private final int sampleSize;
+    private int additions = 0;
+
+    private long evictions = 0L;
+    private long rejections = 0L;
+
+    /**
+     * @return the cache of the broker, null if it is disabled
+     */
+    public static MessageBodyCache getCache() {
+        return cache;
+    }
+
+    MessageBodyCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        // size the sketch for packets of about 1k
+        int counters = Integer.highestOneBit((int) Math.min(1 << 20, Math.max(1024L, maxBytes / 1024)) - 1) << 1;
+        sketch = new int[counters];
+        sketchMask = counters - 1;
+        sampleSize = counters * 10;
+        setCapacity(maxBytes);
+    }
+
+    /**
+     * @return the packet of the message, null if it is not in the cache
+     */
+    public synchronized Packet get(SysMessageID id) {
+        increment(id);
+        Entry e = window.get(id);
+        if (e == null) {
+            e = protectedSegment.get(id);
+        }
+        if (e == null) {
+            e = probation.remove(id);
+            if (e == null) {
+                return null;
+            }
+            probationBytes -= e.bytes;
+            protectedSegment.put(id, e);
+            protectedBytes += e.bytes;
+            demoteProtected();
+        }
+        return e.pkt;
+    }
+
+    /**
+     * Add the packet of a message to the cache. It may be evicted again at once if it is used less often than the
+     * packets already cached.
+     */
+    public synchronized void put(SysMessageID id, Packet pkt, long bytes) {
+        Entry e = find(id);
+        if (e != null) {
+            e.pkt = pkt;
+            return;
+        }
+        if (capacity == 0L) {
+            return;
+        }
+        increment(id);
+        window.put(id, new Entry(id, pkt, bytes));
+        windowBytes += bytes;
+        evictWindow();
+    }
+
+    public synchronized void remove(SysMessageID id) {
+        Entry e = window.remove(id);
+        if (e != null) {
+            windowBytes -= e.bytes;
+            return;
+        }
+        e = probation.remove(id);
+        if (e != null) {
+            probationBytes -= e.bytes;
+            return;
+        }
+        e = protectedSegment.remove(id);
+        if (e != null) {
+            protectedBytes -= e.bytes;
+        }
+    }
+
+    /**
+     * Adjust the capacity to a new MemoryManager level
+     *
+     * @param level the new level, 0 is the lowest
+     * @param levels the number of levels
+     */
+    public synchronized void setMemoryLevel(int level, int levels) {
+        if (level >= levels - 1) {
+            setCapacity(0L);
+        } else {
+            setCapacity(maxBytes >> Math.min(level, 62));
+        }
+    }
+
+    private void setCapacity(long bytes) {
+        capacity = bytes;
+        windowMax = bytes * WINDOW_PERCENT / 100;
+        mainMax = bytes - windowMax;
+        protectedMax = mainMax * PROTECTED_PERCENT / 100;
+
+        evictWindow();
+        while (probationBytes + protectedBytes > mainMax) {
+            Entry victim = eldest(probation.isEmpty() ? protectedSegment : probation);
+            evict(victim);
+        }
+        demoteProtected();
+    }
+
+    public synchronized long getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getBytes() {
+        return windowBytes + probationBytes + protectedBytes;
+    }
+
+    public synchronized int getCount() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    /**
+     * @return the number of packets evicted to make room for more frequently used ones
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the number of packets not admitted because they were used less often than the ones cached
+     */
+    public synchronized long getRejections() {
+        return rejections;
+    }
+
+    private Entry find(SysMessageID id) {
+        Entry e = window.get(id);
+        if (e == null) {
+            e = probation.get(id);
+        }
+        if (e == null) {
+            e = protectedSegment.get(id);
+        }
+        return e;
+    }
+
+    private static Entry eldest(LinkedHashMap<SysMessageID, Entry> segment) {
+        Iterator<Entry> itr = segment.values().iterator();
+        return (itr.hasNext() ? itr.next() : null);
+    }
+
+    private void evict(Entry victim) {
+        if (probation.remove(victim.id) != null) {
+            probationBytes -= victim.bytes;
+        } else if (protectedSegment.remove(victim.id) != null) {
+            protectedBytes -= victim.bytes;
+        }
+        evictions++;
+    }
+
+    private void evictWindow() {
+        while (windowBytes > windowMax && !window.isEmpty()) {
+            Entry candidate = eldest(window);
+            window.remove(candidate.id);
+            windowBytes -= candidate.bytes;
+            admit(candidate);
+        }
+    }
+
+    private void admit(Entry candidate) {
+        if (candidate.bytes > mainMax) {
+            rejections++;
+            return;
+        }
+        int frequency = frequency(candidate.id);
+        while (probationBytes + protectedBytes + candidate.bytes > mainMax) {
+            Entry victim = eldest(probation.isEmpty() ? protectedSegment : probation);
+            if (frequency <= frequency(victim.id)) {
+                rejections++;
+                return;
+            }
+            evict(victim);
+        }
+        probation.put(candidate.id, candidate);
+        probationBytes += candidate.bytes;
+    }
+
+    private void demoteProtected() {
+        while (protectedBytes > protectedMax && !protectedSegment.isEmpty()) {
+            Entry e = eldest(protectedSegment);
+            protectedSegment.remove(e.id);
+            protectedBytes -= e.bytes;
+            probation.put(e.id, e);
+            probationBytes += e.bytes;
+        }
+    }
+
+    private int index(int hash, int i) {
+        int h = hash * SKETCH_SEEDS[i];
+        h ^= h >>> 16;
+        return h & sketchMask;
+    }
+
+    private void increment(SysMessageID id) {
+        int hash = id.hashCode();
+        for (int i = 0; i < SKETCH_DEPTH; i++) {
+            int idx = index(hash, i);
+            if (sketch[idx] < SKETCH_MAX_COUNT) {
+                sketch[idx]++;
+            }
+        }
+        if (++additions == sampleSize) {
+            // age the counts so that old popularity fades
+            for (int i = 0; i < sketch.length; i++) {
+                sketch[i] >>>= 1;
+            }
+            additions >>>= 1;
+        }
+    }
+
+    int frequency(SysMessageID id) {
+        int hash = id.hashCode();
+        int min = SKETCH_MAX_COUNT;
+        for (int i = 0; i < SKETCH_DEPTH; i++) {
+            min = Math.min(min, sketch[index(hash, i)]);
+        }
+        return min;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "MessageBodyCache[count=" + getCount() + ", bytes=" + getBytes() + ", capacity=" + capacity + ", evictions=" + evictions + ", rejections="
+                + rejections + "]";
+    }
+}
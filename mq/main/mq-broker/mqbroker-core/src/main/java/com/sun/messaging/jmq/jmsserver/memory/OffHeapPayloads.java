@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.memory;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.messaging.jmq.io.Packet;
+import com.sun.messaging.jmq.jmsserver.Globals;
+
+/**
+ * Keeps the bodies, and optionally the property bytes, of message packets in direct buffers outside of the java heap,
+ * so that a large backlog of messages does not have to be traced and copied by the garbage collector. A direct body is
+ * also written to the connection channels as it is, without first being copied into a temporary direct buffer.
+ *
+ * The off-heap bytes are bounded by their own limit. A packet is left on the heap once the limit is reached, or if the
+ * VM refuses the direct allocation. A buffer is given back to the limit when it becomes unreachable, which is when
+ * the packet and all shallow copies of it being delivered are gone, like it is for packets on the heap.
+ */
+public final class OffHeapPayloads {
+
+    /**
+     * Whether the payloads of message packets are moved off the heap
+     */
+    public static final boolean ENABLED = Globals.getConfig().getBooleanProperty(Globals.IMQ + ".message.offHeap.enabled", false);
+
+    /**
+     * The maximum number of payload bytes kept off the heap
+     */
+    static final long MAX_BYTES = Math.max(0L,
+            Globals.getConfig().getLongProperty(Globals.IMQ + ".message.offHeap.maxBytes", Runtime.getRuntime().maxMemory() / 2));
+
+    /**
+     * Buffers smaller than this stay on the heap, where they are cheaper to allocate and free
+     */
+    static final int MIN_BYTES = Math.max(1, Globals.getConfig().getIntProperty(Globals.IMQ + ".message.offHeap.minBytes", 1024));
+
+    /**
+     * Whether the property bytes are moved off the heap too
+     */
+    static final boolean PROPERTIES = Globals.getConfig().getBooleanProperty(Globals.IMQ + ".message.offHeap.properties", false);
+
+    private static final OffHeapPayloads payloads = (ENABLED ? new OffHeapPayloads(MAX_BYTES, MIN_BYTES, PROPERTIES) : null);
+
+    private final long maxBytes;
+    private final int minBytes;
+    private final boolean properties;
+    private final Cleaner cleaner = Cleaner.create();
+
+    private final AtomicLong bytes = new AtomicLong();
+    private final LongAdder buffers = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    /**
+     * @return the off-heap payloads of the broker, null if they are disabled
+     */
+    public static OffHeapPayloads getPayloads() {
+        return payloads;
+    }
+
+    OffHeapPayloads(long maxBytes, int minBytes, boolean properties) {
+        this.maxBytes = maxBytes;
+        this.minBytes = minBytes;
+        this.properties = properties;
+    }
+
+    /**
+     * Move the payload of the packet off the heap as far as the limit allows
+     *
+     * @return the number of bytes moved
+     */
+    public int moveOffHeap(Packet p) {
+        if (!properties && p.getMessageBodySize() < minBytes) {
+            return 0;
+        }
+        return p.moveOffHeap(properties, this::allocate);
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        if (capacity < minBytes) {
+            return null;
+        }
+        if (bytes.addAndGet(capacity) > maxBytes) {
+            bytes.addAndGet(-capacity);
+            rejections.increment();
+            return null;
+        }
+        ByteBuffer b = null;
+        try {
+            b = ByteBuffer.allocateDirect(capacity);
+        } catch (OutOfMemoryError e) {
+            // over -XX:MaxDirectMemorySize
+            bytes.addAndGet(-capacity);
+            rejections.increment();
+            return null;
+        }
+        buffers.increment();
+        // the action must not reference the buffer
+        cleaner.register(b, () -> {
+            bytes.addAndGet(-capacity);
+            buffers.decrement();
+        });
+        return b;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    public long getBufferCount() {
+        return buffers.sum();
+    }
+
+    public long getRejections() {
+        return rejections.sum();
+    }
+}
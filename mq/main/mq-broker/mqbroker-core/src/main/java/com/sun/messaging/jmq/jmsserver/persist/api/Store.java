@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -20,6 +20,7 @@ package com.sun.messaging.jmq.jmsserver.persist.api;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Hashtable;
@@ -34,6 +35,7 @@ import com.sun.messaging.bridge.api.KeyNotFoundException;
 import com.sun.messaging.bridge.api.UpdateOpaqueDataCallback;
 import com.sun.messaging.jmq.io.SysMessageID;
 import com.sun.messaging.jmq.io.Status;
+import com.sun.messaging.jmq.util.Histogram;
 import com.sun.messaging.jmq.util.UID;
 import com.sun.messaging.jmq.jmsserver.Broker;
 import com.sun.messaging.jmq.jmsserver.Globals;
@@ -72,6 +74,7 @@ public abstract class Store implements JMSBridgeStore {
     public static final boolean CREATE_STORE_PROP_DEFAULT = false;
 
     public static final String FILE_STORE_TYPE = "file";
+    public static final String JOURNAL_STORE_TYPE = "journal";
     public static final String JDBC_STORE_TYPE = "jdbc";
     public static final String BDB_STORE_TYPE = "bdb";
 
@@ -453,6 +456,25 @@ public abstract class Store implements JMSBridgeStore {
      */
     public abstract Hashtable getDebugState() throws BrokerException;
 
+    /**
+     * Name of the histogram of the number of records written and synced together by the file store transaction log
+     */
+    public static final String TXN_LOG_COMMIT_BATCH_SIZE_HISTOGRAM = "txnLog.commitBatchSize";
+
+    /**
+     * Name of the histogram of the time in microseconds taken to write and sync a file store transaction log record
+     */
+    public static final String TXN_LOG_SYNC_LATENCY_HISTOGRAM = "txnLog.syncLatencyMicros";
+
+    /**
+     * Get the latency and batching histograms kept by the store, keyed by name.
+     *
+     * @return a Map of histogram name to Histogram, empty if the store keeps none
+     */
+    public Map<String, Histogram> getStoreHistograms() {
+        return Collections.emptyMap();
+    }
+
     // HA cluster support APIs
 
     /**
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021, 2022 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -52,6 +52,8 @@ public class StoreManager {
 
     private static final String DEFAULT_FILESTORE_CLASS = "com.sun.messaging.jmq.jmsserver.persist.file.FileStore";
 
+    private static final String DEFAULT_JOURNALSTORE_CLASS = "com.sun.messaging.jmq.jmsserver.persist.file.JournalStore";
+
     private static final String DEFAULT_JDBCSTORE_CLASS = "com.sun.messaging.jmq.jmsserver.persist.jdbc.JDBCStore";
 
     public static final String PARTITION_MODE_PROP = PERSIST_PROP_PREFIX + "partitionMode.enabled";
@@ -76,7 +78,8 @@ public class StoreManager {
      * {@literal jmq.persist.<type>.class=<classname>}
      * <p>
      * If the type property is not defined, the default file based store will be instantiated and returned. If 'jdbc' type
-     * is defined, and no class is defined, the default jdbc based store will be instantiated and returned.
+     * is defined, and no class is defined, the default jdbc based store will be instantiated and returned. The 'journal'
+     * type is a file based store that keeps messages in a single memory-mapped journal instead of per destination files.
      * <p>
      * If the type property is defined but we fail to instantiate the correspoinding class, a BrokerException will be thrown
      *
@@ -109,6 +112,10 @@ public class StoreManager {
                 if (type.equals(Store.FILE_STORE_TYPE)) {
                     classname = DEFAULT_FILESTORE_CLASS;
                     isConfiguredFileStore = Boolean.TRUE;
+                } else if (type.equals(Store.JOURNAL_STORE_TYPE)) {
+                    // a file store that keeps messages in a shared journal
+                    classname = DEFAULT_JOURNALSTORE_CLASS;
+                    isConfiguredFileStore = Boolean.TRUE;
                 } else if (type.equals(Store.JDBC_STORE_TYPE)) {
                     classname = DEFAULT_JDBCSTORE_CLASS;
                     isConfiguredJDBCStore = Boolean.TRUE;
@@ -189,6 +196,9 @@ public class StoreManager {
     }
 
     public static boolean isConfiguredFileStore() {
+        if (isConfiguredFileStore == null && isConfiguredAs(null, Store.JOURNAL_STORE_TYPE)) {
+            return true;
+        }
         return isConfiguredAs(isConfiguredFileStore, Store.FILE_STORE_TYPE);
     }
 
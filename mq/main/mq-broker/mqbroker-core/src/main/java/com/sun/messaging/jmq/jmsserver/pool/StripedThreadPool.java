@@ -0,0 +1,518 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.pool;
+
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.glassfish.grizzly.monitoring.DefaultMonitoringConfig;
+import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
+import org.glassfish.grizzly.threadpool.ThreadPoolInfo;
+import org.glassfish.grizzly.threadpool.ThreadPoolProbe;
+
+import com.sun.messaging.jmq.jmsserver.Globals;
+import com.sun.messaging.jmq.jmsserver.resources.BrokerResources;
+import com.sun.messaging.jmq.util.MQThread;
+import com.sun.messaging.jmq.util.log.Logger;
+
+/**
+ * A thread pool which hands out and takes back runnables without a pool wide lock.
+ *
+ * Idle runnables are kept in striped lock-free deques. A thread releases a runnable to the stripe of its own thread and
+ * takes the most recently released runnable from that stripe first, so a recently used (warm) thread is reused; if its
+ * stripe is empty it steals the oldest idle runnable of the other stripes. Thread counts are kept in atomic counters and
+ * the minimum and maximum are volatile, so setMinMax() never blocks getAvailRunnable() or releaseRunnable().
+ *
+ * The RunnableFactory, minimum/maximum and timeout behavior are the same as for ThreadPool: runnables beyond the
+ * minimum exit after being idle for imq.thread.expiration.timeout seconds and threads exiting below the minimum are
+ * recreated. Lowering the maximum destroys idle runnables over the new maximum at once and busy ones when they are
+ * released, rather than the operations they run.
+ *
+ * ThreadPoolProbes (e.g. ThreadPoolProbeImpl) added with addProbe() are notified of thread allocation and release and
+ * of the maximum being reached.
+ */
+public class StripedThreadPool extends ThreadPool {
+
+    private final ConcurrentLinkedDeque<BasicRunnable>[] stripes;
+
+    private final int stripeMask;
+
+    /**
+     * runnables which have a thread and are not being destroyed, by id
+     */
+    private final ConcurrentHashMap<Integer, BasicRunnable> running = new ConcurrentHashMap<>();
+
+    /**
+     * runnables being destroyed whose thread has not exited yet, by id
+     */
+    private final ConcurrentHashMap<Integer, BasicRunnable> retiring = new ConcurrentHashMap<>();
+
+    /**
+     * ids of exited runnables for reuse
+     */
+    private final ConcurrentLinkedQueue<Integer> freeIds = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger nextId = new AtomicInteger(0);
+
+    // the size of running
+    private final AtomicInteger threadCount = new AtomicInteger(0);
+
+    private final AtomicInteger idleCount = new AtomicInteger(0);
+
+    private volatile int minThreads;
+
+    private volatile int maxThreads;
+
+    // used only by callers waiting for a runnable when the maximum is reached
+    private final ReentrantLock waitLock = new ReentrantLock();
+    private final Condition runnableAvailable = waitLock.newCondition();
+    private final AtomicInteger waiters = new AtomicInteger(0);
+
+    private final List<ThreadPoolProbe> probes = new CopyOnWriteArrayList<>();
+
+    private final ThreadPoolInfo info = new ThreadPoolInfo() {
+        @Override
+        public int getSize() {
+            return threadCount.get();
+        }
+
+        @Override
+        public ThreadPoolConfig getConfig() {
+            return null;
+        }
+
+        @Override
+        public DefaultMonitoringConfig<ThreadPoolProbe> getMonitoringConfig() {
+            return null;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return !isValid();
+        }
+
+        @Override
+        public int getQueueSize() {
+            return idleCount.get();
+        }
+
+        @Override
+        public String toString() {
+            return "StripedThreadPool(" + name + ")";
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    public StripedThreadPool(String name, int min, int max, RunnableFactory runfac) {
+        super(name, min, max, runfac);
+        this.minThreads = min;
+        this.maxThreads = max;
+        int n = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+        stripes = new ConcurrentLinkedDeque[n];
+        for (int i = 0; i < n; i++) {
+            stripes[i] = new ConcurrentLinkedDeque<>();
+        }
+        stripeMask = n - 1;
+    }
+
+    public void addProbe(ThreadPoolProbe probe) {
+        probes.add(probe);
+    }
+
+    @Override
+    public int getMinimum() {
+        return minThreads;
+    }
+
+    @Override
+    public int getMaximum() {
+        return maxThreads;
+    }
+
+    @Override
+    public int getThreadNum() {
+        return threadCount.get();
+    }
+
+    @Override
+    public int getAssignedCnt() {
+        return threadCount.get() - idleCount.get();
+    }
+
+    @Override
+    public Hashtable getDebugState() {
+        Hashtable ht = new Hashtable();
+        ht.put("min", Integer.valueOf(minThreads));
+        ht.put("max", Integer.valueOf(maxThreads));
+        ht.put("name", name);
+        ht.put("striped", Boolean.TRUE);
+        ht.put("stripes", Integer.valueOf(stripes.length));
+        ht.put("threadCount", Integer.valueOf(threadCount.get()));
+        ht.put("idleCount", Integer.valueOf(idleCount.get()));
+        ht.put("valid", Boolean.valueOf(isValid()));
+        ht.put("notActive", Boolean.valueOf(isSuspended()));
+        ht.put("priority", Integer.valueOf(priority));
+        return ht;
+    }
+
+    @Override
+    public void debug() {
+        StringBuilder info = new StringBuilder();
+        info.append("\n--------------------------------------------\n DUMPING STRIPED THREAD POOL ").append(this).append("\n[min, max, threads, idle] = [")
+                .append(minThreads).append(',').append(maxThreads).append(',').append(threadCount.get()).append(',').append(idleCount.get())
+                .append("]\n---- runnables ----\n");
+        for (BasicRunnable runner : running.values()) {
+            info.append(runner.getId()).append('\t').append(runner).append('\n');
+        }
+        info.append("--------------------------------------------\n");
+        logger.log(Logger.DEBUG, info.toString());
+    }
+
+    /**
+     * @return int[0] - min; int[1] - max; -1 no change
+     *
+     * @throws IllegalArgumentException
+     */
+    @Override
+    public int[] setMinMax(int newmin, int newmax) {
+        int[] rets = { -1, -1 };
+        if (!isValid()) {
+            return rets; // nothing to do
+        }
+        synchronized (this) {
+            // only serializes concurrent resizes, dispatch does not use this lock
+            if (newmin == -1) {
+                newmin = minThreads;
+            }
+            if (newmax == -1) {
+                newmax = maxThreads;
+            }
+            if (newmin > newmax) {
+                String[] args = { name, String.valueOf(newmin), String.valueOf(newmax) };
+                logger.log(Logger.WARNING, Globals.getBrokerResources().getKString(BrokerResources.W_THREADPOOL_MIN_GT_MAX_SET_MIN_TO_MAX, args));
+                newmin = newmax;
+            }
+            if (minThreads != newmin) {
+                minThreads = newmin;
+                min = newmin;
+                rets[0] = newmin;
+            }
+            if (maxThreads != newmax) {
+                maxThreads = newmax;
+                max = newmax;
+                rets[1] = newmax;
+            }
+
+            // the first newmin runnables stay, the others time out when idle
+            int i = 0;
+            for (BasicRunnable runner : running.values()) {
+                runner.setThreadBehavior(i < newmin ? BasicRunnable.B_STAY_RUNNING : BasicRunnable.B_TIMEOUT_THREAD);
+                i++;
+            }
+        }
+        // destroy idle runnables over the new maximum
+        while (threadCount.get() > maxThreads) {
+            BasicRunnable runner = pollIdle(0);
+            if (runner == null) {
+                break;
+            }
+            if (!retireOverMax(runner)) {
+                pushIdle(runner);
+                break;
+            }
+        }
+        signalWaiters();
+        return rets;
+    }
+
+    private int homeStripe() {
+        return (int) Thread.currentThread().threadId() & stripeMask;
+    }
+
+    private BasicRunnable pollIdle(int home) {
+        BasicRunnable runner = stripes[home].pollFirst();
+        for (int i = 1; runner == null && i < stripes.length; i++) {
+            // steal the oldest idle runnable of another stripe
+            runner = stripes[(home + i) & stripeMask].pollLast();
+        }
+        if (runner != null) {
+            idleCount.decrementAndGet();
+        }
+        return runner;
+    }
+
+    /**
+     * get a runnable to use (its assigned when returned)
+     */
+    @Override
+    public BasicRunnable getAvailRunnable(boolean wait) {
+        int home = homeStripe();
+        while (isValid()) {
+            BasicRunnable runner = pollIdle(home);
+            if (runner != null) {
+                synchronized (runner) {
+                    if (runner.available()) {
+                        runner.setState(BasicRunnable.RUN_PREASSIGNED);
+                        return runner;
+                    }
+                }
+                // timed out or getting destroyed, try the next one
+                continue;
+            }
+
+            int cnt = threadCount.get();
+            if (cnt < maxThreads) {
+                if (threadCount.compareAndSet(cnt, cnt + 1)) {
+                    runner = createNewThread(cnt + 1);
+                    if (runner == null) {
+                        continue;
+                    }
+                    synchronized (runner) {
+                        if (runner.available()) {
+                            runner.setState(BasicRunnable.RUN_PREASSIGNED);
+                            return runner;
+                        }
+                    }
+                }
+                continue;
+            }
+
+            for (ThreadPoolProbe probe : probes) {
+                probe.onMaxNumberOfThreadsEvent(info, cnt);
+            }
+            if (!wait) {
+                return null; // nothing available
+            }
+            waitLock.lock();
+            waiters.incrementAndGet();
+            try {
+                if (idleCount.get() == 0 && threadCount.get() >= maxThreads && isValid()) {
+                    runnableAvailable.await(1, TimeUnit.SECONDS);
+                }
+            } catch (InterruptedException ex) {
+                return null;
+            } finally {
+                waiters.decrementAndGet();
+                waitLock.unlock();
+            }
+        }
+        return null;
+    }
+
+    private void signalWaiters() {
+        if (waiters.get() > 0) {
+            waitLock.lock();
+            try {
+                runnableAvailable.signalAll();
+            } finally {
+                waitLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * create a new thread, threadCount has already been incremented
+     *
+     * @param count the thread count including the new thread
+     */
+    private BasicRunnable createNewThread(int count) {
+        Integer id = freeIds.poll();
+        if (id == null) {
+            id = Integer.valueOf(nextId.getAndIncrement());
+        }
+        BasicRunnable runner = null;
+        try {
+            runner = runfac.getRunnable(id.intValue(), this);
+            running.put(id, runner);
+            runner.setState(BasicRunnable.RUN_READY);
+            Thread thr = new MQThread(tgroup, runner, "Thread-" + name + "[" + id + "]");
+            thr.setPriority(priority);
+            if (count > minThreads) {
+                runner.setThreadBehavior(BasicRunnable.B_TIMEOUT_THREAD);
+            }
+            thr.start();
+            for (ThreadPoolProbe probe : probes) {
+                probe.onThreadAllocateEvent(info, thr);
+            }
+            return runner;
+        } catch (RuntimeException | OutOfMemoryError e) {
+            if (runner != null) {
+                running.remove(id);
+            }
+            freeIds.add(id);
+            threadCount.decrementAndGet();
+            logger.logStack(Logger.ERROR, BrokerResources.E_INTERNAL_BROKER_ERROR, "creating thread for " + name, e);
+            return null;
+        }
+    }
+
+    /**
+     * destroy a runnable which is not idle if the pool has more threads than its maximum
+     *
+     * @return true if the runnable is destroyed
+     */
+    private boolean retireOverMax(BasicRunnable runner) {
+        Integer id = Integer.valueOf(runner.getId());
+        int cnt;
+        while ((cnt = threadCount.get()) > maxThreads) {
+            // claim the decrement first, so concurrent callers don't shrink the pool below its maximum
+            if (threadCount.compareAndSet(cnt, cnt - 1)) {
+                if (running.remove(id, runner)) {
+                    retiring.put(id, runner);
+                    runner.destroy();
+                } else {
+                    // already being destroyed and counted
+                    threadCount.incrementAndGet();
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void runnableDestroying(int indx) {
+        Integer id = Integer.valueOf(indx);
+        BasicRunnable runner = running.remove(id);
+        if (runner == null) {
+            return; // already being destroyed
+        }
+        retiring.put(id, runner);
+        threadCount.decrementAndGet();
+        for (int i = 0; i < stripes.length; i++) {
+            if (stripes[i].remove(runner)) {
+                idleCount.decrementAndGet();
+                break;
+            }
+        }
+        signalWaiters();
+    }
+
+    @Override
+    public void runnableExit(int indx) {
+        Integer id = Integer.valueOf(indx);
+        if (retiring.remove(id) == null) {
+            return;
+        }
+        freeIds.add(id);
+        int cnt = threadCount.get();
+        for (ThreadPoolProbe probe : probes) {
+            probe.onThreadReleaseEvent(info, Thread.currentThread());
+        }
+        if (isValid() && cnt < minThreads) {
+            // recreate
+            if (threadCount.compareAndSet(cnt, cnt + 1)) {
+                BasicRunnable runner = createNewThread(cnt + 1);
+                if (runner != null) {
+                    pushIdle(runner);
+                }
+            }
+        }
+        signalWaiters();
+    }
+
+    private void pushIdle(BasicRunnable runner) {
+        // count it once it can be polled, so that getAssignedCnt() never claims more than can be handed out
+        stripes[homeStripe()].addFirst(runner);
+        idleCount.incrementAndGet();
+    }
+
+    @Override
+    public void releaseRunnable(BasicRunnable run) {
+        if (!isValid()) {
+            return; // nothing to do
+        }
+        if (run == null) {
+            logger.log(Logger.WARNING, BrokerResources.E_INTERNAL_BROKER_ERROR, "null basic runnable " + run);
+            return;
+        }
+        if (retireOverMax(run)) {
+            // the pool has been shrunk
+            return;
+        }
+        pushIdle(run);
+        signalWaiters();
+    }
+
+    private List<BasicRunnable> getRunning() {
+        List<BasicRunnable> all = new ArrayList<>(running.values());
+        all.addAll(retiring.values());
+        return all;
+    }
+
+    @Override
+    public void suspend() {
+        super.suspend();
+        for (BasicRunnable runner : getRunning()) {
+            runner.suspend();
+        }
+    }
+
+    @Override
+    public void resume() {
+        super.resume();
+        for (BasicRunnable runner : getRunning()) {
+            runner.resume();
+        }
+        synchronized (this) {
+            notifyAll();
+        }
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        for (ThreadPoolProbe probe : probes) {
+            probe.onThreadPoolStartEvent(info);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        for (BasicRunnable runner : getRunning()) {
+            runner.destroy();
+        }
+        signalWaiters();
+    }
+
+    @Override
+    public void waitOnDestroy(long timeout) {
+        destroy();
+        for (BasicRunnable runner : getRunning()) {
+            if (runner.isBusy()) {
+                runner.waitOnDestroy(timeout);
+            }
+            if (!runner.isDestroyed() && runner.isCritical()) {
+                logger.log(Logger.WARNING, BrokerResources.W_CANNOT_DESTROY_OPERATION, runner, String.valueOf(timeout));
+            }
+        }
+        super.waitOnDestroy(timeout);
+        for (ThreadPoolProbe probe : probes) {
+            probe.onThreadPoolStopEvent(info);
+        }
+    }
+}
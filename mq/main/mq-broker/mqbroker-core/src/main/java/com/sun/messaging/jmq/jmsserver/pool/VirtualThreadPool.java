@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.pool;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+
+import com.sun.messaging.jmq.jmsserver.Globals;
+import com.sun.messaging.jmq.jmsserver.resources.BrokerResources;
+import com.sun.messaging.jmq.util.log.Logger;
+
+/**
+ * A thread pool which runs each runnable on its own virtual thread.
+ *
+ * Virtual threads are cheap to create and to keep blocked, so runnables are not kept for reuse: every call to
+ * getAvailRunnable() starts a new virtual thread and a released runnable is destroyed, which ends its thread. The
+ * maximum is still enforced, the minimum is ignored since no idle threads are kept.
+ */
+public class VirtualThreadPool extends ThreadPool {
+
+    private static final Thread.UncaughtExceptionHandler UNCAUGHT_HANDLER = (t, thr) -> Globals.handleGlobalError(thr, "Unexpected thread pool error");
+
+    /**
+     * runnables which have a running thread, by id
+     */
+    private final Map<Integer, BasicRunnable> running = new HashMap<>();
+
+    public VirtualThreadPool(String name, int min, int max, RunnableFactory runfac) {
+        super(name, min, max, runfac);
+    }
+
+    @Override
+    public synchronized Hashtable getDebugState() {
+        Hashtable ht = super.getDebugState();
+        ht.put("virtual", Boolean.TRUE);
+        ht.put("runningCnt", Integer.valueOf(running.size()));
+        return ht;
+    }
+
+    @Override
+    public synchronized void debug() {
+        StringBuilder info = new StringBuilder();
+        info.append("\n--------------------------------------------\n DUMPING VIRTUAL THREAD POOL ").append(this).append("\n[max, running] = [")
+                .append(max).append(',').append(running.size()).append("]\n---- runnables ----\n");
+        for (BasicRunnable runner : running.values()) {
+            info.append(runner.getId()).append('\t').append(runner).append('\n');
+        }
+        info.append("--------------------------------------------\n");
+        logger.log(Logger.DEBUG, info.toString());
+    }
+
+    @Override
+    public synchronized int getAssignedCnt() {
+        return current_count;
+    }
+
+    @Override
+    public BasicRunnable getAvailRunnable(boolean wait) {
+        BasicRunnable runner = null;
+        synchronized (this) {
+            while (wait && isValid() && current_count >= max) {
+                try {
+                    wait();
+                } catch (InterruptedException ex) {
+                    return null;
+                }
+            }
+            if (!isValid() || current_count >= max) {
+                return null; // nothing available
+            }
+            int indx = nextThreadId;
+            while (running.containsKey(Integer.valueOf(indx))) {
+                indx = (indx + 1) & Integer.MAX_VALUE;
+            }
+            nextThreadId = (indx + 1) & Integer.MAX_VALUE;
+
+            runner = runfac.getRunnable(indx, this);
+            runner.setState(BasicRunnable.RUN_READY);
+            runner.setState(BasicRunnable.RUN_PREASSIGNED);
+            running.put(Integer.valueOf(indx), runner);
+            current_count++;
+        }
+        Thread thr = Thread.ofVirtual().name("Thread-" + name + "[" + runner.getId() + "]").uncaughtExceptionHandler(UNCAUGHT_HANDLER).unstarted(runner);
+        thr.start();
+        return runner;
+    }
+
+    @Override
+    public void runnableDestroying(int indx) {
+        // nothing to do, the runnable is removed when its thread exits
+    }
+
+    @Override
+    public synchronized void runnableExit(int indx) {
+        if (running.remove(Integer.valueOf(indx)) != null) {
+            current_count--;
+        }
+        notifyAll();
+    }
+
+    @Override
+    public void releaseRunnable(BasicRunnable run) {
+        if (run == null) {
+            return;
+        }
+        // don't keep idle virtual threads, let the thread exit
+        run.destroy();
+    }
+
+    private synchronized List<BasicRunnable> getRunning() {
+        return new ArrayList<>(running.values());
+    }
+
+    @Override
+    public void suspend() {
+        super.suspend();
+        for (BasicRunnable runner : getRunning()) {
+            runner.suspend();
+        }
+    }
+
+    @Override
+    public void resume() {
+        super.resume();
+        for (BasicRunnable runner : getRunning()) {
+            runner.resume();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        for (BasicRunnable runner : getRunning()) {
+            runner.destroy();
+        }
+        synchronized (this) {
+            notifyAll();
+        }
+    }
+
+    @Override
+    public void waitOnDestroy(long timeout) {
+        destroy();
+        for (BasicRunnable runner : getRunning()) {
+            if (runner.isBusy()) {
+                runner.waitOnDestroy(timeout);
+            }
+            if (!runner.isDestroyed() && runner.isCritical()) {
+                logger.log(Logger.WARNING, BrokerResources.W_CANNOT_DESTROY_OPERATION, runner, String.valueOf(timeout));
+            }
+        }
+        super.waitOnDestroy(timeout);
+    }
+}
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2022, 2025 Contributors to Eclipse Foundation. All rights reserved.
+ * Copyright (c) 2022, 2026 Contributors to Eclipse Foundation. All rights reserved.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -18,16 +18,21 @@
 package com.sun.messaging.jmq.jmsserver.service;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import com.sun.messaging.jmq.util.Histogram;
 import com.sun.messaging.jmq.util.MetricCounters;
 import com.sun.messaging.jmq.util.MetricData;
 import com.sun.messaging.jmq.util.timer.MQTimer;
 import com.sun.messaging.jmq.util.log.Logger;
 import com.sun.messaging.jmq.jmsserver.Globals;
+import com.sun.messaging.jmq.jmsserver.core.MessageLatency;
 import com.sun.messaging.jmq.jmsserver.resources.*;
 import com.sun.messaging.jmq.jmsserver.service.imq.IMQService;
 import com.sun.messaging.jmq.jmsserver.service.imq.IMQConnection;
 import com.sun.messaging.jmq.jmsserver.config.ConfigListener;
 import com.sun.messaging.jmq.jmsserver.config.PropertyUpdateException;
+import com.sun.messaging.jmq.jmsserver.persist.api.Store;
+import com.sun.messaging.jmq.jmsserver.util.BrokerException;
 
 /**
  * MetricManager manages configuration and running of metric reports
@@ -36,9 +41,12 @@ import com.sun.messaging.jmq.jmsserver.config.PropertyUpdateException;
 @SuppressWarnings("JdkObsolete")
 public class MetricManager implements ConfigListener {
 
-    // Hashtable of MetricCounters. Key is service name.
+    // Map of MetricCounters. Key is service name.
     // Holds totals for that service's connections that have gone away.
-    private Hashtable deadTotalsByService = new Hashtable();
+    private Map<String, MetricCounters> deadTotalsByService = new ConcurrentHashMap<>();
+
+    // Message latencies of each service. Key is service name.
+    private Map<String, MessageLatency> latencyByService = new ConcurrentHashMap<>();
 
     private MetricTask task = null;
 
@@ -64,20 +72,40 @@ public class MetricManager implements ConfigListener {
     /**
      * Used by connections that are going away to deposit their totals, so they won't be lost.
      */
-    public synchronized void depositTotals(String service, MetricCounters counters) {
-        MetricCounters mc = (MetricCounters) deadTotalsByService.get(service);
-        if (mc == null) {
-            mc = new MetricCounters();
-            deadTotalsByService.put(service, mc);
-        }
-        mc.update(counters);
+    public void depositTotals(String service, MetricCounters counters) {
+        deadTotalsByService.computeIfAbsent(service, s -> new MetricCounters()).update(counters);
     }
 
     public synchronized void reset() {
         deadTotalsByService.clear();
+        for (MessageLatency latency : latencyByService.values()) {
+            latency.reset();
+        }
         lastSample = new MetricCounters();
     }
 
+    /**
+     * Get the message latencies of the specified service
+     */
+    public MessageLatency getMessageLatency(String serviceName) {
+        MessageLatency latency = latencyByService.get(serviceName);
+        if (latency == null) {
+            latency = latencyByService.computeIfAbsent(serviceName, s -> new MessageLatency());
+        }
+        return latency;
+    }
+
+    /**
+     * Get the message latencies of all services
+     */
+    public MessageLatency getMessageLatency() {
+        MessageLatency totals = new MessageLatency();
+        for (MessageLatency latency : latencyByService.values()) {
+            totals.add(latency);
+        }
+        return totals;
+    }
+
     public synchronized void setInterval(long interval) {
         if (interval > 0 && isEnabled()) {
             // Reschedule task at new interval. Unfortunately the timer
@@ -143,7 +171,7 @@ public class MetricManager implements ConfigListener {
     /**
      * Get the metric counters for the specified service. If serviceName is null then do it for all services
      */
-    public synchronized MetricCounters getMetricCounters(String serviceName) {
+    public MetricCounters getMetricCounters(String serviceName) {
 
         ConnectionManager cm = Globals.getConnectionManager();
 
@@ -152,15 +180,19 @@ public class MetricManager implements ConfigListener {
         // Add counters for connections that no longer exist
         if (serviceName == null) {
             // Sum values for all services
-            Enumeration e;
-            for (e = deadTotalsByService.elements(); e.hasMoreElements();) {
-                totals.update((MetricCounters) e.nextElement());
+            for (MetricCounters deadTotals : deadTotalsByService.values()) {
+                totals.update(deadTotals);
             }
+            getMessageLatency().copyTo(totals);
         } else {
             // Sum values for just the specified service
-            MetricCounters deadTotals = (MetricCounters) deadTotalsByService.get(serviceName);
+            MetricCounters deadTotals = deadTotalsByService.get(serviceName);
             if (deadTotals != null) {
-                totals.update((MetricCounters) deadTotalsByService.get(serviceName));
+                totals.update(deadTotals);
+            }
+            MessageLatency latency = latencyByService.get(serviceName);
+            if (latency != null) {
+                latency.copyTo(totals);
             }
         }
 
@@ -255,6 +287,22 @@ public class MetricManager implements ConfigListener {
         return md;
     }
 
+    /**
+     * Get the latency and batching histograms of the persistent store, such as the transaction log commit batch size and
+     * sync latency. Returns an empty map if the store is not available or keeps no histograms.
+     */
+    public Map<String, Histogram> getStoreHistograms() {
+        try {
+            Store store = Globals.getStore();
+            if (store != null) {
+                return store.getStoreHistograms();
+            }
+        } catch (BrokerException e) {
+            logger.log(Logger.DEBUG, "Unable to get store histograms: " + e.getMessage());
+        }
+        return Collections.emptyMap();
+    }
+
     /**
      * The task scheduled on the timer
      */
@@ -265,7 +313,19 @@ public class MetricManager implements ConfigListener {
         @Override
         public void run() {
             MetricData md = getMetrics();
-            logger.log(Logger.INFO, "\n" + md.toString());
+            StringBuilder sb = new StringBuilder("\n").append(md.toString());
+            for (Histogram h : getStoreHistograms().values()) {
+                if (h.getCount() > 0) {
+                    sb.append('\n').append(h);
+                }
+            }
+            for (Map.Entry<String, MessageLatency> e : latencyByService.entrySet()) {
+                String latencies = e.getValue().toString();
+                if (!latencies.isEmpty()) {
+                    sb.append('\n').append(e.getKey()).append(": ").append(latencies.replace("\n", "\n" + e.getKey() + ": "));
+                }
+            }
+            logger.log(Logger.INFO, sb.toString());
         }
     }
 }
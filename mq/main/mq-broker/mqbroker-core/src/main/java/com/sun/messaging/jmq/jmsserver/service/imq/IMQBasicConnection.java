@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -126,14 +126,10 @@ public abstract class IMQBasicConnection extends IMQConnection {
         if (pkt == null) {
             return;
         }
-        if (pkt.getPacketType() <= PacketType.MESSAGE && pkt.getPacketType() >= PacketType.TEXT_MESSAGE) {
-
-            // It's a JMS message, update both packet and message counters
-            counters.updateIn(1, pkt.getPacketSize(), 1, pkt.getPacketSize());
-        } else {
-            // It's a control message. Only update packet counters
-            counters.updateIn(0, 0, 1, pkt.getPacketSize());
-        }
+        // A JMS message updates both packet and message counters,
+        // a control message only the packet counters
+        int type = pkt.getPacketType();
+        counters.countIn(type <= PacketType.MESSAGE && type >= PacketType.TEXT_MESSAGE, pkt.getPacketSize());
     }
 
     /**
@@ -143,14 +139,10 @@ public abstract class IMQBasicConnection extends IMQConnection {
         if (pkt == null) {
             return;
         }
-        if (pkt.getPacketType() <= PacketType.MESSAGE && pkt.getPacketType() >= PacketType.TEXT_MESSAGE) {
-
-            // It's a JMS message, update both packet and message counters
-            counters.updateOut(1, pkt.getPacketSize(), 1, pkt.getPacketSize());
-        } else {
-            // It's a control message. Only update packet counters
-            counters.updateOut(0, 0, 1, pkt.getPacketSize());
-        }
+        // A JMS message updates both packet and message counters,
+        // a control message only the packet counters
+        int type = pkt.getPacketType();
+        counters.countOut(type <= PacketType.MESSAGE && type >= PacketType.TEXT_MESSAGE, pkt.getPacketSize());
     }
 
     public void flushControl(long timeout) {
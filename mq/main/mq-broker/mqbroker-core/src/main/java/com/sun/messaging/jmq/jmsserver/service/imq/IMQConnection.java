@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2022, 2025 Contributors to Eclipse Foundation. All rights reserved.
+ * Copyright (c) 2022, 2026 Contributors to Eclipse Foundation. All rights reserved.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -18,6 +18,7 @@
 package com.sun.messaging.jmq.jmsserver.service.imq;
 
 import java.util.*;
+import java.util.concurrent.locks.LockSupport;
 
 import com.sun.messaging.jmq.jmsserver.service.*;
 
@@ -30,6 +31,7 @@ import com.sun.messaging.jmq.jmsserver.auth.AccessController;
 import com.sun.messaging.jmq.io.*;
 import com.sun.messaging.jmq.util.UID;
 import com.sun.messaging.jmq.util.MetricCounters;
+import com.sun.messaging.jmq.util.StripedMetricCounters;
 import com.sun.messaging.jmq.util.admin.ConnectionInfo;
 import com.sun.messaging.jmq.util.GoodbyeReason;
 import com.sun.messaging.jmq.jmsserver.data.TransactionList;
@@ -107,9 +109,9 @@ public abstract class IMQConnection extends Connection implements com.sun.messag
     }
 
     /**
-     * Metric counters
+     * Metric counters, updated for every packet
      */
-    protected MetricCounters counters = new MetricCounters();
+    protected StripedMetricCounters counters = new StripedMetricCounters();
 
     /**
      * connection information (used by admin)
@@ -263,7 +265,7 @@ public abstract class IMQConnection extends Connection implements com.sun.messag
     }
 
     public void resetCounters() {
-        counters = new MetricCounters();
+        counters = new StripedMetricCounters();
     }
 
     public ConnectionInfo getConnectionInfo() {
@@ -287,7 +289,7 @@ public abstract class IMQConnection extends Connection implements com.sun.messag
 
         coninfo.uuid = this.conId.longValue();
 
-        coninfo.metrics = (MetricCounters) counters.clone();
+        coninfo.metrics = counters.toMetricCounters();
         coninfo.clientID = (String) getClientData(CLIENT_ID);
         coninfo.nproducers = producers.size();
 
@@ -308,10 +310,10 @@ public abstract class IMQConnection extends Connection implements com.sun.messag
     }
 
     /**
-     * Retrieve metric counters
+     * Retrieve a copy of the metric counters
      */
     public MetricCounters getMetricCounters() {
-        return counters;
+        return counters.toMetricCounters();
     }
 
     public abstract boolean useDirectBuffers();
@@ -646,11 +648,15 @@ public abstract class IMQConnection extends Connection implements com.sun.messag
     Object stateLock = new Object();
     boolean busy = false;
 
+    // a virtual thread parked waiting for work, guarded by stateLock
+    Thread parkedWriter = null;
+
     protected abstract void checkState();
 
     public void wakeup() {
         synchronized (stateLock) {
             stateLock.notifyAll();
+            LockSupport.unpark(parkedWriter);
         }
     }
 
@@ -1,5 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -252,7 +253,7 @@ public class IMQDirectConnection extends IMQConnection {
             // with the metric manager
             MetricManager mm = Globals.getMetricManager();
             if (mm != null) {
-                mm.depositTotals(service.getName(), counters);
+                mm.depositTotals(service.getName(), counters.toMetricCounters());
             }
 
             // Clear, just in case we are called twice
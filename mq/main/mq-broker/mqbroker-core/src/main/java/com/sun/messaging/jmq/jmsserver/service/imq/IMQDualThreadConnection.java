@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021, 2024 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -37,7 +37,6 @@ import com.sun.messaging.jmq.jmsserver.resources.BrokerResources;
 import com.sun.messaging.jmq.jmsserver.service.Connection;
 import com.sun.messaging.jmq.jmsserver.service.Service;
 import com.sun.messaging.jmq.jmsserver.util.BrokerException;
-import com.sun.messaging.jmq.jmsserver.util.IMQBlockingQueue;
 import com.sun.messaging.jmq.jmsservice.DirectBrokerConnection;
 import com.sun.messaging.jmq.jmsservice.HandOffQueue;
 import com.sun.messaging.jmq.util.lists.EventType;
@@ -66,7 +65,7 @@ public class IMQDualThreadConnection extends IMQBasicConnection implements Direc
     ThreadLocal<Queue<Packet>> replies = new ThreadLocal<>();
     // packets which originate in the broker (e.g. a message being sent to a consumer)
     // are written to the output queue for the client to pick up in another thread
-    IMQBlockingQueue outputQueue;
+    HandOffQueue outputQueue;
 
     PacketDispatcher replyDispatcher;
 
@@ -78,7 +77,7 @@ public class IMQDualThreadConnection extends IMQBasicConnection implements Direc
         super(svc, router);
 
         inputQueue = new DummyQueue();
-        outputQueue = new IMQBlockingQueue();
+        outputQueue = IMQEmbeddedConnection.createHandOffQueue();
         setConnectionState(Connection.STATE_CONNECTED);
     }
 
@@ -305,10 +304,13 @@ public class IMQDualThreadConnection extends IMQBasicConnection implements Direc
                 // this packet is not a reply to the client but originates in the broker
                 // (e.g. a message being sent to a consumer)
                 // write it to the output queue for the client to pick up in due course
-                outputQueue.add(rp);
+                outputQueue.put(rp);
             }
         } catch (IOException ex) {
             logger.log(Logger.DEBUG, "Unable to duplicate packet ", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            logger.log(Logger.DEBUG, "Interrupted writing packet to output queue ", ex);
         }
     }
 
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -28,6 +28,7 @@ import com.sun.messaging.jmq.jmsservice.DirectBrokerConnection;
 import com.sun.messaging.jmq.jmsservice.HandOffQueue;
 import com.sun.messaging.jmq.jmsserver.Globals;
 import com.sun.messaging.jmq.jmsserver.util.IMQBlockingQueue;
+import com.sun.messaging.jmq.jmsserver.util.IMQRingQueue;
 import java.util.*;
 import java.io.*;
 import java.security.Principal;
@@ -35,8 +36,21 @@ import java.security.Principal;
 @SuppressWarnings("JdkObsolete")
 public class IMQEmbeddedConnection extends IMQIPConnection implements DirectBrokerConnection {
 
-    IMQBlockingQueue inputQueue;
-    IMQBlockingQueue outputQueue;
+    /**
+     * The capacity of the bounded lock free queues between a direct mode client and the broker, 0 uses unbounded
+     * linked queues. A full queue blocks the thread which writes to it, so this must be large enough for the packets a
+     * reader thread may itself cause to be written to the queue it reads.
+     */
+    static final int handOffQueueCapacity = Math.max(0, Globals.getConfig().getIntProperty(Globals.IMQ + ".direct.handOffQueueCapacity", 0));
+
+    // the maximum number of packets the reader thread takes from its queue at once
+    static final int READ_BATCH_SIZE = 64;
+
+    HandOffQueue inputQueue;
+    HandOffQueue outputQueue;
+
+    // packets taken from the input queue and not yet read, only used by the reader thread
+    private final ArrayDeque<Object> readBatch = new ArrayDeque<>(READ_BATCH_SIZE);
 
     static class EOF { // note we could also do something like queue the exception
         String reason = null;
@@ -57,8 +71,15 @@ public class IMQEmbeddedConnection extends IMQIPConnection implements DirectBrok
     public IMQEmbeddedConnection(Service svc, PacketRouter router) throws IOException, BrokerException {
         super(svc, null, router);
 
-        inputQueue = new IMQBlockingQueue();
-        outputQueue = new IMQBlockingQueue();
+        inputQueue = createHandOffQueue();
+        outputQueue = createHandOffQueue();
+    }
+
+    static <E> HandOffQueue<E> createHandOffQueue() {
+        if (handOffQueueCapacity > 0) {
+            return new IMQRingQueue<>(handOffQueueCapacity);
+        }
+        return new IMQBlockingQueue<>();
     }
 
     @Override
@@ -158,7 +179,11 @@ public class IMQEmbeddedConnection extends IMQIPConnection implements DirectBrok
     protected boolean readInPacket(Packet p) throws IOException {
         // get and fill packet
         try {
-            Object o = inputQueue.take();
+            Object o = readBatch.poll();
+            if (o == null) {
+                o = inputQueue.take();
+                inputQueue.drainTo(readBatch, READ_BATCH_SIZE - 1);
+            }
             if (o instanceof EOF) {
                 EOF eof = (EOF) o;
                 throw new IOException("Connection has been closed:" + eof.getReason());
@@ -199,7 +224,12 @@ public class IMQEmbeddedConnection extends IMQIPConnection implements DirectBrok
         rp.fill(p, true);
 
         // stick on the queue
-        outputQueue.add(rp);
+        try {
+            outputQueue.put(rp);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted writing packet to direct connection queue");
+        }
 
         return true;
     }
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -19,6 +19,7 @@ package com.sun.messaging.jmq.jmsserver.service.imq;
 
 import java.net.*;
 import java.util.*;
+import java.util.concurrent.locks.LockSupport;
 import java.nio.channels.*;
 import java.nio.channels.spi.*;
 import java.io.*;
@@ -61,6 +62,12 @@ public class IMQIPConnection extends IMQBasicConnection implements Operation, Me
 
     public static final boolean enablePingReply = Globals.getConfig().getBooleanProperty(Globals.IMQ + ".ping.reply.enable", true);
 
+    /**
+     * the maximum number of queued control packets (e.g. send replies) written to a stream connection with one flush, 1
+     * flushes every packet
+     */
+    public static final int maxCtrlPktsPerFlush = Math.max(1, Globals.getConfig().getIntProperty(Globals.IMQ + ".connection.ctrlPktsPerFlush", 32));
+
     protected int ctrlPktsToConsumer = 0;
 
     boolean STREAMS = true;
@@ -650,7 +657,7 @@ public class IMQIPConnection extends IMQBasicConnection implements Operation, Me
             // with the metric manager
             MetricManager mm = Globals.getMetricManager();
             if (mm != null) {
-                mm.depositTotals(service.getName(), counters);
+                mm.depositTotals(service.getName(), counters.toMetricCounters());
             }
 
             // Clear, just in case we are called twice
@@ -1219,6 +1226,45 @@ public class IMQIPConnection extends IMQBasicConnection implements Operation, Me
         return donewriting;
     }
 
+    /**
+     * whether queued control packets can be written together: only a stream connection whose packets are written by
+     * writeOutPacket() to its (buffered) output stream leaves that to writeData()
+     */
+    private boolean coalesceCtrlPackets() {
+        return maxCtrlPktsPerFlush > 1 && STREAMS && os != null && !control.isEmpty();
+    }
+
+    private void prepareCtrlPacket(Packet p) {
+        if (p.getPacketType() > PacketType.MESSAGE) {
+            p.setIP(ipAddress);
+            p.setPort(getLocalPort());
+        }
+        // first convert it
+        if (convertPkt != null) {
+            convertPkt.handleWritePacket(p);
+        }
+        if (IMQBasicConnection.DEBUG || DUMP_PACKET || OUT_DUMP_PACKET) {
+            dumpControlPacket(p);
+        }
+    }
+
+    private void ctrlPktWritten(Packet p) {
+        if (p.getPacketType() < PacketType.LAST) {
+            pktsOut[p.getPacketType()]++;
+        }
+
+        ctrlPktsToConsumer++;
+        if (IMQBasicConnection.DEBUG || DUMP_PACKET || OUT_DUMP_PACKET) {
+            logger.log(Logger.INFO, "Finished writing packet [" + p + "]");
+        }
+        if (Globals.getConnectionManager().PING_ENABLED) {
+            updateAccessTime(false);
+        }
+        if (METRICS_ON) {
+            countOutPacket(p);
+        }
+    }
+
     protected Packet clearWritePacket(Packet p) {
         if (p != null) {
             p.destroy();
@@ -1272,39 +1318,31 @@ public class IMQIPConnection extends IMQBasicConnection implements Operation, Me
             }
             if (ctrlpkt != null) {
                 // ok , we have a new packet
-                if (ctrlpkt.getPacketType() > PacketType.MESSAGE) {
-                    ctrlpkt.setIP(ipAddress);
-                    ctrlpkt.setPort(getLocalPort());
-                }
-                // first convert it
-                if (convertPkt != null) {
-                    convertPkt.handleWritePacket(ctrlpkt);
-                }
-                if (IMQBasicConnection.DEBUG || DUMP_PACKET || OUT_DUMP_PACKET) {
-                    dumpControlPacket(ctrlpkt);
-                }
-                inCtrlWrite = !writeOutPacket(ctrlpkt);
-                if (!inCtrlWrite) { // we are done
-
-                    if (ctrlpkt.getPacketType() < PacketType.LAST) {
-                        pktsOut[ctrlpkt.getPacketType()]++;
-                    }
-
-                    ctrlPktsToConsumer++;
-                    if (IMQBasicConnection.DEBUG || DUMP_PACKET || OUT_DUMP_PACKET) {
-                        logger.log(Logger.INFO, "Finished writing packet [" + ctrlpkt + "]");
-                    }
-                    if (Globals.getConnectionManager().PING_ENABLED) {
-                        updateAccessTime(false);
+                prepareCtrlPacket(ctrlpkt);
+                if (coalesceCtrlPackets()) {
+                    // the replies to requests which were pipelined by the client are
+                    // usually queued back to back, write them out with a single flush
+                    int cnt = 0;
+                    while (ctrlpkt != null) {
+                        inCtrlWrite = true;
+                        ctrlpkt.writePacket(os, false);
+                        inCtrlWrite = false;
+                        ctrlPktWritten(ctrlpkt);
+                        ctrlpkt = clearWritePacket(ctrlpkt);
+                        if (++cnt < maxCtrlPktsPerFlush && !control.isEmpty()) {
+                            ctrlpkt = (Packet) control.removeNext();
+                            if (ctrlpkt != null) {
+                                prepareCtrlPacket(ctrlpkt);
+                            }
+                        }
                     }
-                    if (METRICS_ON) {
-                        countOutPacket(ctrlpkt);
+                    os.flush();
+                } else {
+                    inCtrlWrite = !writeOutPacket(ctrlpkt);
+                    if (!inCtrlWrite) { // we are done
+                        ctrlPktWritten(ctrlpkt);
+                        ctrlpkt = clearWritePacket(ctrlpkt);
                     }
-
-                    assert ctrlpkt != null;
-
-                    ctrlpkt = clearWritePacket(ctrlpkt);
-                    
                 }
 
                 // the broker is no longer in a critical state
@@ -1482,6 +1520,7 @@ public class IMQIPConnection extends IMQBasicConnection implements Operation, Me
                 if (!isValid() || busy != is_running) {
                     busy = is_running;
                     stateLock.notifyAll();
+                    LockSupport.unpark(parkedWriter);
                     if (ninfo != null) {
                         ninfo.setReadyToWrite(this, busy);
                     } else if (service instanceof NotificationInfo) {
@@ -1494,6 +1533,10 @@ public class IMQIPConnection extends IMQBasicConnection implements Operation, Me
     }
 
     private boolean waitForWork(long time) {
+        if (time == 0 && Thread.currentThread().isVirtual()) {
+            // waiting on the monitor would pin the carrier thread for as long as the connection is idle
+            return parkForWork();
+        }
         synchronized (stateLock) {
             if (isValid() && !busy) {
                 try {
@@ -1511,6 +1554,23 @@ public class IMQIPConnection extends IMQBasicConnection implements Operation, Me
         }
     }
 
+    private boolean parkForWork() {
+        Thread current = Thread.currentThread();
+        synchronized (stateLock) {
+            if (!isValid() || busy) {
+                return busy;
+            }
+            parkedWriter = current;
+        }
+        LockSupport.park(this);
+        synchronized (stateLock) {
+            if (parkedWriter == current) {
+                parkedWriter = null;
+            }
+            return busy;
+        }
+    }
+
     protected void handleWriteException(Throwable ex) throws IOException, OutOfMemoryError {
 
         if (ex instanceof OutOfMemoryError) {
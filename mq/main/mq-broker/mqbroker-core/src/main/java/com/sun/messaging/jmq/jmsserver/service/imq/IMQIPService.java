@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2022 Contributors to Eclipse Foundation. All rights reserved.
+ * Copyright (c) 2022, 2026 Contributors to Eclipse Foundation. All rights reserved.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -32,12 +32,15 @@ import com.sun.messaging.jmq.jmsserver.resources.*;
 import com.sun.messaging.jmq.jmsserver.config.*;
 import com.sun.messaging.jmq.jmsserver.Globals;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @SuppressWarnings("JdkObsolete")
 public abstract class IMQIPService extends IMQService implements Runnable, ProtocolCallback {
 
     private static boolean DEBUG = false;
 
+    public static final String THREADPOOL_BACKEND_SUFFIX = ".threadpool_backend";
+
     // ONLY turn on when it needs to be used (since it opens us
     // up for a denial of service attack
     //
@@ -88,6 +91,8 @@ public abstract class IMQIPService extends IMQService implements Runnable, Proto
     protected PacketRouter router = null;
     // private AuthCacheData authCacheData = new AuthCacheData();
     protected ThreadPool pool = null;
+    // the number of threads of a striped pool, maintained by its ThreadPoolProbeImpl
+    private final AtomicInteger poolThreadCnt = new AtomicInteger(0);
     // protected Thread acceptThread = null;
     protected RunnableFactory runfac = null;
     protected Protocol protocol = null;
@@ -107,7 +112,7 @@ public abstract class IMQIPService extends IMQService implements Runnable, Proto
             throw new RuntimeException(Globals.getBrokerResources().getKString(BrokerResources.X_MAX_THREAD_ILLEGAL_VALUE, name, String.valueOf(max)));
         }
 
-        pool = new ThreadPool(name, min, max, runfac);
+        pool = createThreadPool(name, min, max, runfac);
 //        pool.setPriority(priority);
         if (protocol.getHostName() != null && !protocol.getHostName().equals(Globals.HOSTNAME_ALL)) {
             addServiceProp("hostname", protocol.getHostName());
@@ -116,9 +121,26 @@ public abstract class IMQIPService extends IMQService implements Runnable, Proto
 
     }
 
+    /**
+     * Create the pool which provides the threads of this service. Called from the constructor.
+     */
+    protected ThreadPool createThreadPool(String name, int min, int max, RunnableFactory runfac) {
+        String backend = Globals.getConfig().getProperty(ServiceFactory.SERVICE_PREFIX + name + THREADPOOL_BACKEND_SUFFIX, "default");
+        if (backend.equalsIgnoreCase("striped")) {
+            StripedThreadPool spool = new StripedThreadPool(name, min, max, runfac);
+            spool.addProbe(new ThreadPoolProbeImpl(DEBUG, logger, name, poolThreadCnt));
+            return spool;
+        }
+        return new ThreadPool(name, min, max, runfac);
+    }
+
     @Override
     public Hashtable getPoolDebugState() {
-        return pool.getDebugState();
+        Hashtable ht = pool.getDebugState();
+        if (pool instanceof StripedThreadPool) {
+            ht.put("probeThreadCnt", Integer.valueOf(poolThreadCnt.get()));
+        }
+        return ht;
     }
 
     public void dumpPool() {
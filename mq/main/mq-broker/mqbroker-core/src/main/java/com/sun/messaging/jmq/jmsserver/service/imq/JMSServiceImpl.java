@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ * Copyright (c) 2020, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -210,6 +210,10 @@ public class JMSServiceImpl implements JMSService {
 
         props.put("JMQStatus", JMSServiceReply.Status.OK);
         props.put("JMQConnectionID", cxn.getConnectionUID().longValue());
+        String codecs = Globals.getConfig().getProperty(Globals.IMQ + ".message.compression.codecs", "lz");
+        if (codecs != null && !codecs.isBlank()) {
+            props.put("JMQCompressionCodecs", codecs);
+        }
         reply = new JMSServiceReply(props);
 
         return (reply);
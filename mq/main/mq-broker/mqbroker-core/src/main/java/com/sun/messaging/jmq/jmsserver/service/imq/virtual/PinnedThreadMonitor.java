@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.service.imq.virtual;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.messaging.jmq.jmsserver.Globals;
+import com.sun.messaging.jmq.util.log.Logger;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Logs virtual threads which stay pinned to their carrier thread, e.g. because they block inside a synchronized block
+ * on the packet path, for longer than imq.thread.virtual.pinned.threshold milliseconds. A pinned thread holds on to one
+ * of the few carrier threads, so a pinned section that blocks for long stalls unrelated connections.
+ *
+ * Uses the JDK Flight Recorder jdk.VirtualThreadPinned event. Disabled if the threshold is 0, the default.
+ */
+final class PinnedThreadMonitor {
+
+    public static final String PINNED_THRESHOLD_PROP = Globals.IMQ + ".thread.virtual.pinned.threshold";
+
+    private static final int MAX_FRAMES = 16;
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final Logger logger = Globals.getLogger();
+
+    private static RecordingStream stream = null;
+
+    private static int refCount = 0;
+
+    // number of pinned virtual threads logged
+    private static final AtomicLong pinnedCount = new AtomicLong();
+
+    private PinnedThreadMonitor() {
+    }
+
+    static synchronized void start() {
+        refCount++;
+        if (stream != null) {
+            return;
+        }
+        long threshold = Globals.getConfig().getLongProperty(PINNED_THRESHOLD_PROP, 0L);
+        if (threshold <= 0) {
+            return;
+        }
+        try {
+            RecordingStream rs = new RecordingStream();
+            rs.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(threshold)).withStackTrace();
+            rs.onEvent(PINNED_EVENT, PinnedThreadMonitor::logPinned);
+            rs.startAsync();
+            stream = rs;
+            logger.log(Logger.INFO, "Logging virtual threads pinned for more than " + threshold + " ms [" + PINNED_THRESHOLD_PROP + "]");
+        } catch (Exception | LinkageError e) {
+            logger.log(Logger.WARNING, "Unable to monitor pinned virtual threads [" + PINNED_THRESHOLD_PROP + "=" + threshold + "]: " + e);
+        }
+    }
+
+    static synchronized void stop() {
+        if (refCount > 0) {
+            refCount--;
+        }
+        if (refCount == 0 && stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    static long getPinnedCount() {
+        return pinnedCount.get();
+    }
+
+    private static void logPinned(RecordedEvent event) {
+        pinnedCount.incrementAndGet();
+        StringBuilder buf = new StringBuilder();
+        RecordedThread thread = event.getThread();
+        buf.append("Virtual thread ").append(thread == null ? "?" : thread.getJavaName()).append(" was pinned to its carrier thread for ")
+                .append(event.getDuration().toMillis()).append(" ms");
+        RecordedStackTrace trace = event.getStackTrace();
+        if (trace != null) {
+            List<RecordedFrame> frames = trace.getFrames();
+            for (int i = 0; i < frames.size() && i < MAX_FRAMES; i++) {
+                RecordedFrame frame = frames.get(i);
+                buf.append("\n\tat ").append(frame.getMethod().getType().getName()).append('.').append(frame.getMethod().getName());
+                if (frame.getLineNumber() > 0) {
+                    buf.append(':').append(frame.getLineNumber());
+                }
+            }
+            if (frames.size() > MAX_FRAMES || trace.isTruncated()) {
+                buf.append("\n\t...");
+            }
+        }
+        logger.log(Logger.WARNING, buf.toString());
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.service.imq.virtual;
+
+import com.sun.messaging.jmq.jmsserver.data.PacketRouter;
+import com.sun.messaging.jmq.jmsserver.net.Protocol;
+import com.sun.messaging.jmq.jmsserver.pool.RunnableFactory;
+import com.sun.messaging.jmq.jmsserver.pool.ThreadPool;
+import com.sun.messaging.jmq.jmsserver.pool.VirtualThreadPool;
+import com.sun.messaging.jmq.jmsserver.service.imq.dedicated.DedicatedService;
+
+/**
+ * A connection service which, like DedicatedService, reads and writes each connection with its own blocking reader and
+ * writer, but runs them on virtual threads. An idle connection then costs two parked virtual threads instead of two
+ * platform threads. Selected with imq.&lt;service&gt;.threadpool_model=virtual.
+ *
+ * imq.&lt;service&gt;.max_threads still limits the number of threads, two per connection.
+ *
+ * @see PinnedThreadMonitor
+ */
+public class VirtualThreadService extends DedicatedService {
+
+    // true while this service holds a reference on the PinnedThreadMonitor
+    private boolean monitoringPinned = false;
+
+    public VirtualThreadService(String name, Protocol protocol, int type, PacketRouter router, int min, int max) {
+        super(name, protocol, type, router, min, max);
+    }
+
+    @Override
+    protected ThreadPool createThreadPool(String name, int min, int max, RunnableFactory runfac) {
+        return new VirtualThreadPool(name, min, max, runfac);
+    }
+
+    @Override
+    public synchronized void startService(boolean startPaused) {
+        if (!monitoringPinned) {
+            PinnedThreadMonitor.start();
+            monitoringPinned = true;
+        }
+        super.startService(startPaused);
+    }
+
+    @Override
+    public void stopService(boolean all) {
+        super.stopService(all);
+        if (all) {
+            synchronized (this) {
+                if (monitoringPinned) {
+                    PinnedThreadMonitor.stop();
+                    monitoringPinned = false;
+                }
+            }
+        }
+    }
+}
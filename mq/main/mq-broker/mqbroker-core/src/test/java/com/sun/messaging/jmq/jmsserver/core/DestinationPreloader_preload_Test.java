@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.messaging.jmq.jmsserver.util.BrokerException;
+
+class DestinationPreloader_preload_Test {
+
+    private final List<String> loadOrder = new CopyOnWriteArrayList<>();
+
+    private Destination destination(String name, int consumers, int size) throws BrokerException {
+        Destination d = mock(Destination.class);
+        when(d.toString()).thenReturn(name);
+        when(d.getConsumerCount()).thenReturn(consumers);
+        when(d.size()).thenReturn(size);
+        when(d.isValid()).thenReturn(true);
+        doAnswer(inv -> loadOrder.add(name)).when(d).load(true);
+        return d;
+    }
+
+    private void blockLoad(Destination d, CountDownLatch started, CountDownLatch release) throws BrokerException {
+        blockLoad(d, started, release, new CountDownLatch(1));
+    }
+
+    /**
+     * Make the load of d wait for release, like Destination.load() it does not stop when interrupted.
+     */
+    private void blockLoad(Destination d, CountDownLatch started, CountDownLatch release, CountDownLatch interrupted) throws BrokerException {
+        doAnswer(inv -> {
+            loadOrder.add(d.toString());
+            started.countDown();
+            while (true) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                    return null;
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            }
+        }).when(d).load(true);
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    @BeforeEach
+    void resetPreloader() {
+        DestinationPreloader.reset();
+    }
+
+    @AfterEach
+    void stopPreloader() {
+        DestinationPreloader.shutdown();
+    }
+
+    @Test
+    void destinationsWithConsumersShouldLoadFirstThenSmallerOnes() throws Exception {
+        Destination bigIdle = destination("bigIdle", 0, 1000);
+        Destination smallIdle = destination("smallIdle", 0, 5);
+        Destination bigUsed = destination("bigUsed", 3, 500);
+        Destination smallUsed = destination("smallUsed", 1, 10);
+
+        DestinationPreloader.start(new ArrayList<>(Arrays.asList(bigIdle, smallIdle, bigUsed, smallUsed)), 1);
+        waitFor(() -> DestinationPreloader.getState() == DestinationPreloader.STATE_LOADED);
+
+        assertThat(loadOrder).containsExactly("smallUsed", "bigUsed", "smallIdle", "bigIdle");
+    }
+
+    @Test
+    void stateShouldGoFromPendingThroughLoadingToLoaded() throws Exception {
+        Destination d = destination("d", 0, 7);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        blockLoad(d, started, release);
+
+        assertThat(DestinationPreloader.getState()).isEqualTo(DestinationPreloader.STATE_PENDING);
+
+        DestinationPreloader.start(new ArrayList<>(List.of(d)), 2);
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(DestinationPreloader.getState()).isEqualTo(DestinationPreloader.STATE_LOADING);
+        assertThat(DestinationPreloader.getNumDestinationsToLoad()).isEqualTo(1);
+        assertThat(DestinationPreloader.getNumDestinationsLoaded()).isZero();
+
+        release.countDown();
+        waitFor(() -> DestinationPreloader.getState() == DestinationPreloader.STATE_LOADED);
+        assertThat(DestinationPreloader.getNumDestinationsLoaded()).isEqualTo(1);
+        assertThat(DestinationPreloader.getNumMsgsLoaded()).isEqualTo(7);
+
+        // a second start does nothing
+        DestinationPreloader.start(new ArrayList<>(List.of(destination("late", 0, 1))), 2);
+        assertThat(DestinationPreloader.getNumDestinationsToLoad()).isEqualTo(1);
+        assertThat(loadOrder).containsExactly("d");
+    }
+
+    @Test
+    void nothingToLoadShouldBeLoadedAtOnce() {
+        DestinationPreloader.start(new ArrayList<>(), 2);
+        assertThat(DestinationPreloader.getState()).isEqualTo(DestinationPreloader.STATE_LOADED);
+        assertThat(DestinationPreloader.getNumDestinationsToLoad()).isZero();
+    }
+
+    @Test
+    void destinationLoadedOnDemandShouldBeCountedButNotLoadedAgain() throws Exception {
+        Destination first = destination("first", 1, 3);
+        Destination onDemand = destination("onDemand", 0, 4);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        blockLoad(first, started, release);
+
+        DestinationPreloader.start(new ArrayList<>(List.of(onDemand, first)), 1);
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        // used, and so loaded, while the preload is busy with the first one
+        when(onDemand.isLoaded()).thenReturn(true);
+        release.countDown();
+
+        waitFor(() -> DestinationPreloader.getState() == DestinationPreloader.STATE_LOADED);
+        verify(onDemand, never()).load(true);
+        assertThat(DestinationPreloader.getNumDestinationsLoaded()).isEqualTo(2);
+        assertThat(DestinationPreloader.getNumMsgsLoaded()).isEqualTo(7);
+    }
+
+    @Test
+    void failedPreloadShouldLeaveTheDestinationToBeLoadedOnDemand() throws Exception {
+        Destination broken = destination("broken", 1, 5);
+        Destination ok = destination("ok", 0, 6);
+        doThrow(new BrokerException("store read failed")).when(broken).load(true);
+
+        DestinationPreloader.start(new ArrayList<>(List.of(broken, ok)), 1);
+        waitFor(() -> DestinationPreloader.getState() == DestinationPreloader.STATE_LOADED);
+
+        // the failure does not stop the preload, and the broken destination is not counted as loaded
+        assertThat(loadOrder).containsExactly("ok");
+        assertThat(DestinationPreloader.getNumDestinationsLoaded()).isEqualTo(2);
+        assertThat(DestinationPreloader.getNumMsgsLoaded()).isEqualTo(6);
+        verify(broken).load(true);
+        // isLoaded() is still false, so its first use loads it on demand
+        assertThat(broken.isLoaded()).isFalse();
+    }
+
+    @Test
+    void shutdownShouldStopThePreload() throws Exception {
+        Destination first = destination("first", 1, 1);
+        Destination second = destination("second", 0, 2);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        blockLoad(first, started, release, interrupted);
+
+        DestinationPreloader.start(new ArrayList<>(List.of(first, second)), 1);
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        Thread shutdown = new Thread(DestinationPreloader::shutdown);
+        shutdown.start();
+        assertThat(interrupted.await(10, TimeUnit.SECONDS)).isTrue();
+        // shutdown waits for the destination being loaded
+        shutdown.join(200);
+        assertThat(shutdown.isAlive()).isTrue();
+        release.countDown();
+        shutdown.join(10000);
+        assertThat(shutdown.isAlive()).isFalse();
+
+        verify(second, never()).load(true);
+        assertThat(DestinationPreloader.getState()).isEqualTo(DestinationPreloader.STATE_LOADING);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.memory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sun.messaging.jmq.io.Packet;
+import com.sun.messaging.jmq.io.SysMessageID;
+
+import org.junit.jupiter.api.Test;
+
+class MessageBodyCache_admission_Test {
+
+    private static SysMessageID id(int n) {
+        SysMessageID id = new SysMessageID();
+        id.setTimestamp(1L);
+        id.setPort(1);
+        id.setSequence(n);
+        return id;
+    }
+
+    private static void putAll(MessageBodyCache cache, int from, int to) {
+        for (int i = from; i < to; i++) {
+            cache.put(id(i), new Packet(false), 100);
+        }
+    }
+
+    @Test
+    void shouldStayWithinCapacity() {
+        MessageBodyCache cache = new MessageBodyCache(1000);
+        putAll(cache, 1, 51);
+
+        assertThat(cache.getBytes()).isLessThanOrEqualTo(1000);
+        assertThat(cache.getCount()).isEqualTo(9);
+    }
+
+    @Test
+    void shouldKeepFrequentlyUsedPackets() {
+        MessageBodyCache cache = new MessageBodyCache(1000);
+        putAll(cache, 1, 10);
+        for (int n = 0; n < 3; n++) {
+            for (int i = 1; i < 10; i++) {
+                assertThat(cache.get(id(i))).isNotNull();
+            }
+        }
+
+        // a scan of packets used once does not push out the frequently used ones
+        putAll(cache, 100, 200);
+
+        for (int i = 1; i < 10; i++) {
+            assertThat(cache.get(id(i))).isNotNull();
+        }
+        assertThat(cache.getRejections()).isGreaterThanOrEqualTo(100);
+    }
+
+    @Test
+    void shouldShrinkWithMemoryLevel() {
+        MessageBodyCache cache = new MessageBodyCache(1000);
+        putAll(cache, 1, 10);
+
+        cache.setMemoryLevel(1, 4);
+        assertThat(cache.getCapacity()).isEqualTo(500);
+        assertThat(cache.getBytes()).isLessThanOrEqualTo(500);
+
+        cache.setMemoryLevel(3, 4);
+        assertThat(cache.getCount()).isZero();
+        cache.put(id(1), new Packet(false), 100);
+        assertThat(cache.get(id(1))).isNull();
+
+        cache.setMemoryLevel(0, 4);
+        cache.put(id(1), new Packet(false), 100);
+        assertThat(cache.get(id(1))).isNotNull();
+    }
+
+    @Test
+    void removedPacketShouldNotBeFound() {
+        MessageBodyCache cache = new MessageBodyCache(1000);
+        putAll(cache, 1, 5);
+
+        cache.remove(id(2));
+
+        assertThat(cache.get(id(2))).isNull();
+        assertThat(cache.getCount()).isEqualTo(3);
+        assertThat(cache.getBytes()).isEqualTo(300);
+    }
+}
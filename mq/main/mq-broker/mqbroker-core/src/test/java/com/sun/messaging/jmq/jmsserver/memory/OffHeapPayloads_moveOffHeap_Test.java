@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.memory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Hashtable;
+
+import com.sun.messaging.jmq.io.Packet;
+import com.sun.messaging.jmq.io.PacketType;
+
+import org.junit.jupiter.api.Test;
+
+class OffHeapPayloads_moveOffHeap_Test {
+
+    private static Packet packet(int bodySize) {
+        byte[] body = new byte[bodySize];
+        Arrays.fill(body, (byte) 7);
+        Packet p = new Packet(false);
+        p.setPacketType(PacketType.BYTES_MESSAGE);
+        p.setMessageBody(body);
+        Hashtable props = new Hashtable();
+        props.put("color", "red");
+        p.setProperties(props);
+        return p;
+    }
+
+    @Test
+    void shouldMoveBodyOffHeap() throws Exception {
+        OffHeapPayloads payloads = new OffHeapPayloads(10000, 100, false);
+        Packet p = packet(1000);
+
+        assertThat(payloads.moveOffHeap(p)).isEqualTo(1000);
+
+        assertThat(p.getMessageBodyByteBuffer().isDirect()).isTrue();
+        assertThat(payloads.getBytes()).isEqualTo(1000);
+        assertThat(payloads.getBufferCount()).isEqualTo(1);
+
+        // the packet still writes and reads the same
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        p.writePacket(bos);
+        Packet copy = new Packet(false);
+        copy.readPacket(new ByteArrayInputStream(bos.toByteArray()));
+        assertThat(copy.getMessageBodyByteArray()).isEqualTo(p.getMessageBodyByteArray()).hasSize(1000).containsOnly(7);
+        assertThat(copy.getProperties()).containsEntry("color", "red");
+
+        // a packet read from a stream moves as well
+        assertThat(payloads.moveOffHeap(copy)).isEqualTo(1000);
+        assertThat(copy.getMessageBodyByteBuffer().isDirect()).isTrue();
+        assertThat(payloads.getBytes()).isEqualTo(2000);
+    }
+
+    @Test
+    void shouldKeepSmallBodiesOnHeap() {
+        OffHeapPayloads payloads = new OffHeapPayloads(10000, 100, false);
+        Packet p = packet(10);
+
+        assertThat(payloads.moveOffHeap(p)).isZero();
+        assertThat(p.getMessageBodyByteBuffer().isDirect()).isFalse();
+    }
+
+    @Test
+    void shouldStayWithinLimit() {
+        OffHeapPayloads payloads = new OffHeapPayloads(2500, 100, false);
+        Packet[] packets = new Packet[3];
+        for (int i = 0; i < packets.length; i++) {
+            packets[i] = packet(1000);
+            payloads.moveOffHeap(packets[i]);
+        }
+
+        assertThat(packets[2].getMessageBodyByteBuffer().isDirect()).isFalse();
+        assertThat(payloads.getBytes()).isEqualTo(2000);
+        assertThat(payloads.getRejections()).isEqualTo(1);
+    }
+}
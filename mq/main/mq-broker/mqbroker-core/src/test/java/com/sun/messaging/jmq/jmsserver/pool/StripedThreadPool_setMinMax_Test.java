@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.pool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StripedThreadPool_setMinMax_Test {
+
+    static class IdleRunnable extends BasicRunnable {
+        IdleRunnable(int id, ThreadPool pool) {
+            super(id, pool);
+        }
+
+        @Override
+        protected void process() {
+            synchronized (this) {
+                if (state == RUN_ASSIGNED) {
+                    state = RUN_PREASSIGNED;
+                } else {
+                    return;
+                }
+            }
+            release();
+        }
+    }
+
+    private StripedThreadPool pool;
+
+    @BeforeEach
+    void createPool() {
+        pool = new StripedThreadPool("test", 2, 4, IdleRunnable::new);
+        pool.start();
+    }
+
+    @AfterEach
+    void destroyPool() {
+        pool.waitOnDestroy(1000);
+    }
+
+    private List<BasicRunnable> takeAll() {
+        List<BasicRunnable> taken = new ArrayList<>();
+        BasicRunnable runner;
+        while ((runner = pool.getAvailRunnable(false)) != null) {
+            taken.add(runner);
+        }
+        return taken;
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 500 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void shouldNotHandOutMoreThanMaximum() {
+        List<BasicRunnable> taken = takeAll();
+
+        assertThat(taken).hasSize(4).doesNotHaveDuplicates();
+        assertThat(pool.getThreadNum()).isEqualTo(4);
+        assertThat(pool.getAssignedCnt()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldReuseReleasedRunnables() throws InterruptedException {
+        List<BasicRunnable> taken = takeAll();
+        for (BasicRunnable runner : taken) {
+            runner.assigned();
+        }
+        waitFor(() -> pool.getAssignedCnt() == 0);
+
+        assertThat(pool.getAssignedCnt()).isZero();
+        assertThat(takeAll()).hasSize(4).containsExactlyInAnyOrderElementsOf(taken);
+    }
+
+    @Test
+    void shouldShrinkToNewMaximum() throws InterruptedException {
+        List<BasicRunnable> taken = takeAll();
+        taken.get(0).assigned();
+        waitFor(() -> pool.getAssignedCnt() == 3);
+
+        int[] rets = pool.setMinMax(1, 2);
+
+        assertThat(rets).containsExactly(1, 2);
+        assertThat(pool.getMinimum()).isEqualTo(1);
+        assertThat(pool.getMaximum()).isEqualTo(2);
+
+        // the busy runnables over the maximum exit when released
+        for (BasicRunnable runner : taken.subList(1, 4)) {
+            runner.assigned();
+        }
+        waitFor(() -> pool.getThreadNum() == 2 && pool.getAssignedCnt() == 0);
+
+        assertThat(pool.getThreadNum()).isEqualTo(2);
+        assertThat(takeAll()).hasSize(2);
+    }
+
+    @Test
+    void shouldGrowToNewMaximum() {
+        assertThat(takeAll()).hasSize(4);
+
+        pool.setMinMax(-1, 6);
+
+        assertThat(takeAll()).hasSize(2);
+        assertThat(pool.getThreadNum()).isEqualTo(6);
+    }
+}
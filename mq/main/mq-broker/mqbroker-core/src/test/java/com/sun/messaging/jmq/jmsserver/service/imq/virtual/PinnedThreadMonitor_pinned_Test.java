@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.service.imq.virtual;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.messaging.jmq.jmsserver.Globals;
+
+class PinnedThreadMonitor_pinned_Test {
+
+    // from JDK 24 on a virtual thread blocked in a synchronized block releases its carrier thread, but one blocked in a
+    // class initializer still pins it
+
+    private static final class LongPin {
+        static {
+            // the recording stream starts asynchronously, pin until the first event arrives
+            long before = PinnedThreadMonitor.getPinnedCount();
+            long deadline = System.currentTimeMillis() + 30000;
+            while (PinnedThreadMonitor.getPinnedCount() == before && System.currentTimeMillis() < deadline) {
+                sleep(100);
+            }
+        }
+    }
+
+    private static final class ShortPin {
+        static {
+            sleep(100);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void initialize(Class<?> c) throws Exception {
+        Thread.ofVirtual().start(() -> {
+            try {
+                Class.forName(c.getName(), true, c.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        }).join();
+    }
+
+    @Test
+    void virtualThreadBlockedInClassInitializerShouldBeLogged() throws Exception {
+        Globals.getConfig().put(PinnedThreadMonitor.PINNED_THRESHOLD_PROP, "20");
+        PinnedThreadMonitor.start();
+        try {
+            long before = PinnedThreadMonitor.getPinnedCount();
+            initialize(LongPin.class);
+            assertThat(PinnedThreadMonitor.getPinnedCount()).isGreaterThan(before);
+        } finally {
+            PinnedThreadMonitor.stop();
+            Globals.getConfig().remove(PinnedThreadMonitor.PINNED_THRESHOLD_PROP);
+        }
+    }
+
+    @Test
+    void shortPinsShouldNotBeLogged() throws Exception {
+        Globals.getConfig().put(PinnedThreadMonitor.PINNED_THRESHOLD_PROP, "5000");
+        PinnedThreadMonitor.start();
+        try {
+            long before = PinnedThreadMonitor.getPinnedCount();
+            initialize(ShortPin.class);
+            Thread.sleep(2000);
+            assertThat(PinnedThreadMonitor.getPinnedCount()).isEqualTo(before);
+        } finally {
+            PinnedThreadMonitor.stop();
+            Globals.getConfig().remove(PinnedThreadMonitor.PINNED_THRESHOLD_PROP);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.service.imq.virtual;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.messaging.jmq.jmsserver.Globals;
+import com.sun.messaging.jmq.jmsserver.net.Protocol;
+import com.sun.messaging.jmq.jmsserver.pool.BasicRunnable;
+import com.sun.messaging.jmq.jmsserver.pool.RunnableFactory;
+import com.sun.messaging.jmq.jmsserver.pool.ThreadPool;
+import com.sun.messaging.jmq.jmsserver.pool.VirtualThreadPool;
+import com.sun.messaging.jmq.jmsserver.service.ConnectionManager;
+import com.sun.messaging.jmq.util.ServiceType;
+
+class VirtualThreadService_threadPool_Test {
+
+    private static final int MAX_THREADS = 4;
+
+    private static final Queue<Thread> ranOn = new ConcurrentLinkedQueue<>();
+
+    static class RecordingRunnable extends BasicRunnable {
+        RecordingRunnable(int id, ThreadPool pool) {
+            super(id, pool);
+        }
+
+        void assign() {
+            assigned();
+        }
+
+        @Override
+        protected void process() {
+            synchronized (this) {
+                if (state == RUN_ASSIGNED) {
+                    state = RUN_PREASSIGNED;
+                } else {
+                    return;
+                }
+            }
+            ranOn.add(Thread.currentThread());
+            release();
+        }
+    }
+
+    static class TestService extends VirtualThreadService {
+        TestService(Protocol protocol) {
+            super("virtualtest", protocol, ServiceType.NORMAL, null, 0, MAX_THREADS);
+        }
+
+        @Override
+        public RunnableFactory getRunnableFactory() {
+            return RecordingRunnable::new;
+        }
+
+        ThreadPool getThreadPool() {
+            return pool;
+        }
+    }
+
+    private ThreadPool pool;
+
+    @BeforeEach
+    void createService() {
+        ranOn.clear();
+        Globals.setConnectionManager(mock(ConnectionManager.class));
+        Protocol protocol = mock(Protocol.class);
+        when(protocol.canPause()).thenReturn(true);
+        pool = new TestService(protocol).getThreadPool();
+        pool.start();
+    }
+
+    @AfterEach
+    void destroyPool() {
+        if (pool != null) {
+            pool.waitOnDestroy(1000);
+        }
+        Globals.setConnectionManager(null);
+    }
+
+    @Test
+    void serviceShouldRunItsWorkOnVirtualThreads() throws Exception {
+        assertThat(pool).isInstanceOf(VirtualThreadPool.class);
+
+        List<RecordingRunnable> runners = new ArrayList<>();
+        for (int i = 0; i < MAX_THREADS; i++) {
+            RecordingRunnable runner = (RecordingRunnable) pool.getAvailRunnable(false);
+            assertThat(runner).isNotNull();
+            runners.add(runner);
+        }
+        assertThat(pool.getAvailRunnable(false)).as("max_threads is still enforced").isNull();
+
+        for (RecordingRunnable runner : runners) {
+            runner.assign();
+        }
+        waitFor(() -> ranOn.size() == MAX_THREADS);
+
+        assertThat(ranOn).allSatisfy(t -> {
+            assertThat(t.isVirtual()).isTrue();
+            assertThat(t.getName()).startsWith("Thread-virtualtest[");
+        });
+        assertThat(ranOn).doesNotHaveDuplicates();
+
+        // released runnables end their threads and make room for new ones
+        waitFor(() -> pool.getAssignedCnt() == 0);
+        assertThat(pool.getAvailRunnable(false)).isNotNull();
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
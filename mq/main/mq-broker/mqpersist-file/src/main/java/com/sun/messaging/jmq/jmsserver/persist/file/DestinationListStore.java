@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -347,6 +347,12 @@ class DestinationListStore {
         return dstMap.values(); // Fix me!
     }
 
+    // return the names of all persisted destinations, without loading them
+    Set getDestinationNames() {
+
+        return new HashSet(dstMap.keySet());
+    }
+
     /**
      * Clear all destinations
      */
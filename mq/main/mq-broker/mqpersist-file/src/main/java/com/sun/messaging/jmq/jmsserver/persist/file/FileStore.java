@@ -1,7 +1,7 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
  * Copyright (c) 2020 Payara Services Ltd.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -27,12 +27,14 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.TimerTask;
@@ -71,6 +73,7 @@ import com.sun.messaging.jmq.jmsserver.resources.BrokerResources;
 import com.sun.messaging.jmq.jmsserver.util.BrokerException;
 import com.sun.messaging.jmq.util.DestType;
 import com.sun.messaging.jmq.util.FileUtil;
+import com.sun.messaging.jmq.util.Histogram;
 import com.sun.messaging.jmq.util.SizeString;
 import com.sun.messaging.jmq.util.log.Logger;
 import com.sun.messaging.jmq.util.selector.SelectorFormatException;
@@ -286,7 +289,7 @@ public class FileStore extends Store implements PartitionedStore, TxnLoggingStor
                     // always load destinations first
                     dstList = new DestinationListStore(this, rootDir, false);
 
-                    msgStore = new MsgStore(this, rootDir, resetMessage);
+                    msgStore = createMsgStore(rootDir, resetMessage);
 
                     intStore = new InterestStore(this, rootDir, resetInterest);
 
@@ -340,7 +343,7 @@ public class FileStore extends Store implements PartitionedStore, TxnLoggingStor
             // always load destinations first
             dstList = new DestinationListStore(this, rootDir, resetStore);
 
-            msgStore = new MsgStore(this, rootDir, (resetStore || resetMessage));
+            msgStore = createMsgStore(rootDir, (resetStore || resetMessage));
 
             intStore = new InterestStore(this, rootDir, (resetStore || resetInterest));
 
@@ -443,7 +446,7 @@ public class FileStore extends Store implements PartitionedStore, TxnLoggingStor
 
         dstList = new DestinationListStore(this, rootDir, false);
 
-        msgStore = new MsgStore(this, rootDir, false);
+        msgStore = createMsgStore(rootDir, false);
 
         intStore = new InterestStore(this, rootDir, false);
 
@@ -2157,6 +2160,15 @@ public class FileStore extends Store implements PartitionedStore, TxnLoggingStor
         return t;
     }
 
+    @Override
+    public Map<String, Histogram> getStoreHistograms() {
+        TransactionLogManager tlm = txnLogManager;
+        if (tlm == null) {
+            return Collections.emptyMap();
+        }
+        return tlm.getHistograms();
+    }
+
     /**
      * Compact the message file associated with the specified destination. If null is specified, message files assocated
      * with all persisted destinations will be compacted..
@@ -2282,6 +2294,13 @@ public class FileStore extends Store implements PartitionedStore, TxnLoggingStor
         return msgStore;
     }
 
+    /**
+     * Create the message store. Called from the constructor, so an override must not depend on fields of the subclass.
+     */
+    MsgStore createMsgStore(File top, boolean reset) throws BrokerException {
+        return new MsgStore(this, top, reset);
+    }
+
     protected DestinationListStore getDstStore() {
         return dstList;
     }
@@ -0,0 +1,651 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.persist.file;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TimerTask;
+
+import com.sun.messaging.jmq.io.JMQByteBufferInputStream;
+import com.sun.messaging.jmq.io.Packet;
+import com.sun.messaging.jmq.io.SysMessageID;
+import com.sun.messaging.jmq.io.disk.SegmentedJournal;
+import com.sun.messaging.jmq.io.disk.VRFileWarning;
+import com.sun.messaging.jmq.jmsserver.Globals;
+import com.sun.messaging.jmq.jmsserver.config.BrokerConfig;
+import com.sun.messaging.jmq.jmsserver.core.ConsumerUID;
+import com.sun.messaging.jmq.jmsserver.core.Destination;
+import com.sun.messaging.jmq.jmsserver.core.DestinationUID;
+import com.sun.messaging.jmq.jmsserver.persist.api.PartitionedStore;
+import com.sun.messaging.jmq.jmsserver.persist.api.Store;
+import com.sun.messaging.jmq.jmsserver.resources.BrokerResources;
+import com.sun.messaging.jmq.jmsserver.util.BrokerException;
+import com.sun.messaging.jmq.util.DestMetricsCounters;
+import com.sun.messaging.jmq.util.SizeString;
+import com.sun.messaging.jmq.util.log.Logger;
+
+/**
+ * JournalMsgStore keeps the messages of all destinations in a single SegmentedJournal instead of a vrfile and individual
+ * files per destination. A message is stored as one journal entry keyed by destination and message id, with its
+ * interest states as the attachment in the same format MessageInfo uses:
+ * <p>
+ * number of entries (int), fixed length entries (iid (long), state (int))
+ * <p>
+ * Messages of an existing file store are copied to the journal the first time it is opened.
+ */
+@SuppressWarnings("JdkObsolete")
+class JournalMsgStore extends MsgStore {
+
+    // property name and default of the size of journal segment files
+    static final String JOURNAL_SEGMENT_SIZE_PROP = FileStore.FILE_PROP_PREFIX + "journal.segment.size";
+    static final long DEFAULT_JOURNAL_SEGMENT_SIZE = 65536; // 65536k=64m
+
+    // property name and default of the percentage of live data below which a segment is compacted
+    static final String JOURNAL_COMPACTION_THRESHOLD_PROP = FileStore.FILE_PROP_PREFIX + "journal.compaction.threshold";
+    static final int DEFAULT_JOURNAL_COMPACTION_THRESHOLD = 50;
+
+    // property name and default of the interval in seconds between compactions; 0 disables background compaction
+    static final String JOURNAL_COMPACTION_INTERVAL_PROP = FileStore.FILE_PROP_PREFIX + "journal.compaction.interval";
+    static final int DEFAULT_JOURNAL_COMPACTION_INTERVAL = 60;
+
+    private static final String JOURNAL_DIR = "journal";
+    private static final String MESSAGE_DIR = "message";
+    private static final String MIGRATED_MESSAGE_DIR = "message.migrated";
+    private static final String MIGRATING_MARKER = "journal.migrating";
+
+    private static final int INT_SIZE = 4;
+    private static final int ENTRY_SIZE = 8 + INT_SIZE;
+
+    private Logger logger = Globals.getLogger();
+    private BrokerResources br = Globals.getBrokerResources();
+    private BrokerConfig config = Globals.getConfig();
+
+    private SegmentedJournal journal = null;
+
+    private float compactionThreshold = DEFAULT_JOURNAL_COMPACTION_THRESHOLD / 100f;
+
+    private TimerTask compactionTask = null;
+
+    JournalMsgStore(FileStore p, File top, boolean reset) throws BrokerException {
+        super(p);
+
+        SizeString segmentSize = config.getSizeProperty(JOURNAL_SEGMENT_SIZE_PROP, DEFAULT_JOURNAL_SEGMENT_SIZE);
+        int threshold = config.getIntProperty(JOURNAL_COMPACTION_THRESHOLD_PROP, DEFAULT_JOURNAL_COMPACTION_THRESHOLD);
+        if (threshold >= 0 && threshold <= 100) {
+            compactionThreshold = threshold / 100f;
+        }
+
+        File dir = new File(top, JOURNAL_DIR);
+        long size = Math.max(SegmentedJournal.MIN_SEGMENT_SIZE, Math.min(SegmentedJournal.MAX_SEGMENT_SIZE, segmentSize.getBytes()));
+        journal = new SegmentedJournal(dir, size);
+        try {
+            journal.open();
+        } catch (VRFileWarning w) {
+            logger.log(Logger.WARNING, "possible loss of message data in " + dir, w);
+        } catch (IOException e) {
+            logger.log(Logger.ERROR, BrokerResources.E_CANNOT_CREATE_STORE_HIERARCHY, dir.toString(), e);
+            throw new BrokerException(br.getString(BrokerResources.E_CANNOT_CREATE_STORE_HIERARCHY, dir.toString()), e);
+        }
+
+        if (reset) {
+            if (Store.getDEBUG()) {
+                logger.log(Logger.DEBUGHIGH, "JournalMsgStore initialized with reset option");
+            }
+            clearAll(false);
+        } else {
+            migrate(top);
+        }
+
+        int interval = config.getIntProperty(JOURNAL_COMPACTION_INTERVAL_PROP, DEFAULT_JOURNAL_COMPACTION_INTERVAL);
+        if (interval > 0) {
+            compactionTask = new TimerTask() {
+                @Override
+                public void run() {
+                    try {
+                        compactDestination(null);
+                    } catch (Throwable t) { //NOPMD
+                        logger.log(Logger.WARNING, "Failed to compact message journal " + journal.getDirectory(), t);
+                    }
+                }
+            };
+            Globals.getTimer().schedule(compactionTask, interval * 1000L, interval * 1000L);
+        }
+    }
+
+    /**
+     * Copy the messages of the per destination message store to an empty journal, and rename the message directory so it
+     * is not migrated again. A marker file is kept while the migration is in progress, so that a migration cut short by a
+     * crash is resumed on the next start although the journal is no longer empty; messages copied before are skipped.
+     */
+    private void migrate(File top) throws BrokerException {
+        File msgDir = new File(top, MESSAGE_DIR);
+        String[] files = msgDir.list();
+        if (files == null || files.length == 0) {
+            return;
+        }
+        File marker = new File(top, MIGRATING_MARKER);
+        boolean resume = marker.exists();
+        if (!resume && !journal.getStreams().isEmpty()) {
+            logger.log(Logger.WARNING, "Messages in " + msgDir + " are not migrated because message journal " + journal.getDirectory()
+                    + " already holds messages");
+            return;
+        }
+
+        logger.log(Logger.INFO, (resume ? "Resuming migration of messages in " : "Migrating messages in ") + msgDir + " to message journal "
+                + journal.getDirectory());
+        int count = 0;
+        try {
+            if (!resume) {
+                try (FileOutputStream out = new FileOutputStream(marker)) {
+                    out.getFD().sync();
+                }
+            }
+            MsgStore legacy = new MsgStore(parent, top, false);
+            try {
+                for (Object name : parent.getDstStore().getDestinationNames()) {
+                    DestinationUID dst = new DestinationUID((String) name);
+                    String stream = dst.toString();
+                    Enumeration msgs = legacy.messageEnumeration(dst);
+                    while (msgs.hasMoreElements()) {
+                        Packet msg = (Packet) msgs.nextElement();
+                        SysMessageID mid = msg.getSysMessageID();
+                        if (journal.contains(stream, mid.getUniqueName())) {
+                            // copied before the last migration was interrupted
+                            continue;
+                        }
+                        HashMap states = legacy.getInterestStates(dst, mid);
+                        ConsumerUID[] iids = new ConsumerUID[states.size()];
+                        int[] st = new int[states.size()];
+                        int i = 0;
+                        for (Object o : states.entrySet()) {
+                            Map.Entry e = (Map.Entry) o;
+                            iids[i] = (ConsumerUID) e.getKey();
+                            st[i++] = ((Integer) e.getValue()).intValue();
+                        }
+                        journal.put(stream, mid.getUniqueName(), msg.getBytes(), serializeStates(iids, st), false);
+                        count++;
+                    }
+                }
+                journal.force();
+            } finally {
+                legacy.close(false);
+            }
+        } catch (IOException e) {
+            throw new BrokerException("Failed to migrate messages in " + msgDir + " to message journal " + journal.getDirectory(), e);
+        }
+
+        File migrated = new File(top, MIGRATED_MESSAGE_DIR);
+        for (int n = 1; migrated.exists(); n++) {
+            migrated = new File(top, MIGRATED_MESSAGE_DIR + "." + n);
+        }
+        if (!migrated.getName().equals(MIGRATED_MESSAGE_DIR)) {
+            logger.log(Logger.WARNING, new File(top, MIGRATED_MESSAGE_DIR) + " already exists and is kept, remove it when it is no longer needed");
+        }
+        if (!msgDir.renameTo(migrated)) {
+            // the marker stays, the migration is checked again on the next start
+            logger.log(Logger.WARNING, "Failed to rename " + msgDir + " to " + migrated);
+            return;
+        }
+        if (!marker.delete()) {
+            logger.log(Logger.WARNING, "Failed to remove " + marker);
+        }
+        logger.log(Logger.INFO, "Migrated " + count + " messages to message journal " + journal.getDirectory() + ", old message store renamed to " + migrated);
+    }
+
+    /**
+     * Get debug information about the store.
+     *
+     * @return A Hashtable of name value pair of information
+     */
+    @Override
+    Hashtable getDebugState() {
+        Hashtable t = new Hashtable();
+        for (String stream : journal.getStreams()) {
+            t.put((stream + ":messages in journal"), String.valueOf(journal.getEntryCount(stream)));
+        }
+        t.put("journal segments", String.valueOf(journal.getSegmentCount()));
+        t.put("journal bytes used", String.valueOf(journal.getBytesUsed()));
+        t.put("journal live bytes", String.valueOf(journal.getLiveBytes()));
+        return t;
+    }
+
+    @Override
+    byte[] writeMessage(DestinationUID dst, Packet message, ConsumerUID[] iids, int[] states, boolean sync) throws IOException, BrokerException {
+
+        checkDestination(dst);
+
+        SysMessageID id = message.getSysMessageID();
+        try {
+            byte[] data = message.getBytes();
+            if (!journal.put(dst.toString(), id.getUniqueName(), data, serializeStates(iids, states), sync)) {
+                logger.log(Logger.ERROR, BrokerResources.E_MSG_EXISTS_IN_STORE, id, dst);
+                throw new BrokerException(br.getString(BrokerResources.E_MSG_EXISTS_IN_STORE, id, dst));
+            }
+            return data;
+        } catch (IOException e) {
+            logger.log(Logger.ERROR, BrokerResources.X_PERSIST_MESSAGE_FAILED, id.toString(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    Packet getMessage(DestinationUID dst, SysMessageID mid) throws BrokerException {
+
+        byte[] data = journal.getData(dst.toString(), mid.getUniqueName());
+        if (data == null) {
+            checkDestination(dst);
+            logger.log(Logger.ERROR, BrokerResources.E_MSG_NOT_FOUND_IN_STORE, mid, dst);
+            throw new BrokerException(br.getString(BrokerResources.E_MSG_NOT_FOUND_IN_STORE, mid, dst));
+        }
+        try {
+            return parseMessage(data);
+        } catch (IOException e) {
+            logger.log(Logger.ERROR, BrokerResources.X_LOAD_MESSAGE_FAILED, mid.toString(), e);
+            throw new BrokerException(br.getString(BrokerResources.X_LOAD_MESSAGE_FAILED, mid.toString()), e);
+        }
+    }
+
+    @Override
+    boolean containsMessage(DestinationUID dst, SysMessageID mid) throws BrokerException {
+
+        checkDestination(dst);
+        return journal.contains(dst.toString(), mid.getUniqueName());
+    }
+
+    @Override
+    void removeMessage(DestinationUID dst, SysMessageID id, boolean sync) throws IOException, BrokerException {
+
+        if (!journal.remove(dst.toString(), id.getUniqueName(), sync)) {
+            checkDestination(dst);
+            logger.log(Logger.ERROR, BrokerResources.E_MSG_NOT_FOUND_IN_STORE, id, dst);
+            throw new BrokerException(br.getString(BrokerResources.E_MSG_NOT_FOUND_IN_STORE, id, dst));
+        }
+    }
+
+    @Override
+    void moveMessage(Packet message, DestinationUID from, DestinationUID to, ConsumerUID[] ints, int[] states, boolean sync)
+            throws IOException, BrokerException {
+
+        SysMessageID mid = message.getSysMessageID();
+
+        // sanity check
+        if (!containsMessage(from, mid)) {
+            logger.log(Logger.ERROR, BrokerResources.E_MSG_NOT_FOUND_IN_STORE, mid, from);
+            throw new BrokerException(br.getString(BrokerResources.E_MSG_NOT_FOUND_IN_STORE, mid, from));
+        }
+
+        // first save the message and then remove the message
+        storeMessage(to, message, ints, states, sync);
+
+        try {
+            removeMessage(from, mid, sync);
+        } catch (BrokerException e) {
+            // if we fails to remove the message; undo store
+            removeMessage(to, mid, sync);
+
+            Object[] args = { mid, from, to };
+            logger.log(Logger.ERROR, BrokerResources.X_MOVE_MESSAGE_FAILED, args, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean hasMessageBeenAcked(DestinationUID dst, SysMessageID mid) throws BrokerException {
+
+        int[] states = parseStates(getAttachment(dst, mid)).states;
+
+        // To be safe, message is considered unrouted if interest list is empty
+        if (states.length == 0) {
+            return false;
+        }
+        for (int state : states) {
+            if (state != PartitionedStore.INTEREST_STATE_ACKNOWLEDGED) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The journal is shared by all destinations, so the information is about the whole journal.
+     */
+    @Override
+    public HashMap getStorageInfo(Destination destination) throws BrokerException {
+
+        HashMap info = new HashMap(3);
+        long used = journal.getBytesUsed();
+        long live = journal.getLiveBytes();
+        info.put(DestMetricsCounters.DISK_USED, Long.valueOf(used));
+        info.put(DestMetricsCounters.DISK_RESERVED, Long.valueOf(journal.getBytesReserved()));
+        info.put(DestMetricsCounters.DISK_UTILIZATION_RATIO, Integer.valueOf(used == 0 ? 100 : (int) (live * 100 / used)));
+        return info;
+    }
+
+    /**
+     * Compact the journal. Segments hold messages of all destinations, so the destination is ignored.
+     */
+    @Override
+    void compactDestination(Destination destination) throws BrokerException {
+        try {
+            int deleted = journal.compact(compactionThreshold);
+            if (deleted > 0 && Store.getDEBUG()) {
+                logger.log(Logger.DEBUG, "Compacted message journal, " + deleted + " segments deleted");
+            }
+        } catch (IOException e) {
+            throw new BrokerException("Failed to compact message journal: " + journal.getDirectory(), e);
+        }
+    }
+
+    @Override
+    void removeAllMessages(DestinationUID dst, boolean sync) throws IOException, BrokerException {
+
+        checkDestination(dst);
+        journal.removeStream(dst.toString(), sync);
+    }
+
+    @Override
+    void releaseMessageDir(DestinationUID dst, boolean sync) throws IOException, BrokerException {
+
+        journal.removeStream(dst.toString(), sync);
+    }
+
+    @Override
+    Enumeration messageEnumeration(DestinationUID dst) throws BrokerException {
+
+        checkDestination(dst);
+
+        String stream = dst.toString();
+        Iterator<String> keys = journal.getKeys(stream).iterator();
+        return new Enumeration() {
+            Packet nextToReturn = null;
+
+            @Override
+            public boolean hasMoreElements() {
+                while (nextToReturn == null && keys.hasNext()) {
+                    // skip messages removed since the enumeration was created
+                    byte[] data = journal.getData(stream, keys.next());
+                    if (data != null) {
+                        try {
+                            nextToReturn = parseMessage(data);
+                        } catch (IOException e) {
+                            // log error and continue with the next message
+                            logger.log(Logger.ERROR, BrokerResources.X_PARSE_MESSAGE_FAILED, dst, e);
+                        }
+                    }
+                }
+                return nextToReturn != null;
+            }
+
+            @Override
+            public Object nextElement() {
+                if (hasMoreElements()) {
+                    Packet tmp = nextToReturn;
+                    nextToReturn = null;
+                    return tmp;
+                } else {
+                    throw new NoSuchElementException();
+                }
+            }
+        };
+    }
+
+    @Override
+    int getMessageCount(DestinationUID dst) throws BrokerException {
+
+        checkDestination(dst);
+        return journal.getEntryCount(dst.toString());
+    }
+
+    @Override
+    long getByteCount(DestinationUID dst) throws BrokerException {
+
+        checkDestination(dst);
+        return journal.getDataBytes(dst.toString());
+    }
+
+    @Override
+    void storeInterestStates(DestinationUID dst, SysMessageID mid, ConsumerUID[] iids, int[] states, boolean sync) throws BrokerException {
+
+        checkDestination(dst);
+
+        boolean[] exists = new boolean[1];
+        boolean found;
+        try {
+            found = journal.updateAttachment(dst.toString(), mid.getUniqueName(), old -> {
+                if (old.length >= INT_SIZE && ByteBuffer.wrap(old).getInt(0) > 0) {
+                    // the message has a list already
+                    exists[0] = true;
+                    return null;
+                }
+                return serializeStates(iids, states);
+            }, sync);
+        } catch (IOException e) {
+            logger.log(Logger.ERROR, BrokerResources.X_PERSIST_INTEREST_LIST_FAILED, mid.toString());
+            throw new BrokerException(br.getString(BrokerResources.X_PERSIST_INTEREST_LIST_FAILED, mid.toString()), e);
+        }
+
+        if (!found) {
+            logger.log(Logger.ERROR, BrokerResources.E_MSG_NOT_FOUND_IN_STORE, mid, dst);
+            throw new BrokerException(br.getString(BrokerResources.E_MSG_NOT_FOUND_IN_STORE, mid, dst));
+        }
+        if (exists[0]) {
+            logger.log(Logger.WARNING, BrokerResources.E_MSG_INTEREST_LIST_EXISTS, mid.toString());
+            throw new BrokerException(br.getString(BrokerResources.E_MSG_INTEREST_LIST_EXISTS, mid.toString()));
+        }
+    }
+
+    /**
+     * A state change to delivered is not written if delivery states are not persisted; unlike MessageInfo, the journal
+     * entry is the only copy of the states, so the old state is returned until the next persisted change.
+     */
+    @Override
+    void updateInterestState(DestinationUID dst, SysMessageID mid, ConsumerUID iid, int state, boolean sync) throws BrokerException {
+
+        boolean[] notFound = new boolean[1];
+        boolean found;
+        try {
+            found = journal.updateAttachment(dst.toString(), mid.getUniqueName(), old -> {
+                int offset = findState(old, iid);
+                if (offset < 0) {
+                    notFound[0] = true;
+                    return null;
+                }
+                ByteBuffer buf = ByteBuffer.wrap(old);
+                if (buf.getInt(offset) == state
+                        || (state == PartitionedStore.INTEREST_STATE_DELIVERED && Globals.isDeliveryStateNotPersisted())) {
+                    return null;
+                }
+                byte[] updated = old.clone();
+                ByteBuffer.wrap(updated).putInt(offset, state);
+                return updated;
+            }, sync);
+        } catch (IOException e) {
+            // only this state is affected
+            logger.log(Logger.ERROR, BrokerResources.X_PERSIST_INTEREST_STATE_FAILED, iid.toString(), mid.toString());
+            throw new BrokerException(br.getString(BrokerResources.X_PERSIST_INTEREST_STATE_FAILED, iid.toString(), mid.toString()), e);
+        }
+
+        if (!found) {
+            checkDestination(dst);
+            logger.log(Logger.ERROR, BrokerResources.E_MSG_NOT_FOUND_IN_STORE, mid, dst);
+            throw new BrokerException(br.getString(BrokerResources.E_MSG_NOT_FOUND_IN_STORE, mid, dst));
+        }
+        if (notFound[0]) {
+            logger.log(Logger.ERROR, BrokerResources.E_INTEREST_STATE_NOT_FOUND_IN_STORE, iid.toString(), mid.toString());
+            throw new BrokerException(br.getString(BrokerResources.E_INTEREST_STATE_NOT_FOUND_IN_STORE, iid.toString(), mid.toString()));
+        }
+    }
+
+    @Override
+    int getInterestState(DestinationUID dst, SysMessageID mid, ConsumerUID iid) throws BrokerException {
+
+        byte[] att = getAttachment(dst, mid);
+        int offset = findState(att, iid);
+        if (offset < 0) {
+            logger.log(Logger.ERROR, BrokerResources.E_INTEREST_STATE_NOT_FOUND_IN_STORE, iid.toString(), mid.toString());
+            throw new BrokerException(br.getString(BrokerResources.E_INTEREST_STATE_NOT_FOUND_IN_STORE, iid.toString(), mid.toString()));
+        }
+        return ByteBuffer.wrap(att).getInt(offset);
+    }
+
+    @Override
+    HashMap getInterestStates(DestinationUID dst, SysMessageID mid) throws BrokerException {
+
+        States s = parseStates(getAttachment(dst, mid));
+        HashMap states = new HashMap(s.iids.length);
+        for (int i = 0; i < s.iids.length; i++) {
+            states.put(s.iids[i], Integer.valueOf(s.states[i]));
+        }
+        return states;
+    }
+
+    /**
+     * don't return id with state==INTEREST_STATE_ACKNOWLEDGED
+     */
+    @Override
+    ConsumerUID[] getConsumerUIDs(DestinationUID dst, SysMessageID mid) throws BrokerException {
+
+        States s = parseStates(getAttachment(dst, mid));
+        List<ConsumerUID> list = new ArrayList<>(s.iids.length);
+        for (int i = 0; i < s.iids.length; i++) {
+            if (s.states[i] != PartitionedStore.INTEREST_STATE_ACKNOWLEDGED) {
+                list.add(s.iids[i]);
+            }
+        }
+        return list.toArray(new ConsumerUID[0]);
+    }
+
+    @Override
+    void clearAll(boolean sync) throws BrokerException {
+        try {
+            journal.clear();
+        } catch (IOException e) {
+            logger.log(Logger.ERROR, BrokerResources.X_RESET_MESSAGES_FAILED, journal.getDirectory(), e);
+            throw new BrokerException(br.getString(BrokerResources.X_RESET_MESSAGES_FAILED, journal.getDirectory()), e);
+        }
+    }
+
+    @Override
+    void sync(DestinationUID dst) throws BrokerException {
+        journal.force();
+    }
+
+    // synchronized by caller
+    @Override
+    void close(boolean cleanup) {
+        if (compactionTask != null) {
+            compactionTask.cancel();
+            compactionTask = null;
+        }
+        journal.close();
+    }
+
+    /**
+     * All destinations share the journal directory.
+     */
+    @Override
+    File getDirName(DestinationUID dst) {
+        return journal.getDirectory();
+    }
+
+    private void checkDestination(DestinationUID dst) throws BrokerException {
+        // throw exception if dst is not found
+        parent.getDstStore().checkDestination(dst.toString());
+    }
+
+    private byte[] getAttachment(DestinationUID dst, SysMessageID mid) throws BrokerException {
+        byte[] att = journal.getAttachment(dst.toString(), mid.getUniqueName());
+        if (att == null) {
+            checkDestination(dst);
+            logger.log(Logger.ERROR, BrokerResources.E_MSG_NOT_FOUND_IN_STORE, mid, dst);
+            throw new BrokerException(br.getString(BrokerResources.E_MSG_NOT_FOUND_IN_STORE, mid, dst));
+        }
+        return att;
+    }
+
+    private static Packet parseMessage(byte[] data) throws IOException {
+        try (JMQByteBufferInputStream bis = new JMQByteBufferInputStream(ByteBuffer.wrap(data))) {
+            Packet msg = new Packet(false);
+            msg.generateTimestamp(false);
+            msg.generateSequenceNumber(false);
+            msg.readPacket(bis);
+            return msg;
+        }
+    }
+
+    private static final class States {
+        final ConsumerUID[] iids;
+        final int[] states;
+
+        States(int size) {
+            iids = new ConsumerUID[size];
+            states = new int[size];
+        }
+    }
+
+    static byte[] serializeStates(ConsumerUID[] iids, int[] states) {
+        int size = iids == null ? 0 : iids.length;
+        ByteBuffer buf = ByteBuffer.allocate(INT_SIZE + size * ENTRY_SIZE);
+        buf.putInt(size);
+        for (int i = 0; i < size; i++) {
+            buf.putLong(iids[i].longValue());
+            buf.putInt(states[i]);
+        }
+        return buf.array();
+    }
+
+    private static States parseStates(byte[] att) {
+        if (att.length < INT_SIZE) {
+            return new States(0);
+        }
+        ByteBuffer buf = ByteBuffer.wrap(att);
+        States s = new States(buf.getInt());
+        for (int i = 0; i < s.iids.length; i++) {
+            s.iids[i] = new ConsumerUID(buf.getLong());
+            s.states[i] = buf.getInt();
+        }
+        return s;
+    }
+
+    /**
+     * @return the offset of the state of iid in the attachment, or -1 if there is none
+     */
+    private static int findState(byte[] att, ConsumerUID iid) {
+        if (att.length < INT_SIZE) {
+            return -1;
+        }
+        ByteBuffer buf = ByteBuffer.wrap(att);
+        int size = buf.getInt(0);
+        long id = iid.longValue();
+        for (int i = 0, pos = INT_SIZE; i < size; i++, pos += ENTRY_SIZE) {
+            if (buf.getLong(pos) == id) {
+                return pos + 8;
+            }
+        }
+        return -1;
+    }
+}
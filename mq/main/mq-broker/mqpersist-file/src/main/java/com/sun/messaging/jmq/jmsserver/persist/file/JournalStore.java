@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.persist.file;
+
+import java.io.File;
+
+import com.sun.messaging.jmq.jmsserver.util.BrokerException;
+import org.jvnet.hk2.annotations.Service;
+import jakarta.inject.Singleton;
+
+/**
+ * JournalStore is a file store that keeps the messages of all destinations in a single memory-mapped, segmented journal
+ * (see JournalMsgStore). Destinations, durable subscriptions, transactions and the transaction log are kept as in
+ * FileStore. Selected with imq.persist.store=journal.
+ */
+@Service(name = "com.sun.messaging.jmq.jmsserver.persist.file.JournalStore")
+@Singleton
+public class JournalStore extends FileStore {
+
+    public JournalStore() throws BrokerException {
+        super();
+    }
+
+    /**
+     * Used for Store backup/restore utility only.
+     */
+    public JournalStore(String dir, boolean clean) throws BrokerException {
+        super(dir, clean);
+    }
+
+    @Override
+    MsgStore createMsgStore(File top, boolean reset) throws BrokerException {
+        return new JournalMsgStore(this, top, reset);
+    }
+
+    @Override
+    public String getStoreType() {
+        return JOURNAL_STORE_TYPE;
+    }
+}
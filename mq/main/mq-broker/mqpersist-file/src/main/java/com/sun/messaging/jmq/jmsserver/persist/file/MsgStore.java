@@ -1,7 +1,7 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
  * Copyright (c) 2020 Payara Services Ltd.
- * Copyright (c) 2022 Contributors to Eclipse Foundation. All rights reserved.
+ * Copyright (c) 2022, 2026 Contributors to Eclipse Foundation. All rights reserved.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -117,6 +117,13 @@ class MsgStore {
 
     protected FileStore parent = null;
 
+    /**
+     * Used by subclasses that keep messages in a different backing store.
+     */
+    MsgStore(FileStore p) {
+        this.parent = p;
+    }
+
     /**
      * Messages are loaded on demand. if reset is true, remove all messages.
      */
@@ -200,10 +207,7 @@ class MsgStore {
                 sync = false;
             }
         }
-        // get from cache; instantiate=true, load=true, create=true
-        DstMsgStore msgstore = getDstMsgStore(dst, true, true, true);
-
-        MessageInfo info = msgstore.storeMessage(message, iids, states, sync);
+        byte[] msgBytes = writeMessage(dst, message, iids, states, sync);
 
         // log message produce
         if (Globals.logNonTransactedMsgSend() && !Globals.isNewTxnLogEnabled()) {
@@ -211,7 +215,6 @@ class MsgStore {
             // old txn log
             long tid = message.getTransactionID();
             if (tid <= 0) {
-                byte[] msgBytes = info.getCachedMessageBytes();
                 if (msgBytes == null) {
                     msgBytes = message.getBytes();
                 }
@@ -227,6 +230,20 @@ class MsgStore {
 
     }
 
+    /**
+     * Write a message and its interest states to the backing store.
+     *
+     * @return the serialized message if it is at hand, otherwise null
+     */
+    byte[] writeMessage(DestinationUID dst, Packet message, ConsumerUID[] iids, int[] states, boolean sync) throws IOException, BrokerException {
+
+        // get from cache; instantiate=true, load=true, create=true
+        DstMsgStore msgstore = getDstMsgStore(dst, true, true, true);
+
+        MessageInfo info = msgstore.storeMessage(message, iids, states, sync);
+        return info.getCachedMessageBytes();
+    }
+
     /**
      * Return a message with the specified message id.
      */
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2013, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -24,7 +24,9 @@ import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import com.sun.messaging.jmq.io.SysMessageID;
 import com.sun.messaging.jmq.jmsserver.Globals;
 import com.sun.messaging.jmq.jmsserver.config.BrokerConfig;
@@ -40,6 +42,7 @@ import com.sun.messaging.jmq.jmsserver.resources.BrokerResources;
 import com.sun.messaging.jmq.jmsserver.util.BrokerException;
 import com.sun.messaging.jmq.jmsserver.util.WaitTimeoutException;
 import com.sun.messaging.jmq.util.FileUtil;
+import com.sun.messaging.jmq.util.Histogram;
 import com.sun.messaging.jmq.util.SizeString;
 import com.sun.messaging.jmq.util.log.Logger;
 import com.sun.messaging.jmq.io.txnlog.CheckPointListener;
@@ -125,13 +128,18 @@ public class TransactionLogManager implements CheckPointListener {
     public static final boolean logNonTransactedMsgAck = Globals.getConfig().getBooleanProperty(LOG_NON_TRANSACTED_MSG_ACK_PROP, defaultLogNonTransactedMsgAck);
 
     /**
-     * whether to use a separate thread for writing to the txn log
+     * whether to use a separate thread for writing to the txn log, so that records from concurrent producers share one
+     * write and sync.
      */
 
     public static final String TXN_LOG_GROUP_COMMITS_PROP = Globals.IMQ + ".persist.file.txnLog.groupCommits";
 
     public static final boolean isTxnLogGroupCommits = Globals.getConfig().getBooleanProperty(TXN_LOG_GROUP_COMMITS_PROP, false);
 
+    public static final String TXN_LOG_GROUP_COMMITS_MAX_BATCH_SIZE_PROP = TXN_LOG_GROUP_COMMITS_PROP + ".maxBatchSize";
+
+    public static final String TXN_LOG_GROUP_COMMITS_MAX_DELAY_PROP = TXN_LOG_GROUP_COMMITS_PROP + ".maxDelay";
+
     public static final String WAIT_LOCAL_PLAYTO_STORE_WITH_EXLOCK_PROP = Globals.IMQ + ".persist.file.txnLog.waitLocalPlayToStoreCompletionWithExLock";
     public static final boolean waitLocalPlayToStoreWithExLock = Globals.getConfig().getBooleanProperty(WAIT_LOCAL_PLAYTO_STORE_WITH_EXLOCK_PROP, false);
 
@@ -142,6 +150,8 @@ public class TransactionLogManager implements CheckPointListener {
 
     private TransactionLogWriter msgLogWriter = null;
 
+    private FileTransactionLogWriter fileLogWriter = null;
+
     TransactionLogReplayer transactionLogReplayer;
 
     LocalTransactionManager localTransactionManager;
@@ -427,6 +437,7 @@ public class TransactionLogManager implements CheckPointListener {
         logger.log(Logger.INFO, "sync writes to disk = " + Destination.PERSIST_SYNC);
         logger.log(Logger.INFO, "logNonTransactedMsgSend = " + logNonTransactedMsgSend);
         logger.log(Logger.INFO, "logNonTransactedMsgAck = " + logNonTransactedMsgAck);
+        logger.log(Logger.INFO, "groupCommits = " + isTxnLogGroupCommits);
 
         // create txn log writers
         String filename = null;
@@ -465,6 +476,18 @@ public class TransactionLogManager implements CheckPointListener {
                         + BaseTransaction.CURRENT_FORMAT_VERSION);
             }
 
+            if (isTxnLogGroupCommits) {
+                int maxBatchSize = config.getIntProperty(TXN_LOG_GROUP_COMMITS_MAX_BATCH_SIZE_PROP,
+                        FileTransactionLogWriter.DEFAULT_GROUP_COMMIT_MAX_BATCH_SIZE);
+                long maxDelay = config.getLongProperty(TXN_LOG_GROUP_COMMITS_MAX_DELAY_PROP, 0L);
+                if (maxBatchSize < 1) {
+                    maxBatchSize = FileTransactionLogWriter.DEFAULT_GROUP_COMMIT_MAX_BATCH_SIZE;
+                }
+                ftlw.setGroupCommitParameters(maxBatchSize, maxDelay);
+                logger.log(Logger.INFO, "groupCommits maxBatchSize = " + maxBatchSize + ", maxDelay = " + maxDelay + " microseconds");
+            }
+
+            fileLogWriter = ftlw;
             msgLogWriter = ftlw;
 
             msgLogWriter.setCheckPointListener(this);
@@ -839,6 +862,19 @@ public class TransactionLogManager implements CheckPointListener {
         return loggedMessageHelper;
     }
 
+    /**
+     * @return the group commit batch size and sync latency histograms of the transaction log, empty if it is not open
+     */
+    public Map<String, Histogram> getHistograms() {
+        Map<String, Histogram> histograms = new LinkedHashMap<>();
+        FileTransactionLogWriter ftlw = fileLogWriter;
+        if (ftlw != null) {
+            histograms.put(Store.TXN_LOG_COMMIT_BATCH_SIZE_HISTOGRAM, ftlw.getBatchSizeHistogram());
+            histograms.put(Store.TXN_LOG_SYNC_LATENCY_HISTOGRAM, ftlw.getSyncLatencyHistogram());
+        }
+        return histograms;
+    }
+
     public static boolean isReplayInProgress() {
         return replayInProgress;
     }
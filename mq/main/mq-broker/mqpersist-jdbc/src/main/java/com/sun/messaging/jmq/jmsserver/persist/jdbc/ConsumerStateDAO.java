@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -57,9 +57,20 @@ public interface ConsumerStateDAO extends BaseDAO {
     void insert(Connection conn, String dstID, SysMessageID sysMsgID, ConsumerUID[] consumerUIDs, int[] states, boolean checkMsgExist, boolean replaycheck)
             throws BrokerException;
 
+    /**
+     * Insert the interest lists of new messages in one batch, without checks. The changes are not committed.
+     */
+    void insert(Connection conn, SysMessageID[] sysMsgIDs, ConsumerUID[][] consumerUIDs, int[][] states) throws BrokerException;
+
     void updateState(Connection conn, DestinationUID dstUID, SysMessageID sysMsgID, ConsumerUID consumerUID, int state, boolean replaycheck)
             throws BrokerException;
 
+    /**
+     * Update existing entries in one batch. The changes are not committed.
+     */
+    void updateState(Connection conn, DestinationUID[] dstUIDs, SysMessageID[] sysMsgIDs, ConsumerUID[] consumerUIDs, int[] states)
+            throws BrokerException;
+
     void updateState(Connection conn, DestinationUID dstUID, SysMessageID sysMsgID, ConsumerUID consumerUID, int newState, int expectedState)
             throws BrokerException;
 
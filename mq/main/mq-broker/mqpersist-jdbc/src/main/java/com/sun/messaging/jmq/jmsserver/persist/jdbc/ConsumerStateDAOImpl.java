@@ -1,7 +1,7 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
  * Copyright (c) 2020 Payara Services Ltd.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -308,6 +308,77 @@ class ConsumerStateDAOImpl extends BaseDAOImpl implements ConsumerStateDAO {
         }
     }
 
+    /**
+     * Insert the interest lists of new messages in one batch.
+     *
+     * @param conn database connection
+     * @param sysMsgIDs the system message IDs
+     * @param conUIDs an array of consumer ids per message
+     * @param states an array of states per message
+     */
+    @Override
+    public void insert(Connection conn, SysMessageID[] sysMsgIDs, ConsumerUID[][] conUIDs, int[][] states) throws BrokerException {
+
+        PreparedStatement pstmt = null;
+        Exception myex = null;
+        String msgID = null;
+        try {
+            DBManager dbMgr = DBManager.getDBManager();
+            boolean dobatch = dbMgr.supportsBatchUpdates();
+            pstmt = dbMgr.createPreparedStatement(conn, insertSQL);
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < sysMsgIDs.length; i++) {
+                if (conUIDs[i] == null) {
+                    continue;
+                }
+                msgID = sysMsgIDs[i].getUniqueName();
+                for (int j = 0; j < conUIDs[i].length; j++) {
+                    pstmt.setString(1, msgID);
+                    pstmt.setLong(2, conUIDs[i][j].longValue());
+                    pstmt.setInt(3, states[i][j]);
+                    pstmt.setLong(4, now);
+
+                    if (dobatch) {
+                        pstmt.addBatch();
+                    } else {
+                        pstmt.executeUpdate();
+                    }
+                }
+            }
+
+            if (dobatch) {
+                pstmt.executeBatch();
+            }
+        } catch (Exception e) {
+            myex = e;
+            boolean replayck = false;
+            try {
+                if ((conn != null) && !conn.getAutoCommit()) {
+                    conn.rollback();
+                }
+            } catch (SQLException rbe) {
+                replayck = true;
+                logger.log(Logger.ERROR, BrokerResources.X_DB_ROLLBACK_FAILED, rbe);
+            }
+
+            Exception ex;
+            if (e instanceof SQLException) {
+                ex = DBManager.wrapSQLException("[" + insertSQL + "]", (SQLException) e);
+            } else {
+                ex = e;
+            }
+
+            BrokerException be = new BrokerException(br.getKString(BrokerResources.X_PERSIST_INTEREST_LIST_FAILED, msgID), ex);
+            be.setSQLRecoverable(true);
+            if (replayck) {
+                be.setSQLReplayCheck(true);
+            }
+            throw be;
+        } finally {
+            Util.close(null, pstmt, null, myex);
+        }
+    }
+
     /**
      * Update existing entry.
      *
@@ -424,6 +495,82 @@ class ConsumerStateDAOImpl extends BaseDAOImpl implements ConsumerStateDAO {
         }
     }
 
+    /**
+     * Update existing entries in one batch. With HA, each entry is updated as by updateState() so that only the broker
+     * that owns a message updates its states.
+     *
+     * @param conn database connection
+     * @param dstUIDs the destination IDs
+     * @param sysMsgIDs the system message IDs
+     * @param conUIDs the consumer ids
+     * @param states the states
+     */
+    @Override
+    public void updateState(Connection conn, DestinationUID[] dstUIDs, SysMessageID[] sysMsgIDs, ConsumerUID[] conUIDs, int[] states)
+            throws BrokerException {
+
+        DBManager dbMgr = DBManager.getDBManager();
+        if (Globals.getHAEnabled() || !dbMgr.supportsBatchUpdates()) {
+            for (int i = 0; i < sysMsgIDs.length; i++) {
+                updateState(conn, dstUIDs[i], sysMsgIDs[i], conUIDs[i], states[i], false);
+            }
+            return;
+        }
+
+        PreparedStatement pstmt = null;
+        Exception myex = null;
+        int i = 0;
+        try {
+            pstmt = dbMgr.createPreparedStatement(conn, updateStateSQL);
+            for (; i < sysMsgIDs.length; i++) {
+                pstmt.setInt(1, states[i]);
+                pstmt.setString(2, sysMsgIDs[i].getUniqueName());
+                pstmt.setLong(3, conUIDs[i].longValue());
+                pstmt.addBatch();
+            }
+
+            int[] counts = pstmt.executeBatch();
+            for (i = 0; i < counts.length; i++) {
+                if (counts[i] == 0 || counts[i] == Statement.EXECUTE_FAILED) {
+                    // Otherwise we're assuming the entry does not exist
+                    throw new BrokerException(br.getKString(BrokerResources.E_INTEREST_STATE_NOT_FOUND_IN_STORE, conUIDs[i].toString(),
+                            sysMsgIDs[i].getUniqueName()), Status.NOT_FOUND);
+                }
+            }
+        } catch (Exception e) {
+            myex = e;
+            boolean replayck = false;
+            try {
+                if ((conn != null) && !conn.getAutoCommit()) {
+                    conn.rollback();
+                }
+            } catch (SQLException rbe) {
+                replayck = true;
+                logger.log(Logger.ERROR, BrokerResources.X_DB_ROLLBACK_FAILED, rbe);
+            }
+
+            Exception ex;
+            if (e instanceof BrokerException) {
+                throw (BrokerException) e;
+            } else if (e instanceof SQLException) {
+                ex = DBManager.wrapSQLException("[" + updateStateSQL + "]", (SQLException) e);
+            } else {
+                ex = e;
+            }
+
+            int n = Math.min(i, sysMsgIDs.length - 1);
+            BrokerException be = new BrokerException(br.getKString(BrokerResources.X_PERSIST_INTEREST_STATE_FAILED, conUIDs[n].toString(),
+                    sysMsgIDs[n].toString()), ex);
+            be.setSQLRecoverable(true);
+            if (replayck) {
+                be.setSQLReplayCheck(true);
+            }
+            throw be;
+        } finally {
+            Util.close(null, pstmt, null, myex);
+        }
+    }
+
     /**
      * Update existing entry.
      *
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -66,6 +66,15 @@ public class JDBCStore extends Store implements DBConstants, PartitionedStore {
 
     private static final String MSG_ENUM_USE_CURSOR_PROP = DBManager.JDBC_PROP_PREFIX + ".msgEnumUseResultSetCursor";
 
+    public static final String BATCH_MAX_SIZE_PROP = DBManager.JDBC_PROP_PREFIX + ".batch.maxSize";
+    public static final int BATCH_MAX_SIZE_DEFAULT = 1;
+
+    public static final String BATCH_LINGER_MICROS_PROP = DBManager.JDBC_PROP_PREFIX + ".batch.lingerMicros";
+    public static final long BATCH_LINGER_MICROS_DEFAULT = 0L;
+
+    public static final String BATCH_MAX_IN_FLIGHT_PROP = DBManager.JDBC_PROP_PREFIX + ".batch.maxInFlight";
+    public static final int BATCH_MAX_IN_FLIGHT_DEFAULT = 4;
+
     // current version of store
     public static final int OLD_STORE_VERSION_350 = 350;
     public static final int OLD_STORE_VERSION_370 = 370;
@@ -84,6 +93,9 @@ public class JDBCStore extends Store implements DBConstants, PartitionedStore {
     private boolean msgEnumUseCursor = true;
     private List<Enumeration> dataEnums = Collections.synchronizedList(new ArrayList<>());
 
+    // coalesces concurrent message inserts and interest state updates, null if batching is disabled
+    private WriteBatcher writeBatcher = null;
+
     private UID partitionid = PartitionedStore.DEFAULT_UID;
 
     private static final String PARTITION_MODE_PROP = StoreManager.PARTITION_MODE_PROP;
@@ -176,6 +188,15 @@ public class JDBCStore extends Store implements DBConstants, PartitionedStore {
 
         msgEnumUseCursor = config.getBooleanProperty(MSG_ENUM_USE_CURSOR_PROP, true);
 
+        int batchSize = config.getIntProperty(BATCH_MAX_SIZE_PROP, BATCH_MAX_SIZE_DEFAULT);
+        if (batchSize > 1) {
+            writeBatcher = new WriteBatcher(this, batchSize, config.getLongProperty(BATCH_LINGER_MICROS_PROP, BATCH_LINGER_MICROS_DEFAULT),
+                    config.getIntProperty(BATCH_MAX_IN_FLIGHT_PROP, BATCH_MAX_IN_FLIGHT_DEFAULT));
+            logger.log(Logger.INFO, "JDBCStore: batching message inserts and interest state updates [" + BATCH_MAX_SIZE_PROP + "=" + batchSize + ", "
+                    + BATCH_LINGER_MICROS_PROP + "=" + writeBatcher.getLingerMicros() + ", " + BATCH_MAX_IN_FLIGHT_PROP + "="
+                    + writeBatcher.getMaxInFlight() + "]");
+        }
+
         Connection conn = null;
         Exception myex = null;
         try {
@@ -323,7 +344,22 @@ public class JDBCStore extends Store implements DBConstants, PartitionedStore {
             }
         }
 
-        boolean replaycheck = false;
+        if (checkMsgExist && writeBatcher != null) {
+            writeBatcher.storeMessage(dst, message, iids, states, storeSessionID);
+        } else {
+            insertMessageWithRetry(dst, message, iids, states, storeSessionID, checkMsgExist, false);
+        }
+    }
+
+    /**
+     * Insert the message in its own transaction, retrying on recoverable errors.
+     *
+     * @param mayBeStored true if the message may have been stored by an earlier attempt
+     */
+    void insertMessageWithRetry(DestinationUID dst, Packet message, ConsumerUID[] iids, int[] states, long storeSessionID, boolean checkMsgExist,
+            boolean mayBeStored) throws BrokerException {
+
+        boolean replaycheck = mayBeStored;
         Util.RetryStrategy retry = null;
         do {
             try {
@@ -333,7 +369,7 @@ public class JDBCStore extends Store implements DBConstants, PartitionedStore {
                 if (retry == null) {
                     retry = new Util.RetryStrategy();
                 }
-                replaycheck = retry.assertShouldRetry(e);
+                replaycheck = retry.assertShouldRetry(e) || mayBeStored;
             }
         } while (true);
     }
@@ -878,7 +914,21 @@ public class JDBCStore extends Store implements DBConstants, PartitionedStore {
             logger.log(Logger.INFO, "JDBCStore.updateInterestStateInternal(" + dID + ", " + mID.getUniqueName() + ", " + iID.toString() + ", " + state + ", "
                     + sync + ", " + txid + ", " + isLastAck + ")");
         }
-        boolean replaycheck = false;
+        if (writeBatcher != null) {
+            writeBatcher.updateInterestState(dID, mID, iID, state);
+        } else {
+            updateInterestStateWithRetry(dID, mID, iID, state, false);
+        }
+    }
+
+    /**
+     * Update the interest state in its own transaction, retrying on recoverable errors.
+     *
+     * @param mayBeStored true if the state may have been updated by an earlier attempt
+     */
+    void updateInterestStateWithRetry(DestinationUID dID, SysMessageID mID, ConsumerUID iID, int state, boolean mayBeStored) throws BrokerException {
+
+        boolean replaycheck = mayBeStored;
         Util.RetryStrategy retry = null;
         do {
             try {
@@ -888,7 +938,7 @@ public class JDBCStore extends Store implements DBConstants, PartitionedStore {
                 if (retry == null) {
                     retry = new Util.RetryStrategy();
                 }
-                replaycheck = retry.assertShouldRetry(e);
+                replaycheck = retry.assertShouldRetry(e) || mayBeStored;
             }
         } while (true);
     }
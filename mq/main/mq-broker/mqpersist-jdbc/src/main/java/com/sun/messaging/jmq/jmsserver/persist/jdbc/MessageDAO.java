@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -67,6 +67,13 @@ public interface MessageDAO extends BaseDAO {
     void insert(Connection conn, String dstID, Packet message, ConsumerUID[] consumerUIDs, int[] states, long storeSessionID, long createdTime,
             boolean checkMsgExist, boolean replaycheck) throws BrokerException;
 
+    /**
+     * Insert new entries in one batch, checking each message as insert() does with checkMsgExist set. The changes are not
+     * committed.
+     */
+    void insert(Connection conn, String[] dstIDs, Packet[] messages, ConsumerUID[][] consumerUIDs, int[][] states, long[] storeSessionIDs)
+            throws BrokerException;
+
     /**
      * This method is for special case where ID column is found corrupted for a message after loaded from the database table
      * however the packet in MESSAGE column is found intact
@@ -1,7 +1,7 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
  * Copyright (c) 2020 Payara Services Ltd.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -383,6 +383,109 @@ class MessageDAOImpl extends BaseDAOImpl implements MessageDAO {
         }
     }
 
+    /**
+     * Insert new entries in one batch.
+     *
+     * @param conn database connection
+     * @param dstIDs the destinations
+     * @param messages the messages to be persisted
+     * @param conUIDs an array of interest ids per message, or null
+     * @param states an array of states per message
+     * @param storeSessionIDs the store session IDs that own the msgs
+     * @exception com.sun.messaging.jmq.jmsserver.util.BrokerException if a message with the same id exists in the store
+     * already
+     */
+    @Override
+    public void insert(Connection conn, String[] dstIDs, Packet[] messages, ConsumerUID[][] conUIDs, int[][] states, long[] storeSessionIDs)
+            throws BrokerException {
+
+        DBManager dbMgr = DBManager.getDBManager();
+        PreparedStatement pstmt = null;
+        Exception myex = null;
+        String id = null;
+        try {
+            SysMessageID[] sysMsgIDs = new SysMessageID[messages.length];
+            for (int i = 0; i < messages.length; i++) {
+                sysMsgIDs[i] = messages[i].getSysMessageID();
+                if (dstIDs[i] == null) {
+                    dstIDs[i] = DestinationUID.getUniqueString(messages[i].getDestination(), messages[i].getIsQueue());
+                }
+                try {
+                    canInsertMsg(conn, sysMsgIDs[i].getUniqueName(), dstIDs[i], dbMgr.getBrokerID());
+                } catch (BrokerException e) {
+                    if (!(e instanceof StoreBeingTakenOverException) && e.getStatusCode() != Status.CONFLICT && e.getStatusCode() != Status.NOT_FOUND) {
+                        e.setSQLRecoverable(true);
+                    }
+                    throw e;
+                }
+            }
+
+            try {
+                boolean dobatch = dbMgr.supportsBatchUpdates();
+                pstmt = dbMgr.createPreparedStatement(conn, insertSQL);
+                for (int i = 0; i < messages.length; i++) {
+                    id = sysMsgIDs[i].getUniqueName();
+                    long txnID = messages[i].getTransactionID();
+
+                    pstmt.setString(1, id);
+                    pstmt.setInt(2, messages[i].getPacketSize());
+                    pstmt.setLong(3, storeSessionIDs[i]);
+                    pstmt.setString(4, dstIDs[i]);
+                    Util.setLong(pstmt, 5, ((txnID == 0) ? -1 : txnID));
+                    pstmt.setLong(6, messages[i].getTimestamp());
+                    Util.setBytes(pstmt, 7, messages[i].getBytes());
+
+                    if (dobatch) {
+                        pstmt.addBatch();
+                    } else {
+                        pstmt.executeUpdate();
+                    }
+                }
+
+                if (dobatch) {
+                    pstmt.executeBatch();
+                }
+
+                // Store the consumer's states if any
+                dbMgr.getDAOFactory().getConsumerStateDAO().insert(conn, sysMsgIDs, conUIDs, states);
+            } catch (Exception e) {
+                myex = e;
+                boolean replayck = false;
+                try {
+                    if (!conn.getAutoCommit()) {
+                        conn.rollback();
+                    }
+                } catch (SQLException rbe) {
+                    replayck = true;
+                    logger.log(Logger.ERROR, BrokerResources.X_DB_ROLLBACK_FAILED, rbe);
+                }
+
+                Exception ex;
+                if (e instanceof BrokerException) {
+                    throw (BrokerException) e;
+                } else if (e instanceof IOException) {
+                    ex = DBManager.wrapIOException("[" + insertSQL + "]", (IOException) e);
+                } else if (e instanceof SQLException) {
+                    ex = DBManager.wrapSQLException("[" + insertSQL + "]", (SQLException) e);
+                } else {
+                    ex = e;
+                }
+
+                BrokerException ee = new BrokerException(br.getKString(BrokerResources.X_PERSIST_MESSAGE_FAILED, id), ex);
+                ee.setSQLRecoverable(true);
+                if (replayck) {
+                    ee.setSQLReplayCheck(true);
+                }
+                throw ee;
+            }
+        } catch (BrokerException e) {
+            myex = e;
+            throw e;
+        } finally {
+            Util.close(null, pstmt, null, myex);
+        }
+    }
+
     /**
      * Move a message to another destination.
      *
@@ -1,7 +1,7 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
  * Copyright (c) 2020 Payara Services Ltd.
- * Copyright (c) 2021, 2022 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -237,6 +237,25 @@ class OracleMessageDAOImpl extends MessageDAOImpl {
         }
     }
 
+    /**
+     * Insert new entries. The message column is written through a BLOB locator, so each message is inserted on its own
+     * but in the caller's transaction.
+     */
+    @Override
+    public void insert(Connection conn, String[] dstIDs, Packet[] messages, ConsumerUID[][] conUIDs, int[][] states, long[] storeSessionIDs)
+            throws BrokerException {
+
+        if (!DBManager.getDBManager().isOracleDriver()) {
+            // Try generic implementation
+            super.insert(conn, dstIDs, messages, conUIDs, states, storeSessionIDs);
+            return;
+        }
+
+        for (int i = 0; i < messages.length; i++) {
+            insert(conn, dstIDs[i], messages[i], conUIDs[i], states[i], storeSessionIDs[i], messages[i].getTimestamp(), true, false);
+        }
+    }
+
     /**
      * Move a message to another destination.
      *
@@ -0,0 +1,369 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.persist.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sun.messaging.jmq.io.Packet;
+import com.sun.messaging.jmq.io.SysMessageID;
+import com.sun.messaging.jmq.jmsserver.Globals;
+import com.sun.messaging.jmq.jmsserver.core.ConsumerUID;
+import com.sun.messaging.jmq.jmsserver.core.DestinationUID;
+import com.sun.messaging.jmq.jmsserver.util.BrokerException;
+import com.sun.messaging.jmq.util.log.Logger;
+
+/**
+ * Coalesces concurrent JDBCStore message inserts and interest state updates into batched statements executed in one
+ * transaction. There is no writer thread: a caller whose operation is still queued and which finds fewer than
+ * maxInFlight batches in progress takes the queued operations, including those of other callers, and executes them as
+ * one batch on its own connection, until its own operation is done. A caller returns only after the transaction
+ * containing its operation has been committed, so each call is as durable as an unbatched one.
+ *
+ * If a batch fails it is rolled back and its operations are executed one by one with the usual retry handling, so
+ * each caller gets the same result as without batching.
+ */
+final class WriteBatcher {
+
+    private static final Logger logger = Globals.getLogger();
+
+    /**
+     * Executes the operations against the database.
+     */
+    interface Backend {
+        /**
+         * Execute the operations in one transaction, the inserts first so that state updates on them find them.
+         *
+         * @throws BatchFailedException if the transaction was not committed
+         */
+        void executeBatch(List<StoreOp> storeOps, List<StateOp> stateOps) throws BatchFailedException;
+
+        void insertMessage(StoreOp op, boolean replaycheck) throws BrokerException;
+
+        void updateInterestState(StateOp op, boolean replaycheck) throws BrokerException;
+    }
+
+    static final class BatchFailedException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        // true if the commit itself failed, so the outcome is unknown
+        final boolean commitFailed;
+
+        BatchFailedException(Throwable cause, boolean commitFailed) {
+            super(cause);
+            this.commitFailed = commitFailed;
+        }
+    }
+
+    private final Backend backend;
+
+    // the maximum number of operations executed in one transaction
+    private final int maxBatchSize;
+
+    // how long a flushing caller waits for more operations before executing a batch smaller than maxBatchSize
+    private final long lingerMicros;
+
+    // the maximum number of batches executed at the same time, each on its own connection
+    private final int maxInFlight;
+
+    private final ArrayDeque<Op> queue = new ArrayDeque<>();
+
+    // the number of callers executing a batch
+    private int inFlight = 0;
+
+    abstract static class Op {
+        boolean done = false;
+        BrokerException error = null;
+
+        /**
+         * Execute this operation in its own transaction.
+         */
+        abstract void executeAlone(Backend backend, boolean replaycheck) throws BrokerException;
+    }
+
+    static final class StoreOp extends Op {
+        final DestinationUID dst;
+        final Packet message;
+        final ConsumerUID[] iids;
+        final int[] states;
+        final long storeSessionID;
+
+        StoreOp(DestinationUID dst, Packet message, ConsumerUID[] iids, int[] states, long storeSessionID) {
+            this.dst = dst;
+            this.message = message;
+            this.iids = iids;
+            this.states = states;
+            this.storeSessionID = storeSessionID;
+        }
+
+        @Override
+        void executeAlone(Backend backend, boolean replaycheck) throws BrokerException {
+            backend.insertMessage(this, replaycheck);
+        }
+    }
+
+    static final class StateOp extends Op {
+        final DestinationUID dID;
+        final SysMessageID mID;
+        final ConsumerUID iID;
+        final int state;
+
+        StateOp(DestinationUID dID, SysMessageID mID, ConsumerUID iID, int state) {
+            this.dID = dID;
+            this.mID = mID;
+            this.iID = iID;
+            this.state = state;
+        }
+
+        @Override
+        void executeAlone(Backend backend, boolean replaycheck) throws BrokerException {
+            backend.updateInterestState(this, replaycheck);
+        }
+    }
+
+    WriteBatcher(JDBCStore store, int maxBatchSize, long lingerMicros, int maxInFlight) {
+        this(new JDBCBackend(store), maxBatchSize, lingerMicros, maxInFlight);
+    }
+
+    WriteBatcher(Backend backend, int maxBatchSize, long lingerMicros, int maxInFlight) {
+        this.backend = backend;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerMicros = Math.max(0L, lingerMicros);
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    long getLingerMicros() {
+        return lingerMicros;
+    }
+
+    int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    synchronized int getQueueSize() {
+        return queue.size();
+    }
+
+    void storeMessage(DestinationUID dst, Packet message, ConsumerUID[] iids, int[] states, long storeSessionID) throws BrokerException {
+        submit(new StoreOp(dst, message, iids, states, storeSessionID));
+    }
+
+    void updateInterestState(DestinationUID dID, SysMessageID mID, ConsumerUID iID, int state) throws BrokerException {
+        submit(new StateOp(dID, mID, iID, state));
+    }
+
+    void submit(Op op) throws BrokerException {
+        boolean interrupted = false;
+        synchronized (this) {
+            queue.add(op);
+            // wake up a flushing caller that is waiting for more operations
+            notifyAll();
+        }
+        try {
+            while (true) {
+                Op[] batch = null;
+                synchronized (this) {
+                    // an empty queue means the operation is in a batch in progress
+                    while (!op.done && (inFlight >= maxInFlight || queue.isEmpty())) {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            // the operation is already queued, so we must not return before it is executed
+                            interrupted = true;
+                        }
+                    }
+                    if (op.done) {
+                        break;
+                    }
+                    inFlight++;
+                    if (lingerMicros > 0) {
+                        // wait a little for more operations to share the commit
+                        long deadline = System.nanoTime() + lingerMicros * 1000L;
+                        long remaining;
+                        while (queue.size() < maxBatchSize && (remaining = deadline - System.nanoTime()) > 0) {
+                            try {
+                                wait(remaining / 1000000L, (int) (remaining % 1000000L));
+                            } catch (InterruptedException e) {
+                                interrupted = true;
+                                break;
+                            }
+                        }
+                    }
+                    batch = new Op[Math.min(queue.size(), maxBatchSize)];
+                    for (int i = 0; i < batch.length; i++) {
+                        batch[i] = queue.poll();
+                    }
+                }
+                try {
+                    flush(batch);
+                } finally {
+                    synchronized (this) {
+                        for (int i = 0; i < batch.length; i++) {
+                            batch[i].done = true;
+                        }
+                        inFlight--;
+                        notifyAll();
+                    }
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (op.error != null) {
+            throw op.error;
+        }
+    }
+
+    private void flush(Op[] batch) {
+        if (batch.length == 0) {
+            return;
+        }
+        if (batch.length == 1) {
+            executeAlone(batch[0], false);
+            return;
+        }
+
+        List<StoreOp> storeOps = new ArrayList<>();
+        List<StateOp> stateOps = new ArrayList<>();
+        for (int i = 0; i < batch.length; i++) {
+            if (batch[i] instanceof StoreOp) {
+                storeOps.add((StoreOp) batch[i]);
+            } else {
+                stateOps.add((StateOp) batch[i]);
+            }
+        }
+
+        try {
+            backend.executeBatch(storeOps, stateOps);
+        } catch (BatchFailedException e) {
+            logger.log(Logger.DEBUG, "JDBC write batch of " + batch.length + " operations failed, executing them one by one: " + e.getCause());
+            // the outcome of a failed commit is unknown, so check for already stored data when replaying
+            for (int i = 0; i < batch.length; i++) {
+                executeAlone(batch[i], e.commitFailed);
+            }
+        }
+    }
+
+    private void executeAlone(Op op, boolean replaycheck) {
+        try {
+            op.executeAlone(backend, replaycheck);
+        } catch (BrokerException e) {
+            op.error = e;
+        } catch (RuntimeException e) {
+            op.error = new BrokerException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Executes the operations with the DAOs of the DBManager, and one by one with the retry handling of the JDBCStore.
+     */
+    private static final class JDBCBackend implements Backend {
+        private final JDBCStore store;
+
+        JDBCBackend(JDBCStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public void insertMessage(StoreOp op, boolean replaycheck) throws BrokerException {
+            store.insertMessageWithRetry(op.dst, op.message, op.iids, op.states, op.storeSessionID, true, replaycheck);
+        }
+
+        @Override
+        public void updateInterestState(StateOp op, boolean replaycheck) throws BrokerException {
+            store.updateInterestStateWithRetry(op.dID, op.mID, op.iID, op.state, replaycheck);
+        }
+
+        @Override
+        public void executeBatch(List<StoreOp> storeOps, List<StateOp> stateOps) throws BatchFailedException {
+            boolean commitFailed = false;
+            Connection conn = null;
+            Exception myex = null;
+            try {
+                DBManager dbMgr = DBManager.getDBManager();
+                conn = dbMgr.getConnection(false);
+
+                if (!storeOps.isEmpty()) {
+                    int n = storeOps.size();
+                    String[] dstIDs = new String[n];
+                    Packet[] messages = new Packet[n];
+                    ConsumerUID[][] iids = new ConsumerUID[n][];
+                    int[][] states = new int[n][];
+                    long[] storeSessionIDs = new long[n];
+                    for (int i = 0; i < n; i++) {
+                        StoreOp op = storeOps.get(i);
+                        dstIDs[i] = (op.dst == null ? null : op.dst.toString());
+                        messages[i] = op.message;
+                        iids[i] = op.iids;
+                        states[i] = op.states;
+                        storeSessionIDs[i] = op.storeSessionID;
+                    }
+                    dbMgr.getDAOFactory().getMessageDAO().insert(conn, dstIDs, messages, iids, states, storeSessionIDs);
+                }
+
+                if (!stateOps.isEmpty()) {
+                    int n = stateOps.size();
+                    DestinationUID[] dIDs = new DestinationUID[n];
+                    SysMessageID[] mIDs = new SysMessageID[n];
+                    ConsumerUID[] iIDs = new ConsumerUID[n];
+                    int[] states = new int[n];
+                    for (int i = 0; i < n; i++) {
+                        StateOp op = stateOps.get(i);
+                        dIDs[i] = op.dID;
+                        mIDs[i] = op.mID;
+                        iIDs[i] = op.iID;
+                        states[i] = op.state;
+                    }
+                    dbMgr.getDAOFactory().getConsumerStateDAO().updateState(conn, dIDs, mIDs, iIDs, states);
+                }
+
+                try {
+                    conn.commit();
+                } catch (SQLException e) {
+                    commitFailed = true;
+                    throw e;
+                }
+            } catch (Exception e) {
+                myex = e;
+                try {
+                    if (conn != null && !conn.getAutoCommit()) {
+                        conn.rollback();
+                    }
+                } catch (SQLException rbe) {
+                    commitFailed = true;
+                    logger.log(Logger.DEBUG, "Unable to rollback JDBC write batch: " + rbe);
+                }
+                throw new BatchFailedException(e, commitFailed);
+            } finally {
+                try {
+                    Util.close(null, null, conn, myex);
+                } catch (BrokerException e) {
+                    logger.log(Logger.DEBUG, "Unable to close connection of JDBC write batch: " + e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsserver.persist.jdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.messaging.jmq.jmsserver.util.BrokerException;
+
+import org.junit.jupiter.api.Test;
+
+class WriteBatcher_submit_Test {
+
+    /**
+     * Blocks the first operation executed alone until released, and records what is executed.
+     */
+    static class FakeBackend implements WriteBatcher.Backend {
+        final CountDownLatch firstStarted = new CountDownLatch(1);
+        final CountDownLatch releaseFirst = new CountDownLatch(1);
+        final AtomicInteger aloneCalls = new AtomicInteger();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        final Map<Integer, Boolean> replaychecks = new ConcurrentHashMap<>();
+        WriteBatcher.BatchFailedException batchFailure = null;
+        int failingState = -1;
+
+        private void enter() {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        }
+
+        @Override
+        public void executeBatch(List<WriteBatcher.StoreOp> storeOps, List<WriteBatcher.StateOp> stateOps) throws WriteBatcher.BatchFailedException {
+            enter();
+            try {
+                batchSizes.add(storeOps.size() + stateOps.size());
+                if (batchFailure != null) {
+                    throw batchFailure;
+                }
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void insertMessage(WriteBatcher.StoreOp op, boolean replaycheck) {
+        }
+
+        @Override
+        public void updateInterestState(WriteBatcher.StateOp op, boolean replaycheck) throws BrokerException {
+            enter();
+            try {
+                if (aloneCalls.getAndIncrement() == 0) {
+                    firstStarted.countDown();
+                    releaseFirst.await(10, TimeUnit.SECONDS);
+                }
+                replaychecks.put(op.state, replaycheck);
+                if (op.state == failingState) {
+                    throw new BrokerException("failed " + op.state);
+                }
+            } catch (InterruptedException e) {
+                throw new BrokerException("interrupted", e);
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+
+    private static final class Caller extends Thread {
+        final WriteBatcher batcher;
+        final int state;
+        volatile BrokerException error = null;
+
+        Caller(WriteBatcher batcher, int state) {
+            this.batcher = batcher;
+            this.state = state;
+            start();
+        }
+
+        @Override
+        public void run() {
+            try {
+                batcher.submit(new WriteBatcher.StateOp(null, null, null, state));
+            } catch (BrokerException e) {
+                error = e;
+            }
+        }
+    }
+
+    private static void waitForQueued(WriteBatcher batcher, int n) throws InterruptedException {
+        for (int i = 0; i < 500 && batcher.getQueueSize() < n; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(batcher.getQueueSize()).isEqualTo(n);
+    }
+
+    /**
+     * Start a caller which blocks in the backend, queue n more callers behind it and release the first one.
+     */
+    private static List<Caller> submitBehindBlockedCaller(FakeBackend backend, WriteBatcher batcher, int n) throws InterruptedException {
+        List<Caller> callers = new ArrayList<>();
+        callers.add(new Caller(batcher, 0));
+        assertThat(backend.firstStarted.await(10, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i <= n; i++) {
+            callers.add(new Caller(batcher, i));
+        }
+        waitForQueued(batcher, n);
+        backend.releaseFirst.countDown();
+        for (Caller c : callers) {
+            c.join(10000);
+            assertThat(c.isAlive()).isFalse();
+        }
+        return callers;
+    }
+
+    @Test
+    void shouldHandLeadershipToAQueuedCaller() throws InterruptedException {
+        FakeBackend backend = new FakeBackend();
+        WriteBatcher batcher = new WriteBatcher(backend, 64, 0, 1);
+
+        List<Caller> callers = submitBehindBlockedCaller(backend, batcher, 5);
+
+        // the callers queued while the first one was busy are executed by one of them as one batch
+        assertThat(backend.batchSizes).containsExactly(5);
+        assertThat(backend.aloneCalls.get()).isEqualTo(1);
+        assertThat(backend.maxRunning.get()).isEqualTo(1);
+        assertThat(callers).allMatch(c -> c.error == null);
+        assertThat(batcher.getQueueSize()).isZero();
+    }
+
+    @Test
+    void shouldExecuteUpToMaxInFlightBatchesAtOnce() throws InterruptedException {
+        FakeBackend backend = new FakeBackend();
+        WriteBatcher batcher = new WriteBatcher(backend, 64, 0, 2);
+
+        Caller first = new Caller(batcher, 0);
+        assertThat(backend.firstStarted.await(10, TimeUnit.SECONDS)).isTrue();
+        // a second caller is not held up by the first one
+        Caller second = new Caller(batcher, 1);
+        second.join(10000);
+        assertThat(second.isAlive()).isFalse();
+        assertThat(first.isAlive()).isTrue();
+        assertThat(backend.maxRunning.get()).isEqualTo(2);
+
+        backend.releaseFirst.countDown();
+        first.join(10000);
+        assertThat(first.error).isNull();
+        assertThat(second.error).isNull();
+    }
+
+    @Test
+    void shouldReplayAFailedBatchWithReplayCheckWhenTheCommitFailed() throws InterruptedException {
+        FakeBackend backend = new FakeBackend();
+        backend.batchFailure = new WriteBatcher.BatchFailedException(new Exception("commit"), true);
+        WriteBatcher batcher = new WriteBatcher(backend, 64, 0, 1);
+
+        List<Caller> callers = submitBehindBlockedCaller(backend, batcher, 3);
+
+        assertThat(backend.batchSizes).containsExactly(3);
+        assertThat(backend.replaychecks).containsEntry(0, false).containsEntry(1, true).containsEntry(2, true).containsEntry(3, true);
+        assertThat(callers).allMatch(c -> c.error == null);
+    }
+
+    @Test
+    void shouldReplayAFailedBatchWithoutReplayCheckWhenRolledBack() throws InterruptedException {
+        FakeBackend backend = new FakeBackend();
+        backend.batchFailure = new WriteBatcher.BatchFailedException(new Exception("insert"), false);
+        WriteBatcher batcher = new WriteBatcher(backend, 64, 0, 1);
+
+        submitBehindBlockedCaller(backend, batcher, 3);
+
+        assertThat(backend.replaychecks).containsEntry(1, false).containsEntry(2, false).containsEntry(3, false);
+    }
+
+    @Test
+    void shouldReportAnErrorOnlyToItsCaller() throws InterruptedException {
+        FakeBackend backend = new FakeBackend();
+        backend.batchFailure = new WriteBatcher.BatchFailedException(new Exception("insert"), false);
+        backend.failingState = 2;
+        WriteBatcher batcher = new WriteBatcher(backend, 64, 0, 1);
+
+        List<Caller> callers = submitBehindBlockedCaller(backend, batcher, 3);
+
+        for (Caller c : callers) {
+            if (c.state == 2) {
+                assertThat(c.error).hasMessage("failed 2");
+            } else {
+                assertThat(c.error).isNull();
+            }
+        }
+    }
+}
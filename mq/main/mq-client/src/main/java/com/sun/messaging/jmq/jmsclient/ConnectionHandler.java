@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -51,6 +51,23 @@ public interface ConnectionHandler {
 
     void writePacket(ReadWritePacket pkt) throws IOException;
 
+    /**
+     * Write a packet, leaving it in the output buffer if flush is false. It is then sent with the next packet written
+     * with flush true. Handlers which do not buffer their output send every packet right away.
+     */
+    default void writePacket(ReadWritePacket pkt, boolean flush) throws IOException {
+        writePacket(pkt);
+    }
+
+    /**
+     * Get the stream which encoded packets can be written to directly, in place of writePacket().
+     *
+     * @return the stream, or null if packets must be written with writePacket()
+     */
+    default OutputStream getPacketOutputStream() {
+        return null;
+    }
+
     void configure(Properties configuration) throws IOException;
 
     boolean isDirectMode();
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ * Copyright (c) 2020, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -210,6 +210,12 @@ public class ConnectionImpl implements com.sun.messaging.jms.Connection, Traceab
     // dups ok limit. default is 10
     protected int dupsOkLimit = 10;
 
+    // max # of auto acknowledge mode messages acked in one packet. 0 or 1 acks each message on its own
+    protected int autoAckBatchSize = 0;
+
+    // max time an auto acknowledge mode message may wait in a partly filled ack batch, in milli secs
+    protected long autoAckBatchTimeout = 100L;
+
     // if set, we check if unack msgs has exceeded the limit.
     protected boolean isAckLimited = false;
 
@@ -243,6 +249,9 @@ public class ConnectionImpl implements com.sun.messaging.jms.Connection, Traceab
     // brokerSessionID (sent by broker in HELLO_REPLY)
     protected long brokerSessionID = 0;
 
+    // compression codecs other than deflate (sent by broker in HELLO_REPLY)
+    protected volatile String brokerCompressionCodecs = null;
+
     // Override flags and values for Administered JMS Msg Headers
     protected boolean jmqOverrideJMSMsgHeaders = false;
     protected boolean jmqOverrideJMSDeliveryMode = false;
@@ -445,6 +454,14 @@ public class ConnectionImpl implements com.sun.messaging.jms.Connection, Traceab
         return brokerSessionID;
     }
 
+    protected void setBrokerCompressionCodecs(String codecs) {
+        brokerCompressionCodecs = codecs;
+    }
+
+    protected String getBrokerCompressionCodecs() {
+        return brokerCompressionCodecs;
+    }
+
     /**
      * Invoked from ReadChannel on HELLO_REPLY
      */
@@ -929,6 +946,17 @@ public class ConnectionImpl implements com.sun.messaging.jms.Connection, Traceab
                 dupsOkAckTimeout = Integer.parseInt(prop);
             }
 
+            // auto ack batching
+            prop = System.getProperty("imqAutoAckBatchSize");
+            if (prop != null) {
+                autoAckBatchSize = Integer.parseInt(prop);
+            }
+
+            prop = System.getProperty("imqAutoAckBatchTimeout");
+            if (prop != null) {
+                autoAckBatchTimeout = Long.parseLong(prop);
+            }
+
             prop = getTrimmedProperty(ConnectionConfiguration.imqPortMapperSoTimeout);
             if (prop != null) {
                 imqPortMapperSoTimeout = Integer.valueOf(prop);
@@ -2443,6 +2471,8 @@ public class ConnectionImpl implements com.sun.messaging.jms.Connection, Traceab
             // ps.println("maxq: " + maxQueueSize);
             // ps.println("minq: " + minQueueSize);
             ps.println("dupsOkLimit: " + dupsOkLimit);
+            ps.println("autoAckBatchSize: " + autoAckBatchSize);
+            ps.println("autoAckBatchTimeout: " + autoAckBatchTimeout);
 
             ps.println("isAckLimited: " + isAckLimited);
             ps.println("ackLimit: " + ackLimit);
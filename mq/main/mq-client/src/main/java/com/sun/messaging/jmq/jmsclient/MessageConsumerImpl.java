@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -852,7 +852,7 @@ public class MessageConsumerImpl extends Consumer implements MQMessageConsumer,
                 // do not call if connection is broken
                 if (session.connection.isBroken() == false && (session.connection.recoverInProcess == false)) {
 
-                    if (session.dupsOkAckOnTimeout) {
+                    if (session.dupsOkAckOnTimeout || session.autoAckBatching) {
                         session.syncedDupsOkCommitAcknowledge();
                     }
                     // JMS 2.0
@@ -864,7 +864,7 @@ public class MessageConsumerImpl extends Consumer implements MQMessageConsumer,
 
                 if (session.connection.getBrokerProtocolLevel() < com.sun.messaging.jmq.io.PacketType.VERSION350) {
                     if (session.isTransacted || (session.acknowledgeMode == Session.CLIENT_ACKNOWLEDGE)
-                            || (session.acknowledgeMode == Session.DUPS_OK_ACKNOWLEDGE)) {
+                            || (session.acknowledgeMode == Session.DUPS_OK_ACKNOWLEDGE) || session.autoAckBatching) {
                         // remove unacked messages if any -- 4934856
                         session.removeUnAckedMessages(interestId);
                     }
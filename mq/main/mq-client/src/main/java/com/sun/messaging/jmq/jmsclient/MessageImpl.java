@@ -1,7 +1,7 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
  * Copyright (c) 2020 Payara Services Ltd.
- * Copyright (c) 2021, 2025 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
  * http://www.eclipse.org/legal/epl-2.0.
@@ -469,6 +469,12 @@ public class MessageImpl implements jakarta.jms.Message, com.sun.messaging.jms.M
 
     public static final String JMS_SUN_COMPRESSED_SIZE = "JMS_SUN_COMPRESSED_SIZE";
 
+    /**
+     * The codec used to compress the message body. Set by the application to choose a codec per message; not set on the
+     * packet for "deflate", so that older clients can consume it.
+     */
+    public static final String JMS_SUN_COMPRESSION_CODEC = "JMS_SUN_COMPRESSION_CODEC";
+
     /*
      * When message.acknowledge() is called we need to have a reference of session so that we can use session.acknowledge()
      * to ack to the broker
@@ -552,9 +558,10 @@ public class MessageImpl implements jakarta.jms.Message, com.sun.messaging.jms.M
      * NOTE: This code is duplicated from DirectPakcet.compress(). Any changes to either method should be made to both in
      * order to keep them in sync.
      *
+     * @param brokerCodecs the codecs other than deflate sent by the broker in HELLO_REPLY, null if none
      * @throws JMSException if cannot compress the message.
      */
-    protected void compress() throws JMSException {
+    protected void compress(String brokerCodecs) throws JMSException {
 
         try {
             /**
@@ -581,8 +588,12 @@ public class MessageImpl implements jakarta.jms.Message, com.sun.messaging.jms.M
             // get a compressor instance.
             Compressor compressor = Compressor.getInstance();
 
+            // codec requested for this message, or the default one.
+            Object codec = getObjectProperty(MessageImpl.JMS_SUN_COMPRESSION_CODEC);
+            String codecName = compressor.negotiateCodec(codec == null ? compressor.getDefaultCodecName() : codec.toString(), brokerCodecs);
+
             // compress body into baos.
-            compressor.compress(body, offset, unzipSize, baos);
+            compressor.compress(body, offset, unzipSize, baos, codecName);
 
             baos.flush();
 
@@ -599,6 +610,13 @@ public class MessageImpl implements jakarta.jms.Message, com.sun.messaging.jms.M
             setProperty(MessageImpl.JMS_SUN_UNCOMPRESSED_SIZE, Integer.valueOf(unzipSize));
             // set zip size prop.
             setProperty(MessageImpl.JMS_SUN_COMPRESSED_SIZE, Integer.valueOf(zipSize));
+            // set codec prop, absent means deflate.
+            if (!DeflateCodec.NAME.equalsIgnoreCase(codecName)) {
+                setProperty(MessageImpl.JMS_SUN_COMPRESSION_CODEC, codecName);
+            } else if (codec != null && properties != null) {
+                // the requested codec was not negotiated
+                properties.remove(MessageImpl.JMS_SUN_COMPRESSION_CODEC);
+            }
 
             // set zip flag to true.
             pkt.setFlag(PacketFlag.Z_FLAG, true);
@@ -634,8 +652,11 @@ public class MessageImpl implements jakarta.jms.Message, com.sun.messaging.jms.M
         // byte[] to hold unzip body
         byte[] unzipBody = new byte[unzipSize];
 
+        // get codec, absent means deflate
+        Object codec = getObjectProperty(MessageImpl.JMS_SUN_COMPRESSION_CODEC);
+
         // decompress zip body into unzip body
-        decomp.decompress(zipBody, unzipBody);
+        decomp.decompress(zipBody, unzipBody, codec == null ? null : codec.toString());
 
         // set unzip body into packet
         pkt.setMessageBody(unzipBody, 0, unzipSize);
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsclient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.sun.messaging.jmq.io.JMQByteArrayOutputStream;
+import com.sun.messaging.jmq.io.ReadWritePacket;
+
+/**
+ * Writes the packets of all the sessions of a connection to the connection's socket without a connection wide lock.
+ *
+ * A session thread which finds nothing queued and the socket free writes its packet itself. Otherwise it encodes the
+ * packet into a buffer of its own and adds the bytes to a lock free queue, it does not wait for the socket, so the
+ * session threads of a connection no longer serialize on the socket write. A writer thread takes all the queued
+ * packets and sends them with a single socket write. The packet may be reused once write() returns. A failed socket
+ * write of the writer thread is thrown from the next write() on the connection.
+ */
+final class PacketWriter implements Runnable {
+
+    private static final Logger connLogger = ConnectionImpl.connectionLogger;
+
+    private static final String iMQPacketWriter = "iMQPacketWriter-";
+
+    // the maximum number of bytes sent with one socket write, unless a single packet is larger
+    static final int MAX_BATCH_BYTES = 256 * 1024;
+
+    // writing threads wait while more bytes than this are queued, the writer thread can't keep up with them
+    static final long MAX_QUEUED_BYTES = 1024 * 1024;
+
+    // per thread encoding buffers, a buffer which grew larger than this for a big message is not kept
+    private static final int ENCODE_BUFFER_SIZE = 8192;
+    private static final int MAX_ENCODE_BUFFER_SIZE = 1024 * 1024;
+
+    private static final ThreadLocal<JMQByteArrayOutputStream> encodeBuffer = new ThreadLocal<>();
+
+    private final OutputStream os;
+    private final ConcurrentLinkedQueue<byte[]> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final ConcurrentLinkedQueue<Thread> blocked = new ConcurrentLinkedQueue<>();
+
+    // held by the thread writing to the socket, a session thread or the writer thread
+    private final AtomicBoolean writing = new AtomicBoolean();
+    private final Thread writerThread;
+
+    // only used by the thread holding writing, so the writer thread or a session thread in waitForWriter()
+    private byte[] staging = new byte[ENCODE_BUFFER_SIZE];
+
+    private volatile boolean writerParked = false;
+    private volatile boolean closed = false;
+    private volatile IOException failure = null;
+
+    /**
+     * @param os the stream of the connection, packets are written to it and then flushed
+     */
+    PacketWriter(OutputStream os, String name, boolean daemon) {
+        this.os = os;
+        writerThread = new Thread(this, iMQPacketWriter + name);
+        writerThread.setDaemon(daemon);
+        writerThread.start();
+    }
+
+    void write(ReadWritePacket pkt) throws IOException {
+        checkWritable();
+        if (queue.isEmpty() && writing.compareAndSet(false, true)) {
+            // nothing to keep in order with, write it right away
+            try {
+                pkt.writePacket(os);
+            } catch (IOException e) {
+                failure = e;
+                throw e;
+            } finally {
+                writing.set(false);
+            }
+            if (!queue.isEmpty()) {
+                // packets queued while we were writing, the writer thread may be waiting for the socket
+                LockSupport.unpark(writerThread);
+            }
+            return;
+        }
+        byte[] b = encode(pkt);
+        if (queuedBytes.get() > MAX_QUEUED_BYTES) {
+            waitForWriter();
+            if (!queue.isEmpty()) {
+                LockSupport.unpark(writerThread);
+            }
+        }
+        queuedBytes.addAndGet(b.length);
+        queue.offer(b);
+        if (writerParked) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    private void waitForWriter() throws IOException {
+        Thread self = Thread.currentThread();
+        boolean interrupted = false;
+        try {
+            while (queuedBytes.get() > MAX_QUEUED_BYTES) {
+                checkWritable();
+                if (writing.compareAndSet(false, true)) {
+                    // rather than wait for the writer thread to be scheduled, write a batch ourselves
+                    try {
+                        writeBatch();
+                    } catch (IOException e) {
+                        failure = e;
+                        throw e;
+                    } finally {
+                        writing.set(false);
+                    }
+                    continue;
+                }
+                blocked.offer(self);
+                // the writer wakes the blocked threads once it took enough bytes off the queue
+                if (queuedBytes.get() > MAX_QUEUED_BYTES && failure == null && !closed) {
+                    LockSupport.park(this);
+                }
+                blocked.remove(self);
+                if (Thread.interrupted()) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                self.interrupt();
+            }
+        }
+    }
+
+    private void wakeBlocked() {
+        for (Thread t : blocked) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    private void checkWritable() throws IOException {
+        IOException e = failure;
+        if (e != null) {
+            throw new IOException(e.getMessage(), e);
+        }
+        if (closed) {
+            throw new IOException("packet writer closed");
+        }
+    }
+
+    private static byte[] encode(ReadWritePacket pkt) throws IOException {
+        JMQByteArrayOutputStream bos = encodeBuffer.get();
+        if (bos == null) {
+            bos = new JMQByteArrayOutputStream(new byte[ENCODE_BUFFER_SIZE]);
+            encodeBuffer.set(bos);
+        }
+        try {
+            pkt.writePacket(bos, false);
+            return Arrays.copyOf(bos.getBuf(), bos.getCount());
+        } finally {
+            if (bos.getBuf().length > MAX_ENCODE_BUFFER_SIZE) {
+                encodeBuffer.remove();
+            } else {
+                bos.reset();
+            }
+        }
+    }
+
+    /**
+     * Stop the writer thread. If drain is true, wait up to timeout milliseconds for the queued packets to be written
+     * first.
+     */
+    void close(boolean drain, long timeout) {
+        closed = true;
+        LockSupport.unpark(writerThread);
+        if (drain && Thread.currentThread() != writerThread) {
+            try {
+                writerThread.join(timeout);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                if (queue.isEmpty()) {
+                    if (closed) {
+                        // whatever was queued before close has been written
+                        break;
+                    }
+                    writerParked = true;
+                    if (queue.isEmpty() && !closed) {
+                        LockSupport.park(this);
+                    }
+                    writerParked = false;
+                } else if (writing.compareAndSet(false, true)) {
+                    try {
+                        writeBatch();
+                    } finally {
+                        writing.set(false);
+                    }
+                } else {
+                    // a session thread is writing, it wakes us up when it is done
+                    LockSupport.park(this);
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+            queue.clear();
+            if (!closed) {
+                connLogger.log(Level.FINE, "Packet writer " + writerThread.getName() + " failed", e);
+            }
+        } finally {
+            wakeBlocked();
+        }
+    }
+
+    private void dequeued(int bytes) {
+        // wake the blocked threads once half the queue has been written, not after every batch
+        if (queuedBytes.addAndGet(-bytes) <= MAX_QUEUED_BYTES / 2 && !blocked.isEmpty()) {
+            wakeBlocked();
+        }
+    }
+
+    private void writeBatch() throws IOException {
+        byte[] b = queue.poll();
+        if (b == null) {
+            return;
+        }
+        byte[] next = queue.peek();
+        if (next == null) {
+            dequeued(b.length);
+            os.write(b);
+            os.flush();
+            return;
+        }
+        int count = 0;
+        do {
+            if (count + b.length > staging.length) {
+                staging = Arrays.copyOf(staging, Math.max(count + b.length, staging.length * 2));
+            }
+            System.arraycopy(b, 0, staging, count, b.length);
+            count += b.length;
+            next = queue.peek();
+            if (next == null || count + next.length > MAX_BATCH_BYTES) {
+                break;
+            }
+            b = queue.poll();
+        } while (b != null);
+        dequeued(count);
+        os.write(staging, 0, count);
+        os.flush();
+        if (staging.length > MAX_BATCH_BYTES) {
+            staging = new byte[ENCODE_BUFFER_SIZE];
+        }
+    }
+}
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ * Copyright (c) 2020, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -35,6 +35,7 @@ import jakarta.jms.*;
 import java.net.*;
 import java.io.*;
 import java.util.Hashtable;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.*;
 import javax.security.auth.login.LoginException;
 
@@ -119,8 +120,19 @@ public class ProtocolHandler {
     private boolean ackEnabled = true;
     // flag to indicate if ackEnabled value is defined in system property
     private boolean ackEnabledFlag = false;
-    // to hold value to indicate if the sending message require ack
-    private boolean produceAck = false;
+
+    // number of threads writing or waiting to write a packet, the last one flushes the packets written before it
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+
+    // write the packets of the sessions of a connection through a PacketWriter rather than under the
+    // ProtocolHandler lock, if the connection handler supports it. This lets many sessions which send on
+    // one connection from several cores go on while another one is blocked in a socket write, but it costs
+    // a copy of the packets which are queued, so it is off by default.
+    private static final boolean usePacketWriter = Boolean.getBoolean("imqPacketWriterThread");
+
+    private volatile PacketWriter packetWriter = null;
+
+    private static final long PACKET_WRITER_CLOSE_TIMEOUT = 5000L;
 
     private boolean debug = Debug.debug;
 
@@ -335,61 +347,84 @@ public class ProtocolHandler {
      *
      * @exception JMSException any internal errors caused by the ReadWritePacket IO.
      */
-    @SuppressWarnings("JavaUtilDate")
     private void writePacketNoAck(ReadWritePacket pkt) throws JMSException {
 
         checkConnectionState(pkt);
 
         try {
 
+            PacketWriter writer = packetWriter;
+            if (writer != null) {
+                setPacketIPAndPort(pkt);
+                writer.write(pkt);
+                setTimeToPing(false);
+                logWritePacket(pkt);
+                return;
+            }
+
+            pendingWrites.incrementAndGet();
             synchronized (this) {
 
-                // set IP and port for SysMessageID
-                if (macAddress == null) {
-                    pkt.setIP(getIPAddress());
-                } else {
-                    pkt.setIP(getIPAddress(), getMacAddress());
-                }
-                pkt.setPort(getLocalPort());
+                try {
+                    setPacketIPAndPort(pkt);
 
-                connectionHandler.writePacket(pkt);
+                    // Sessions sending on this connection at the same time share one flush: a thread
+                    // which is already waiting to write will flush this packet along with its own.
+                    connectionHandler.writePacket(pkt, pendingWrites.get() == 1);
+                } finally {
+                    pendingWrites.decrementAndGet();
+                }
 
                 setTimeToPing(false);
 
-                // debug
-                if (debugOutboundPkt) {
-                    Debug.matchAndPrintPacket(pkt, pktFilter, Debug.WRITING_PACKET);
-                } else if (debug) {
-                    Debug.println(new Date().toString() + " ---> writing packet: " + pkt);
+                logWritePacket(pkt);
+            }
 
-                    Debug.printWritePacket(pkt);
-                }
+        } catch (Exception e) {
+            ExceptionHandler.handleException(e, ClientResources.X_NET_WRITE_PACKET);
+        }
+    }
 
-                if (connLogger.isLoggable(Level.FINEST)) {
+    private void setPacketIPAndPort(ReadWritePacket pkt) {
+        // set IP and port for SysMessageID
+        if (macAddress == null) {
+            pkt.setIP(getIPAddress());
+        } else {
+            pkt.setIP(getIPAddress(), getMacAddress());
+        }
+        pkt.setPort(getLocalPort());
+    }
 
-                    // String msg = new Date().toString() +
-                    // " ---> writing packet: " +
-                    // pkt +
-                    // ", ConnectionID="+connection.getConnectionID();
+    @SuppressWarnings("JavaUtilDate")
+    private void logWritePacket(ReadWritePacket pkt) {
+        // debug
+        if (debugOutboundPkt) {
+            Debug.matchAndPrintPacket(pkt, pktFilter, Debug.WRITING_PACKET);
+        } else if (debug) {
+            Debug.println(new Date().toString() + " ---> writing packet: " + pkt);
 
-                    // connLogger.log(Level.FINEST, msg);
+            Debug.printWritePacket(pkt);
+        }
 
-                    Object params[] = new Object[2];
-                    params[0] = pkt;
-                    params[1] = connection;
+        if (connLogger.isLoggable(Level.FINEST)) {
 
-                    connLogger.log(Level.FINEST, ClientResources.I_WRITE_PACKET, params);
-                }
+            // String msg = new Date().toString() +
+            // " ---> writing packet: " +
+            // pkt +
+            // ", ConnectionID="+connection.getConnectionID();
 
-                // private logging
-                if (outpktLogger.isLoggable(Level.FINEST)) {
-                    outpktLogger.log(Level.FINEST, "sent packet ... " + pkt, pkt);
-                }
+            // connLogger.log(Level.FINEST, msg);
 
-            }
+            Object params[] = new Object[2];
+            params[0] = pkt;
+            params[1] = connection;
 
-        } catch (Exception e) {
-            ExceptionHandler.handleException(e, ClientResources.X_NET_WRITE_PACKET);
+            connLogger.log(Level.FINEST, ClientResources.I_WRITE_PACKET, params);
+        }
+
+        // private logging
+        if (outpktLogger.isLoggable(Level.FINEST)) {
+            outpktLogger.log(Level.FINEST, "sent packet ... " + pkt, pkt);
         }
     }
 
@@ -582,6 +617,8 @@ public class ProtocolHandler {
                     if (brokerSessionIDLong != null) {
                         connection.setBrokerSessionID(brokerSessionIDLong.longValue());
                     }
+                    // absent from older brokers, which then only get deflate
+                    connection.setBrokerCompressionCodecs((String) ack.getProperties().get("JMQCompressionCodecs"));
                 }
 
                 if (statusCode != Status.OK) {
@@ -730,6 +767,12 @@ public class ProtocolHandler {
 
             connectionHandler.configure(connection.getConfiguration());
 
+            if (packetWriter != null) {
+                packetWriter.close(false, 0);
+            }
+            OutputStream pos = (usePacketWriter ? connectionHandler.getPacketOutputStream() : null);
+            packetWriter = (pos != null ? new PacketWriter(pos, String.valueOf(connection.getLocalID()), connection.hasDaemonThreads()) : null);
+
             findLocalHostIP();
 
             // check if set JMSXAppID is required
@@ -1613,10 +1656,10 @@ public class ProtocolHandler {
 
         // if enable zip all messages, compress the message
         if (enableZip) {
-            messageImpl.compress();
+            messageImpl.compress(connection.getBrokerCompressionCodecs());
         } else if (messageImpl.shouldCompress) {
             // if message JMS_SUN_COMPRESS is set in the prop, zip it.
-            messageImpl.compress();
+            messageImpl.compress(connection.getBrokerCompressionCodecs());
         } else {
             // clear the bit.
             messageImpl.getPacket().setFlag(PacketFlag.Z_FLAG, false);
@@ -1666,6 +1709,8 @@ public class ProtocolHandler {
             // pkt.setIsQueue( replyTo.isQueue() );
         }
 
+        // local, several sessions may send on this connection at the same time
+        boolean produceAck = false;
         if (asynccb == null) {
 
             // block to decide if require ack from broker
@@ -2264,6 +2309,12 @@ public class ProtocolHandler {
         try {
             isClosed = true;
 
+            PacketWriter writer = packetWriter;
+            if (writer != null) {
+                // let the packets queued before close go out
+                writer.close(true, PACKET_WRITER_CLOSE_TIMEOUT);
+            }
+
             connectionHandler.close();
 
             // clean the entry.
@@ -3627,6 +3678,10 @@ public class ProtocolHandler {
      */
     public void abort() {
         try {
+            PacketWriter writer = packetWriter;
+            if (writer != null) {
+                writer.close(false, 0);
+            }
             connectionHandler.close();
         } catch (Exception e) {
             ExceptionHandler.logCaughtException(e);
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -259,6 +259,9 @@ public class SessionImpl implements JMSRAXASession, Traceable, ContextableSessio
     // dups ok timestamp
     protected long dupsOkTimestamp = 0;
 
+    // if set, auto acknowledge mode messages are acked in batches the same way as dups ok messages.
+    protected boolean autoAckBatching = false;
+
     // created to prevent deadlock - bugid 4987018
     protected Object dupsOkSyncObj = new Object();
 
@@ -513,9 +516,26 @@ public class SessionImpl implements JMSRAXASession, Traceable, ContextableSessio
     /**
      * dups ok ack init. default for appp client: dupsOkAckOnTimeout is set to true. dupsOkAckTimeout is set to 7000 milli
      * secs. for MDB: dupsOkAckOnEmptyQueue is always set to true.
+     *
+     * auto ack batching is opt-in (imqAutoAckBatchSize > 1) and not used for MDB. The batch is acked when it holds
+     * imqAutoAckBatchSize messages, when its first message is older than imqAutoAckBatchTimeout milli secs, and when a
+     * consumer is closed. Messages of a batch not yet acked when the connection fails, or when the session is recovered,
+     * are redelivered with the JMSRedelivered flag set, as in dups ok mode.
      */
     protected void dupsOkInit() {
 
+        if ((isTransacted == false) && (acknowledgeMode == Session.AUTO_ACKNOWLEDGE) && connection.autoAckBatchSize > 1 && !isDedicatedToServerSession) {
+            autoAckBatching = true;
+            dupsOkLimit = connection.autoAckBatchSize;
+            dupsOkAckTimeout = connection.autoAckBatchTimeout;
+            if (dupsOkAckTimeout > 0) {
+                dupsOkAckOnTimeout = true;
+            } else {
+                dupsOkAckOnLimit = true;
+                dupsOkAckTimeout = 0;
+            }
+        }
+
         // set only if not transacted mode && not MDB
         if ((isTransacted == false) && (acknowledgeMode == Session.DUPS_OK_ACKNOWLEDGE)) {
 
@@ -1372,7 +1392,15 @@ public class SessionImpl implements JMSRAXASession, Traceable, ContextableSessio
             } else { // non-transacted
                 switch (acknowledgeMode) {
                 case Session.AUTO_ACKNOWLEDGE:
-                    autoAcknowledge(message, consumer == null || consumer.getDurable());
+                    if (autoAckBatching) {
+                        if (dupsOkAckOnTimeout) {
+                            syncedDupsOkAcknowledge(message);
+                        } else {
+                            dupsOkAcknowledge(message);
+                        }
+                    } else {
+                        autoAcknowledge(message, consumer == null || consumer.getDurable());
+                    }
                     break;
                 case Session.CLIENT_ACKNOWLEDGE:
                     prepareClientAcknowledge(message);
@@ -1746,7 +1774,8 @@ public class SessionImpl implements JMSRAXASession, Traceable, ContextableSessio
         }
 
         dequeueUnAckedMessages();
-        doAcknowledge(false);
+        // an auto ack batch waits for the broker, as single auto acks do
+        doAcknowledge(autoAckBatching);
     }
 
     // called if session is dupsOkAckOnTimeout mode.
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2022 Contributors to Eclipse Foundation. All rights reserved.
+ * Copyright (c) 2022, 2026 Contributors to Eclipse Foundation. All rights reserved.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -45,7 +45,7 @@ public class SessionReader extends ConsumerReader {
         this.session = session;
 
         // set timeout value
-        if ((session.acknowledgeMode == Session.DUPS_OK_ACKNOWLEDGE) && (session.dupsOkAckOnTimeout == true)) {
+        if ((session.acknowledgeMode == Session.DUPS_OK_ACKNOWLEDGE || session.autoAckBatching) && (session.dupsOkAckOnTimeout == true)) {
 
             if (debug) {
                 Debug.println("**** setting dupsOkAckTimeout: " + session.dupsOkAckTimeout);
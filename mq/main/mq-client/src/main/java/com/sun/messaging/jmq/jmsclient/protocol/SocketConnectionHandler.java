@@ -1,5 +1,6 @@
 /*
  * Copyright (c) 2012, 2017 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -56,6 +57,16 @@ public abstract class SocketConnectionHandler implements ConnectionHandler {
         pkt.writePacket(os);
     }
 
+    @Override
+    public void writePacket(ReadWritePacket pkt, boolean flush) throws IOException {
+        pkt.writePacket(os, flush);
+    }
+
+    @Override
+    public OutputStream getPacketOutputStream() {
+        return os;
+    }
+
     @Override
     public void configure(Properties configuration) throws IOException {
         // for output stream
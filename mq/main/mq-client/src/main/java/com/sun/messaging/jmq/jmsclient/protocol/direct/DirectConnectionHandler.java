@@ -1,5 +1,6 @@
 /*
  * Copyright (c) 2012, 2020 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -19,6 +20,7 @@ package com.sun.messaging.jmq.jmsclient.protocol.direct;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayDeque;
 import java.util.Properties;
 import jakarta.jms.JMSException;
 
@@ -40,6 +42,12 @@ public class DirectConnectionHandler implements ConnectionHandler {
     private HandOffQueue outBoundQ = null;
     private DirectBrokerConnection directConnection = null;
 
+    // the maximum number of packets the read channel takes from the inbound queue at once
+    private static final int READ_BATCH_SIZE = 64;
+
+    // packets taken from the inbound queue and not yet read, only used by the read channel thread
+    private final ArrayDeque<Object> readBatch = new ArrayDeque<>(READ_BATCH_SIZE);
+
     // private ConnectionImpl connection = null;
 
     private volatile boolean isClosed = false;
@@ -152,7 +160,11 @@ public class DirectConnectionHandler implements ConnectionHandler {
         try {
 
             if (isClosed == false) {
-                pkt = (ReadWritePacket) this.inBoundQ.take();
+                pkt = (ReadWritePacket) readBatch.poll();
+                if (pkt == null) {
+                    pkt = (ReadWritePacket) this.inBoundQ.take();
+                    this.inBoundQ.drainTo(readBatch, READ_BATCH_SIZE - 1);
+                }
             }
 
             if (directDebug) {
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsclient.zip;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A message body compression format. The name of the codec that compressed a message body is sent with the message in
+ * the JMS_SUN_COMPRESSION_CODEC property, so the consumer can pick the matching codec; a message without the property
+ * was compressed with the "deflate" codec.
+ * <p>
+ * Implementations must be thread safe and should not serialize concurrent callers. Codecs are registered with
+ * Compressor.registerCodec().
+ */
+public interface CompressionCodec {
+
+    /**
+     * @return the name of the codec, as sent in the JMS_SUN_COMPRESSION_CODEC property
+     */
+    String getName();
+
+    /**
+     * Compress length bytes of body starting at offset and write the result to os.
+     *
+     * @return the number of bytes written to os
+     */
+    int compress(byte[] body, int offset, int length, OutputStream os) throws IOException;
+
+    /**
+     * Decompress zipBody into unzipBody. unzipBody has exactly the size of the uncompressed data.
+     *
+     * @throws IOException if zipBody is not valid or does not decompress to unzipBody.length bytes
+     */
+    void decompress(byte[] zipBody, byte[] unzipBody) throws IOException;
+}
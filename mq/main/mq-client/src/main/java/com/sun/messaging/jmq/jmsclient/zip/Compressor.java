@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2022 Contributors to Eclipse Foundation. All rights reserved.
+ * Copyright (c) 2022, 2026 Contributors to Eclipse Foundation. All rights reserved.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -17,21 +17,38 @@
 
 package com.sun.messaging.jmq.jmsclient.zip;
 
-import java.util.zip.*;
-import java.io.*;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
 
 import com.sun.messaging.jmq.jmsclient.Debug;
 
+/**
+ * Compresses message bodies. Compression is not serialized: the codecs keep their state per caller, so concurrent
+ * producers compress in parallel.
+ * <p>
+ * The codec used when a message does not name one is set with the imq.zip.codec system property ("deflate" by
+ * default, or "lz"), the deflate compression level with imq.zip.level. A codec other than deflate is only used when
+ * the broker lists it in HELLO_REPLY, see {@link #negotiateCodec}.
+ */
 public class Compressor {
 
-    private Deflater deflater = new Deflater();
+    private static final Map<String, CompressionCodec> codecs = new ConcurrentHashMap<>();
 
-    // private Deflater noWrapDeflater = new Deflater (Deflater.DEFAULT_COMPRESSION, true);
+    static {
+        registerCodec(new DeflateCodec(Integer.getInteger("imq.zip.level", Deflater.DEFAULT_COMPRESSION)));
+        registerCodec(new LZCodec());
+    }
 
     private static Compressor compressor = new Compressor();
 
     private boolean debug = Boolean.getBoolean("imq.zip.debug");
 
+    private final String defaultCodec = System.getProperty("imq.zip.codec", DeflateCodec.NAME).toLowerCase(Locale.ROOT);
+
     private Compressor() {
     }
 
@@ -39,49 +56,66 @@ public class Compressor {
         return compressor;
     }
 
-    public synchronized int compress(byte[] body, int offset, int length, OutputStream os) throws IOException {
-
-        Deflater def = getDefaultDeflater();
-
-        DeflaterOutputStream defos = new DeflaterOutputStream(os, def);
-
-        defos.write(body, offset, length);
-
-        defos.finish();
+    /**
+     * Make a codec available to producers and consumers in this JVM. A codec with the same name is replaced.
+     */
+    public static void registerCodec(CompressionCodec codec) {
+        codecs.put(codec.getName().toLowerCase(Locale.ROOT), codec);
+    }
 
-        int totalIn = def.getTotalIn();
-        int compressedLength = def.getTotalOut();
+    /**
+     * @return the codec with the given name, or null if there is none
+     */
+    public static CompressionCodec getCodec(String name) {
+        return codecs.get(name.toLowerCase(Locale.ROOT));
+    }
 
-        if (debug) {
-            Debug.getPrintStream().println("**** compressor total in: " + totalIn);
+    /**
+     * @return the name of the codec used for messages that do not name one
+     */
+    public String getDefaultCodecName() {
+        return defaultCodec;
+    }
 
-            Debug.getPrintStream().println("**** compressor total out: " + compressedLength);
+    /**
+     * Pick the codec to compress a message with. Every broker and client reads deflate; any other codec is used only
+     * if the broker listed it when the connection was made, otherwise deflate is used.
+     *
+     * @param codecName the codec asked for by the message, or the default one
+     * @param brokerCodecs the comma separated codec names sent by the broker in HELLO_REPLY, null if none were sent
+     * @return the name of the codec to compress with
+     */
+    public String negotiateCodec(String codecName, String brokerCodecs) {
+        if (DeflateCodec.NAME.equalsIgnoreCase(codecName) || brokerCodecs == null) {
+            return DeflateCodec.NAME;
         }
-
-        def.reset();
-
-        return compressedLength;
+        for (String name : brokerCodecs.split(",")) {
+            if (name.trim().equalsIgnoreCase(codecName)) {
+                return codecName;
+            }
+        }
+        return DeflateCodec.NAME;
     }
 
-    private Deflater getDeflater(boolean noWrap, int strategy, int level) {
+    public int compress(byte[] body, int offset, int length, OutputStream os) throws IOException {
+        return compress(body, offset, length, os, DeflateCodec.NAME);
+    }
 
-        Deflater def = null;
+    public int compress(byte[] body, int offset, int length, OutputStream os, String codecName) throws IOException {
 
-        if (noWrap) {
-            // def = noWrapDeflater;
-            throw new RuntimeException("No wrap deflater is not Unsupported.");
-        } else {
-            def = deflater;
+        CompressionCodec codec = getCodec(codecName);
+        if (codec == null) {
+            throw new IOException("Unknown compression codec: " + codecName);
         }
 
-        def.setStrategy(strategy);
+        int compressedLength = codec.compress(body, offset, length, os);
 
-        def.setLevel(level);
+        if (debug) {
+            Debug.getPrintStream().println("**** compressor " + codec.getName() + " total in: " + length);
 
-        return def;
-    }
+            Debug.getPrintStream().println("**** compressor " + codec.getName() + " total out: " + compressedLength);
+        }
 
-    private Deflater getDefaultDeflater() {
-        return getDeflater(false, Deflater.DEFAULT_STRATEGY, Deflater.DEFAULT_COMPRESSION);
+        return compressedLength;
     }
 }
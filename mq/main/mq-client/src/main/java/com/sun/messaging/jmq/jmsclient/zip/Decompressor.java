@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2022 Contributors to Eclipse Foundation. All rights reserved.
+ * Copyright (c) 2022, 2026 Contributors to Eclipse Foundation. All rights reserved.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -17,16 +17,17 @@
 
 package com.sun.messaging.jmq.jmsclient.zip;
 
-import java.util.zip.*;
+import java.io.IOException;
 
 import jakarta.jms.*;
 
 import com.sun.messaging.jmq.jmsclient.Debug;
 
+/**
+ * Decompresses message bodies with the codec named by the message. Decompression is not serialized.
+ */
 public class Decompressor {
 
-    private Inflater inflater = new Inflater(false);
-
     private static Decompressor decompressor = new Decompressor();
 
     private boolean debug = Boolean.getBoolean("imq.zip.debug");
@@ -38,35 +39,30 @@ public class Decompressor {
         return decompressor;
     }
 
-    public synchronized void decompress(byte[] zipBody, byte[] unzipBody) throws JMSException {
-
-        Inflater inf = getDefaultInflater();
-
-        try {
-            inf.setInput(zipBody);
-
-            int uncompressedSize = inf.inflate(unzipBody);
+    public void decompress(byte[] zipBody, byte[] unzipBody) throws JMSException {
+        decompress(zipBody, unzipBody, DeflateCodec.NAME);
+    }
 
-            if (uncompressedSize != unzipBody.length) {
-                // This should never happen!
-                throw new JMSException("Error occurred in decompression. unzip size: " + uncompressedSize + " expected size: " + unzipBody.length);
-            }
+    /**
+     * @param codecName the codec that compressed zipBody, null for deflate
+     */
+    public void decompress(byte[] zipBody, byte[] unzipBody, String codecName) throws JMSException {
 
-            if (debug) {
-                Debug.getPrintStream().println("*** decompressor zip size: " + zipBody.length);
-                Debug.getPrintStream().println("*** decompressor unzip size: " + uncompressedSize);
-            }
+        CompressionCodec codec = Compressor.getCodec(codecName == null ? DeflateCodec.NAME : codecName);
+        if (codec == null) {
+            throw new JMSException("Unknown compression codec: " + codecName);
+        }
 
-        } catch (DataFormatException e) {
-            JMSException jmse = new JMSException(e.toString(), null, e);
+        try {
+            codec.decompress(zipBody, unzipBody);
+        } catch (IOException e) {
+            JMSException jmse = new JMSException(e.getMessage(), null, e);
             throw jmse;
-        } finally {
-            inf.reset();
         }
-    }
 
-    private Inflater getDefaultInflater() {
-        return this.inflater;
+        if (debug) {
+            Debug.getPrintStream().println("*** decompressor " + codec.getName() + " zip size: " + zipBody.length);
+            Debug.getPrintStream().println("*** decompressor " + codec.getName() + " unzip size: " + unzipBody.length);
+        }
     }
-
 }
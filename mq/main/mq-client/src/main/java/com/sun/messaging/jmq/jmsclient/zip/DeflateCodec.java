@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsclient.zip;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * The zlib format, as used by all releases. Deflaters and Inflaters are taken from a small pool instead of being shared
+ * under a lock, so concurrent producers and consumers compress in parallel.
+ */
+public class DeflateCodec implements CompressionCodec {
+
+    public static final String NAME = "deflate";
+
+    private static final int POOL_SIZE = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private final int level;
+
+    private final ArrayBlockingQueue<Deflater> deflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final ArrayBlockingQueue<Inflater> inflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    /**
+     * @param level the compression level, 0-9 or Deflater.DEFAULT_COMPRESSION
+     */
+    public DeflateCodec(int level) {
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level " + level);
+        }
+        this.level = level;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    @Override
+    public int compress(byte[] body, int offset, int length, OutputStream os) throws IOException {
+        Deflater def = deflaters.poll();
+        if (def == null) {
+            def = new Deflater(level);
+        }
+        try {
+            DeflaterOutputStream defos = new DeflaterOutputStream(os, def);
+            defos.write(body, offset, length);
+            defos.finish();
+            return (int) def.getBytesWritten();
+        } finally {
+            def.reset();
+            if (!deflaters.offer(def)) {
+                def.end();
+            }
+        }
+    }
+
+    @Override
+    public void decompress(byte[] zipBody, byte[] unzipBody) throws IOException {
+        Inflater inf = inflaters.poll();
+        if (inf == null) {
+            inf = new Inflater(false);
+        }
+        try {
+            inf.setInput(zipBody);
+            int uncompressedSize = inf.inflate(unzipBody);
+            if (uncompressedSize != unzipBody.length) {
+                // This should never happen!
+                throw new IOException("Error occurred in decompression. unzip size: " + uncompressedSize + " expected size: " + unzipBody.length);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException(e.toString(), e);
+        } finally {
+            inf.reset();
+            if (!inflaters.offer(inf)) {
+                inf.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsclient.zip;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A pure Java LZ77 codec that trades compression ratio for speed. The format is a sequence of
+ *
+ * <pre>
+ * token literals offset
+ * </pre>
+ *
+ * where the high nibble of the token is the literal length and the low nibble the match length minus 4. A nibble of 15
+ * is followed by extra length bytes, each adding up to 255, ending with the first byte below 255. The offset is 2 bytes
+ * little endian and refers back into the uncompressed data. The last sequence has literals only.
+ */
+public class LZCodec implements CompressionCodec {
+
+    public static final String NAME = "lz";
+
+    private static final int MIN_MATCH = 4;
+    private static final int MAX_OFFSET = 0xffff;
+
+    /**
+     * The last bytes of the input are always written as literals
+     */
+    private static final int LAST_LITERALS = 5;
+
+    private static final int MAX_HASH_LOG = 14;
+    private static final int MIN_HASH_LOG = 8;
+
+    private static final ThreadLocal<int[]> hashTables = ThreadLocal.withInitial(() -> new int[1 << MAX_HASH_LOG]);
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int compress(byte[] body, int offset, int length, OutputStream os) throws IOException {
+        byte[] out = new byte[length + length / 255 + 16];
+        int op = 0;
+
+        int hashLog = MIN_HASH_LOG;
+        while (hashLog < MAX_HASH_LOG && (1 << hashLog) < length) {
+            hashLog++;
+        }
+        int[] table = hashTables.get();
+        // Positions are stored + 1 so that 0 means empty
+        Arrays.fill(table, 0, 1 << hashLog, 0);
+
+        int end = offset + length;
+        int matchLimit = end - LAST_LITERALS;
+        int anchor = offset;
+        int ip = offset;
+        while (ip + MIN_MATCH <= matchLimit) {
+            int seq = readInt(body, ip);
+            int h = (seq * -1640531535) >>> (32 - hashLog);
+            int ref = table[h] - 1;
+            table[h] = ip + 1;
+            if (ref < offset || ip - ref > MAX_OFFSET || readInt(body, ref) != seq) {
+                ip++;
+                continue;
+            }
+            int matchLength = MIN_MATCH;
+            while (ip + matchLength < matchLimit && body[ref + matchLength] == body[ip + matchLength]) {
+                matchLength++;
+            }
+
+            int literalLength = ip - anchor;
+            int matchCode = matchLength - MIN_MATCH;
+            out[op++] = (byte) ((Math.min(literalLength, 15) << 4) | Math.min(matchCode, 15));
+            op = writeLength(out, op, literalLength);
+            System.arraycopy(body, anchor, out, op, literalLength);
+            op += literalLength;
+            out[op++] = (byte) (ip - ref);
+            out[op++] = (byte) ((ip - ref) >>> 8);
+            op = writeLength(out, op, matchCode);
+
+            ip += matchLength;
+            anchor = ip;
+        }
+
+        int literalLength = end - anchor;
+        out[op++] = (byte) (Math.min(literalLength, 15) << 4);
+        op = writeLength(out, op, literalLength);
+        System.arraycopy(body, anchor, out, op, literalLength);
+        op += literalLength;
+
+        os.write(out, 0, op);
+        return op;
+    }
+
+    @Override
+    public void decompress(byte[] zipBody, byte[] unzipBody) throws IOException {
+        int ip = 0;
+        int op = 0;
+        int inEnd = zipBody.length;
+        int outEnd = unzipBody.length;
+        while (true) {
+            if (ip >= inEnd) {
+                throw corrupt(ip);
+            }
+            int token = zipBody[ip++] & 0xff;
+
+            int literalLength = token >>> 4;
+            if (literalLength == 15) {
+                int b;
+                do {
+                    if (ip >= inEnd || literalLength > outEnd) {
+                        throw corrupt(ip);
+                    }
+                    b = zipBody[ip++] & 0xff;
+                    literalLength += b;
+                } while (b == 255);
+            }
+            if (literalLength > inEnd - ip || literalLength > outEnd - op) {
+                throw corrupt(ip);
+            }
+            System.arraycopy(zipBody, ip, unzipBody, op, literalLength);
+            ip += literalLength;
+            op += literalLength;
+            if (ip == inEnd) {
+                break;
+            }
+
+            if (inEnd - ip < 2) {
+                throw corrupt(ip);
+            }
+            int offset = (zipBody[ip] & 0xff) | ((zipBody[ip + 1] & 0xff) << 8);
+            ip += 2;
+            if (offset == 0 || offset > op) {
+                throw corrupt(ip);
+            }
+            int matchLength = token & 0x0f;
+            if (matchLength == 15) {
+                int b;
+                do {
+                    if (ip >= inEnd || matchLength > outEnd) {
+                        throw corrupt(ip);
+                    }
+                    b = zipBody[ip++] & 0xff;
+                    matchLength += b;
+                } while (b == 255);
+            }
+            matchLength += MIN_MATCH;
+            if (matchLength > outEnd - op) {
+                throw corrupt(ip);
+            }
+            int ref = op - offset;
+            if (offset >= matchLength) {
+                System.arraycopy(unzipBody, ref, unzipBody, op, matchLength);
+                op += matchLength;
+            } else {
+                // Overlapping match, repeats the last offset bytes
+                for (int i = 0; i < matchLength; i++) {
+                    unzipBody[op++] = unzipBody[ref++];
+                }
+            }
+        }
+        if (op != outEnd) {
+            throw new IOException("Error occurred in decompression. unzip size: " + op + " expected size: " + outEnd);
+        }
+    }
+
+    private static int writeLength(byte[] out, int op, int length) {
+        if (length >= 15) {
+            int remaining = length - 15;
+            while (remaining >= 255) {
+                out[op++] = (byte) 255;
+                remaining -= 255;
+            }
+            out[op++] = (byte) remaining;
+        }
+        return op;
+    }
+
+    private static int readInt(byte[] b, int i) {
+        return (b[i] & 0xff) | ((b[i + 1] & 0xff) << 8) | ((b[i + 2] & 0xff) << 16) | ((b[i + 3] & 0xff) << 24);
+    }
+
+    private static IOException corrupt(int position) {
+        return new IOException("Invalid compressed data at offset " + position);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+
+import com.sun.messaging.jmq.io.ReadWritePacket;
+import com.sun.messaging.jmq.jmsclient.zip.Decompressor;
+
+import org.junit.jupiter.api.Test;
+
+class MessageImpl_compress_Test {
+    private static final String TEXT = "hello hello hello hello hello hello hello hello hello hello";
+
+    @Test
+    void codecListedByBrokerShouldBeUsed() throws Exception {
+        TextMessageImpl message = lzMessage();
+
+        message.compress("lz");
+
+        assertThat(message.getObjectProperty(MessageImpl.JMS_SUN_COMPRESSION_CODEC)).isEqualTo("lz");
+        assertThat(unzipBody(message, "lz")).isEqualTo(body(message));
+    }
+
+    @Test
+    void codecNotListedByBrokerShouldFallBackToDeflate() throws Exception {
+        for (String brokerCodecs : new String[] { null, "", "snappy" }) {
+            TextMessageImpl message = lzMessage();
+
+            message.compress(brokerCodecs);
+
+            assertThat(message.getObjectProperty(MessageImpl.JMS_SUN_COMPRESSION_CODEC)).as(brokerCodecs).isNull();
+            assertThat(unzipBody(message, "deflate")).as(brokerCodecs).isEqualTo(body(message));
+        }
+    }
+
+    private static TextMessageImpl lzMessage() throws Exception {
+        TextMessageImpl message = new TextMessageImpl();
+        message.setText(TEXT);
+        message.setStringProperty(MessageImpl.JMS_SUN_COMPRESSION_CODEC, "lz");
+        message.setMessageBodyToPacket();
+        return message;
+    }
+
+    private static byte[] body(TextMessageImpl message) throws Exception {
+        TextMessageImpl plain = new TextMessageImpl();
+        plain.setText(TEXT);
+        plain.setMessageBodyToPacket();
+        ReadWritePacket pkt = plain.getPacket();
+        return Arrays.copyOfRange(pkt.getMessageBody(), pkt.getMessageBodyOffset(), pkt.getMessageBodyOffset() + pkt.getMessageBodyLength());
+    }
+
+    private static byte[] unzipBody(TextMessageImpl message, String codecName) throws Exception {
+        ReadWritePacket pkt = message.getPacket();
+        byte[] zipBody = Arrays.copyOfRange(pkt.getMessageBody(), pkt.getMessageBodyOffset(), pkt.getMessageBodyOffset() + pkt.getMessageBodyLength());
+        byte[] unzipBody = new byte[message.getIntProperty(MessageImpl.JMS_SUN_UNCOMPRESSED_SIZE)];
+        Decompressor.getInstance().decompress(zipBody, unzipBody, codecName);
+        return unzipBody;
+    }
+}
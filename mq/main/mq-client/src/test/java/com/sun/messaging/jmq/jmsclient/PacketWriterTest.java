@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.messaging.jmq.io.PacketType;
+import com.sun.messaging.jmq.io.ReadWritePacket;
+
+class PacketWriterTest {
+
+    private static class SinkOutputStream extends OutputStream {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        volatile IOException failure;
+        int writes;
+
+        @Override
+        public synchronized void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) throws IOException {
+            if (failure != null) {
+                throw failure;
+            }
+            writes++;
+            bytes.write(b, off, len);
+        }
+
+        synchronized byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+
+    private static ReadWritePacket packet(long id) {
+        ReadWritePacket pkt = new ReadWritePacket();
+        pkt.setPacketType(PacketType.ACKNOWLEDGE);
+        pkt.setConsumerID(id);
+        return pkt;
+    }
+
+    @Test
+    void packetsOfConcurrentThreadsShouldAllBeWrittenInThreadOrder() throws Exception {
+        SinkOutputStream os = new SinkOutputStream();
+        PacketWriter writer = new PacketWriter(os, "test", true);
+        int threads = 16;
+        int perThread = 500;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long base = t * 1_000_000L;
+            Thread thr = new Thread(() -> {
+                try {
+                    start.await();
+                    // the packet is reused as soon as write() returns
+                    ReadWritePacket pkt = packet(base);
+                    for (int i = 0; i < perThread; i++) {
+                        pkt.setConsumerID(base + i);
+                        writer.write(pkt);
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            });
+            workers.add(thr);
+            thr.start();
+        }
+        start.countDown();
+        for (Thread thr : workers) {
+            thr.join(TimeUnit.MINUTES.toMillis(1));
+        }
+        writer.close(true, TimeUnit.MINUTES.toMillis(1));
+        assertThat(errors).isEmpty();
+
+        long[] next = new long[threads];
+        ByteArrayInputStream is = new ByteArrayInputStream(os.toByteArray());
+        int count = 0;
+        while (is.available() > 0) {
+            ReadWritePacket pkt = new ReadWritePacket();
+            pkt.readPacket(is);
+            int t = (int) (pkt.getConsumerID() / 1_000_000L);
+            assertThat(pkt.getConsumerID() % 1_000_000L).isEqualTo(next[t]++);
+            count++;
+        }
+        assertThat(count).isEqualTo(threads * perThread);
+        assertThat(os.writes).isLessThanOrEqualTo(count);
+    }
+
+    @Test
+    void closeShouldWriteQueuedPackets() throws Exception {
+        SinkOutputStream os = new SinkOutputStream();
+        PacketWriter writer = new PacketWriter(os, "test", true);
+        for (int i = 0; i < 100; i++) {
+            writer.write(packet(i));
+        }
+        writer.close(true, TimeUnit.MINUTES.toMillis(1));
+
+        ByteArrayInputStream is = new ByteArrayInputStream(os.toByteArray());
+        for (int i = 0; i < 100; i++) {
+            ReadWritePacket pkt = new ReadWritePacket();
+            pkt.readPacket(is);
+            assertThat(pkt.getConsumerID()).isEqualTo(i);
+        }
+        assertThat(is.available()).isZero();
+        assertThatThrownBy(() -> writer.write(packet(100))).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void writesAfterAFailedSocketWriteShouldThrow() throws Exception {
+        SinkOutputStream os = new SinkOutputStream();
+        os.failure = new IOException("connection reset");
+        PacketWriter writer = new PacketWriter(os, "test", true);
+
+        assertThatThrownBy(() -> writer.write(packet(1))).isSameAs(os.failure);
+        assertThatThrownBy(() -> writer.write(packet(2))).hasCause(os.failure);
+        writer.close(false, 0);
+    }
+}
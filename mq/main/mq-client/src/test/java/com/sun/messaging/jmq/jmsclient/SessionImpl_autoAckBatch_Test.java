@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.sun.messaging.jmq.io.PacketType;
+import com.sun.messaging.jmq.io.ReadWritePacket;
+import com.sun.messaging.jmq.io.SysMessageID;
+
+import jakarta.jms.JMSException;
+import jakarta.jms.Session;
+
+@ExtendWith(MockitoExtension.class)
+class SessionImpl_autoAckBatch_Test {
+    private static final int ACK_BLOCK_SIZE = 8 + SysMessageID.ID_SIZE;
+
+    @Mock
+    private ConnectionImpl connection;
+
+    @Mock
+    private ConnectionMetaDataImpl connectionMetaData;
+
+    @Mock
+    private ProtocolHandler protocolHandler;
+
+    // the number of messages acked by each ACKNOWLEDGE packet, and whether the broker was asked to reply
+    private final List<Integer> ackedCounts = new CopyOnWriteArrayList<>();
+    private final List<Boolean> sendAcknowledge = new CopyOnWriteArrayList<>();
+
+    private SessionImpl session;
+
+    @BeforeEach
+    void setUp() throws JMSException {
+        connection.connectionMetaData = connectionMetaData;
+        connection.interestTable = new InterestTable();
+        lenient().when(connection.getProtocolHandler()).thenReturn(protocolHandler);
+        lenient().when(connection.getBrokerProtocolLevel()).thenReturn(PacketType.VERSION500);
+        lenient().doAnswer(invocation -> {
+            ReadWritePacket pkt = invocation.getArgument(0);
+            ackedCounts.add(pkt.getMessageBodySize() / ACK_BLOCK_SIZE);
+            sendAcknowledge.add(pkt.getSendAcknowledge());
+            return null;
+        }).when(protocolHandler).acknowledge(any());
+    }
+
+    @AfterEach
+    void closeSession() {
+        if (session != null) {
+            session.sessionReader.close();
+        }
+    }
+
+    private SessionImpl newSession(int batchSize, long batchTimeout) throws JMSException {
+        connection.autoAckBatchSize = batchSize;
+        connection.autoAckBatchTimeout = batchTimeout;
+        session = new SessionImpl(connection, false, Session.AUTO_ACKNOWLEDGE);
+        return session;
+    }
+
+    private static MessageImpl newMessage(long consumerId) throws JMSException {
+        MessageImpl message = new TextMessageImpl();
+        message.setMessageID(new SysMessageID());
+        message.setInterestID(consumerId);
+        return message;
+    }
+
+    @Test
+    void batchShouldBeAckedWhenFull() throws JMSException {
+        SessionImpl s = newSession(3, 60000L);
+        assertThat(s.autoAckBatching).isTrue();
+
+        s.acknowledge(newMessage(1), false);
+        s.acknowledge(newMessage(1), false);
+        assertThat(ackedCounts).isEmpty();
+
+        s.acknowledge(newMessage(1), false);
+        assertThat(ackedCounts).containsExactly(3);
+        // unlike dups ok, an auto ack batch waits for the broker's reply
+        assertThat(sendAcknowledge).containsExactly(true);
+
+        s.acknowledge(newMessage(1), false);
+        assertThat(ackedCounts).containsExactly(3);
+    }
+
+    @Test
+    void partialBatchShouldBeAckedOnTimeout() throws JMSException {
+        SessionImpl s = newSession(100, 50L);
+
+        s.acknowledge(newMessage(1), false);
+        s.acknowledge(newMessage(1), false);
+
+        // acked by the session reader thread without another message arriving
+        verify(protocolHandler, timeout(10000)).acknowledge(any());
+        assertThat(ackedCounts).containsExactly(2);
+        assertThat(sendAcknowledge).containsExactly(true);
+    }
+
+    @Test
+    void partialBatchShouldBeAckedOnConsumerClose() throws JMSException {
+        SessionImpl s = newSession(100, 60000L);
+        ReadChannel readChannel = mock(ReadChannel.class);
+        readChannel.flowControl = mock(FlowControl.class);
+        when(connection.getReadChannel()).thenReturn(readChannel);
+        doAnswer(invocation -> {
+            ((Consumer) invocation.getArgument(0)).setInterestId(Long.valueOf(7L));
+            return null;
+        }).when(connection).addInterest(any());
+        MessageConsumerImpl consumer = new MessageConsumerImpl(s, new com.sun.messaging.Queue("q"), null, false);
+
+        s.acknowledge(newMessage(7L), false);
+        s.acknowledge(newMessage(7L), false);
+        assertThat(ackedCounts).isEmpty();
+
+        consumer.close();
+        assertThat(ackedCounts).containsExactly(2);
+    }
+
+    @Test
+    void messagesShouldBeAckedOneByOneByDefault() throws JMSException {
+        SessionImpl s = newSession(0, 100L);
+        assertThat(s.autoAckBatching).isFalse();
+        assertThat(s.dupsOkAckOnTimeout).isFalse();
+
+        s.acknowledge(newMessage(1), false);
+        s.acknowledge(newMessage(1), false);
+
+        assertThat(ackedCounts).containsExactly(1, 1);
+        assertThat(sendAcknowledge).containsExactly(true, true);
+    }
+}
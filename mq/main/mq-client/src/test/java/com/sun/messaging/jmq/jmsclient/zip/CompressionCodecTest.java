@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.jmsclient.zip;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jakarta.jms.JMSException;
+
+import org.junit.jupiter.api.Test;
+
+class CompressionCodecTest {
+    private static final String[] CODECS = { "deflate", "lz" };
+
+    private static List<byte[]> samples() {
+        Random random = new Random(7);
+        List<byte[]> samples = new ArrayList<>();
+        samples.add(new byte[0]);
+        samples.add(new byte[] { 42 });
+        samples.add(new byte[1 << 17]);
+        byte[] noise = new byte[70000];
+        random.nextBytes(noise);
+        samples.add(noise);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            sb.append("<order id=\"").append(random.nextInt(100)).append("\">item").append(i % 17).append("</order>");
+        }
+        samples.add(sb.toString().getBytes(StandardCharsets.UTF_8));
+        byte[] runs = new byte[100000];
+        for (int i = 0; i < runs.length; i++) {
+            runs[i] = (byte) (i / (1 + random.nextInt(300)));
+        }
+        samples.add(runs);
+        return samples;
+    }
+
+    @Test
+    void bodiesShouldSurviveRoundTrip() throws Exception {
+        for (String codecName : CODECS) {
+            for (byte[] sample : samples()) {
+                assertThat(roundTrip(sample, 0, sample.length, codecName)).as(codecName).isEqualTo(sample);
+                if (sample.length > 10) {
+                    assertThat(roundTrip(sample, 3, sample.length - 10, codecName)).as(codecName)
+                            .isEqualTo(Arrays.copyOfRange(sample, 3, sample.length - 7));
+                }
+            }
+        }
+    }
+
+    @Test
+    void concurrentCallersShouldNotInterfere() throws Exception {
+        List<byte[]> samples = samples();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 128; i++) {
+                byte[] sample = samples.get(i % samples.size());
+                String codecName = CODECS[i % CODECS.length];
+                results.add(executor.submit(() -> Arrays.equals(sample, roundTrip(sample, 0, sample.length, codecName))));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void corruptBodiesShouldBeRejected() throws IOException {
+        byte[] body = "hello hello hello hello hello hello".getBytes(StandardCharsets.UTF_8);
+        for (String codecName : CODECS) {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            Compressor.getInstance().compress(body, 0, body.length, os, codecName);
+            byte[] zipBody = os.toByteArray();
+
+            assertThatThrownBy(() -> Decompressor.getInstance().decompress(zipBody, new byte[body.length + 1], codecName))
+                    .isInstanceOf(JMSException.class);
+            byte[] truncated = Arrays.copyOf(zipBody, zipBody.length / 2);
+            assertThatThrownBy(() -> Decompressor.getInstance().decompress(truncated, new byte[body.length], codecName))
+                    .isInstanceOf(JMSException.class);
+        }
+        assertThatThrownBy(() -> Decompressor.getInstance().decompress(new byte[1], new byte[1], "unknown")).isInstanceOf(JMSException.class);
+    }
+
+    @Test
+    void codecsOtherThanDeflateShouldNeedTheBroker() {
+        Compressor compressor = Compressor.getInstance();
+        assertThat(compressor.negotiateCodec("deflate", null)).isEqualTo("deflate");
+        assertThat(compressor.negotiateCodec("lz", null)).isEqualTo("deflate");
+        assertThat(compressor.negotiateCodec("lz", "")).isEqualTo("deflate");
+        assertThat(compressor.negotiateCodec("lz", "snappy")).isEqualTo("deflate");
+        assertThat(compressor.negotiateCodec("lz", "snappy, lz")).isEqualTo("lz");
+        assertThat(compressor.negotiateCodec("LZ", "lz")).isEqualTo("LZ");
+    }
+
+    private static byte[] roundTrip(byte[] body, int offset, int length, String codecName) throws IOException, JMSException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        int zipSize = Compressor.getInstance().compress(body, offset, length, os, codecName);
+        assertThat(zipSize).isEqualTo(os.size());
+        byte[] unzipBody = new byte[length];
+        Decompressor.getInstance().decompress(os.toByteArray(), unzipBody, codecName);
+        return unzipBody;
+    }
+}
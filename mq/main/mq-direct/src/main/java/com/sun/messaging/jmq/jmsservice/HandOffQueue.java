@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2012, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -17,8 +17,20 @@
 
 package com.sun.messaging.jmq.jmsservice;
 
+import java.util.Collection;
+
 public interface HandOffQueue<E> {
     E take() throws InterruptedException;
 
     void put(E e) throws InterruptedException;
+
+    /**
+     * Remove up to maxElements elements which are in the queue, without waiting for more, and add them to c in queue
+     * order. The reader of a queue calls this after take() to pick up a batch of elements at once.
+     *
+     * @return the number of elements added to c
+     */
+    default int drainTo(Collection<? super E> c, int maxElements) {
+        return 0;
+    }
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A read-only Map over VERSION2 property bytes. Nothing is decoded up front: get() and containsKey() use the index to
+ * find the one entry asked for, iteration decodes the entries one by one.
+ *
+ * @see PacketProperties#asMap(ByteBuffer)
+ */
+final class IndexedProperties extends AbstractMap<String, Object> {
+
+    private final ByteBuffer buf;
+    private final int count;
+
+    IndexedProperties(ByteBuffer buf) {
+        this.buf = buf.duplicate();
+        this.count = PacketProperties.count(this.buf);
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String name && PacketProperties.indexOf(buf, name) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (!(key instanceof String name)) {
+            return null;
+        }
+        int i = PacketProperties.indexOf(buf, name);
+        return i < 0 ? null : value(i);
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public int size() {
+                return count;
+            }
+
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < count;
+                    }
+
+                    @Override
+                    public Map.Entry<String, Object> next() {
+                        if (next >= count) {
+                            throw new NoSuchElementException();
+                        }
+                        int i = next++;
+                        try {
+                            return new SimpleImmutableEntry<>(PacketProperties.readName(buf, i), value(i));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    private Object value(int i) {
+        try {
+            return PacketProperties.readValue(buf, i);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2020 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -20,6 +20,8 @@ package com.sun.messaging.jmq.io;
 import java.util.Hashtable;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.function.IntFunction;
 import java.io.*;
 import java.nio.ByteBuffer;
 import java.nio.channels.*;
@@ -590,6 +592,24 @@ public class Packet implements JMSPacket {
         return packetPayload.getProperties();
     }
 
+    /**
+     * Return the properties of this packet as a read-only Map, which may read them on demand from the packet bytes.
+     *
+     * @see PacketPayload#getPropertiesView()
+     */
+    public synchronized Map<String, Object> getPropertiesView() throws IOException, ClassNotFoundException {
+        return packetPayload.getPropertiesView();
+    }
+
+    /**
+     * Return a single property of this packet, or null if there is no such property.
+     *
+     * @see PacketPayload#getProperty(String)
+     */
+    public synchronized Object getProperty(String name) throws IOException, ClassNotFoundException {
+        return packetPayload.getProperty(name);
+    }
+
     /**
      * Return the size of the message body in bytes
      *
@@ -608,14 +628,47 @@ public class Packet implements JMSPacket {
     }
 
     /**
-     * Return the message body as a byte array
+     * Return the message body as a byte array. A body kept in a direct buffer is returned as a copy
      */
     public synchronized byte[] getMessageBodyByteArray() {
         ByteBuffer bb = packetPayload.getBodyBytes();
-        if (bb != null && bb.hasArray()) {
+        if (bb == null) {
+            return null;
+        }
+        if (bb.hasArray()) {
             return bb.array();
         }
-        return null;
+        byte[] b = new byte[bb.limit()];
+        bb.duplicate().get(b);
+        return b;
+    }
+
+    /**
+     * Move the message body, and the property bytes if properties is true, into direct buffers obtained from the
+     * allocator so that they are kept outside of the java heap. The packet is written and read the same way afterwards.
+     *
+     * @param allocator returns a direct buffer of the requested capacity, or null to keep a buffer on the heap
+     * @return the number of bytes moved
+     */
+    public synchronized int moveOffHeap(boolean properties, IntFunction<ByteBuffer> allocator) {
+        if (readInProgress || writeInProgress) {
+            return 0;
+        }
+        int moved = packetPayload.moveOffHeap(properties, allocator);
+        if (moved > 0) {
+            // let go of the buffers which are no longer part of the payload, else they keep the heap copies alive
+            if (bodyBuf != packetPayload.bodyBuf) {
+                bodyBuf = null;
+            }
+            if (propBuf != packetPayload.propBuf_v2 && propBuf != packetPayload.propBuf_v1) {
+                propBuf = null;
+            }
+            for (int i = 0; i < readBufs.length; i++) {
+                readBufs[i] = null;
+                writeBufs[i] = null;
+            }
+        }
+        return moved;
     }
 
     /**
@@ -1869,6 +1922,18 @@ public class Packet implements JMSPacket {
      *
      */
     public synchronized void writePacket(OutputStream os) throws IOException {
+        writePacket(os, true);
+    }
+
+    /**
+     * Write the packet to an OutputStream. Blocking.
+     *
+     * @param os The OutputStream to write the packet to
+     * @param flush false to leave the packet in the buffer of a buffered OutputStream, so that packets written
+     * back to back go out in one write. The caller must flush the stream once it has written the last packet.
+     *
+     */
+    public synchronized void writePacket(OutputStream os, boolean flush) throws IOException {
 
         if (genSequenceNumber) {
             updateSequenceNumber();
@@ -1914,7 +1979,9 @@ public class Packet implements JMSPacket {
             os.write(b, offset, length);
         }
 
-        os.flush();
+        if (flush) {
+            os.flush();
+        }
     }
 
     /**
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -22,6 +22,8 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.nio.ByteBuffer;
 import java.util.Hashtable;
+import java.util.Map;
+import java.util.function.IntFunction;
 
 import com.sun.messaging.jmq.util.io.FilteringObjectInputStream;
 import java.lang.System.Logger;
@@ -138,6 +140,32 @@ public class PacketPayload {
         }
     }
 
+    /**
+     * Get the payload properties as a read-only Map. If the properties have not been parsed yet and are in the indexed
+     * format, the Map reads them from the property bytes on demand instead of parsing all of them. The Map is NOT a copy
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized Map<String, Object> getPropertiesView() throws IOException, ClassNotFoundException {
+        if (properties == null && PacketProperties.isIndexed(propBuf_v2)) {
+            return PacketProperties.asMap(propBuf_v2);
+        }
+        return getProperties();
+    }
+
+    /**
+     * Get a single payload property. If the properties have not been parsed yet only this property is read from the
+     * property bytes, the others are not parsed.
+     *
+     * @return the property value, or null if there is no such property
+     */
+    public synchronized Object getProperty(String name) throws IOException, ClassNotFoundException {
+        if (properties == null && propBuf_v2 != null) {
+            return PacketProperties.getProperty(propBuf_v2, name);
+        }
+        Hashtable props = getProperties();
+        return props == null ? null : props.get(name);
+    }
+
     /**
      * Get the payload property bytes. WARNING! The returned ByteBuffer is NOT a copy or duplicate!
      */
@@ -176,6 +204,12 @@ public class PacketPayload {
                 logger.log(Level.ERROR, "Could not marshal properties " + e.getMessage(), e);
             }
             propBuf = ByteBuffer.wrap(bos.getBuf(), 0, bos.getCount());
+            // keep the bytes, updateBuffers(), fill() and writePacket() all need them
+            if (version >= Packet.VERSION3) {
+                propBuf_v2 = propBuf;
+            } else {
+                propBuf_v1 = propBuf;
+            }
         }
         propBuf.rewind();
         return propBuf;
@@ -211,6 +245,49 @@ public class PacketPayload {
         }
     }
 
+    /**
+     * Copy the body, and the property bytes if properties is true, into buffers obtained from the allocator. Buffers
+     * which are already direct, and buffers for which the allocator returns null, are kept as they are.
+     *
+     * @return the number of bytes copied
+     */
+    public synchronized int moveOffHeap(boolean properties, IntFunction<ByteBuffer> allocator) {
+        int moved = 0;
+        ByteBuffer b = copyOffHeap(bodyBuf, allocator);
+        if (b != null) {
+            bodyBuf = b;
+            moved += b.limit();
+        }
+        if (properties) {
+            b = copyOffHeap(propBuf_v2, allocator);
+            if (b != null) {
+                propBuf_v2 = b;
+                moved += b.limit();
+            }
+            b = copyOffHeap(propBuf_v1, allocator);
+            if (b != null) {
+                propBuf_v1 = b;
+                moved += b.limit();
+            }
+        }
+        return moved;
+    }
+
+    private static ByteBuffer copyOffHeap(ByteBuffer buf, IntFunction<ByteBuffer> allocator) {
+        if (buf == null || buf.isDirect() || buf.limit() == 0) {
+            return null;
+        }
+        ByteBuffer b = allocator.apply(buf.limit());
+        if (b == null) {
+            return null;
+        }
+        ByteBuffer src = buf.duplicate();
+        src.rewind();
+        b.put(src);
+        b.flip();
+        return b;
+    }
+
     /**
      * Set the payload properties as an instance of java.util.Hashtable. The hashtable is NOT copied
      */
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright 2021, 2024 Contributors to the Eclipse Foundation
+ * Copyright 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -24,6 +24,8 @@ import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.Map;
@@ -41,6 +43,16 @@ import lombok.experimental.UtilityClass;
  *
  *    Pad out to 32 bit boundry
  *
+ * VERSION2 puts an index in front of the same entries, so that a single
+ * property can be read from the raw bytes without parsing the others:
+ *
+ *     [Version][Count]
+ *     Count * [Name hash (String.hashCode())][Entry offset from start]
+ *     Count * [Name (writeUTF)][Value type][Value]
+ *
+ * Both versions are always read. VERSION1 is written unless the
+ * imq.packet.propertiesVersion system property is 2; only raise it once
+ * every client and broker exchanging packets can read VERSION2.
  */
 @SuppressWarnings("JdkObsolete")
 @UtilityClass
@@ -55,63 +67,121 @@ public class PacketProperties {
     private static final short STRING = 8;
     private static final short OBJECT = 9;
 
-    private static final int VERSION1 = 1;
+    static final int VERSION1 = 1;
+    static final int VERSION2 = 2;
+
+    private static final int HEADER_SIZE = 8;
+    private static final int INDEX_ENTRY_SIZE = 8;
+
+    private static volatile int writeVersion = Integer.getInteger("imq.packet.propertiesVersion", VERSION1);
 
     // add OBJECT
 
-    // add version comment
+    public static int getWriteVersion() {
+        return writeVersion;
+    }
+
+    /**
+     * Set the format used by write(Map, OutputStream)
+     */
+    public static void setWriteVersion(int version) {
+        if (version != VERSION1 && version != VERSION2) {
+            throw new IllegalArgumentException("Unsupported version of properties serialization [" + version + "]");
+        }
+        writeVersion = version;
+    }
 
     public static void write(Map map, OutputStream os) throws IOException {
+        write(map, os, writeVersion);
+    }
+
+    public static void write(Map map, OutputStream os, int version) throws IOException {
         if (map == null) {
             return;
         }
+        if (version == VERSION2) {
+            writeIndexed(map, os);
+            return;
+        }
         DataOutputStream dos = new DataOutputStream(os);
 
         dos.writeInt(VERSION1);
         dos.writeInt(map.size());
         Iterator<Map.Entry> itr = map.entrySet().iterator();
         Map.Entry pair = null;
-        String key = null;
-        Object value = null;
         while (itr.hasNext()) {
             pair = itr.next();
-            key = (String) pair.getKey();
-            value = pair.getValue();
-            dos.writeUTF(key);
-            if (value instanceof Boolean boolean1) {
-                dos.writeShort(BOOLEAN);
-                dos.writeBoolean(boolean1.booleanValue());
-            } else if (value instanceof Byte byte1) {
-                dos.writeShort(BYTE);
-                dos.writeByte(byte1.byteValue());
-            } else if (value instanceof Short short1) {
-                dos.writeShort(SHORT);
-                dos.writeShort(short1.shortValue());
-            } else if (value instanceof Integer integer) {
-                dos.writeShort(INTEGER);
-                dos.writeInt(integer.intValue());
-            } else if (value instanceof Long long1) {
-                dos.writeShort(LONG);
-                dos.writeLong(long1.longValue());
-            } else if (value instanceof Float float1) {
-                dos.writeShort(FLOAT);
-                dos.writeFloat(float1.floatValue());
-            } else if (value instanceof Double double1) {
-                dos.writeShort(DOUBLE);
-                dos.writeDouble(double1.doubleValue());
-            } else if (value instanceof String string) {
-                dos.writeShort(STRING);
-                dos.writeUTF(string);
-            } else {
-                dos.writeShort(OBJECT);
-                JMQByteArrayOutputStream bos = new JMQByteArrayOutputStream(new byte[256]);
-                ObjectOutputStream oos = new ObjectOutputStream(bos);
-                oos.writeObject(value);
-                oos.close();
-                byte[] data = bos.getBuf();
-                dos.writeInt(data.length);
-                dos.write(data, 0, data.length);
-            }
+            dos.writeUTF((String) pair.getKey());
+            writeValue(pair.getValue(), dos, VERSION1);
+        }
+    }
+
+    private static void writeIndexed(Map map, OutputStream os) throws IOException {
+        int count = map.size();
+        int[] hashes = new int[count];
+        int[] offsets = new int[count];
+        int entriesStart = HEADER_SIZE + count * INDEX_ENTRY_SIZE;
+
+        JMQByteArrayOutputStream entries = new JMQByteArrayOutputStream(new byte[256]);
+        DataOutputStream edos = new DataOutputStream(entries);
+        int i = 0;
+        for (Object o : map.entrySet()) {
+            Map.Entry pair = (Map.Entry) o;
+            String key = (String) pair.getKey();
+            hashes[i] = key.hashCode();
+            offsets[i] = entriesStart + edos.size();
+            edos.writeUTF(key);
+            writeValue(pair.getValue(), edos, VERSION2);
+            i++;
+        }
+        edos.flush();
+
+        DataOutputStream dos = new DataOutputStream(os);
+        dos.writeInt(VERSION2);
+        dos.writeInt(count);
+        for (i = 0; i < count; i++) {
+            dos.writeInt(hashes[i]);
+            dos.writeInt(offsets[i]);
+        }
+        dos.write(entries.getBuf(), 0, entries.getCount());
+        dos.flush();
+    }
+
+    private static void writeValue(Object value, DataOutputStream dos, int version) throws IOException {
+        if (value instanceof Boolean boolean1) {
+            dos.writeShort(BOOLEAN);
+            dos.writeBoolean(boolean1.booleanValue());
+        } else if (value instanceof Byte byte1) {
+            dos.writeShort(BYTE);
+            dos.writeByte(byte1.byteValue());
+        } else if (value instanceof Short short1) {
+            dos.writeShort(SHORT);
+            dos.writeShort(short1.shortValue());
+        } else if (value instanceof Integer integer) {
+            dos.writeShort(INTEGER);
+            dos.writeInt(integer.intValue());
+        } else if (value instanceof Long long1) {
+            dos.writeShort(LONG);
+            dos.writeLong(long1.longValue());
+        } else if (value instanceof Float float1) {
+            dos.writeShort(FLOAT);
+            dos.writeFloat(float1.floatValue());
+        } else if (value instanceof Double double1) {
+            dos.writeShort(DOUBLE);
+            dos.writeDouble(double1.doubleValue());
+        } else if (value instanceof String string) {
+            dos.writeShort(STRING);
+            dos.writeUTF(string);
+        } else {
+            dos.writeShort(OBJECT);
+            JMQByteArrayOutputStream bos = new JMQByteArrayOutputStream(new byte[256]);
+            ObjectOutputStream oos = new ObjectOutputStream(bos);
+            oos.writeObject(value);
+            oos.close();
+            // VERSION1 has always written the whole scratch buffer, keep its bytes unchanged
+            int length = version == VERSION2 ? bos.getCount() : bos.getBuf().length;
+            dos.writeInt(length);
+            dos.write(bos.getBuf(), 0, length);
         }
     }
 
@@ -119,6 +189,9 @@ public class PacketProperties {
         DataInputStream dis = new DataInputStream(is);
 
         int version = dis.readInt();
+        if (version == VERSION2) {
+            return parseIndexed(dis);
+        }
         if (version != VERSION1) {
             throw new IOException("Unsupported version of properties serialization [" + version + "]");
         }
@@ -180,4 +253,236 @@ public class PacketProperties {
         return ht;
     }
 
+    /**
+     * Parse VERSION2 properties, the version has already been read.
+     */
+    private static Hashtable parseIndexed(DataInputStream dis) throws IOException, ClassNotFoundException {
+        int propcnt = dis.readInt();
+        // entries follow the index in order
+        dis.skipNBytes((long) propcnt * INDEX_ENTRY_SIZE);
+        Hashtable ht = new Hashtable(propcnt);
+        for (int cnt = 0; cnt < propcnt; cnt++) {
+            String key = dis.readUTF();
+            Object value = readValue(dis);
+            if (value != null) {
+                ht.put(key, value);
+            }
+        }
+        return ht;
+    }
+
+    /**
+     * @return true if the property bytes are in the VERSION2 format, so properties can be looked up without parsing all
+     * of them
+     */
+    public static boolean isIndexed(ByteBuffer buf) {
+        return buf != null && buf.limit() >= HEADER_SIZE && buf.getInt(0) == VERSION2;
+    }
+
+    /**
+     * Read a single property from property bytes without parsing the other properties. VERSION2 bytes are looked up in
+     * the index, VERSION1 bytes are scanned skipping over the values that are not asked for. The position of the buffer
+     * is not changed.
+     *
+     * @return the value, or null if there is no such property
+     */
+    public static Object getProperty(ByteBuffer buf, String name) throws IOException, ClassNotFoundException {
+        if (isIndexed(buf)) {
+            int i = indexOf(buf, name);
+            return i < 0 ? null : readValueAt(buf, valueOffset(buf, i));
+        }
+        int version = buf.limit() < HEADER_SIZE ? -1 : buf.getInt(0);
+        if (version != VERSION1) {
+            throw new IOException("Unsupported version of properties serialization [" + version + "]");
+        }
+        int count = buf.getInt(4);
+        int pos = HEADER_SIZE;
+        for (int i = 0; i < count; i++) {
+            int len = buf.getShort(pos) & 0xffff;
+            if (len == 0) {
+                break;
+            }
+            boolean found = nameEquals(buf, pos, name);
+            pos += 2 + len;
+            if (found) {
+                return readValueAt(buf, pos);
+            }
+            pos = skipValue(buf, pos);
+        }
+        return null;
+    }
+
+    /**
+     * @return the offset following the type and value at pos
+     */
+    private static int skipValue(ByteBuffer buf, int pos) throws IOException {
+        short type = buf.getShort(pos);
+        pos += 2;
+        switch (type) {
+        case BOOLEAN:
+        case BYTE:
+            return pos + 1;
+        case SHORT:
+            return pos + 2;
+        case INTEGER:
+        case FLOAT:
+            return pos + 4;
+        case LONG:
+        case DOUBLE:
+            return pos + 8;
+        case STRING:
+            return pos + 2 + (buf.getShort(pos) & 0xffff);
+        case OBJECT:
+            return pos + 4 + buf.getInt(pos);
+        default:
+            // ignore, as parseProperties does
+            return pos;
+        }
+    }
+
+    /**
+     * Return a read-only map backed by VERSION2 property bytes. Values are read from the bytes on each access, the
+     * buffer must not be modified while the map is in use.
+     */
+    public static Map<String, Object> asMap(ByteBuffer buf) {
+        if (!isIndexed(buf)) {
+            throw new IllegalArgumentException("Not an indexed property buffer");
+        }
+        return new IndexedProperties(buf);
+    }
+
+    static int count(ByteBuffer buf) {
+        return buf.getInt(4);
+    }
+
+    static int entryOffset(ByteBuffer buf, int i) {
+        return buf.getInt(HEADER_SIZE + i * INDEX_ENTRY_SIZE + 4);
+    }
+
+    static int indexOf(ByteBuffer buf, String name) {
+        int count = count(buf);
+        int hash = name.hashCode();
+        for (int i = 0; i < count; i++) {
+            if (buf.getInt(HEADER_SIZE + i * INDEX_ENTRY_SIZE) == hash && nameEquals(buf, entryOffset(buf, i), name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static String readName(ByteBuffer buf, int i) throws IOException {
+        return entryInput(buf, entryOffset(buf, i)).readUTF();
+    }
+
+    static Object readValue(ByteBuffer buf, int i) throws IOException, ClassNotFoundException {
+        return readValueAt(buf, valueOffset(buf, i));
+    }
+
+    /**
+     * Read the type and value at pos. Primitives and ASCII strings are read from the buffer directly.
+     */
+    private static Object readValueAt(ByteBuffer buf, int pos) throws IOException, ClassNotFoundException {
+        short type = buf.getShort(pos);
+        pos += 2;
+        switch (type) {
+        case BOOLEAN:
+            return Boolean.valueOf(buf.get(pos) != 0);
+        case BYTE:
+            return Byte.valueOf(buf.get(pos));
+        case SHORT:
+            return Short.valueOf(buf.getShort(pos));
+        case INTEGER:
+            return Integer.valueOf(buf.getInt(pos));
+        case LONG:
+            return Long.valueOf(buf.getLong(pos));
+        case FLOAT:
+            return Float.valueOf(buf.getFloat(pos));
+        case DOUBLE:
+            return Double.valueOf(buf.getDouble(pos));
+        case STRING:
+            int len = buf.getShort(pos) & 0xffff;
+            byte[] b = new byte[len];
+            buf.get(pos + 2, b);
+            for (int i = 0; i < len; i++) {
+                if (b[i] <= 0) {
+                    // not ASCII, leave modified UTF-8 to DataInputStream
+                    return entryInput(buf, pos).readUTF();
+                }
+            }
+            return new String(b, StandardCharsets.ISO_8859_1);
+        default:
+            return readValue(entryInput(buf, pos - 2));
+        }
+    }
+
+    private static int valueOffset(ByteBuffer buf, int i) {
+        int offset = entryOffset(buf, i);
+        return offset + 2 + (buf.getShort(offset) & 0xffff);
+    }
+
+    private static DataInputStream entryInput(ByteBuffer buf, int offset) {
+        ByteBuffer b = buf.duplicate();
+        b.position(offset);
+        return new DataInputStream(new JMQByteBufferInputStream(b));
+    }
+
+    /**
+     * Compare the name of the entry at offset with name, without decoding it if name is ASCII
+     */
+    private static boolean nameEquals(ByteBuffer buf, int offset, String name) {
+        int len = buf.getShort(offset) & 0xffff;
+        int n = name.length();
+        boolean ascii = true;
+        for (int i = 0; i < n && ascii; i++) {
+            char c = name.charAt(i);
+            ascii = c > 0 && c < 0x80;
+        }
+        if (ascii) {
+            if (len != n) {
+                return false;
+            }
+            for (int i = 0; i < n; i++) {
+                if (buf.get(offset + 2 + i) != name.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        try {
+            return name.equals(entryInput(buf, offset).readUTF());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static Object readValue(DataInputStream dis) throws IOException, ClassNotFoundException {
+        short type = dis.readShort();
+        switch (type) {
+        case BOOLEAN:
+            return Boolean.valueOf(dis.readBoolean());
+        case BYTE:
+            return Byte.valueOf(dis.readByte());
+        case SHORT:
+            return Short.valueOf(dis.readShort());
+        case INTEGER:
+            return Integer.valueOf(dis.readInt());
+        case LONG:
+            return Long.valueOf(dis.readLong());
+        case FLOAT:
+            return Float.valueOf(dis.readFloat());
+        case DOUBLE:
+            return Double.valueOf(dis.readDouble());
+        case STRING:
+            return dis.readUTF();
+        case OBJECT:
+            byte[] buf = new byte[dis.readInt()];
+            dis.readFully(buf);
+            try (ObjectInputStream ois = new FilteringObjectInputStream(new JMQByteArrayInputStream(buf))) {
+                return ois.readObject();
+            }
+        default:
+            // ignore (don't throw exception)
+            return null;
+        }
+    }
 }
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.Hashtable;
+
+import org.junit.jupiter.api.Test;
+
+class PacketPayloadTest {
+
+    @Test
+    void propertiesShouldBeSerializedOnceUntilTheyAreReplaced() throws Exception {
+        PacketPayload payload = new PacketPayload();
+        Hashtable<String, Object> props = new Hashtable<>();
+        props.put("color", "red");
+        payload.setProperties(props);
+
+        ByteBuffer bytes = payload.getPropertiesBytes(Packet.VERSION3);
+        assertThat(payload.getPropertiesBytes(Packet.VERSION3)).isSameAs(bytes);
+
+        Hashtable<String, Object> other = new Hashtable<>();
+        other.put("color", "blue");
+        payload.setProperties(other);
+
+        assertThat(payload.getPropertiesBytes(Packet.VERSION3)).isNotSameAs(bytes);
+        PacketPayload copy = new PacketPayload();
+        copy.setPropertiesBytes(payload.getPropertiesBytes(Packet.VERSION3), Packet.VERSION3);
+        assertThat(copy.getProperties()).containsEntry("color", "blue");
+    }
+}
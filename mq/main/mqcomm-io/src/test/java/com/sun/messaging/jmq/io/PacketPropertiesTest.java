@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class PacketPropertiesTest {
+
+    private static Hashtable<String, Object> sampleProperties() {
+        Hashtable<String, Object> props = new Hashtable<>();
+        props.put("bool", Boolean.TRUE);
+        props.put("byte", (byte) -7);
+        props.put("short", (short) 300);
+        props.put("int", 42);
+        props.put("long", Long.MIN_VALUE);
+        props.put("float", 1.5f);
+        props.put("double", -0.25d);
+        props.put("string", "héllo");
+        props.put("empty", "");
+        props.put("näme", "non ascii name");
+        props.put("object", new ArrayList<>(List.of("a", "b")));
+        return props;
+    }
+
+    private static ByteBuffer write(Map<String, Object> props, int version) throws Exception {
+        JMQByteArrayOutputStream bos = new JMQByteArrayOutputStream(new byte[16]);
+        PacketProperties.write(props, bos, version);
+        return ByteBuffer.wrap(bos.getBuf(), 0, bos.getCount());
+    }
+
+    @Test
+    void bothVersionsShouldParseToTheSameProperties() throws Exception {
+        Hashtable<String, Object> props = sampleProperties();
+        for (int version : new int[] { PacketProperties.VERSION1, PacketProperties.VERSION2 }) {
+            ByteBuffer buf = write(props, version);
+            assertThat(PacketProperties.isIndexed(buf)).isEqualTo(version == PacketProperties.VERSION2);
+            assertThat(PacketProperties.parseProperties(new JMQByteBufferInputStream(buf))).isEqualTo(props);
+        }
+    }
+
+    @Test
+    void version1ShouldKeepWritingTheWholeObjectBuffer() throws Exception {
+        Hashtable<String, Object> props = new Hashtable<>();
+        props.put("object", new ArrayList<>(List.of("a", "b")));
+
+        // version, count, name "object", type, then the length of the serialized value
+        int lengthOffset = 8 + 2 + "object".length() + 2;
+        ByteBuffer v1 = write(props, PacketProperties.VERSION1);
+        assertThat(v1.getInt(lengthOffset)).isEqualTo(256);
+        assertThat(v1.remaining()).isEqualTo(lengthOffset + 4 + 256);
+
+        JMQByteArrayOutputStream bos = new JMQByteArrayOutputStream(new byte[256]);
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(props.get("object"));
+        }
+        ByteBuffer v2 = write(props, PacketProperties.VERSION2);
+        assertThat(v2.getInt(lengthOffset + 8)).isEqualTo(bos.getCount());
+        assertThat(PacketProperties.parseProperties(new JMQByteBufferInputStream(v1))).isEqualTo(props);
+    }
+
+    @Test
+    void propertiesShouldBeReadOneByOne() throws Exception {
+        Hashtable<String, Object> props = sampleProperties();
+        for (int version : new int[] { PacketProperties.VERSION1, PacketProperties.VERSION2 }) {
+            ByteBuffer buf = write(props, version);
+            buf.position(5);
+
+            for (Map.Entry<String, Object> e : props.entrySet()) {
+                assertThat(PacketProperties.getProperty(buf, e.getKey())).as(e.getKey()).isEqualTo(e.getValue());
+            }
+            assertThat(PacketProperties.getProperty(buf, "missing")).isNull();
+            assertThat(PacketProperties.getProperty(buf, "strin")).isNull();
+            assertThat(buf.position()).isEqualTo(5);
+        }
+    }
+
+    @Test
+    void indexedPropertiesShouldBeViewedAsMap() throws Exception {
+        Hashtable<String, Object> props = sampleProperties();
+        ByteBuffer buf = write(props, PacketProperties.VERSION2);
+
+        Map<String, Object> view = PacketProperties.asMap(buf);
+        assertThat(view).isEqualTo(props).hasSameHashCodeAs(props);
+        assertThat(view.containsKey("int")).isTrue();
+        assertThat(view.containsKey("missing")).isFalse();
+        assertThatThrownBy(() -> view.put("int", 1)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void payloadShouldNotParsePropertiesForSingleLookups() throws Exception {
+        Hashtable<String, Object> props = sampleProperties();
+        PacketPayload payload = new PacketPayload();
+        payload.setPropertiesBytes(write(props, PacketProperties.VERSION2), Packet.VERSION3);
+
+        assertThat(payload.getProperty("long")).isEqualTo(Long.MIN_VALUE);
+        assertThat(payload.getPropertiesView()).isInstanceOf(IndexedProperties.class).isEqualTo(props);
+        assertThat(payload.properties).isNull();
+
+        assertThat(payload.getProperties()).isEqualTo(props);
+        assertThat(payload.getPropertiesView()).isSameAs(payload.properties);
+        assertThat(payload.getProperty("string")).isEqualTo("héllo");
+
+        payload.setPropertiesBytes(write(props, PacketProperties.VERSION1), Packet.VERSION3);
+        assertThat(payload.getProperty("double")).isEqualTo(-0.25d);
+        assertThat(payload.properties).isNull();
+    }
+
+    /**
+     * Properties "a" = 1, "x" of the unknown type 99 without a value, and "b" = "s".
+     */
+    private static ByteBuffer writeWithUnknownType(int version) throws Exception {
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        DataOutputStream eos = new DataOutputStream(entries);
+        String[] names = { "a", "x", "b" };
+        int[] offsets = new int[names.length];
+        int base = 8 + (version == PacketProperties.VERSION2 ? names.length * 8 : 0);
+        offsets[0] = base + eos.size();
+        eos.writeUTF("a");
+        eos.writeShort(4);
+        eos.writeInt(1);
+        offsets[1] = base + eos.size();
+        eos.writeUTF("x");
+        eos.writeShort(99);
+        offsets[2] = base + eos.size();
+        eos.writeUTF("b");
+        eos.writeShort(8);
+        eos.writeUTF("s");
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(bos);
+        dos.writeInt(version);
+        dos.writeInt(names.length);
+        if (version == PacketProperties.VERSION2) {
+            for (int i = 0; i < names.length; i++) {
+                dos.writeInt(names[i].hashCode());
+                dos.writeInt(offsets[i]);
+            }
+        }
+        dos.write(entries.toByteArray());
+        return ByteBuffer.wrap(bos.toByteArray());
+    }
+
+    @Test
+    void unknownTypesShouldBeIgnored() throws Exception {
+        for (int version : new int[] { PacketProperties.VERSION1, PacketProperties.VERSION2 }) {
+            ByteBuffer buf = writeWithUnknownType(version);
+            assertThat(PacketProperties.getProperty(buf, "a")).isEqualTo(1);
+            assertThat(PacketProperties.getProperty(buf, "x")).isNull();
+            assertThat(PacketProperties.getProperty(buf, "b")).isEqualTo("s");
+        }
+
+        ByteBuffer buf = writeWithUnknownType(PacketProperties.VERSION2);
+        assertThat(PacketProperties.parseProperties(new JMQByteBufferInputStream(buf))).isEqualTo(Map.of("a", 1, "b", "s"));
+        assertThat(PacketProperties.asMap(buf).get("x")).isNull();
+        assertThat(PacketProperties.asMap(buf).get("b")).isEqualTo("s");
+    }
+}
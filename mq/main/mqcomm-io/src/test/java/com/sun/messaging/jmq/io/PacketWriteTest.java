@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+class PacketWriteTest {
+
+    private static class CountingOutputStream extends ByteArrayOutputStream {
+        int writes;
+        int flushes;
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            writes++;
+            super.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushes++;
+        }
+    }
+
+    private static Packet reply(long id) {
+        Packet p = new Packet(false);
+        p.setPacketType(PacketType.SEND_REPLY);
+        p.setConsumerID(id);
+        return p;
+    }
+
+    @Test
+    void unflushedPacketsShouldGoOutInOneWrite() throws Exception {
+        CountingOutputStream out = new CountingOutputStream();
+        BufferedOutputStream os = new BufferedOutputStream(out, 8192);
+
+        reply(1).writePacket(os, false);
+        reply(2).writePacket(os, false);
+        assertThat(out.writes).isZero();
+
+        reply(3).writePacket(os);
+        assertThat(out.writes).isEqualTo(1);
+        assertThat(out.flushes).isEqualTo(1);
+
+        ByteArrayInputStream is = new ByteArrayInputStream(out.toByteArray());
+        for (long id = 1; id <= 3; id++) {
+            Packet p = new Packet(false);
+            p.readPacket(is);
+            assertThat(p.getPacketType()).isEqualTo(PacketType.SEND_REPLY);
+            assertThat(p.getConsumerID()).isEqualTo(id);
+        }
+        assertThat(is.available()).isZero();
+    }
+}
@@ -0,0 +1,725 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.util.selector;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A selector compiled into a tree of specialized nodes. This is the tier Selector switches to once a selector has been
+ * evaluated SelectorConfig.getCompileThreshold() times. The node tree avoids the RPN scanning, the marker handling and
+ * the operand stack of the interpreter, and the JIT can inline it like any other small class hierarchy.
+ * <p>
+ * Only the well typed cases are handled here. Whenever the interpreter would report an error or apply a special rule
+ * (type conversion, a property of an unexpected type, a division by zero, etc) the compiled predicate throws Deopt and
+ * Selector falls back to the interpreter for that evaluation, so both always give the same result. Boolean operators
+ * short circuit, so a compiled predicate must only be used when SelectorConfig.getShortCircuit() is true.
+ * <p>
+ * Values are represented by the objects found in the property maps (or the token values for literals): null for
+ * unknown, String, Boolean, and Long, Integer, Short, Byte, Double or Float for numbers.
+ */
+final class CompiledPredicate {
+
+    /**
+     * Thrown when an evaluation has to be left to the interpreter.
+     */
+    static final class Deopt extends RuntimeException {
+        private static final long serialVersionUID = 3079456823196414283L;
+
+        private Deopt() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final Deopt DEOPT = new Deopt();
+
+    private static final int TRUE = Selector.TRUE;
+    private static final int FALSE = Selector.FALSE;
+    private static final int UNKNOWN = Selector.UNKNOWN;
+
+    private final Condition root;
+
+    private CompiledPredicate(Condition root) {
+        this.root = root;
+    }
+
+    /**
+     * Compile an expression tree as returned by Selector.getExpressionTree().
+     *
+     * @return the compiled predicate, or null if the expression uses constructs that are only supported by the interpreter
+     */
+    static CompiledPredicate compile(Object[] tree) {
+        if (tree == null) {
+            return null;
+        }
+        Condition root = condition(tree);
+        return root == null ? null : new CompiledPredicate(root);
+    }
+
+    /**
+     * @return true if the selector matches
+     * @throws Deopt if the evaluation has to be done by the interpreter
+     */
+    boolean match(Map<Object, Object> properties, Map<Object, Object> fields) {
+        return root.eval(properties, fields) == TRUE;
+    }
+
+    /*
+     * ---------------------------------------------------------------- compilation
+     */
+
+    private static SelectorToken token(Object[] node) {
+        return (SelectorToken) node[0];
+    }
+
+    private static Object[] operand(Object[] node, int n) {
+        return (Object[]) node[n];
+    }
+
+    private static Condition condition(Object[] node) {
+        SelectorToken token = token(node);
+        switch (token.getToken()) {
+        case Selector.TRUE:
+            return Constant.TRUE_CONDITION;
+        case Selector.FALSE:
+            return Constant.FALSE_CONDITION;
+        case Selector.AND:
+        case Selector.OR: {
+            Condition left = condition(operand(node, 1));
+            Condition right = condition(operand(node, 2));
+            if (left == null || right == null) {
+                return null;
+            }
+            return token.getToken() == Selector.AND ? new And(left, right) : new Or(left, right);
+        }
+        case Selector.NOT: {
+            Condition c = condition(operand(node, 1));
+            return c == null ? null : new Not(c);
+        }
+        case Selector.EQUALS:
+        case Selector.NOT_EQUALS:
+        case Selector.LT:
+        case Selector.LTE:
+        case Selector.GT:
+        case Selector.GTE:
+            return comparison(token.getToken(), operand(node, 1), operand(node, 2));
+        case Selector.BETWEEN:
+        case Selector.NOT_BETWEEN: {
+            Value v = value(operand(node, 1));
+            Value min = value(operand(node, 2));
+            Value max = value(operand(node, 3));
+            if (v == null || min == null || max == null) {
+                return null;
+            }
+            return new Between(v, min, max, token.getToken() == Selector.NOT_BETWEEN);
+        }
+        case Selector.IN:
+        case Selector.NOT_IN: {
+            Value v = value(operand(node, 1));
+            SelectorToken list = token(operand(node, 2));
+            if (v == null || list.getToken() != Selector.LIST) {
+                return null;
+            }
+            return new In(v, (Set<?>) list.getValue(), token.getToken() == Selector.NOT_IN);
+        }
+        case Selector.LIKE:
+        case Selector.NOT_LIKE: {
+            Value v = value(operand(node, 1));
+            SelectorToken re = token(operand(node, 2));
+            if (v == null || re.getToken() != Selector.RE) {
+                return null;
+            }
+            return new Like(v, (RegularExpression) re.getValue(), token.getToken() == Selector.NOT_LIKE);
+        }
+        case Selector.IS_NULL:
+        case Selector.IS_NOT_NULL: {
+            Value v = value(operand(node, 1));
+            return v == null ? null : new IsNull(v, token.getToken() == Selector.IS_NOT_NULL);
+        }
+        default:
+            // Bare identifiers, literals used as conditions, etc
+            return null;
+        }
+    }
+
+    private static Condition comparison(int op, Object[] leftNode, Object[] rightNode) {
+        SelectorToken left = token(leftNode);
+        SelectorToken right = token(rightNode);
+
+        // property op literal, without boxing
+        if (isProperty(left) && isNumericLiteral(right)) {
+            return new PropertyCompareNumber(op, left, (Number) right.getValue());
+        }
+        if (isNumericLiteral(left) && isProperty(right)) {
+            return new PropertyCompareNumber(mirror(op), right, (Number) left.getValue());
+        }
+        if (op == Selector.EQUALS || op == Selector.NOT_EQUALS) {
+            if (isProperty(left) && right.getToken() == Selector.STRING) {
+                return new PropertyEqualsString(left, (String) right.getValue(), op == Selector.NOT_EQUALS);
+            }
+            if (left.getToken() == Selector.STRING && isProperty(right)) {
+                return new PropertyEqualsString(right, (String) left.getValue(), op == Selector.NOT_EQUALS);
+            }
+        }
+
+        Value l = value(leftNode);
+        Value r = value(rightNode);
+        if (l == null || r == null) {
+            return null;
+        }
+        return new Compare(op, l, r);
+    }
+
+    private static Value value(Object[] node) {
+        SelectorToken token = token(node);
+        switch (token.getToken()) {
+        case Selector.IDENTIFIER:
+        case Selector.JMS_FIELD:
+            return new Property(token);
+        case Selector.STRING:
+        case Selector.LONG:
+        case Selector.DOUBLE:
+            return new Constant(token.getValue());
+        case Selector.TRUE:
+            return new Constant(Boolean.TRUE);
+        case Selector.FALSE:
+            return new Constant(Boolean.FALSE);
+        case Selector.PLUS:
+        case Selector.MINUS:
+        case Selector.MULTIPLY:
+        case Selector.DIVIDE: {
+            Value l = value(operand(node, 1));
+            Value r = value(operand(node, 2));
+            if (l == null || r == null) {
+                return null;
+            }
+            return new Arithmetic(token.getToken(), l, r);
+        }
+        case Selector.UNARY_MINUS:
+        case Selector.UNARY_PLUS: {
+            Value v = value(operand(node, 1));
+            return v == null ? null : new Arithmetic(token.getToken(), v, null);
+        }
+        default:
+            // Conditions used as values, NULL, etc
+            return null;
+        }
+    }
+
+    private static boolean isProperty(SelectorToken t) {
+        return t.getToken() == Selector.IDENTIFIER || t.getToken() == Selector.JMS_FIELD;
+    }
+
+    private static boolean isNumericLiteral(SelectorToken t) {
+        return t.getToken() == Selector.LONG || t.getToken() == Selector.DOUBLE;
+    }
+
+    private static int mirror(int op) {
+        switch (op) {
+        case Selector.LT:
+            return Selector.GT;
+        case Selector.LTE:
+            return Selector.GTE;
+        case Selector.GT:
+            return Selector.LT;
+        case Selector.GTE:
+            return Selector.LTE;
+        default:
+            return op;
+        }
+    }
+
+    /*
+     * ---------------------------------------------------------------- evaluation helpers
+     */
+
+    private static boolean isIntegral(Object v) {
+        return v instanceof Long || v instanceof Integer || v instanceof Short || v instanceof Byte;
+    }
+
+    private static boolean isNumber(Object v) {
+        return isIntegral(v) || v instanceof Double || v instanceof Float;
+    }
+
+    private static int toCondition(boolean b) {
+        return b ? TRUE : FALSE;
+    }
+
+    private static int compareLongs(int op, long a, long b) {
+        switch (op) {
+        case Selector.EQUALS:
+            return toCondition(a == b);
+        case Selector.NOT_EQUALS:
+            return toCondition(a != b);
+        case Selector.LT:
+            return toCondition(a < b);
+        case Selector.LTE:
+            return toCondition(a <= b);
+        case Selector.GT:
+            return toCondition(a > b);
+        default:
+            return toCondition(a >= b);
+        }
+    }
+
+    private static int compareDoubles(int op, double a, double b) {
+        switch (op) {
+        case Selector.EQUALS:
+            return toCondition(a == b);
+        case Selector.NOT_EQUALS:
+            return toCondition(!(a == b));
+        case Selector.LT:
+            return toCondition(a < b);
+        case Selector.LTE:
+            return toCondition(a <= b);
+        case Selector.GT:
+            return toCondition(a > b);
+        default:
+            return toCondition(a >= b);
+        }
+    }
+
+    /**
+     * Numeric comparison of two values. Non-numeric values are left to the interpreter, which reports them as an error or
+     * converts them.
+     */
+    private static int compareNumbers(int op, Object l, Object r) {
+        if ((l != null && !isNumber(l)) || (r != null && !isNumber(r))) {
+            throw DEOPT;
+        }
+        if (l == null || r == null) {
+            return UNKNOWN;
+        }
+        if (isIntegral(l) && isIntegral(r)) {
+            return compareLongs(op, ((Number) l).longValue(), ((Number) r).longValue());
+        }
+        return compareDoubles(op, ((Number) l).doubleValue(), ((Number) r).doubleValue());
+    }
+
+    /*
+     * ---------------------------------------------------------------- nodes
+     */
+
+    /**
+     * A node that evaluates to TRUE, FALSE or UNKNOWN
+     */
+    private abstract static class Condition {
+        abstract int eval(Map<Object, Object> props, Map<Object, Object> fields);
+    }
+
+    /**
+     * A node that evaluates to a value
+     */
+    private abstract static class Value {
+        abstract Object eval(Map<Object, Object> props, Map<Object, Object> fields);
+    }
+
+    private static final class Constant extends Value {
+        static final Condition TRUE_CONDITION = new Condition() {
+            @Override
+            int eval(Map<Object, Object> props, Map<Object, Object> fields) {
+                return TRUE;
+            }
+        };
+        static final Condition FALSE_CONDITION = new Condition() {
+            @Override
+            int eval(Map<Object, Object> props, Map<Object, Object> fields) {
+                return FALSE;
+            }
+        };
+
+        private final Object value;
+
+        Constant(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        Object eval(Map<Object, Object> props, Map<Object, Object> fields) {
+            return value;
+        }
+    }
+
+    private static final class Property extends Value {
+        private final Object name;
+        private final boolean field;
+
+        Property(SelectorToken token) {
+            this.name = token.getValue();
+            this.field = token.getToken() == Selector.JMS_FIELD;
+        }
+
+        static Object get(Map<Object, Object> props, Map<Object, Object> fields, boolean field, Object name) {
+            Map<Object, Object> m = field ? fields : props;
+            Object v = m == null ? null : m.get(name);
+            if (v == null || v instanceof String || v instanceof Boolean || isNumber(v)) {
+                return v;
+            }
+            throw DEOPT;
+        }
+
+        @Override
+        Object eval(Map<Object, Object> props, Map<Object, Object> fields) {
+            return get(props, fields, field, name);
+        }
+    }
+
+    private static final class Arithmetic extends Value {
+        private final int op;
+        private final Value left;
+        private final Value right;
+
+        Arithmetic(int op, Value left, Value right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        Object eval(Map<Object, Object> props, Map<Object, Object> fields) {
+            Object l = left.eval(props, fields);
+            Object r = right == null ? null : right.eval(props, fields);
+            if ((l != null && !isNumber(l)) || (r != null && !isNumber(r))) {
+                throw DEOPT;
+            }
+            if (l == null || (right != null && r == null)) {
+                return null;
+            }
+            if (right == null) {
+                if (op == Selector.UNARY_PLUS) {
+                    return l;
+                }
+                return isIntegral(l) ? (Object) Long.valueOf(-((Number) l).longValue()) : (Object) Double.valueOf(-((Number) l).doubleValue());
+            }
+            if (isIntegral(l) && isIntegral(r)) {
+                long a = ((Number) l).longValue();
+                long b = ((Number) r).longValue();
+                switch (op) {
+                case Selector.PLUS:
+                    return Long.valueOf(a + b);
+                case Selector.MINUS:
+                    return Long.valueOf(a - b);
+                case Selector.MULTIPLY:
+                    return Long.valueOf(a * b);
+                default:
+                    if (b == 0) {
+                        throw DEOPT;
+                    }
+                    return Long.valueOf(a / b);
+                }
+            }
+            double a = ((Number) l).doubleValue();
+            double b = ((Number) r).doubleValue();
+            switch (op) {
+            case Selector.PLUS:
+                return Double.valueOf(a + b);
+            case Selector.MINUS:
+                return Double.valueOf(a - b);
+            case Selector.MULTIPLY:
+                return Double.valueOf(a * b);
+            default:
+                return Double.valueOf(a / b);
+            }
+        }
+    }
+
+    private static final class And extends Condition {
+        private final Condition left;
+        private final Condition right;
+
+        And(Condition left, Condition right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        int eval(Map<Object, Object> props, Map<Object, Object> fields) {
+            int l = left.eval(props, fields);
+            if (l == FALSE) {
+                return FALSE;
+            }
+            int r = right.eval(props, fields);
+            if (l == TRUE && r == TRUE) {
+                return TRUE;
+            }
+            return r == FALSE ? FALSE : UNKNOWN;
+        }
+    }
+
+    private static final class Or extends Condition {
+        private final Condition left;
+        private final Condition right;
+
+        Or(Condition left, Condition right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        int eval(Map<Object, Object> props, Map<Object, Object> fields) {
+            int l = left.eval(props, fields);
+            if (l == TRUE) {
+                return TRUE;
+            }
+            int r = right.eval(props, fields);
+            if (r == TRUE) {
+                return TRUE;
+            }
+            return l == FALSE && r == FALSE ? FALSE : UNKNOWN;
+        }
+    }
+
+    private static final class Not extends Condition {
+        private final Condition c;
+
+        Not(Condition c) {
+            this.c = c;
+        }
+
+        @Override
+        int eval(Map<Object, Object> props, Map<Object, Object> fields) {
+            int v = c.eval(props, fields);
+            if (v == TRUE) {
+                return FALSE;
+            }
+            return v == FALSE ? TRUE : UNKNOWN;
+        }
+    }
+
+    /**
+     * property op numeric literal
+     */
+    private static final class PropertyCompareNumber extends Condition {
+        private final int op;
+        private final Object name;
+        private final boolean field;
+        private final boolean integral;
+        private final long longValue;
+        private final double doubleValue;
+
+        PropertyCompareNumber(int op, SelectorToken property, Number literal) {
+            this.op = op;
+            this.name = property.getValue();
+            this.field = property.getToken() == Selector.JMS_FIELD;
+            this.integral = literal instanceof Long;
+            this.longValue = literal.longValue();
+            this.doubleValue = literal.doubleValue();
+        }
+
+        @Override
+        int eval(Map<Object, Object> props, Map<Object, Object> fields) {
+            Object v = Property.get(props, fields, field, name);
+            if (v == null) {
+                return UNKNOWN;
+            }
+            if (integral && isIntegral(v)) {
+                return compareLongs(op, ((Number) v).longValue(), longValue);
+            }
+            if (isNumber(v)) {
+                return compareDoubles(op, ((Number) v).doubleValue(), doubleValue);
+            }
+            throw DEOPT;
+        }
+    }
+
+    /**
+     * property = 'string' and property <> 'string'
+     */
+    private static final class PropertyEqualsString extends Condition {
+        private final Object name;
+        private final boolean field;
+        private final String literal;
+        private final boolean negate;
+
+        PropertyEqualsString(SelectorToken property, String literal, boolean negate) {
+            this.name = property.getValue();
+            this.field = property.getToken() == Selector.JMS_FIELD;
+            this.literal = literal;
+            this.negate = negate;
+        }
+
+        @Override
+        int eval(Map<Object, Object> props, Map<Object, Object> fields) {
+            Object v = Property.get(props, fields, field, name);
+            if (isNumber(v)) {
+                throw DEOPT;
+            }
+            return toCondition(literal.equals(v) != negate);
+        }
+    }
+
+    /**
+     * Any other comparison
+     */
+    private static final class Compare extends Condition {
+        private final int op;
+        private final Value left;
+        private final Value right;
+
+        Compare(int op, Value left, Value right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        int eval(Map<Object, Object> props, Map<Object, Object> fields) {
+            Object l = left.eval(props, fields);
+            Object r = right.eval(props, fields);
+            if (op != Selector.EQUALS && op != Selector.NOT_EQUALS) {
+                return compareNumbers(op, l, r);
+            }
+            if (isNumber(l) || isNumber(r)) {
+                return compareNumbers(op, l, r);
+            }
+            // Same as comparing the SelectorTokens: two unknown values are equal
+            boolean equal = l == null ? r == null : l.equals(r);
+            return toCondition(equal != (op == Selector.NOT_EQUALS));
+        }
+    }
+
+    private static final class Between extends Condition {
+        private final Value value;
+        private final Value min;
+        private final Value max;
+        private final boolean negate;
+
+        Between(Value value, Value min, Value max, boolean negate) {
+            this.value = value;
+            this.min = min;
+            this.max = max;
+            this.negate = negate;
+        }
+
+        @Override
+        int eval(Map<Object, Object> props, Map<Object, Object> fields) {
+            Object v = value.eval(props, fields);
+            Object lo = min.eval(props, fields);
+            Object hi = max.eval(props, fields);
+            boolean between = compareNumbers(Selector.GTE, v, lo) == TRUE && compareNumbers(Selector.LTE, v, hi) == TRUE;
+            return toCondition(between != negate);
+        }
+    }
+
+    private static final class In extends Condition {
+        private final Value value;
+        private final Set<?> set;
+        private final boolean negate;
+
+        In(Value value, Set<?> set, boolean negate) {
+            this.value = value;
+            this.set = set;
+            this.negate = negate;
+        }
+
+        @Override
+        int eval(Map<Object, Object> props, Map<Object, Object> fields) {
+            Object v = value.eval(props, fields);
+            if (v == null) {
+                // unknown operand
+                return FALSE;
+            }
+            if (!(v instanceof String)) {
+                throw DEOPT;
+            }
+            return toCondition(set.contains(v) != negate);
+        }
+    }
+
+    private static final class Like extends Condition {
+        // Pattern shapes that do not need the general matcher
+        private static final int GENERAL = 0;
+        private static final int EXACT = 1;
+        private static final int PREFIX = 2;
+        private static final int SUFFIX = 3;
+        private static final int CONTAINS = 4;
+        private static final int ANY = 5;
+
+        private final Value value;
+        private final RegularExpression re;
+        private final boolean negate;
+        private final int shape;
+        private final String literal;
+
+        Like(Value value, RegularExpression re, boolean negate) {
+            this.value = value;
+            this.re = re;
+            this.negate = negate;
+
+            String p = re.getExpression();
+            int shape = GENERAL;
+            String literal = null;
+            if (re.getEscape() == null && !p.isEmpty()) {
+                if (p.equals("%")) {
+                    shape = ANY;
+                } else {
+                    boolean leading = p.charAt(0) == '%';
+                    boolean trailing = p.length() > 1 && p.charAt(p.length() - 1) == '%';
+                    literal = p.substring(leading ? 1 : 0, trailing ? p.length() - 1 : p.length());
+                    if (!literal.isEmpty() && literal.indexOf('%') < 0 && literal.indexOf('_') < 0) {
+                        shape = leading ? (trailing ? CONTAINS : SUFFIX) : (trailing ? PREFIX : EXACT);
+                    }
+                }
+            }
+            this.shape = shape;
+            this.literal = literal;
+        }
+
+        @Override
+        int eval(Map<Object, Object> props, Map<Object, Object> fields) {
+            Object v = value.eval(props, fields);
+            if (v == null) {
+                // unknown operand
+                return FALSE;
+            }
+            if (!(v instanceof String)) {
+                throw DEOPT;
+            }
+            String s = (String) v;
+            boolean matches;
+            if (shape == ANY) {
+                matches = true;
+            } else if (shape == GENERAL || s.isEmpty()) {
+                matches = re.match(s);
+            } else if (shape == EXACT) {
+                matches = s.equals(literal);
+            } else if (shape == PREFIX) {
+                matches = s.startsWith(literal);
+            } else if (shape == SUFFIX) {
+                matches = s.endsWith(literal);
+            } else {
+                matches = s.contains(literal);
+            }
+            return toCondition(matches != negate);
+        }
+    }
+
+    private static final class IsNull extends Condition {
+        private final Value value;
+        private final boolean negate;
+
+        IsNull(Value value, boolean negate) {
+            this.value = value;
+            this.negate = negate;
+        }
+
+        @Override
+        int eval(Map<Object, Object> props, Map<Object, Object> fields) {
+            return toCondition((value.eval(props, fields) == null) != negate);
+        }
+    }
+}
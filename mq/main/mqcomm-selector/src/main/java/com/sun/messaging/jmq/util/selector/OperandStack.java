@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.util.selector;
+
+import java.util.Arrays;
+
+/**
+ * The operand stack used to evaluate a selector. Each entry has a token type (Selector.LONG, Selector.STRING, etc).
+ * Numeric operands are kept unboxed in the longs and doubles arrays, all other operands have their value in the values
+ * array. The value of TRUE, FALSE and UNKNOWN operands is the value of the corresponding SelectorToken.
+ * <p>
+ * An OperandStack is confined to one thread. Selector keeps one per thread and falls back to a new one if a match is
+ * already in progress on the thread.
+ */
+final class OperandStack {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final ThreadLocal<OperandStack> cache = ThreadLocal.withInitial(OperandStack::new);
+
+    int[] types = new int[INITIAL_CAPACITY];
+    long[] longs = new long[INITIAL_CAPACITY];
+    double[] doubles = new double[INITIAL_CAPACITY];
+    Object[] values = new Object[INITIAL_CAPACITY];
+
+    int size = 0;
+
+    private boolean inUse = false;
+
+    /**
+     * Get an empty stack for the calling thread. It must be handed back with release().
+     */
+    static OperandStack acquire(int capacity) {
+        OperandStack stack = cache.get();
+        if (stack.inUse) {
+            stack = new OperandStack();
+        }
+        stack.inUse = true;
+        stack.ensureCapacity(capacity);
+        return stack;
+    }
+
+    void release() {
+        // Do not hold on to message property values
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+        inUse = false;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > types.length) {
+            types = Arrays.copyOf(types, capacity);
+            longs = Arrays.copyOf(longs, capacity);
+            doubles = Arrays.copyOf(doubles, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void push(int type, Object value) {
+        types[size] = type;
+        values[size] = value;
+        size++;
+    }
+
+    void pushLong(long l) {
+        types[size] = Selector.LONG;
+        longs[size] = l;
+        values[size] = null;
+        size++;
+    }
+
+    void pushDouble(double d) {
+        types[size] = Selector.DOUBLE;
+        doubles[size] = d;
+        values[size] = null;
+        size++;
+    }
+
+    void pushBoolean(int type) {
+        if (type == Selector.TRUE) {
+            push(Selector.TRUE, SelectorToken.trueToken.getValue());
+        } else if (type == Selector.FALSE) {
+            push(Selector.FALSE, SelectorToken.falseToken.getValue());
+        } else {
+            push(Selector.UNKNOWN, SelectorToken.unknownToken.getValue());
+        }
+    }
+
+    void pushBoolean(boolean b) {
+        pushBoolean(b ? Selector.TRUE : Selector.FALSE);
+    }
+
+    void drop(int n) {
+        for (int i = 0; i < n; i++) {
+            values[--size] = null;
+        }
+    }
+
+    void setLong(int i, long l) {
+        types[i] = Selector.LONG;
+        longs[i] = l;
+        values[i] = null;
+    }
+
+    void setDouble(int i, double d) {
+        types[i] = Selector.DOUBLE;
+        doubles[i] = d;
+        values[i] = null;
+    }
+
+    boolean isNumeric(int i) {
+        return types[i] == Selector.LONG || types[i] == Selector.DOUBLE;
+    }
+
+    double doubleValue(int i) {
+        return types[i] == Selector.LONG ? (double) longs[i] : doubles[i];
+    }
+
+    /**
+     * The value of entry i as it would be held by a SelectorToken. Boxes numeric values.
+     */
+    Object valueOf(int i) {
+        switch (types[i]) {
+        case Selector.LONG:
+            return Long.valueOf(longs[i]);
+        case Selector.DOUBLE:
+            return Double.valueOf(doubles[i]);
+        default:
+            return values[i];
+        }
+    }
+
+    /**
+     * Check if entry i and j would be equal SelectorTokens. Only used for non-numeric entries.
+     */
+    boolean isEqual(int i, int j) {
+        if (types[i] != types[j]) {
+            return false;
+        }
+        return values[i] == null ? values[j] == null : values[i].equals(values[j]);
+    }
+}
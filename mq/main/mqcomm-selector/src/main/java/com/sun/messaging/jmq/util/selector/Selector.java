@@ -1,7 +1,7 @@
 /*
  * Copyright (c) 2000, 2018 Oracle and/or its affiliates. All rights reserved.
  * Copyright (c) 2020 Payara Services Ltd.
- * Copyright (c) 2020 Contributors to Eclipse Foundation
+ * Copyright (c) 2020, 2026 Contributors to Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -104,8 +104,11 @@ public class Selector {
     // Compiled selector string. An array of SelectorTokens in RPN
     private SelectorToken[] compiledSelector = null;
 
-    // Stack used for evaluation
-    private Stack<SelectorToken> stack = new Stack<>();
+    // The compiled predicate tier, see getCompiledPredicate(). matchCount
+    // is only a hint and is not updated atomically.
+    private volatile CompiledPredicate compiledPredicate = null;
+    private volatile boolean predicateCompiled = false;
+    private int matchCount = 0;
 
     // The selector cache is used to cache selectors. This way we can
     // return the same Selector instance for identical selector strings.
@@ -1021,15 +1024,79 @@ public class Selector {
      *
      * @throws SelectorFormatException if the selector syntax is invalid
      */
-    public synchronized boolean match(Map<Object, Object> properties, Map<Object, Object> fields) throws SelectorFormatException {
+    public boolean match(Map<Object, Object> properties, Map<Object, Object> fields) throws SelectorFormatException {
+        CompiledPredicate p = getCompiledPredicate();
+        if (p != null) {
+            try {
+                return p.match(properties, fields);
+            } catch (CompiledPredicate.Deopt e) {
+                // Let the interpreter handle type conversions and errors
+            }
+        }
+        return match(properties, fields, false);
+    }
+
+    /**
+     * Evaluate the selector with the interpreter only, bypassing the compiled predicate.
+     */
+    boolean matchInterpreted(Map<Object, Object> properties, Map<Object, Object> fields) throws SelectorFormatException {
         return match(properties, fields, false);
     }
 
-    private synchronized boolean match(Map<Object, Object> properties, Map<Object, Object> fields, boolean compileTestShortCircuit) throws SelectorFormatException {
+    /**
+     * Return the compiled predicate once the selector has been evaluated SelectorConfig.getCompileThreshold() times.
+     *
+     * @return the compiled predicate, or null if the selector has to be interpreted
+     */
+    CompiledPredicate getCompiledPredicate() {
+        if (!SelectorConfig.getShortCircuit()) {
+            // The compiled predicate always short circuits
+            return null;
+        }
+        if (predicateCompiled) {
+            return compiledPredicate;
+        }
+        int threshold = SelectorConfig.getCompileThreshold();
+        if (threshold < 0 || ++matchCount < threshold) {
+            return null;
+        }
+        synchronized (this) {
+            if (!predicateCompiled) {
+                if (hasShortCircuitMarkers()) {
+                    compiledPredicate = CompiledPredicate.compile(getExpressionTree());
+                }
+                predicateCompiled = true;
+            }
+        }
+        return compiledPredicate;
+    }
+
+    /**
+     * Check if the interpreter short circuits every AND and OR of this selector, which is the case if it was compiled with
+     * short circuiting enabled.
+     */
+    private boolean hasShortCircuitMarkers() {
+        int operators = 0;
+        int markers = 0;
+        for (SelectorToken token : compiledSelector) {
+            if (token == null) {
+                break;
+            }
+            int t = token.getToken();
+            if (t == AND || t == OR) {
+                operators++;
+            } else if (t == AND_MARKER || t == OR_MARKER) {
+                markers++;
+            }
+        }
+        return operators == markers;
+    }
+
+    private boolean match(Map<Object, Object> properties, Map<Object, Object> fields, boolean compileTestShortCircuit) throws SelectorFormatException {
 
         /*
-         * This method is synchronized primarily because of the runtime stack. If the stack was local then we wouldn't need to
-         * synchronize, but we'd be creating a new stack on every match() call.
+         * This method is not synchronized. The compiled selector is never modified after compile(), and the operand stack is
+         * confined to the calling thread (see OperandStack), so a shared Selector can be evaluated by many threads at once.
          */
 
         /*
@@ -1051,8 +1118,20 @@ public class Selector {
          * Then continue evaluation. Else skip the OR_MARKER and continue evaluation.
          */
 
-        stack.clear();
-        SelectorToken token, operand1, operand2;
+        OperandStack stack = OperandStack.acquire(compiledSelector.length);
+        try {
+            return evaluate(stack, properties, fields, compileTestShortCircuit);
+        } finally {
+            stack.release();
+        }
+    }
+
+    private boolean evaluate(OperandStack stack, Map<Object, Object> properties, Map<Object, Object> fields, boolean compileTestShortCircuit)
+            throws SelectorFormatException {
+
+        SelectorToken token;
+        int operand1, operand2;
+        int result;
 
         int markers = 0;
 
@@ -1072,7 +1151,7 @@ public class Selector {
                     // Short circuit boolean expressions
                     if (token.getToken() == Selector.AND_MARKER) {
                         // We hit an AND_MARKER.
-                        int t = stack.peek().getToken();
+                        int t = stack.types[top(stack, 1)];
                         if (compileTestShortCircuit) {
                             t = Selector.TRUE;
                         }
@@ -1097,7 +1176,7 @@ public class Selector {
                         }
                     } else if (token.getToken() == Selector.OR_MARKER) {
                         // We hit an OR_MARKER.
-                        int t = stack.peek().getToken();
+                        int t = stack.types[top(stack, 1)];
                         if (compileTestShortCircuit) {
                             t = Selector.TRUE;
                         }
@@ -1128,33 +1207,17 @@ public class Selector {
                 if (!isOperator(token)) {
                     if (token.getToken() == IDENTIFIER) {
                         // Expand identifier
-                        Object value;
-                        if (properties == null) {
-                            value = null;
-                        } else {
-                            value = properties.get(token.getValue());
-                        }
-                        if (value == null) {
-                            stack.push(SelectorToken.getInstance(UNKNOWN, null));
-                        } else {
-                            stack.push(propertyToToken(value));
-                        }
+                        pushProperty(stack, properties == null ? null : properties.get(token.getValue()));
                     } else if (token.getToken() == JMS_FIELD) {
                         // Expand identifier
-                        Object value;
-                        if (fields == null) {
-                            value = null;
-                        } else {
-                            value = fields.get(token.getValue());
-                        }
-                        if (value == null) {
-                            stack.push(SelectorToken.getInstance(UNKNOWN, null));
-                        } else {
-                            stack.push(propertyToToken(value));
-                        }
+                        pushProperty(stack, fields == null ? null : fields.get(token.getValue()));
+                    } else if (token.getToken() == LONG) {
+                        stack.pushLong(((Long) token.getValue()).longValue());
+                    } else if (token.getToken() == DOUBLE) {
+                        stack.pushDouble(((Double) token.getValue()).doubleValue());
                     } else {
                         // A literal operand
-                        stack.push(token);
+                        stack.push(token.getToken(), token.getValue());
                     }
                     continue;
                 }
@@ -1166,8 +1229,9 @@ public class Selector {
                 }
 
                 // Handle operator. We know we'll need at least one operand
-                // so get it now.
-                operand1 = stack.pop();
+                // so get it now. Operands are referenced by their index on
+                // the stack and dropped once the operator has been applied.
+                operand1 = top(stack, 1);
 
                 // Process operator
                 switch (token.getToken()) {
@@ -1175,112 +1239,108 @@ public class Selector {
                 // For OR, AND, and NOT we have to handle UNKNOWN.
                 // See Section 3.8.1.2 of the JMS 1.1 spec
                 case OR:
-                    operand2 = stack.pop();
-                    if (operand1.getToken() == TRUE || operand2.getToken() == TRUE) {
-                        stack.push(SelectorToken.getInstance(TRUE));
-                    } else if (operand1.getToken() == FALSE && operand2.getToken() == FALSE) {
-                        stack.push(SelectorToken.getInstance(FALSE));
+                    operand2 = top(stack, 2);
+                    if (stack.types[operand1] == TRUE || stack.types[operand2] == TRUE) {
+                        result = TRUE;
+                    } else if (stack.types[operand1] == FALSE && stack.types[operand2] == FALSE) {
+                        result = FALSE;
                     } else {
-                        stack.push(SelectorToken.getInstance(UNKNOWN));
+                        result = UNKNOWN;
                     }
+                    stack.drop(2);
+                    stack.pushBoolean(result);
                     break;
                 case AND:
-                    operand2 = stack.pop();
-                    if (operand1.getToken() == TRUE && operand2.getToken() == TRUE) {
-                        stack.push(SelectorToken.getInstance(TRUE));
-                    } else if (operand1.getToken() == FALSE || operand2.getToken() == FALSE) {
-                        stack.push(SelectorToken.getInstance(FALSE));
+                    operand2 = top(stack, 2);
+                    if (stack.types[operand1] == TRUE && stack.types[operand2] == TRUE) {
+                        result = TRUE;
+                    } else if (stack.types[operand1] == FALSE || stack.types[operand2] == FALSE) {
+                        result = FALSE;
                     } else {
-                        stack.push(SelectorToken.getInstance(UNKNOWN));
+                        result = UNKNOWN;
                     }
+                    stack.drop(2);
+                    stack.pushBoolean(result);
                     break;
                 case NOT:
-                    if (operand1.getToken() == TRUE) {
-                        stack.push(SelectorToken.getInstance(FALSE));
-                    } else if (operand1.getToken() == FALSE) {
-                        stack.push(SelectorToken.getInstance(TRUE));
+                    if (stack.types[operand1] == TRUE) {
+                        result = FALSE;
+                    } else if (stack.types[operand1] == FALSE) {
+                        result = TRUE;
                     } else {
-                        stack.push(SelectorToken.getInstance(UNKNOWN));
+                        result = UNKNOWN;
                     }
+                    stack.drop(1);
+                    stack.pushBoolean(result);
                     break;
                 case EQUALS:
-                    operand2 = stack.pop();
-
-                    if (isNumeric(operand1) || isNumeric(operand2)) {
-                        stack.push(doNumericOperation(token, operand2, operand1));
-                    } else if (operand1.equals(operand2)) {
-                        stack.push(SelectorToken.getInstance(TRUE));
-                    } else {
-                        stack.push(SelectorToken.getInstance(FALSE));
-                    }
-                    break;
                 case NOT_EQUALS:
-                    operand2 = stack.pop();
+                    operand2 = top(stack, 2);
 
-                    if (isNumeric(operand1) || isNumeric(operand2)) {
-                        stack.push(doNumericOperation(token, operand2, operand1));
-                    } else if (operand1.equals(operand2)) {
-                        stack.push(SelectorToken.getInstance(FALSE));
+                    if (stack.isNumeric(operand1) || stack.isNumeric(operand2)) {
+                        result = doNumericComparison(token.getToken(), stack, operand2, operand1);
+                    } else if (stack.isEqual(operand1, operand2)) {
+                        result = token.getToken() == EQUALS ? TRUE : FALSE;
                     } else {
-                        stack.push(SelectorToken.getInstance(TRUE));
+                        result = token.getToken() == EQUALS ? FALSE : TRUE;
                     }
+                    stack.drop(2);
+                    stack.pushBoolean(result);
                     break;
 
                 case LT:
                 case LTE:
                 case GT:
                 case GTE:
+                    operand2 = top(stack, 2);
+
+                    // operand2 is first. It is actually the first
+                    // operation. They are reversed on the stack
+                    result = doNumericComparison(token.getToken(), stack, operand2, operand1);
+                    stack.drop(2);
+                    stack.pushBoolean(result);
+                    break;
+
                 case PLUS:
                 case MINUS:
                 case MULTIPLY:
                 case DIVIDE:
-                    operand2 = stack.pop();
+                    operand2 = top(stack, 2);
 
-                    // operand2 is first. It is actually the first
-                    // operation. They are reversed on the stack
-                    stack.push(doNumericOperation(token, operand2, operand1));
+                    // The result replaces operand2, the left operand
+                    doArithmeticOperation(token.getToken(), stack, operand2, operand1);
+                    stack.drop(1);
                     break;
 
                 case UNARY_MINUS:
-                    stack.push(doNumericOperation(token, operand1, null));
-                    break;
-
                 case UNARY_PLUS:
-                    stack.push(doNumericOperation(token, operand1, null));
+                    doArithmeticOperation(token.getToken(), stack, operand1, -1);
                     break;
 
                 case BETWEEN:
                 case NOT_BETWEEN:
                     // Operand 1 is the second range value
-                    SelectorToken max = operand1;
+                    int max = operand1;
 
                     // Operand 2 is the first range value
-                    SelectorToken min = stack.pop();
+                    int min = top(stack, 2);
 
                     // Operand 3 is the operand on the left side of BETWEEN
-                    SelectorToken operand = stack.pop();
+                    int operand = top(stack, 3);
 
                     boolean between = false;
 
                     // The operands may be floats or longs. We use
-                    // doNumericOperation to handle this for us
-                    if (doNumericOperation(SelectorToken.getInstance(GTE), operand, min).getToken() == TRUE
-                            && doNumericOperation(SelectorToken.getInstance(LTE), operand, max).getToken() == TRUE) {
+                    // doNumericComparison to handle this for us
+                    if (doNumericComparison(GTE, stack, operand, min) == TRUE && doNumericComparison(LTE, stack, operand, max) == TRUE) {
                         between = true;
                     }
 
+                    stack.drop(3);
                     if (token.getToken() == BETWEEN) {
-                        if (between) {
-                            stack.push(SelectorToken.getInstance(TRUE));
-                        } else {
-                            stack.push(SelectorToken.getInstance(FALSE));
-                        }
+                        stack.pushBoolean(between);
                     } else {
-                        if (between) {
-                            stack.push(SelectorToken.getInstance(FALSE));
-                        } else {
-                            stack.push(SelectorToken.getInstance(TRUE));
-                        }
+                        stack.pushBoolean(!between);
                     }
                     break;
 
@@ -1288,76 +1348,60 @@ public class Selector {
                 case NOT_IN:
 
                     // operand2 is the identifier
-                    operand2 = stack.pop();
+                    operand2 = top(stack, 2);
 
-                    if (!(operand2.getValue() instanceof String)) {
-                        throw new SelectorFormatException("IN requires string operand: " + operand2.getValue(), selector);
+                    if (!(stack.values[operand2] instanceof String)) {
+                        throw new SelectorFormatException("IN requires string operand: " + stack.valueOf(operand2), selector);
                     }
 
                     // operand1 is the string list
-                    HashSet set = (HashSet) operand1.getValue();
+                    HashSet set = (HashSet) stack.values[operand1];
 
-                    if (operand2.getToken() == UNKNOWN) {
+                    if (stack.types[operand2] == UNKNOWN) {
                         // If operand is unknow, result is unknown.
-                        stack.push(SelectorToken.getInstance(FALSE));
-                    } else if (set.contains(operand2.getValue())) {
-                        if (token.getToken() == IN) {
-                            stack.push(SelectorToken.getInstance(TRUE));
-                        } else {
-                            stack.push(SelectorToken.getInstance(FALSE));
-                        }
+                        result = FALSE;
+                    } else if (set.contains(stack.values[operand2])) {
+                        result = token.getToken() == IN ? TRUE : FALSE;
                     } else {
-                        if (token.getToken() == IN) {
-                            stack.push(SelectorToken.getInstance(FALSE));
-                        } else {
-                            stack.push(SelectorToken.getInstance(TRUE));
-                        }
+                        result = token.getToken() == IN ? FALSE : TRUE;
                     }
+                    stack.drop(2);
+                    stack.pushBoolean(result);
                     break;
 
                 case LIKE:
                 case NOT_LIKE:
                     // operand2 is the identifier
-                    operand2 = stack.pop();
+                    operand2 = top(stack, 2);
 
-                    if (!(operand2.getValue() instanceof String)) {
-                        throw new SelectorFormatException("LIKE requires string operand: " + operand2.getValue(), selector);
+                    if (!(stack.values[operand2] instanceof String)) {
+                        throw new SelectorFormatException("LIKE requires string operand: " + stack.valueOf(operand2), selector);
                     }
 
                     // operand1 is the RE
-                    RegularExpression re = (RegularExpression) operand1.getValue();
+                    RegularExpression re = (RegularExpression) stack.values[operand1];
 
-                    if (operand2.getToken() == UNKNOWN) {
+                    if (stack.types[operand2] == UNKNOWN) {
                         // If operand is unknow, result is unknown.
-                        stack.push(SelectorToken.getInstance(FALSE));
-                    } else if (re.match((String) operand2.getValue())) {
-                        if (token.getToken() == LIKE) {
-                            stack.push(SelectorToken.getInstance(TRUE));
-                        } else {
-                            stack.push(SelectorToken.getInstance(FALSE));
-                        }
+                        result = FALSE;
+                    } else if (re.match((String) stack.values[operand2])) {
+                        result = token.getToken() == LIKE ? TRUE : FALSE;
                     } else {
-                        if (token.getToken() == LIKE) {
-                            stack.push(SelectorToken.getInstance(FALSE));
-                        } else {
-                            stack.push(SelectorToken.getInstance(TRUE));
-                        }
+                        result = token.getToken() == LIKE ? FALSE : TRUE;
                     }
+                    stack.drop(2);
+                    stack.pushBoolean(result);
                     break;
 
                 case IS_NULL:
-                    if (operand1.getToken() == UNKNOWN) {
-                        stack.push(SelectorToken.getInstance(TRUE));
-                    } else {
-                        stack.push(SelectorToken.getInstance(FALSE));
-                    }
+                    result = stack.types[operand1] == UNKNOWN ? TRUE : FALSE;
+                    stack.drop(1);
+                    stack.pushBoolean(result);
                     break;
                 case IS_NOT_NULL:
-                    if (operand1.getToken() != UNKNOWN) {
-                        stack.push(SelectorToken.getInstance(TRUE));
-                    } else {
-                        stack.push(SelectorToken.getInstance(FALSE));
-                    }
+                    result = stack.types[operand1] != UNKNOWN ? TRUE : FALSE;
+                    stack.drop(1);
+                    stack.pushBoolean(result);
                     break;
                 default:
                     throw new SelectorFormatException("Unknown operator: " + token, selector);
@@ -1366,249 +1410,340 @@ public class Selector {
 
             // All done!
             // The top of the stack better hold a boolean!
-            token = stack.pop();
+            result = stack.types[top(stack, 1)];
+            stack.drop(1);
 
-        } catch (java.util.EmptyStackException e) {
-            SelectorFormatException ex = new SelectorFormatException("Missing operand", selector);
-            ex.initCause(e);
-            throw ex;
         } catch (java.lang.ArithmeticException e) {
             SelectorFormatException ex = new SelectorFormatException(e.toString(), selector);
             ex.initCause(e);
             throw ex;
         }
 
-        if (!stack.empty()) {
+        if (!stack.isEmpty()) {
             throw new SelectorFormatException("Missing operator", selector);
-        } else if (token.getToken() == TRUE) {
+        } else if (result == TRUE) {
             return true;
-        } else if (token.getToken() == FALSE) {
+        } else if (result == FALSE) {
             return false;
-        } else if (token.getToken() == UNKNOWN) {
+        } else if (result == UNKNOWN) {
             return false;
         } else {
             throw new SelectorFormatException("Non-boolean expression", selector);
         }
     }
 
-    private static SelectorToken propertyToToken(Object value) {
+    /**
+     * Return the index of the n-th entry from the top of the stack (n == 1 is the top entry).
+     */
+    private int top(OperandStack stack, int n) throws SelectorFormatException {
+        if (stack.size < n) {
+            throw new SelectorFormatException("Missing operand", selector);
+        }
+        return stack.size - n;
+    }
+
+    /**
+     * Return the predicates of the form <code>identifier = literal</code> and <code>identifier IN (...)</code> that are
+     * top level conjuncts of this selector. The selector can only evaluate to true for messages that satisfy every one of
+     * them, which is what SelectorIndex relies on. An empty list is returned if there are none.
+     */
+    List<SelectorIndex.Predicate> getIndexPredicates() {
+        Object[] tree = getExpressionTree();
+        if (tree == null) {
+            return Collections.emptyList();
+        }
+        List<SelectorIndex.Predicate> predicates = new ArrayList<>();
+        collectIndexPredicates(tree, predicates);
+        return predicates;
+    }
+
+    /**
+     * Rebuild the expression tree from the RPN token stream. A node is an Object[] holding the SelectorToken followed by
+     * the nodes of its operands, in the order in which they appear in the selector. Markers and commas are dropped.
+     *
+     * @return the root node, or null if the token stream is not a single expression
+     */
+    Object[] getExpressionTree() {
+        ArrayDeque<Object[]> nodes = new ArrayDeque<>();
+        for (int i = 0; i < compiledSelector.length; i++) {
+            SelectorToken token = compiledSelector[i];
+            if (token == null) {
+                break;
+            }
+            int t = token.getToken();
+            if (t == AND_MARKER || t == OR_MARKER || t == COMMA) {
+                continue;
+            }
+            if (!isOperator(t)) {
+                nodes.push(new Object[] { token });
+                continue;
+            }
+            int arity = getArity(t);
+            if (nodes.size() < arity) {
+                return null;
+            }
+            Object[] node = new Object[arity + 1];
+            node[0] = token;
+            for (int n = arity; n > 0; n--) {
+                node[n] = nodes.pop();
+            }
+            nodes.push(node);
+        }
+        if (nodes.size() != 1) {
+            return null;
+        }
+        return nodes.pop();
+    }
+
+    private static void collectIndexPredicates(Object[] node, List<SelectorIndex.Predicate> predicates) {
+        int t = ((SelectorToken) node[0]).getToken();
+        if (t == AND) {
+            collectIndexPredicates((Object[]) node[1], predicates);
+            collectIndexPredicates((Object[]) node[2], predicates);
+            return;
+        }
+        if (t != EQUALS && t != IN) {
+            return;
+        }
+        SelectorToken left = (SelectorToken) ((Object[]) node[1])[0];
+        SelectorToken right = (SelectorToken) ((Object[]) node[2])[0];
+        if (t == EQUALS && left.getToken() != IDENTIFIER) {
+            // literal = identifier
+            SelectorToken tmp = left;
+            left = right;
+            right = tmp;
+        }
+        if (left.getToken() != IDENTIFIER) {
+            return;
+        }
+        String name = (String) left.getValue();
+        switch (right.getToken()) {
+        case STRING:
+            if (t == EQUALS) {
+                predicates.add(new SelectorIndex.Predicate(name, false, Collections.singleton(right.getValue())));
+            }
+            break;
+        case LONG:
+        case DOUBLE:
+            if (t == EQUALS) {
+                predicates.add(new SelectorIndex.Predicate(name, true, Collections.singleton(SelectorIndex.numericKey((Number) right.getValue()))));
+            }
+            break;
+        case LIST:
+            if (t == IN) {
+                predicates.add(new SelectorIndex.Predicate(name, false, (Set<?>) right.getValue()));
+            }
+            break;
+        default:
+            break;
+        }
+    }
+
+    private static int getArity(int t) {
+        switch (t) {
+        case NOT:
+        case UNARY_PLUS:
+        case UNARY_MINUS:
+        case IS_NULL:
+        case IS_NOT_NULL:
+            return 1;
+        case BETWEEN:
+        case NOT_BETWEEN:
+            return 3;
+        default:
+            return 2;
+        }
+    }
+
+    private static void pushProperty(OperandStack stack, Object value) {
         if (value instanceof String) {
-            return SelectorToken.getInstance(STRING, value);
+            stack.push(STRING, value);
         } else if (value instanceof Boolean) {
-            boolean b = ((Boolean) value).booleanValue();
-            if (b) {
-                return SelectorToken.getInstance(TRUE);
-            } else {
-                return SelectorToken.getInstance(FALSE);
-            }
+            stack.pushBoolean(((Boolean) value).booleanValue());
         } else if (value instanceof Double) {
-            return SelectorToken.getInstance(DOUBLE, value);
+            stack.pushDouble(((Double) value).doubleValue());
         } else if (value instanceof Float) {
-            double d = ((Float) value).floatValue();
-            return SelectorToken.getInstance(DOUBLE, Double.valueOf(d));
+            stack.pushDouble(((Float) value).floatValue());
         } else if (value instanceof Long) {
-            return SelectorToken.getInstance(LONG, value);
+            stack.pushLong(((Long) value).longValue());
         } else if (value instanceof Integer) {
-            long l = ((Integer) value).intValue();
-            return SelectorToken.getInstance(LONG, Long.valueOf(l));
+            stack.pushLong(((Integer) value).intValue());
         } else if (value instanceof Short) {
-            long l = ((Short) value).shortValue();
-            return SelectorToken.getInstance(LONG, Long.valueOf(l));
+            stack.pushLong(((Short) value).shortValue());
         } else if (value instanceof Byte) {
-            long l = ((Byte) value).byteValue();
-            return SelectorToken.getInstance(LONG, Long.valueOf(l));
+            stack.pushLong(((Byte) value).byteValue());
+        } else {
+            // Not set, or not a valid property type
+            stack.pushBoolean(UNKNOWN);
         }
-
-        return null;
     }
 
-    private SelectorToken convertStringToNumber(String s) throws SelectorFormatException {
-
-        try {
-            Long l = Long.valueOf(s);
-            return SelectorToken.getInstance(LONG, l);
-        } catch (NumberFormatException e) {
+    /**
+     * Make sure entry i of the stack is a numeric or UNKNOWN operand, converting a string if type conversion is enabled.
+     *
+     * @return the type of entry i
+     */
+    private int toNumeric(OperandStack stack, int i) throws SelectorFormatException {
+        int type = stack.types[i];
+        if (type == LONG || type == DOUBLE || type == UNKNOWN) {
+            return type;
+        }
+        if (SelectorConfig.getConvertTypes() && type == STRING) {
+            String s = (String) stack.values[i];
             try {
-                // Hmmm...maybe it's a double
-                Double d = Double.valueOf(s);
-                return SelectorToken.getInstance(DOUBLE, d);
-            } catch (NumberFormatException e2) {
-                throw new SelectorFormatException("Cannot convert string to number '" + s + "'", selector);
+                stack.setLong(i, Long.parseLong(s));
+            } catch (NumberFormatException e) {
+                try {
+                    // Hmmm...maybe it's a double
+                    stack.setDouble(i, Double.parseDouble(s));
+                } catch (NumberFormatException e2) {
+                    throw new SelectorFormatException("Cannot convert string to number '" + s + "'", selector);
+                }
             }
+            return stack.types[i];
         }
+        throw new SelectorFormatException("Non-numeric argument '" + stack.valueOf(i) + "'", selector);
     }
 
     /**
-     * Perform a numeric operation.
+     * Perform a numeric comparison of the stack entries op1 and op2.
+     *
+     * The operands are either LONG or DOUBLE.
      *
-     * The operands are either Long or Double.
+     * @return TRUE, FALSE or UNKNOWN
      */
-    private SelectorToken doNumericOperation(SelectorToken t, SelectorToken op1, SelectorToken op2) throws SelectorFormatException {
+    private int doNumericComparison(int t, OperandStack stack, int op1, int op2) throws SelectorFormatException {
 
-        boolean b = false;
-        boolean is1L = false;
-        boolean is2L = false;
-        long val1L = 0, val2L = 0;
-        double val1D = 0, val2D = 0;
+        int type1 = toNumeric(stack, op1);
+        int type2 = toNumeric(stack, op2);
 
-        if ((!isNumeric(op1) && op1.getToken() != UNKNOWN)) {
-            if (SelectorConfig.getConvertTypes() && op1.getToken() == STRING) {
-                op1 = convertStringToNumber((String) op1.getValue());
-            } else {
-                throw new SelectorFormatException("Non-numeric argument '" + op1.getValue() + "'", selector);
-            }
+        if (type1 == UNKNOWN || type2 == UNKNOWN) {
+            // Operation with a UNKNOWN argument is always UNKNOWN
+            return UNKNOWN;
         }
 
-        if (op2 != null && (!isNumeric(op2) && op2.getToken() != UNKNOWN)) {
-            if (SelectorConfig.getConvertTypes() && op2.getToken() == STRING) {
-                op2 = convertStringToNumber((String) op2.getValue());
-            } else {
-                throw new SelectorFormatException("Non-numeric argument '" + op2.getValue() + "'", selector);
+        boolean b;
+        if (type1 == LONG && type2 == LONG) {
+            long val1 = stack.longs[op1];
+            long val2 = stack.longs[op2];
+            switch (t) {
+            case EQUALS:
+            case NOT_EQUALS:
+                b = val1 == val2;
+                break;
+            case LT:
+                b = val1 < val2;
+                break;
+            case LTE:
+                b = val1 <= val2;
+                break;
+            case GT:
+                b = val1 > val2;
+                break;
+            case GTE:
+                b = val1 >= val2;
+                break;
+            default:
+                throw new SelectorFormatException("Unknown numeric operation: " + t, selector);
             }
+        } else {
+            double val1 = stack.doubleValue(op1);
+            double val2 = stack.doubleValue(op2);
+            switch (t) {
+            case EQUALS:
+            case NOT_EQUALS:
+                b = val1 == val2;
+                break;
+            case LT:
+                b = val1 < val2;
+                break;
+            case LTE:
+                b = val1 <= val2;
+                break;
+            case GT:
+                b = val1 > val2;
+                break;
+            case GTE:
+                b = val1 >= val2;
+                break;
+            default:
+                throw new SelectorFormatException("Unknown numeric operation: " + t, selector);
+            }
+        }
+        if (t == NOT_EQUALS) {
+            b = !b;
         }
+        return b ? TRUE : FALSE;
+    }
+
+    /**
+     * Perform an arithmetic operation on the stack entries op1 and op2 (op2 is -1 for unary operations). The result
+     * replaces op1.
+     */
+    private void doArithmeticOperation(int t, OperandStack stack, int op1, int op2) throws SelectorFormatException {
+
+        int type1 = toNumeric(stack, op1);
+        int type2 = op2 < 0 ? LONG : toNumeric(stack, op2);
 
-        if (op1.getToken() == UNKNOWN || (op2 != null && op2.getToken() == UNKNOWN)) {
+        if (type1 == UNKNOWN || type2 == UNKNOWN) {
             // Operation with a UNKNOWN argument is always UNKNOWN
-            return SelectorToken.getInstance(UNKNOWN);
+            stack.types[op1] = UNKNOWN;
+            stack.values[op1] = SelectorToken.unknownToken.getValue();
+            return;
         }
 
-        if (op1.getValue() instanceof Long) {
-            is1L = true;
-            val1L = ((Long) op1.getValue()).longValue();
-            val1D = ((Long) op1.getValue()).doubleValue();
-        } else {
-            is1L = false;
-            val1L = ((Double) op1.getValue()).longValue();
-            val1D = ((Double) op1.getValue()).doubleValue();
+        if (t == UNARY_PLUS) {
+            // Unary plus is a no-op
+            return;
         }
-
-        if (op2 != null) {
-            if (op2.getValue() instanceof Long) {
-                is2L = true;
-                val2L = ((Long) op2.getValue()).longValue();
-                val2D = ((Long) op2.getValue()).doubleValue();
+        if (t == UNARY_MINUS) {
+            if (type1 == LONG) {
+                stack.setLong(op1, -stack.longs[op1]);
             } else {
-                is2L = false;
-                val2L = ((Double) op2.getValue()).longValue();
-                val2D = ((Double) op2.getValue()).doubleValue();
+                stack.setDouble(op1, -stack.doubles[op1]);
             }
+            return;
         }
 
-        switch (t.getToken()) {
-        case EQUALS:
-        case NOT_EQUALS:
-            if (is1L && is2L) {
-                b = val1L == val2L;
-            } else if (is1L) {
-                b = val1L == val2D;
-            } else if (is2L) {
-                b = val1D == val2L;
-            } else {
-                b = val1D == val2D;
-            }
-            if (t.getToken() == EQUALS) {
-                return SelectorToken.getInstance(b ? TRUE : FALSE);
-            } else {
-                return SelectorToken.getInstance(b ? FALSE : TRUE);
-            }
-
-        case LT:
-            if (is1L && is2L) {
-                b = val1L < val2L;
-            } else if (is1L) {
-                b = val1L < val2D;
-            } else if (is2L) {
-                b = val1D < val2L;
-            } else {
-                b = val1D < val2D;
-            }
-            return SelectorToken.getInstance(b ? TRUE : FALSE);
-        case LTE:
-            if (is1L && is2L) {
-                b = val1L <= val2L;
-            } else if (is1L) {
-                b = val1L <= val2D;
-            } else if (is2L) {
-                b = val1D <= val2L;
-            } else {
-                b = val1D <= val2D;
-            }
-            return SelectorToken.getInstance(b ? TRUE : FALSE);
-        case GT:
-            if (is1L && is2L) {
-                b = val1L > val2L;
-            } else if (is1L) {
-                b = val1L > val2D;
-            } else if (is2L) {
-                b = val1D > val2L;
-            } else {
-                b = val1D > val2D;
-            }
-            return SelectorToken.getInstance(b ? TRUE : FALSE);
-        case GTE:
-            if (is1L && is2L) {
-                b = val1L >= val2L;
-            } else if (is1L) {
-                b = val1L >= val2D;
-            } else if (is2L) {
-                b = val1D >= val2L;
-            } else {
-                b = val1D >= val2D;
-            }
-            return SelectorToken.getInstance(b ? TRUE : FALSE);
-        case PLUS:
-            if (is1L && is2L) {
-                long v = val1L + val2L;
-                return SelectorToken.getInstance(LONG, Long.valueOf(v));
-            } else {
-                double d = val1D + val2D;
-                return SelectorToken.getInstance(DOUBLE, Double.valueOf(d));
-            }
-        case UNARY_PLUS:
-            // Unary plus is a no-op
-            return (op1);
-
-        case MINUS:
-            if (is1L && is2L) {
-                long v = val1L - val2L;
-                return SelectorToken.getInstance(LONG, Long.valueOf(v));
-            } else {
-                double d = val1D - val2D;
-                return SelectorToken.getInstance(DOUBLE, Double.valueOf(d));
-            }
-        case UNARY_MINUS:
-            if (is1L) {
-                long v = -val1L;
-                return SelectorToken.getInstance(LONG, Long.valueOf(v));
-            } else {
-                double d = -val1D;
-                return SelectorToken.getInstance(DOUBLE, Double.valueOf(d));
-            }
-        case MULTIPLY:
-            if (is1L && is2L) {
-                long v = val1L * val2L;
-                return SelectorToken.getInstance(LONG, Long.valueOf(v));
-            } else {
-                double d = val1D * val2D;
-                return SelectorToken.getInstance(DOUBLE, Double.valueOf(d));
+        if (type1 == LONG && type2 == LONG) {
+            long val1 = stack.longs[op1];
+            long val2 = stack.longs[op2];
+            switch (t) {
+            case PLUS:
+                stack.setLong(op1, val1 + val2);
+                break;
+            case MINUS:
+                stack.setLong(op1, val1 - val2);
+                break;
+            case MULTIPLY:
+                stack.setLong(op1, val1 * val2);
+                break;
+            case DIVIDE:
+                stack.setLong(op1, val1 / val2);
+                break;
+            default:
+                throw new SelectorFormatException("Unknown numeric operation: " + t, selector);
             }
-        case DIVIDE:
-            if (is1L && is2L) {
-                long v = val1L / val2L;
-                return SelectorToken.getInstance(LONG, Long.valueOf(v));
-            } else {
-                double d = val1D / val2D;
-                return SelectorToken.getInstance(DOUBLE, Double.valueOf(d));
+        } else {
+            double val1 = stack.doubleValue(op1);
+            double val2 = stack.doubleValue(op2);
+            switch (t) {
+            case PLUS:
+                stack.setDouble(op1, val1 + val2);
+                break;
+            case MINUS:
+                stack.setDouble(op1, val1 - val2);
+                break;
+            case MULTIPLY:
+                stack.setDouble(op1, val1 * val2);
+                break;
+            case DIVIDE:
+                stack.setDouble(op1, val1 / val2);
+                break;
+            default:
+                throw new SelectorFormatException("Unknown numeric operation: " + t, selector);
             }
-        default:
-            throw new SelectorFormatException("Unknown numeric operation: " + t, selector);
         }
-
-    }
-
-    private static boolean isNumeric(SelectorToken t) {
-        int tok = t.getToken();
-        return ((tok == DOUBLE) || (tok == LONG));
     }
 
     private static boolean isOperator(SelectorToken t) {
@@ -1,7 +1,7 @@
 /*
  * Copyright (c) 2000, 2018 Oracle and/or its affiliates. All rights reserved.
  * Copyright (c) 2020 Payara Services Ltd.
- * Copyright (c) 2025 Contributors to Eclipse Foundation
+ * Copyright (c) 2025, 2026 Contributors to Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -39,6 +39,12 @@ public final class SelectorConfig {
      */
     private static boolean convertTypes = false;
 
+    /*
+     * A selector that has been evaluated this many times is compiled into a tree of predicate nodes (see
+     * CompiledPredicate), which is faster than interpreting the RPN token stream. A negative value disables this.
+     */
+    private static int compileThreshold = 1000;
+
     public static void setShortCircuit(boolean b) {
         shortCircuit = b;
     }
@@ -62,4 +68,12 @@ public final class SelectorConfig {
     public static boolean getConvertTypes() {
         return convertTypes;
     }
+
+    public static void setCompileThreshold(int n) {
+        compileThreshold = n;
+    }
+
+    public static int getCompileThreshold() {
+        return compileThreshold;
+    }
 }
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.util.selector;
+
+import java.util.*;
+
+/**
+ * An index over a set of Selectors that narrows down the selectors that can possibly match a message.
+ * <p>
+ * Each selector is reduced to its top level conjuncts of the form <code>identifier = literal</code> and
+ * <code>identifier IN (...)</code> (see Selector.getIndexPredicates()). A selector can only match a message if the
+ * message satisfies all of them, so the index looks up the message property values and counts, per selector, how many
+ * of its predicates are satisfied. Only selectors that reach their predicate count, plus the selectors that have no
+ * indexable predicate at all, are returned as candidates. Candidates still have to be evaluated with
+ * Selector.match(); the index never returns false negatives, but may return false positives.
+ * <p>
+ * If a property value has a type that the literal can not be compared with directly (for example a String property
+ * compared to a numeric literal) the predicate is considered satisfied, leaving the outcome (which may be an evaluation
+ * error) to Selector.match(). Note that selectors that are not returned are not evaluated at all, so evaluation errors
+ * they would have raised for a message are not reported.
+ * <p>
+ * The index is built for many lookups and few changes. add() and remove() only mark the index dirty; the lookup
+ * structure is rebuilt on the next call to getCandidates().
+ */
+public class SelectorIndex {
+
+    /**
+     * A top level predicate of a selector. The values of a String predicate are the Strings the property may be equal
+     * to, the values of a numeric predicate are numeric keys as returned by numericKey().
+     */
+    static final class Predicate {
+        final String name;
+        final boolean numeric;
+        final Set<?> values;
+
+        Predicate(String name, boolean numeric, Set<?> values) {
+            this.name = name;
+            this.numeric = numeric;
+            this.values = values;
+        }
+    }
+
+    /**
+     * A selector with at least one indexed predicate
+     */
+    private static final class Entry {
+        final Selector selector;
+        final int id;
+        final int required;
+
+        Entry(Selector selector, int id, int required) {
+            this.selector = selector;
+            this.id = id;
+            this.required = required;
+        }
+    }
+
+    /**
+     * All indexed predicates on one property
+     */
+    private static final class Attribute {
+        final String name;
+        final Map<Object, List<Entry>> strings = new HashMap<>();
+        final Map<Object, List<Entry>> numbers = new HashMap<>();
+        // one element per String (numeric) predicate on this property
+        final List<Entry> stringPredicates = new ArrayList<>();
+        final List<Entry> numericPredicates = new ArrayList<>();
+
+        Attribute(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Immutable lookup structure
+     */
+    private static final class Snapshot {
+        final Selector[] unindexed;
+        final Attribute[] attributes;
+        final int entries;
+
+        Snapshot(Selector[] unindexed, Attribute[] attributes, int entries) {
+            this.unindexed = unindexed;
+            this.attributes = attributes;
+            this.entries = entries;
+        }
+    }
+
+    private final Set<Selector> selectors = new LinkedHashSet<>();
+
+    private volatile Snapshot snapshot = null;
+
+    /**
+     * Add a selector to the index.
+     */
+    public synchronized void add(Selector selector) {
+        if (selectors.add(selector)) {
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Remove a selector from the index.
+     */
+    public synchronized void remove(Selector selector) {
+        if (selectors.remove(selector)) {
+            snapshot = null;
+        }
+    }
+
+    public synchronized int size() {
+        return selectors.size();
+    }
+
+    /**
+     * Check if the index has to look at message properties to select candidates.
+     *
+     * @return true if getCandidates() needs the message properties, false if it may be called with null properties
+     */
+    public boolean usesProperties() {
+        return getSnapshot().attributes.length > 0;
+    }
+
+    /**
+     * Return the selectors that may match a message with the passed properties.
+     *
+     * @param properties the message properties. May be null if usesProperties() returns false
+     * @return the candidate selectors, in no particular order
+     */
+    public List<Selector> getCandidates(Map<?, ?> properties) {
+        Snapshot snap = getSnapshot();
+        List<Selector> candidates = new ArrayList<>(snap.unindexed.length + 8);
+        Collections.addAll(candidates, snap.unindexed);
+        if (snap.attributes.length == 0 || properties == null) {
+            return candidates;
+        }
+
+        int[] hits = new int[snap.entries];
+        for (Attribute a : snap.attributes) {
+            Object value = properties.get(a.name);
+            if (value == null) {
+                // The selector evaluates to unknown or false
+                continue;
+            }
+            if (value instanceof String) {
+                hit(a.strings.get(value), hits, candidates);
+                hit(a.numericPredicates, hits, candidates);
+            } else if (isNumber(value)) {
+                hit(a.numbers.get(numericKey((Number) value)), hits, candidates);
+                hit(a.stringPredicates, hits, candidates);
+            } else {
+                hit(a.stringPredicates, hits, candidates);
+                hit(a.numericPredicates, hits, candidates);
+            }
+        }
+        return candidates;
+    }
+
+    private static void hit(List<Entry> entries, int[] hits, List<Selector> candidates) {
+        if (entries == null) {
+            return;
+        }
+        for (int i = 0, len = entries.size(); i < len; i++) {
+            Entry e = entries.get(i);
+            if (++hits[e.id] == e.required) {
+                candidates.add(e.selector);
+            }
+        }
+    }
+
+    private static boolean isNumber(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Double || value instanceof Float || value instanceof Short
+                || value instanceof Byte;
+    }
+
+    /**
+     * Return the key under which a numeric literal or property value is indexed. Two values that compare equal in a
+     * selector always have equal keys.
+     */
+    static Object numericKey(Number n) {
+        double d = n.doubleValue();
+        // -0.0 = 0.0 in a selector, but not for Double.equals()
+        return Double.valueOf(d == 0.0 ? 0.0 : d);
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot snap = snapshot;
+        if (snap == null) {
+            synchronized (this) {
+                snap = snapshot;
+                if (snap == null) {
+                    snap = build();
+                    snapshot = snap;
+                }
+            }
+        }
+        return snap;
+    }
+
+    private Snapshot build() {
+        List<Selector> unindexed = new ArrayList<>();
+        Map<String, Attribute> attributes = new LinkedHashMap<>();
+        int id = 0;
+        for (Selector selector : selectors) {
+            List<Predicate> predicates = selector.getIndexPredicates();
+            if (predicates.isEmpty()) {
+                unindexed.add(selector);
+                continue;
+            }
+            Entry e = new Entry(selector, id++, predicates.size());
+            for (Predicate p : predicates) {
+                Attribute a = attributes.computeIfAbsent(p.name, Attribute::new);
+                Map<Object, List<Entry>> values = p.numeric ? a.numbers : a.strings;
+                for (Object v : p.values) {
+                    values.computeIfAbsent(v, k -> new ArrayList<>(2)).add(e);
+                }
+                (p.numeric ? a.numericPredicates : a.stringPredicates).add(e);
+            }
+        }
+        return new Snapshot(unindexed.toArray(new Selector[0]), attributes.values().toArray(new Attribute[0]), id);
+    }
+}
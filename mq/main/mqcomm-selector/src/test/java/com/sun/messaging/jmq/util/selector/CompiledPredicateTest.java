@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.util.selector;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class CompiledPredicateTest {
+    private static final String[] SELECTORS = {
+        "a = 5",
+        "5 = a",
+        "a <> 5",
+        "a > 2.5 AND a <= 10",
+        "3 < a OR b = 'x'",
+        "a * 2 + c / 4 > 10.5",
+        "-a < 0 AND +c >= -1",
+        "a / c = 2",
+        "a = c",
+        "a <> c",
+        "b = 'x'",
+        "'x' <> b",
+        "b = s",
+        "b = 'unknown'",
+        "flag = TRUE",
+        "flag <> FALSE OR a IS NULL",
+        "a BETWEEN 1 AND 10",
+        "a NOT BETWEEN c AND 10",
+        "b IN ('x', 'y', 'true')",
+        "b NOT IN ('x', 'y')",
+        "flag IN ('true')",
+        "s LIKE 'ab%'",
+        "s LIKE '%yz'",
+        "s LIKE '%cd%'",
+        "s LIKE 'abc'",
+        "s LIKE '%'",
+        "s LIKE 'a_c%'",
+        "s NOT LIKE 'a\\%%' ESCAPE '\\'",
+        "b LIKE 'x'",
+        "a IS NULL",
+        "s IS NOT NULL AND NOT (a > 3)",
+        "NOT (a > 1 AND b = 'x') OR (c < 0 AND s LIKE '%')",
+        "JMSPriority > 4 AND JMSType = 'order'",
+        "a > 1 AND b = 2",
+        "TRUE",
+        "NOT FALSE AND TRUE" };
+
+    private static final Object[] VALUES = { null, 0, 5, 7L, (short) -3, (byte) 2, 2.5d, 5.0f, -0.0d, Double.NaN, Long.MAX_VALUE, "x", "y",
+        "5", "", "abc", "abcdyz", "a%c", "unknown", "true", Boolean.TRUE, Boolean.FALSE, new Object() };
+
+    private static final String[] STRINGS = { null, "", "abc", "abyz", "xcdx", "a%bc", "a_c", "x", "ab" };
+
+    @Test
+    void compiledPredicateShouldAgreeWithInterpreter() throws SelectorFormatException {
+        Random random = new Random(1234);
+        for (String s : SELECTORS) {
+            Selector selector = Selector.compile(s);
+            CompiledPredicate predicate = CompiledPredicate.compile(selector.getExpressionTree());
+            assertThat(predicate).as(s).isNotNull();
+
+            for (int n = 0; n < 3000; n++) {
+                Map<Object, Object> props = new HashMap<>();
+                put(props, "a", VALUES[random.nextInt(VALUES.length)]);
+                put(props, "b", VALUES[random.nextInt(VALUES.length)]);
+                put(props, "c", VALUES[random.nextInt(VALUES.length)]);
+                put(props, "flag", VALUES[random.nextInt(VALUES.length)]);
+                put(props, "s", random.nextBoolean() ? STRINGS[random.nextInt(STRINGS.length)] : VALUES[random.nextInt(VALUES.length)]);
+                Map<Object, Object> fields = new HashMap<>();
+                fields.put("JMSPriority", random.nextInt(10));
+                fields.put("JMSType", random.nextBoolean() ? "order" : "quote");
+
+                Object expected = evaluate(() -> selector.matchInterpreted(props, fields));
+                Object actual = evaluate(() -> predicate.match(props, fields));
+                if (!(actual instanceof CompiledPredicate.Deopt)) {
+                    assertThat(actual).as("%s for %s", s, props).isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    void unsupportedExpressionsShouldNotBeCompiled() throws SelectorFormatException {
+        assertThat(CompiledPredicate.compile(Selector.compile("(a > 1) = TRUE").getExpressionTree())).isNull();
+        assertThat(CompiledPredicate.compile(Selector.compile("(a > 1) IS NULL").getExpressionTree())).isNull();
+    }
+
+    @Test
+    void selectorShouldSwitchToCompiledPredicate() throws SelectorFormatException {
+        Selector selector = Selector.compile("region = 'EU' AND tenant BETWEEN 1 AND 9 AND tenant / divisor > 0");
+        Map<Object, Object> props = new HashMap<>();
+        props.put("region", "EU");
+        props.put("tenant", 3);
+        props.put("divisor", 1);
+        for (int i = 0; i <= SelectorConfig.getCompileThreshold(); i++) {
+            assertThat(selector.match(props, null)).isTrue();
+        }
+        assertThat(selector.getCompiledPredicate()).isNotNull();
+
+        // Division by zero is left to the interpreter
+        props.put("divisor", 0);
+        assertThatThrownBy(() -> selector.match(props, null)).isInstanceOf(SelectorFormatException.class);
+        props.put("region", "US");
+        assertThat(selector.match(props, null)).isFalse();
+    }
+
+    private interface Evaluation {
+        boolean run() throws Exception;
+    }
+
+    /**
+     * @return the result, or the class of the exception thrown
+     */
+    private static Object evaluate(Evaluation e) {
+        try {
+            return e.run();
+        } catch (CompiledPredicate.Deopt d) {
+            return d;
+        } catch (Exception ex) {
+            return ex.getClass();
+        }
+    }
+
+    private static void put(Map<Object, Object> props, String name, Object value) {
+        if (value != null) {
+            props.put(name, value);
+        }
+    }
+}
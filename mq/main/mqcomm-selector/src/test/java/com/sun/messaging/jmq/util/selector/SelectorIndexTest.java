@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.util.selector;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class SelectorIndexTest {
+    private static final String[] SELECTORS = {
+        "region = 'EU' AND tenant = 42",
+        "region = 'US' AND tenant = 42",
+        "tenant = 7 AND region IN ('EU', 'APAC')",
+        "region = 'EU'",
+        "'APAC' = region",
+        "tenant = 42.0",
+        "tenant = 7 OR region = 'US'",
+        "NOT region = 'EU'",
+        "region = 'EU' AND (tenant > 10 OR tenant IS NULL)",
+        "color LIKE 'r%' AND region = 'US'",
+        "tenant BETWEEN 5 AND 10 AND region <> 'EU'",
+        "flag = TRUE" };
+
+    private static final Object[] REGIONS = { null, "EU", "US", "APAC", "eu" };
+    private static final Object[] TENANTS = { null, 7, 42L, 42.0d, (short) 5, 0.5f, -0.0d };
+
+    @Test
+    void candidatesShouldIncludeEveryMatchingSelector() throws SelectorFormatException {
+        SelectorIndex index = new SelectorIndex();
+        List<Selector> all = new ArrayList<>();
+        for (String s : SELECTORS) {
+            Selector selector = Selector.compile(s);
+            all.add(selector);
+            index.add(selector);
+        }
+
+        Random random = new Random(4711);
+        for (int n = 0; n < 2000; n++) {
+            Map<Object, Object> props = new HashMap<>();
+            putIfNotNull(props, "region", REGIONS[random.nextInt(REGIONS.length)]);
+            putIfNotNull(props, "tenant", TENANTS[random.nextInt(TENANTS.length)]);
+            props.put("color", random.nextBoolean() ? "red" : "blue");
+            props.put("flag", random.nextBoolean());
+
+            List<Selector> candidates = index.getCandidates(props);
+            for (Selector selector : all) {
+                if (selector.match(props, null)) {
+                    assertThat(candidates).as("%s for %s", selector, props).contains(selector);
+                }
+            }
+            assertThat(candidates).doesNotHaveDuplicates();
+        }
+    }
+
+    @Test
+    void candidatesShouldOnlyContainSelectorsWithSatisfiedPredicates() throws SelectorFormatException {
+        SelectorIndex index = new SelectorIndex();
+        Selector eu42 = Selector.compile("region = 'EU' AND tenant = 42");
+        Selector us42 = Selector.compile("region = 'US' AND tenant = 42");
+        Selector apac = Selector.compile("region IN ('APAC', 'LATAM')");
+        Selector unindexed = Selector.compile("tenant > 10");
+        index.add(eu42);
+        index.add(us42);
+        index.add(apac);
+        index.add(unindexed);
+
+        Map<Object, Object> props = new HashMap<>();
+        props.put("region", "EU");
+        props.put("tenant", 42);
+        assertThat(index.getCandidates(props)).containsExactlyInAnyOrder(eu42, unindexed);
+
+        props.put("region", "LATAM");
+        assertThat(index.getCandidates(props)).containsExactlyInAnyOrder(apac, unindexed);
+
+        index.remove(unindexed);
+        props.put("region", "US");
+        assertThat(index.getCandidates(props)).containsExactly(us42);
+        assertThat(index.getCandidates(new HashMap<>())).isEmpty();
+    }
+
+    @Test
+    void typeMismatchShouldLeaveEvaluationToSelector() throws SelectorFormatException {
+        SelectorIndex index = new SelectorIndex();
+        Selector numeric = Selector.compile("tenant = 42");
+        index.add(numeric);
+
+        Map<Object, Object> props = new HashMap<>();
+        props.put("tenant", "42");
+        assertThat(index.getCandidates(props)).containsExactly(numeric);
+    }
+
+    private static void putIfNotNull(Map<Object, Object> props, String name, Object value) {
+        if (value != null) {
+            props.put(name, value);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.util.selector;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+class SelectorTest {
+    private static Map<Object, Object> props(Object... keyValues) {
+        Map<Object, Object> props = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            props.put(keyValues[i], keyValues[i + 1]);
+        }
+        return props;
+    }
+
+    @Test
+    void numericOperationsShouldMixLongsAndDoubles() throws SelectorFormatException {
+        Selector selector = Selector.compile("a * 2 + b / 4 > 10.5 AND -a < 0");
+
+        assertThat(selector.match(props("a", 5, "b", 2.5f), null)).isTrue();
+        assertThat(selector.match(props("a", 5L, "b", 2), null)).isFalse();
+        assertThat(selector.match(props("a", (short) 5), null)).isFalse();
+    }
+
+    @Test
+    void betweenInLikeAndNullShouldBeEvaluated() throws SelectorFormatException {
+        Selector selector = Selector.compile("n BETWEEN -1 AND 3 AND s IN ('x', 'y') AND t LIKE 'a\\_%' ESCAPE '\\' AND u IS NULL");
+
+        assertThat(selector.match(props("n", 3, "s", "y", "t", "a_bc"), null)).isTrue();
+        assertThat(selector.match(props("n", 3, "s", "y", "t", "abc"), null)).isFalse();
+        assertThat(selector.match(props("n", 3.5d, "s", "y", "t", "a_bc"), null)).isFalse();
+        assertThat(selector.match(props("n", 3, "s", "y", "t", "a_bc", "u", "set"), null)).isFalse();
+    }
+
+    @Test
+    void unknownShouldFollowThreeValuedLogic() throws SelectorFormatException {
+        assertThat(Selector.compile("NOT (a > 1)").match(props(), null)).isFalse();
+        assertThat(Selector.compile("a > 1 OR b = TRUE").match(props("b", true), null)).isTrue();
+        assertThat(Selector.compile("NOT (a > 1 AND b = TRUE)").match(props("b", false), null)).isTrue();
+    }
+
+    @Test
+    void typeErrorsShouldBeReported() throws SelectorFormatException {
+        Selector selector = Selector.compile("a = 2");
+
+        assertThatThrownBy(() -> selector.match(props("a", "2"), null)).isInstanceOf(SelectorFormatException.class);
+        assertThatThrownBy(() -> Selector.compile("a / 0 = 1").match(props("a", 1), null)).isInstanceOf(SelectorFormatException.class);
+    }
+
+    @Test
+    void sharedSelectorShouldBeEvaluatedConcurrently() throws Exception {
+        Selector selector = Selector.compile("region = 'EU' AND tenant * 2 BETWEEN 10 AND 100");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int tenant = t;
+                Callable<Boolean> task = () -> {
+                    Map<Object, Object> matching = props("region", "EU", "tenant", 5 + tenant);
+                    Map<Object, Object> other = props("region", "EU", "tenant", 60 + tenant);
+                    for (int i = 0; i < 20000; i++) {
+                        if (!selector.match(matching, null) || selector.match(other, null)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                };
+                results.add(executor.submit(task));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -1,7 +1,7 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
  * Copyright (c) 2020 Payara Services Ltd.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -65,6 +65,14 @@ public class DestMetricsCounters extends HashMap<String, Number> {
     public static final String REJECT_CNT = "numRejectedMsgs";
     public static final String ROLLBACK_CNT = "numRolledbackMsgs";
 
+    // message latency percentiles in microseconds, absent if not measured
+    public static final String PRODUCE_TO_PERSIST_P50 = "produceToPersistP50";
+    public static final String PRODUCE_TO_PERSIST_P99 = "produceToPersistP99";
+    public static final String PERSIST_TO_DELIVER_P50 = "persistToDeliverP50";
+    public static final String PERSIST_TO_DELIVER_P99 = "persistToDeliverP99";
+    public static final String ACK_ROUND_TRIP_P50 = "ackRoundTripP50";
+    public static final String ACK_ROUND_TRIP_P99 = "ackRoundTripP99";
+
     public long timeStamp = 0;
 
     public DestMetricsCounters() {
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright 2021, 2022 Contributors to the Eclipse Foundation
+ * Copyright 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -65,6 +65,17 @@ public class MetricCounters implements Cloneable, Serializable {
     // Number of connections this data represents
     public int nConnections = 1;
 
+    // Message latency percentiles in microseconds: from the arrival of a
+    // persistent message to its store, from its store to its delivery to
+    // a consumer, and from the delivery to the consumer acknowledgement.
+    // 0 if nothing has been measured
+    public long produceToPersistP50 = 0;
+    public long produceToPersistP99 = 0;
+    public long persistToDeliverP50 = 0;
+    public long persistToDeliverP99 = 0;
+    public long ackRoundTripP50 = 0;
+    public long ackRoundTripP99 = 0;
+
     public MetricCounters() {
         inLock = new Object();
         outLock = new Object();
@@ -90,7 +101,7 @@ public class MetricCounters implements Cloneable, Serializable {
     /**
      * Updated input counters
      */
-    public synchronized void updateIn(long messagesIn, long messageBytesIn, long packetsIn, long packetBytesIn) {
+    public void updateIn(long messagesIn, long messageBytesIn, long packetsIn, long packetBytesIn) {
 
         synchronized (inLock) {
             this.messagesIn += messagesIn;
@@ -103,7 +114,7 @@ public class MetricCounters implements Cloneable, Serializable {
     /**
      * Update output counters
      */
-    public synchronized void updateOut(long messagesOut, long messageBytesOut, long packetsOut, long packetBytesOut) {
+    public void updateOut(long messagesOut, long messageBytesOut, long packetsOut, long packetBytesOut) {
 
         synchronized (outLock) {
             this.messagesOut += messagesOut;
@@ -116,7 +127,7 @@ public class MetricCounters implements Cloneable, Serializable {
     /**
      * Update counters using values from another MetricCounters
      */
-    public synchronized void update(MetricCounters counter) {
+    public void update(MetricCounters counter) {
 
         synchronized (inLock) {
             this.messagesIn += counter.messagesIn;
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Packet and message counters of a connection which are updated for every packet. The counters are striped so that
+ * the threads reading and writing the packets of a connection do not contend for a lock, and are copied into a
+ * MetricCounters when the metrics are collected.
+ */
+public final class StripedMetricCounters {
+
+    private final LongAdder messagesIn = new LongAdder();
+    private final LongAdder messageBytesIn = new LongAdder();
+    private final LongAdder packetsIn = new LongAdder();
+    private final LongAdder packetBytesIn = new LongAdder();
+
+    private final LongAdder messagesOut = new LongAdder();
+    private final LongAdder messageBytesOut = new LongAdder();
+    private final LongAdder packetsOut = new LongAdder();
+    private final LongAdder packetBytesOut = new LongAdder();
+
+    /**
+     * Count an input packet, which is a JMS message if message is true
+     */
+    public void countIn(boolean message, int bytes) {
+        if (message) {
+            messagesIn.increment();
+            messageBytesIn.add(bytes);
+        }
+        packetsIn.increment();
+        packetBytesIn.add(bytes);
+    }
+
+    /**
+     * Count an output packet, which is a JMS message if message is true
+     */
+    public void countOut(boolean message, int bytes) {
+        if (message) {
+            messagesOut.increment();
+            messageBytesOut.add(bytes);
+        }
+        packetsOut.increment();
+        packetBytesOut.add(bytes);
+    }
+
+    /**
+     * Reset counters to 0
+     */
+    public void reset() {
+        messagesIn.reset();
+        messageBytesIn.reset();
+        packetsIn.reset();
+        packetBytesIn.reset();
+        messagesOut.reset();
+        messageBytesOut.reset();
+        packetsOut.reset();
+        packetBytesOut.reset();
+    }
+
+    /**
+     * @return a MetricCounters holding the current values of the counters. Counts made while the values are read may be
+     * partly included
+     */
+    public MetricCounters toMetricCounters() {
+        MetricCounters mc = new MetricCounters();
+        mc.updateIn(messagesIn.sum(), messageBytesIn.sum(), packetsIn.sum(), packetBytesIn.sum());
+        mc.updateOut(messagesOut.sum(), messageBytesOut.sum(), packetsOut.sum(), packetBytesOut.sum());
+        return mc;
+    }
+
+    @Override
+    public String toString() {
+        return toMetricCounters().toString();
+    }
+}
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2020, 2024 Contributors to the Eclipse Foundation
+ * Copyright (c) 2020, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -17,6 +17,9 @@
 
 package com.sun.messaging.jmq.util;
 
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
 /**
  * A UniqueID is a 64 bit value that has the following uniqueness properties:
  *
@@ -46,10 +49,14 @@ package com.sun.messaging.jmq.util;
  *
  * The timestamp generates most of the uniqueness. The prefix ID can be used to ensure uniqueness across VMs. The
  * counter helps resolve timestamp collisions within a VM. When a collision is detected the counter field is
- * incremented. If the counter is going to wrap, the code sleeps for 1 ms, wraps the counter, and regenerates the
- * timestamp. Since the max value for the counter is 255 we are limited to generating 255 IDs a millisecond. In practice
- * sleeping for 1 ms almost always takes longer than 1 millisecond (more like 10ms, but this is platform dependent), so
- * our actual throughput is more like 25 IDs a millisecond (25,000 IDs a second).
+ * incremented. If the counter is going to wrap it carries into the timestamp, so the ID borrows the next millisecond
+ * and the timestamp of the IDs runs ahead of the system clock. It may run up to maxLead ms (1 second by default, see
+ * setMaxLead()) ahead, after that the caller waits for the clock to catch up. So bursts of IDs are generated at the
+ * rate of a compare and set, but the sustained rate is limited to 256 IDs a millisecond. IDs generated in a VM with
+ * the same prefix always increase.
+ *
+ * No lock is taken and no thread sleeps to generate an ID: the timestamp and counter of the last ID are kept in one
+ * long which is updated with compare and set.
  *
  * CAVEAT: Setting the system clock back in time can confuse this algorithm. If the system clock is set back in time
  * while the JVM is running then the algorithm will detect this and compensate to continue generating unique IDS. But
@@ -66,11 +73,16 @@ public class UniqueID {
     static final int TIMESTAMP_BITS = 40;
     static final int COUNTER_BITS = 8;
 
-    // Max amount of time in ms we will sleep to account for the system
+    // Max amount of time in ms we will wait to account for the system
     // clock being set backwards.
     static final long MAX_SLEEP_SHIFT = 1000 * 7;
     static long max_sleep_shift = MAX_SLEEP_SHIFT;
 
+    // Max amount of time in ms the timestamp of the IDs may run ahead of
+    // the system clock when more than 256 IDs are generated in a ms.
+    static final long MAX_LEAD = 1000;
+    static volatile long max_lead = Math.max(0L, Long.getLong("com.sun.messaging.uniqueid.maxLead", MAX_LEAD));
+
     // 40 on bits. This is the max value the timestamp can have before it
     // wraps. I think it will wrap in November of 2004. We need this value
     // to correctly compute the age of older timestamps after the wrap.
@@ -83,112 +95,78 @@ public class UniqueID {
     // Max value the counter can have. Counter is unsigned 8 bits, so it is 255
     static final int MAX_COUNTER = 255;
 
-    // Last timestamp generated. Used to check for collisions
-    static long last_timestamp = 0;
+    // Masks off the timestamp and counter bits of an ID
+    static final long STAMP_MASK = (TIMESTAMP_MASK << COUNTER_BITS) | MAX_COUNTER;
 
-    // Current counter value
-    static short counter = 0;
+    // The full timestamp of the last ID generated shifted up COUNTER_BITS,
+    // or'ed with its counter. Used to check for collisions
+    static final AtomicLong last_stamp = new AtomicLong();
 
     // Tells us the number of times we artificially
     // advanced the current timestamp due to the system clock being set
     // backwards
-    static long timestamp_advances = 0;
+    static final AtomicLong timestamp_advances = new AtomicLong();
 
     /*
      * Generate an ID using the passed short as a prefix
      */
-    public static synchronized long generateID(short prefix) {
-
-        long curr_timestamp = System.currentTimeMillis();
-
-        // Check for timestamp collision
-
-        if (curr_timestamp > last_timestamp) {
-            // No collision. Remember this timestamp and reset counter
-            last_timestamp = curr_timestamp;
-            counter = 0;
-        } else if (curr_timestamp < last_timestamp) {
-            // Bummer. Clock was set backwards.
-            long delta = last_timestamp - curr_timestamp;
-
-            // If it's not off by much sleep to let the current time catch up
-            if (delta <= max_sleep_shift) {
-                while (curr_timestamp <= last_timestamp) {
-                    try {
-                        Thread.currentThread().sleep(last_timestamp - curr_timestamp);
-                    } catch (Exception e) {
-                    }
-                    curr_timestamp = System.currentTimeMillis();
-                }
+    public static long generateID(short prefix) {
+
+        long id;
+        do {
+            // prefix becomes bits 0-15 of id
+            id = prefix;
+            id = (id << (TIMESTAMP_BITS + COUNTER_BITS));
+
+            // Mask off top 24 bits of timestamp. That means keep bottom 40 bits
+            // which become bits 16-55 of id, the counter becomes last 8 bits
+            id = id | (nextStamp() & STAMP_MASK);
+
+            // We need to guarantee an id is never 0. Note that this
+            // is incredibly unlikely to ever happen. The next stamp is
+            // larger, so just regenerate the ID.
+        } while (id == 0);
+
+        return id;
+    }
+
+    private static long nextStamp() {
+        for (;;) {
+            long last = last_stamp.get();
+            long last_timestamp = last >>> COUNTER_BITS;
+            long curr_timestamp = System.currentTimeMillis();
+            long next;
+
+            if (curr_timestamp > last_timestamp) {
+                // No collision. Use this timestamp and reset counter
+                next = curr_timestamp << COUNTER_BITS;
+            } else if ((last & MAX_COUNTER) < MAX_COUNTER || last_timestamp + 1 - curr_timestamp <= max_lead) {
+                // Collision, or the clock is behind the last timestamp. Use the
+                // counter to resolve it, if the counter wraps it carries into
+                // the timestamp.
+                next = last + 1;
+            } else if (last_timestamp - curr_timestamp <= max_sleep_shift) {
+                // The counter is about to wrap and we are as far ahead of the
+                // clock as we may be, or the clock was set back by not much.
+                // Wait for the current time to catch up.
+                LockSupport.parkNanos(100_000L);
+                continue;
             } else {
-                // We don't want to pause for too long so we
-                // artificially make the current timestamp unique by
-                // setting the current timestamp to be the last timestamp + 1
+                // Bummer. Clock was set backwards by a lot. We don't want to
+                // pause for too long so we artificially make the current
+                // timestamp unique by carrying into the last timestamp.
                 // Hopefully over time the current time will catchup
-                curr_timestamp = last_timestamp + 1;
-                timestamp_advances++;
-                if ((timestamp_advances % 200) == 0) {
-                    // Every 200 times we do this sleep 200 ms so we don't
-                    // outrun realtime. Note that when we hit this mode
-                    // our throughput drops to ~1000 ids a second.
-                    try {
-                        Thread.currentThread().sleep(100);
-                    } catch (Exception e) {
-                    }
-                }
-            }
-            last_timestamp = curr_timestamp;
-            counter = 0;
-        } else if (counter < MAX_COUNTER) {
-            // Collision, but we can use the counter to resolve
-            counter++;
-        } else {
-            // Collision, and counter is about to wrap which would generate
-            // a duplicate id. Sleep for 1 ms and get a new timestamp.
-            counter = 0;
-            // This is in a loop in case sleep doesn't go for a full ms.
-            // Unfortunately the problem is sleep usually (on Solaris)
-            // sleeps for a minimum ~10 ms.
-            // That means instead of getting ~255,000 ids
-            // a second we get ~25,000 ids a second. To generate ids faster
-            // remove the sleep (this gets us to ~248,000), but that
-            // generates a larger load on the system as we spin in the loop.
-            while (curr_timestamp <= last_timestamp) {
-                try {
-                    Thread.currentThread().sleep(1);
-                } catch (Exception e) {
+                next = last + 1;
+                if ((timestamp_advances.incrementAndGet() % (200L << COUNTER_BITS)) == 0) {
+                    // Every now and then pause so we don't outrun realtime.
+                    LockSupport.parkNanos(100_000_000L);
                 }
-                curr_timestamp = System.currentTimeMillis();
             }
-            last_timestamp = curr_timestamp;
-        }
-
-        // prefix becomes bits 0-15 of id
-        long id = prefix;
-        id = (id << (TIMESTAMP_BITS + COUNTER_BITS));
 
-        // Mask off top 24 bits of timestamp. That means keep bottom 40 bits
-        // Then shift curr_timestamp up 8 bits so it becomes bits
-        // 16-55 of id
-        curr_timestamp = ((curr_timestamp & TIMESTAMP_MASK) << COUNTER_BITS);
-        id = id | curr_timestamp;
-
-        // counter becomes last 8 bits
-        id = id | counter;
-
-        if (id == 0) {
-            // System.out.println("Ack!! Zero ID");
-            // We need to guarantee an id is never 0. Note that this
-            // is incredibly unlikely to ever happen. We sleep to
-            // force the timestamp to increment, and regenerate the ID.
-            try {
-                Thread.currentThread().sleep(100);
-            } catch (Exception e) {
+            if (last_stamp.compareAndSet(last, next)) {
+                return next;
             }
-            id = generateID(prefix);
         }
-
-        return id;
     }
 
     /*
@@ -208,6 +186,9 @@ public class UniqueID {
 
         if (curr_time > id_time) {
             return curr_time - id_time;
+        } else if (id_time - curr_time <= max_lead) {
+            // ID was generated in a burst which ran ahead of the clock
+            return 0;
         } else {
             // ID was generated before wrap date, and current time is
             // after wrap date. Adjust accordingly.
@@ -215,6 +196,17 @@ public class UniqueID {
         }
     }
 
+    /**
+     * Set the maxLead parameter. Max amount of time in ms the timestamp of the IDs may run ahead of the system clock when
+     * more than 256 IDs are generated in a millisecond. Default is 1 second, or the value of the
+     * com.sun.messaging.uniqueid.maxLead system property. 0 makes callers wait for the next millisecond instead. IDs
+     * generated ahead of the clock could be generated again by a VM which is restarted within this time with the same
+     * prefix.
+     */
+    public static void setMaxLead(long n) {
+        max_lead = Math.max(0L, n);
+    }
+
     /**
      * Set the maxSleepShift parameter. Max amount of time in ms we will sleep to account for the system clock being set
      * backwards. Default is 7 seconds. If the shift is larger than this we just compensate by adding 1 to the last ID's
@@ -0,0 +1,564 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.util.timer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import com.sun.messaging.jmq.util.LoggerWrapper;
+
+/**
+ * A hierarchical timing wheel for large numbers of timeouts, such as message expiration and delivery times.
+ * <p>
+ * The wheel has LEVELS levels of SIZE buckets. A bucket of level 0 holds the timeouts due in one tick, a bucket of level
+ * n covers SIZE^n ticks. Timeouts are kept in doubly linked bucket lists, and are moved down a level when the wheel
+ * reaches their bucket (cascading), so scheduling and canceling a timeout are O(1). schedule() and Timeout.cancel() only
+ * add the timeout to a queue; all bucket manipulation is done by the wheel thread, so callers never contend on a lock.
+ * <p>
+ * A timeout never fires early; it fires at most one tick late, plus the time the wheel thread spends in handlers. The
+ * timeouts that are due at the same time are passed to their Handler in one batch, in no particular order. Handlers are
+ * called on the wheel thread and should not block; a handler that does I/O should be wrapped with onExecutor(). getLastLag()
+ * and getMaxLag() report how late timeouts fired.
+ */
+public class TimingWheel implements Runnable {
+    private static boolean DEBUG = false;
+
+    private static final int BITS = 8;
+    private static final int SIZE = 1 << BITS;
+    private static final int MASK = SIZE - 1;
+    private static final int LEVELS = 4;
+
+    // The longest delay that fits into the wheel, in ticks. Later
+    // timeouts are parked in the last bucket of the top level.
+    private static final long MAX_TICKS = (1L << (BITS * LEVELS)) - 1;
+
+    /**
+     * Receives the timeouts that are due.
+     */
+    public interface Handler<T> {
+        /**
+         * @param items the items of all timeouts of this handler that are due
+         */
+        void timeoutsExpired(List<T> items);
+    }
+
+    /**
+     * Wrap a handler so that its batches are run on an executor instead of the wheel thread. The batches of one wrapper
+     * are run one at a time and in the order they expired, so the handler needs no more synchronization than before. If
+     * the executor rejects a batch it is run on the calling thread. Handler failures are logged like those of handlers
+     * that run on the wheel thread.
+     *
+     * @param handler the handler to run on executor
+     * @param executor the executor
+     * @return the handler to pass to schedule()
+     */
+    public <T> Handler<T> onExecutor(Handler<T> handler, Executor executor) {
+        return new ExecutorHandler<>(handler, executor);
+    }
+
+    private final class ExecutorHandler<T> implements Handler<T>, Runnable {
+        private final Handler<T> handler;
+        private final Executor executor;
+        private final ConcurrentLinkedQueue<List<T>> batches = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+        ExecutorHandler(Handler<T> handler, Executor executor) {
+            this.handler = handler;
+            this.executor = executor;
+        }
+
+        @Override
+        public void timeoutsExpired(List<T> items) {
+            batches.add(items);
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    run();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            do {
+                List<T> items;
+                while ((items = batches.poll()) != null) {
+                    try {
+                        handler.timeoutsExpired(items);
+                    } catch (RuntimeException e) {
+                        log(name + ": " + handler + ": " + e.getMessage(), e);
+                    }
+                }
+                scheduled.set(false);
+                // A batch added after the last poll but before the flag was
+                // cleared has not been scheduled by its producer
+            } while (!batches.isEmpty() && scheduled.compareAndSet(false, true));
+        }
+
+        @Override
+        public String toString() {
+            return handler.toString();
+        }
+    }
+
+    private static final int INIT = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private static final AtomicIntegerFieldUpdater<Timeout> STATE = AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+    /**
+     * A scheduled timeout.
+     */
+    public static final class Timeout {
+        private final TimingWheel wheel;
+        private final Handler<?> handler;
+        private final Object item;
+        private final long deadline;
+        private volatile int state = INIT;
+
+        // The following are only used by the wheel thread
+        private long deadlineTick;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        Timeout(TimingWheel wheel, Handler<?> handler, Object item, long deadline) {
+            this.wheel = wheel;
+            this.handler = handler;
+            this.item = item;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancel this timeout.
+         *
+         * @return true if the timeout was canceled, false if it has already expired or been canceled
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, INIT, CANCELLED)) {
+                return false;
+            }
+            wheel.live.decrementAndGet();
+            wheel.cancelled.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        @Override
+        public String toString() {
+            return "Timeout[" + item + ", " + deadline + "]" + state;
+        }
+    }
+
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout t) {
+            t.bucket = this;
+            t.prev = tail;
+            t.next = null;
+            if (tail == null) {
+                head = t;
+            } else {
+                tail.next = t;
+            }
+            tail = t;
+        }
+
+        void remove(Timeout t) {
+            if (t.prev == null) {
+                head = t.next;
+            } else {
+                t.prev.next = t.next;
+            }
+            if (t.next == null) {
+                tail = t.prev;
+            } else {
+                t.next.prev = t.prev;
+            }
+            t.bucket = null;
+            t.prev = null;
+            t.next = null;
+        }
+
+        /**
+         * Empty the bucket
+         *
+         * @return the first timeout of the removed list
+         */
+        Timeout detach() {
+            Timeout h = head;
+            head = null;
+            tail = null;
+            return h;
+        }
+
+        boolean isEmpty() {
+            return head == null;
+        }
+    }
+
+    private final String name;
+    private final long tick;
+    private final LoggerWrapper logger;
+
+    private final ConcurrentLinkedQueue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger live = new AtomicInteger();
+
+    // Only used by the wheel thread
+    private final Bucket[][] buckets = new Bucket[LEVELS][SIZE];
+    private final long startTime;
+    private long currentTick = 0L;
+    private int placed = 0;
+
+    private final Object lock = new Object();
+    private boolean wakeup = false;
+    private volatile long nextWakeup = 0L;
+    private volatile boolean valid = true;
+    private Thread thr = null;
+
+    private final AtomicLong expiredCount = new AtomicLong();
+    private volatile long lastLag = 0L;
+    private volatile long maxLag = 0L;
+
+    /**
+     * @param name the name of the wheel thread
+     * @param tickInterval the length of a tick in milliseconds
+     * @param logger used to report handler failures, may be null
+     */
+    public TimingWheel(String name, long tickInterval, LoggerWrapper logger) {
+        if (tickInterval <= 0L) {
+            throw new IllegalArgumentException("Invalid tick interval " + tickInterval);
+        }
+        this.name = name;
+        this.tick = tickInterval;
+        this.logger = logger;
+        for (int l = 0; l < LEVELS; l++) {
+            for (int i = 0; i < SIZE; i++) {
+                buckets[l][i] = new Bucket();
+            }
+        }
+        this.startTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Schedule a timeout. The wheel thread is started on the first call.
+     *
+     * @param handler the handler to pass item to when the timeout is due
+     * @param deadline the time in milliseconds at which the timeout is due
+     * @throws IllegalStateException if the wheel has been stopped
+     */
+    public <T> Timeout schedule(Handler<? super T> handler, T item, long deadline) {
+        if (!valid) {
+            throw new IllegalStateException(name + " stopped");
+        }
+        Timeout t = new Timeout(this, handler, item, deadline);
+        live.incrementAndGet();
+        pending.add(t);
+        if (thr == null) {
+            start();
+        }
+        // The wheel thread publishes nextWakeup before it checks the
+        // pending queue, see waitForWork()
+        if (deadline < nextWakeup) {
+            synchronized (lock) {
+                wakeup = true;
+                lock.notifyAll();
+            }
+        }
+        return t;
+    }
+
+    private synchronized void start() {
+        if (thr == null) {
+            Thread t = new Thread(this, name);
+            t.setDaemon(true);
+            t.start();
+            thr = t;
+        }
+    }
+
+    /**
+     * Stop the wheel thread. Timeouts that have not expired are discarded.
+     */
+    public void stop() {
+        valid = false;
+        synchronized (lock) {
+            wakeup = true;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * @return the number of scheduled timeouts that have neither expired nor been canceled
+     */
+    public int size() {
+        return live.get();
+    }
+
+    public long getTickInterval() {
+        return tick;
+    }
+
+    /**
+     * @return the number of timeouts that have expired
+     */
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    /**
+     * @return how many milliseconds after their deadline the last expired timeouts were handed to their handler
+     */
+    public long getLastLag() {
+        return lastLag;
+    }
+
+    /**
+     * @return the maximum of getLastLag() since the wheel was created
+     */
+    public long getMaxLag() {
+        return maxLag;
+    }
+
+    @Override
+    public String toString() {
+        return name + "[size=" + size() + ", tick=" + tick + "ms, lastLag=" + lastLag + "ms, maxLag=" + maxLag + "ms]";
+    }
+
+    @Override
+    public void run() {
+        Map<Handler<?>, List<Object>> batches = new LinkedHashMap<>();
+        try {
+            while (valid) {
+                try {
+                    long now = System.currentTimeMillis();
+                    long target = (now - startTime) / tick;
+                    if (placed == 0 && currentTick < target) {
+                        // Nothing to cascade, skip the empty ticks
+                        currentTick = target;
+                    }
+                    transferCancelled();
+                    transferPending();
+
+                    long lag = -1L;
+                    while (currentTick <= target) {
+                        if (currentTick > 0 && (currentTick & MASK) == 0) {
+                            cascade();
+                        }
+                        lag = Math.max(lag, expire(buckets[0][(int) (currentTick & MASK)], now, batches));
+                        currentTick++;
+                    }
+                    if (lag >= 0L) {
+                        lastLag = lag;
+                        if (lag > maxLag) {
+                            maxLag = lag;
+                        }
+                    }
+                    fire(batches);
+                    waitForWork();
+                } catch (OutOfMemoryError e) {
+                    batches.clear();
+                    log(name + ": " + e.getMessage(), e);
+                }
+            }
+        } catch (Throwable t) { //NOPMD
+            if (logger != null) {
+                logger.logSevere(name + " exited: " + t.getMessage(), t);
+            }
+        }
+    }
+
+    private void transferCancelled() {
+        Timeout t;
+        while ((t = cancelled.poll()) != null) {
+            if (t.bucket != null) {
+                t.bucket.remove(t);
+                placed--;
+            }
+        }
+    }
+
+    private void transferPending() {
+        Timeout t;
+        while ((t = pending.poll()) != null) {
+            if (t.state != INIT) {
+                continue;
+            }
+            long ticks = t.deadline - startTime;
+            // Round up, a timeout must never fire early
+            t.deadlineTick = ticks <= 0L ? 0L : (ticks + tick - 1) / tick;
+            place(t);
+            placed++;
+        }
+    }
+
+    private void place(Timeout t) {
+        long dt = t.deadlineTick;
+        long delta = dt - currentTick;
+        if (delta < 0L) {
+            // Overdue, handle it with the current tick
+            dt = currentTick;
+            delta = 0L;
+        } else if (delta > MAX_TICKS) {
+            dt = currentTick + MAX_TICKS;
+            delta = MAX_TICKS;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (BITS * (level + 1)))) {
+            level++;
+        }
+        buckets[level][(int) ((dt >>> (BITS * level)) & MASK)].add(t);
+    }
+
+    /**
+     * Move the timeouts of the higher level buckets that have been reached down to the lower levels. Called whenever
+     * currentTick is a multiple of SIZE.
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            int index = (int) ((currentTick >>> (BITS * level)) & MASK);
+            Timeout t = buckets[level][index].detach();
+            while (t != null) {
+                Timeout next = t.next;
+                t.bucket = null;
+                t.prev = null;
+                t.next = null;
+                place(t);
+                t = next;
+            }
+            if (index != 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Expire the timeouts of a level 0 bucket
+     *
+     * @return the maximum lag of the expired timeouts, or -1 if there were none
+     */
+    private long expire(Bucket bucket, long now, Map<Handler<?>, List<Object>> batches) {
+        long lag = -1L;
+        Timeout t = bucket.detach();
+        while (t != null) {
+            Timeout next = t.next;
+            t.bucket = null;
+            t.prev = null;
+            t.next = null;
+            placed--;
+            if (STATE.compareAndSet(t, INIT, EXPIRED)) {
+                live.decrementAndGet();
+                batches.computeIfAbsent(t.handler, h -> new ArrayList<>()).add(t.item);
+                lag = Math.max(lag, now - t.deadline);
+            }
+            t = next;
+        }
+        return lag;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void fire(Map<Handler<?>, List<Object>> batches) {
+        if (batches.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<Handler<?>, List<Object>> e : batches.entrySet()) {
+            List<Object> items = e.getValue();
+            expiredCount.addAndGet(items.size());
+            try {
+                ((Handler<Object>) e.getKey()).timeoutsExpired(items);
+            } catch (OutOfMemoryError ex) {
+                throw ex;
+            } catch (Throwable ex) { //NOPMD
+                log(name + ": " + e.getKey() + ": " + ex.getMessage(), ex);
+            }
+        }
+        batches.clear();
+    }
+
+    private void waitForWork() {
+        long next = nextTickWithWork();
+        long waketime = next < 0L ? Long.MAX_VALUE : startTime + next * tick;
+        nextWakeup = waketime;
+        if (!pending.isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            while (valid && !wakeup) {
+                long waittime = waketime - System.currentTimeMillis();
+                if (waittime <= 0L) {
+                    break;
+                }
+                if (DEBUG && logger != null) {
+                    logger.logInfo(name + " wait(" + (waketime == Long.MAX_VALUE ? 0L : waittime) + ")", null);
+                }
+                try {
+                    lock.wait(waketime == Long.MAX_VALUE ? 0L : waittime);
+                } catch (InterruptedException ex) {
+                }
+            }
+            wakeup = false;
+        }
+        nextWakeup = 0L;
+    }
+
+    /**
+     * @return the next tick the wheel thread has to process, or -1 if the wheel is empty
+     */
+    private long nextTickWithWork() {
+        if (placed == 0) {
+            return -1L;
+        }
+        long boundary = (currentTick | MASK) + 1;
+        for (long t = currentTick; t < boundary; t++) {
+            if (!buckets[0][(int) (t & MASK)].isEmpty()) {
+                return t;
+            }
+        }
+        // Nothing due before the next cascade
+        return boundary;
+    }
+
+    private void log(String msg, Throwable t) {
+        if (logger != null) {
+            logger.logWarn(msg, t);
+        }
+    }
+}
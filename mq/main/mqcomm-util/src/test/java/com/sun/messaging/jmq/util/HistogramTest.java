@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class HistogramTest {
+    @Test
+    void emptyHistogramShouldReportZeros() {
+        Histogram h = new Histogram("empty");
+
+        assertThat(h.getCount()).isZero();
+        assertThat(h.getMean()).isZero();
+        assertThat(h.getPercentile(99)).isZero();
+    }
+
+    @Test
+    void percentilesShouldBeBucketUpperBounds() {
+        Histogram h = new Histogram("latency");
+        for (int i = 1; i <= 100; i++) {
+            h.record(i);
+        }
+        h.record(-5);
+
+        assertThat(h.getCount()).isEqualTo(101);
+        assertThat(h.getSum()).isEqualTo(5050);
+        assertThat(h.getMax()).isEqualTo(100);
+        // 51st value is 50, in bucket [32, 63]
+        assertThat(h.getPercentile(50)).isEqualTo(63);
+        assertThat(h.getPercentile(99)).isEqualTo(100);
+        assertThat(h.getPercentile(0)).isZero();
+        assertThat(h).hasToString("latency[count=101, mean=50.0, p50=63, p90=100, p99=100, max=100]");
+
+        h.reset();
+        assertThat(h.getCount()).isZero();
+        assertThat(h.getMax()).isZero();
+    }
+
+    @Test
+    void addShouldMergeHistograms() {
+        Histogram a = new Histogram("a");
+        Histogram b = new Histogram("b");
+        a.record(10);
+        b.record(1000);
+        b.record(3);
+
+        a.add(b);
+
+        assertThat(a.getCount()).isEqualTo(3);
+        assertThat(a.getSum()).isEqualTo(1013);
+        assertThat(a.getMax()).isEqualTo(1000);
+        assertThat(a.getPercentile(50)).isEqualTo(15);
+        assertThat(b.getCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class StripedMetricCountersTest {
+    @Test
+    void shouldCountMessagesAndControlPackets() {
+        StripedMetricCounters counters = new StripedMetricCounters();
+        counters.countIn(true, 100);
+        counters.countIn(false, 20);
+        counters.countOut(true, 300);
+
+        MetricCounters mc = counters.toMetricCounters();
+        assertThat(mc.messagesIn).isEqualTo(1);
+        assertThat(mc.messageBytesIn).isEqualTo(100);
+        assertThat(mc.packetsIn).isEqualTo(2);
+        assertThat(mc.packetBytesIn).isEqualTo(120);
+        assertThat(mc.messagesOut).isEqualTo(1);
+        assertThat(mc.messageBytesOut).isEqualTo(300);
+        assertThat(mc.packetsOut).isEqualTo(1);
+        assertThat(mc.packetBytesOut).isEqualTo(300);
+
+        counters.reset();
+        assertThat(counters.toMetricCounters().packetsIn).isZero();
+    }
+
+    @Test
+    void shouldNotLoseConcurrentCounts() throws InterruptedException {
+        StripedMetricCounters counters = new StripedMetricCounters();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    counters.countIn(true, 10);
+                    counters.countOut(false, 1);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        MetricCounters mc = counters.toMetricCounters();
+        assertThat(mc.messagesIn).isEqualTo(40000);
+        assertThat(mc.messageBytesIn).isEqualTo(400000);
+        assertThat(mc.packetsOut).isEqualTo(40000);
+        assertThat(mc.messagesOut).isZero();
+    }
+}
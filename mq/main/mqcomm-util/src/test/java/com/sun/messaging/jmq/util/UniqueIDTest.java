@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class UniqueIDTest {
+
+    @Test
+    void idsOfConcurrentThreadsShouldBeUniqueAndIncreasing() throws Exception {
+        int threads = 4;
+        int count = 100000;
+        long[][] ids = new long[threads][count];
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long[] mine = ids[t];
+            Thread w = new Thread(() -> {
+                for (int i = 0; i < count; i++) {
+                    mine[i] = UniqueID.generateID((short) 7);
+                }
+            });
+            workers.add(w);
+            w.start();
+        }
+        for (Thread w : workers) {
+            w.join();
+        }
+
+        Set<Long> all = new HashSet<>();
+        for (long[] mine : ids) {
+            for (int i = 0; i < count; i++) {
+                assertThat(UniqueID.getPrefix(mine[i])).isEqualTo((short) 7);
+                if (i > 0) {
+                    assertThat(mine[i]).isGreaterThan(mine[i - 1]);
+                }
+                all.add(mine[i]);
+            }
+        }
+        assertThat(all).hasSize(threads * count);
+    }
+
+    @Test
+    void burstShouldRunAheadOfTheClockByNoMoreThanMaxLead() {
+        long start = System.currentTimeMillis();
+        long id = 0;
+        for (int i = 0; i < 20000; i++) {
+            id = UniqueID.generateID((short) 1);
+        }
+        long end = System.currentTimeMillis();
+
+        assertThat(UniqueID.getTimestamp(id)).isBetween(start & UniqueID.TIMESTAMP_MASK, (end + UniqueID.max_lead) & UniqueID.TIMESTAMP_MASK);
+        assertThat(UniqueID.age(id, end)).isGreaterThanOrEqualTo(0L).isLessThan(end - start + 1);
+    }
+
+    @Test
+    void ageOfAnIdAheadOfTheClockShouldBeZero() {
+        long now = System.currentTimeMillis();
+        long id = (1L << (UniqueID.TIMESTAMP_BITS + UniqueID.COUNTER_BITS)) | (((now + 10) & UniqueID.TIMESTAMP_MASK) << UniqueID.COUNTER_BITS);
+
+        assertThat(UniqueID.age(id, now)).isZero();
+        assertThat(UniqueID.age(id, now + 25)).isEqualTo(15);
+    }
+}
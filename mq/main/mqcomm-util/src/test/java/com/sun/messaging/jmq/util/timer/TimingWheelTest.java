@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.util.timer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+    private final TimingWheel wheel = new TimingWheel("TimingWheelTest", 1L, null);
+
+    @AfterEach
+    void stopWheel() {
+        wheel.stop();
+    }
+
+    @Test
+    void timeoutsShouldFireOnceAndNeverEarly() throws InterruptedException {
+        int count = 1000;
+        CountDownLatch done = new CountDownLatch(count);
+        Map<Long, Long> fired = new ConcurrentHashMap<>();
+        TimingWheel.Handler<Long> handler = items -> {
+            long now = System.currentTimeMillis();
+            for (Long deadline : items) {
+                assertThat(fired.put(deadline, now)).isNull();
+                done.countDown();
+            }
+        };
+
+        // Spans the first two levels of the wheel, some deadlines are overdue
+        Random random = new Random(42);
+        long now = System.currentTimeMillis();
+        Set<Long> deadlines = new HashSet<>();
+        while (deadlines.size() < count) {
+            deadlines.add(now - 5 + random.nextInt(1500));
+        }
+        for (Long deadline : deadlines) {
+            wheel.schedule(handler, deadline, deadline);
+        }
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(fired).hasSize(deadlines.size());
+        fired.forEach((deadline, time) -> assertThat(time).isGreaterThanOrEqualTo(deadline));
+        assertThat(wheel.size()).isZero();
+        assertThat(wheel.getExpiredCount()).isEqualTo(deadlines.size());
+        assertThat(wheel.getMaxLag()).isGreaterThanOrEqualTo(wheel.getLastLag());
+    }
+
+    @Test
+    void canceledTimeoutsShouldNotFire() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        List<String> fired = new ArrayList<>();
+        TimingWheel.Handler<String> handler = items -> {
+            synchronized (fired) {
+                fired.addAll(items);
+            }
+            if (items.contains("last")) {
+                done.countDown();
+            }
+        };
+
+        long now = System.currentTimeMillis();
+        TimingWheel.Timeout early = wheel.schedule(handler, "early", now + 20);
+        TimingWheel.Timeout late = wheel.schedule(handler, "late", now + 400);
+        wheel.schedule(handler, "kept", now + 50);
+        wheel.schedule(handler, "last", now + 500);
+
+        assertThat(early.cancel()).isTrue();
+        assertThat(early.cancel()).isFalse();
+        assertThat(late.cancel()).isTrue();
+        assertThat(wheel.size()).isEqualTo(2);
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        synchronized (fired) {
+            assertThat(fired).containsExactly("kept", "last");
+        }
+        assertThat(early.isCancelled()).isTrue();
+    }
+
+    @Test
+    void timeoutsDueTogetherShouldBeBatchedPerHandler() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(2);
+        List<List<Integer>> batches = new ArrayList<>();
+        TimingWheel.Handler<Integer> first = items -> {
+            synchronized (batches) {
+                batches.add(new ArrayList<>(items));
+            }
+            done.countDown();
+        };
+        TimingWheel.Handler<Integer> second = items -> done.countDown();
+
+        long deadline = System.currentTimeMillis() + 100;
+        for (int i = 0; i < 100; i++) {
+            wheel.schedule(first, i, deadline);
+            wheel.schedule(second, i, deadline);
+        }
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        synchronized (batches) {
+            assertThat(batches).hasSize(1);
+            assertThat(batches.get(0)).hasSize(100);
+        }
+    }
+
+    @Test
+    void executorHandlerShouldNotBlockTheWheelThread() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch blockedDone = new CountDownLatch(3);
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger maxRunning = new AtomicInteger();
+            Set<String> threads = ConcurrentHashMap.newKeySet();
+            TimingWheel.Handler<Integer> blocking = wheel.onExecutor(items -> {
+                threads.add(Thread.currentThread().getName());
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                blockedDone.countDown();
+            }, executor);
+            CountDownLatch other = new CountDownLatch(1);
+            TimingWheel.Handler<Integer> fast = items -> other.countDown();
+
+            long now = System.currentTimeMillis();
+            wheel.schedule(blocking, 1, now + 10);
+            wheel.schedule(blocking, 2, now + 50);
+            wheel.schedule(blocking, 3, now + 90);
+            wheel.schedule(fast, 1, now + 100);
+
+            // The wheel keeps firing while the first batch blocks
+            assertThat(other.await(10, TimeUnit.SECONDS)).isTrue();
+            release.countDown();
+            assertThat(blockedDone.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(maxRunning.get()).isEqualTo(1);
+            assertThat(threads).doesNotContain("TimingWheelTest");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -50,6 +51,16 @@ public class ClusterAttributes {
      */
     public static final String MASTER_BROKER_INFO = "MasterBrokerInfo";
 
+    /**
+     * Number of busy remote consumers waiting for each thread that delivers messages to remote consumers
+     */
+    public static final String CONSUMER_DISPATCH_QUEUE_DEPTHS = "ConsumerDispatchQueueDepths";
+
+    /**
+     * Number of messages delivered to remote consumers by each thread that delivers them
+     */
+    public static final String CONSUMER_DISPATCH_COUNTS = "ConsumerDispatchCounts";
+
     /*
      * Class cannot be instantiated
      */
@@ -1,5 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -160,6 +161,42 @@ public class DestinationAttributes {
      */
     public static final String TOTAL_MSG_BYTES_IN_DMQ = "TotalMsgBytesInDMQ";
 
+    /**
+     * State of the background load of the stored messages after startup: ON_DEMAND if it is disabled, else PENDING,
+     * LOADING or LOADED.
+     */
+    public static final String LOAD_STATE = "LoadState";
+
+    /**
+     * Number of destinations whose stored messages are loaded in the background after startup.
+     */
+    public static final String NUM_DESTINATIONS_TO_LOAD = "NumDestinationsToLoad";
+
+    /**
+     * Number of destinations whose stored messages have been loaded in the background after startup.
+     */
+    public static final String NUM_DESTINATIONS_LOADED = "NumDestinationsLoaded";
+
+    /**
+     * Number of stored messages loaded in the background after startup.
+     */
+    public static final String NUM_MSGS_LOADED = "NumMsgsLoaded";
+
+    /**
+     * Number of message expiration and delivery time timeouts scheduled on the broker timing wheel.
+     */
+    public static final String NUM_SCHEDULED_TIMEOUTS = "NumScheduledTimeouts";
+
+    /**
+     * Milliseconds by which the last expired message expiration or delivery time timeouts fired late.
+     */
+    public static final String TIMEOUT_LAG = "TimeoutLag";
+
+    /**
+     * Peak milliseconds by which message expiration or delivery time timeouts fired late.
+     */
+    public static final String PEAK_TIMEOUT_LAG = "PeakTimeoutLag";
+
     /**
      * Average number of active consumers
      */
@@ -340,6 +377,34 @@ public class DestinationAttributes {
      */
     public static final String RELOAD_XML_SCHEMA_ON_FAILURE = "ReloadXMLSchemaOnFailure";
 
+    /**
+     * Distribution of the time in microseconds taken to store the persistent messages sent to the destination. The value
+     * is a CompositeData with the items count, mean, p50, p90, p99 and max.
+     */
+    public static final String PRODUCE_TO_PERSIST_LATENCY = "ProduceToPersistLatency";
+
+    /**
+     * Distribution of the time in microseconds from the store of a persistent message of the destination to its first
+     * delivery to a consumer. The value is a CompositeData with the items count, mean, p50, p90, p99 and max.
+     */
+    public static final String PERSIST_TO_DELIVER_LATENCY = "PersistToDeliverLatency";
+
+    /**
+     * Distribution of the time in microseconds from the delivery of a message of the destination to a consumer to its
+     * acknowledgement. The value is a CompositeData with the items count, mean, p50, p90, p99 and max.
+     */
+    public static final String ACK_ROUND_TRIP_LATENCY = "AckRoundTripLatency";
+
+    /**
+     * Number of times the body of a stored message of the destination was found in memory.
+     */
+    public static final String BODY_CACHE_HITS = "BodyCacheHits";
+
+    /**
+     * Number of times the body of a stored message of the destination had to be read back from the persistent store.
+     */
+    public static final String BODY_CACHE_MISSES = "BodyCacheMisses";
+
     /*
      * Class cannot be instantiated
      */
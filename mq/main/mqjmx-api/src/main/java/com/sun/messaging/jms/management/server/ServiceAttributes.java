@@ -1,5 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -130,6 +131,24 @@ public class ServiceAttributes {
      */
     public static final String THREAD_POOL_MODEL = "ThreadPoolModel";
 
+    /**
+     * Distribution of the time in microseconds taken to store the persistent messages sent by the producers of the
+     * service. The value is a CompositeData with the items count, mean, p50, p90, p99 and max.
+     */
+    public static final String PRODUCE_TO_PERSIST_LATENCY = "ProduceToPersistLatency";
+
+    /**
+     * Distribution of the time in microseconds from the store of a persistent message to its first delivery to a
+     * consumer of the service. The value is a CompositeData with the items count, mean, p50, p90, p99 and max.
+     */
+    public static final String PERSIST_TO_DELIVER_LATENCY = "PersistToDeliverLatency";
+
+    /**
+     * Distribution of the time in microseconds from the delivery of a message to a consumer of the service to its
+     * acknowledgement. The value is a CompositeData with the items count, mean, p50, p90, p99 and max.
+     */
+    public static final String ACK_ROUND_TRIP_LATENCY = "AckRoundTripLatency";
+
     /*
      * Class cannot be instantiated
      */
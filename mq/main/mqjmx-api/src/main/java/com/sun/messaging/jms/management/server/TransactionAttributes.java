@@ -1,5 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -35,6 +36,18 @@ public class TransactionAttributes {
      */
     public static final String NUM_TRANSACTIONS_ROLLBACK = "NumTransactionsRollback";
 
+    /**
+     * Distribution of the number of records written and synced together by the transaction log of the file store. The
+     * value is a CompositeData with the items count, mean, p50, p90, p99 and max.
+     */
+    public static final String TXN_LOG_COMMIT_BATCH_SIZE = "TxnLogCommitBatchSize";
+
+    /**
+     * Distribution of the time in microseconds taken to write and sync a transaction log record of the file store. The
+     * value is a CompositeData with the items count, mean, p50, p90, p99 and max.
+     */
+    public static final String TXN_LOG_SYNC_LATENCY = "TxnLogSyncLatency";
+
     /*
      * Class cannot be instantiated
      */
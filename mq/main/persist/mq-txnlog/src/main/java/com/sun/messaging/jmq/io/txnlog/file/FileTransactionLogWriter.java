@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2000, 2017 Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021 Contributors to the Eclipse Foundation
+ * Copyright (c) 2021, 2026 Contributors to the Eclipse Foundation
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0, which is available at
@@ -23,13 +23,15 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
 import java.util.Date;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.zip.Adler32;
 import java.util.zip.Checksum;
 
+import com.sun.messaging.jmq.util.Histogram;
 import com.sun.messaging.jmq.util.MQThread;
 import com.sun.messaging.jmq.io.txnlog.CheckPointListener;
 import com.sun.messaging.jmq.io.txnlog.TransactionLogRecord;
@@ -42,6 +44,10 @@ import com.sun.messaging.jmq.io.txnlog.TransactionLogWriter;
  * Each transaction is written as a transaction log record. Each record written is synced to the disk. Broker does not
  * need to sync its message stores until a check point request (CheckPointListener is called).
  * <p>
+ * With group commit, records from all writers are queued and a single writer thread appends up to maxBatchSize of them
+ * as one compound record, so one write and one sync are shared by the whole batch. write() returns once the batch
+ * holding its record has been synced.
+ * <p>
  * XXX: chiaming (06/30/2006) add comments to describe file/header layout here.
  */
 @SuppressWarnings("JdkObsolete")
@@ -209,11 +215,32 @@ public class FileTransactionLogWriter implements TransactionLogWriter, Runnable
     private long existingAppCookie = 0;
 
     // a collection holding log records due for processing
-    private List<TransactionLogRecord> transactionLogRecordList = new LinkedList<>();
+    private ArrayDeque<PendingRecord> transactionLogRecordList = new ArrayDeque<>();
 
     // a mutex controlling access to the transactionLogRecordList
     private Object recordListMutex = new Object();
 
+    public static final int DEFAULT_GROUP_COMMIT_MAX_BATCH_SIZE = 256;
+
+    // the maximum number of records written and synced together
+    private int maxBatchSize = DEFAULT_GROUP_COMMIT_MAX_BATCH_SIZE;
+
+    // how long the writer thread waits for more records before writing a batch smaller than maxBatchSize
+    private long maxBatchDelayMicros = 0;
+
+    private final Histogram batchSizeHistogram = new Histogram("commitBatchSize");
+
+    private final Histogram syncLatencyHistogram = new Histogram("syncLatencyMicros");
+
+    private static final class PendingRecord {
+        final TransactionLogRecord record;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingRecord(TransactionLogRecord record) {
+            this.record = record;
+        }
+    }
+
     public FileTransactionLogWriter(File parent, String fileName, long size) throws IOException {
         init(parent, fileName, size);
     }
@@ -511,49 +538,115 @@ public class FileTransactionLogWriter implements TransactionLogWriter, Runnable
         this.callback = cb;
     }
 
-    public void writeAsyncRecord(TransactionLogRecord entry) throws IOException {
+    /**
+     * Set the group commit parameters. Only used if this writer was created with groupCommit set to true.
+     *
+     * @param maxBatchSize the maximum number of records written and synced together
+     * @param maxBatchDelayMicros how long to wait for more records before writing a smaller batch, 0 to write whatever is
+     * queued as soon as the previous batch is synced
+     */
+    public void setGroupCommitParameters(int maxBatchSize, long maxBatchDelayMicros) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Invalid group commit batch size " + maxBatchSize);
+        }
+        synchronized (recordListMutex) {
+            this.maxBatchSize = maxBatchSize;
+            this.maxBatchDelayMicros = Math.max(0L, maxBatchDelayMicros);
+            recordListMutex.notifyAll();
+        }
+    }
 
-        // add record to list
+    /**
+     * @return the number of records written per write and sync
+     */
+    public Histogram getBatchSizeHistogram() {
+        return batchSizeHistogram;
+    }
+
+    /**
+     * @return the time in microseconds taken to write and sync a record or compound record
+     */
+    public Histogram getSyncLatencyHistogram() {
+        return syncLatencyHistogram;
+    }
+
+    /**
+     * Queue a record for the group commit writer thread. The returned future completes when the record has been written
+     * and synced, or completes exceptionally with the IOException that prevented it.
+     */
+    private CompletableFuture<Void> queueRecord(TransactionLogRecord entry) {
+        PendingRecord pending = new PendingRecord(entry);
         synchronized (recordListMutex) {
-            // log("adding record");
-            transactionLogRecordList.add(entry);
-            // log("notifying recordListMutex");
+            if (closed) {
+                // don't queue record if txnLog has been closed
+                pending.future.complete(null);
+                return pending.future;
+            }
+            transactionLogRecordList.add(pending);
             recordListMutex.notifyAll();
         }
+        return pending.future;
+    }
+
+    public void writeAsyncRecord(TransactionLogRecord entry) throws IOException {
+        CompletableFuture<Void> future = queueRecord(entry);
 
         // now wait for record to be processed by logger thread
-        synchronized (entry) {
-            try {
-                while (!entry.isWritten()) {
-                    // log("waiting for record to be written");
-                    entry.wait();
-                    // log("woken up from waiting for record to be written");
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    future.get();
+                    return;
+                } catch (InterruptedException e) {
+                    // the record is already queued, so we must not return before it is written
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new IOException(cause);
                 }
-                // log("record now written");
-            } catch (InterruptedException e) {
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
             }
         }
-
     }
 
     private void processTransactionLogRecordList() {
-        TransactionLogRecord[] records = null;
+        PendingRecord[] records = null;
         synchronized (recordListMutex) {
             while (transactionLogRecordList.isEmpty() && !closed) {
                 try {
-                    // log("waiting for transactionLogRecordList to be >0 ");
                     recordListMutex.wait(1000);
-                    // log("waking up from recordListMutex.wait()");
                 } catch (InterruptedException e) {
                 }
             }
-            records = new TransactionLogRecord[transactionLogRecordList.size()];
-            records = transactionLogRecordList.toArray(records);
-            transactionLogRecordList.clear();
+            if (maxBatchDelayMicros > 0 && !closed) {
+                // wait a little for more records to share the sync
+                long deadline = System.nanoTime() + maxBatchDelayMicros * 1000L;
+                long remaining;
+                while (transactionLogRecordList.size() < maxBatchSize && !closed && (remaining = deadline - System.nanoTime()) > 0) {
+                    try {
+                        recordListMutex.wait(remaining / 1000000L, (int) (remaining % 1000000L));
+                    } catch (InterruptedException e) {
+                    }
+                }
+            }
+            records = new PendingRecord[Math.min(transactionLogRecordList.size(), maxBatchSize)];
+            for (int i = 0; i < records.length; i++) {
+                records[i] = transactionLogRecordList.poll();
+            }
+        }
+        if (records.length == 0) {
+            return;
         }
-        // log("processing " + records.length + " records");
-
-        // there should be something in the list now.
 
         if (debug) {
             numrecordsArray[sampleNum] = records.length;
@@ -570,49 +663,60 @@ public class FileTransactionLogWriter implements TransactionLogWriter, Runnable
 
             }
         }
+        batchSizeHistogram.record(records.length);
 
-        if (records.length == 1) {
-            // log("transactionLogRecordList ==1 ");
-            // only a single record so just save it normally
-            TransactionLogRecord entry = records[0];
-
-            try {
-                writeRecord(entry);
-            } catch (IOException e) {
-                entry.setException(e);
-
-            }
-
-            // wake up waiting thread
-            // log("synchronized (entry) ");
-            synchronized (entry) {
-                // log("notifying entry ");
-                entry.setWritten(true);
-                entry.notifyAll();
+        IOException ex = null;
+        try {
+            if (records.length == 1) {
+                // only a single record so just save it normally
+                writeRecord(records[0].record);
+            } else {
+                TransactionLogRecord[] entries = new TransactionLogRecord[records.length];
+                for (int i = 0; i < records.length; i++) {
+                    entries[i] = records[i].record;
+                }
+                writeCompoundRecord(entries);
             }
+        } catch (IOException e) {
+            ex = e;
+        } catch (RuntimeException e) {
+            ex = new IOException(e.getMessage(), e);
+        }
 
-            return;
+        // wake up waiting threads
+        for (int i = 0; i < records.length; i++) {
+            completeRecord(records[i], ex);
         }
+    }
 
-        try {
-            writeCompoundRecord(records);
-        } catch (IOException ioe) {
-            for (int i = 0; i < records.length; i++) {
-                TransactionLogRecord e = records[i];
-                e.setException(ioe);
+    private static void completeRecord(PendingRecord pending, IOException ex) {
+        TransactionLogRecord entry = pending.record;
+        synchronized (entry) {
+            if (ex != null) {
+                entry.setException(ex);
             }
+            entry.setWritten(true);
+            entry.notifyAll();
+        }
+        if (ex == null) {
+            pending.future.complete(null);
+        } else {
+            pending.future.completeExceptionally(ex);
         }
+    }
 
-        for (int i = 0; i < records.length; i++) {
-            TransactionLogRecord e = records[i];
-            // log("synchronized (entry) ");
-            synchronized (e) {
-                // log("notifying entry ");
-                e.setWritten(true);
-                e.notifyAll();
+    /**
+     * Release any writers still waiting after the log is closed. Their records are not written, as for records written
+     * synchronously after close.
+     */
+    private void releasePendingRecords() {
+        PendingRecord pending;
+        synchronized (recordListMutex) {
+            while ((pending = transactionLogRecordList.poll()) != null) {
+                completeRecord(pending, null);
             }
+            recordListMutex.notifyAll();
         }
-
     }
 
     @Override
@@ -687,7 +791,7 @@ public class FileTransactionLogWriter implements TransactionLogWriter, Runnable
 
             // write (and sync) bytes to disk
             // raf.write(bytes);
-            doWrite(bytes);
+            doRecordWrite(bytes);
 
             // check if we need to notify CP listener.
             if (raf.getFilePointer() > cpSize) {
@@ -800,7 +904,7 @@ public class FileTransactionLogWriter implements TransactionLogWriter, Runnable
 
             // write (and sync) bytes to disk
             // raf.write(bytes);
-            doWrite(bytes);
+            doRecordWrite(bytes);
 
             // check if we need to notify CP listener.
             if (raf.getFilePointer() > cpSize) {
@@ -871,6 +975,19 @@ public class FileTransactionLogWriter implements TransactionLogWriter, Runnable
 
     }
 
+    /**
+     * Writes a record to the file, recording the time taken if the write is synced.
+     */
+    private void doRecordWrite(byte[] bytes) throws IOException {
+        if (this.useFileChannelSync && !synch) {
+            doWrite(bytes);
+            return;
+        }
+        long start = System.nanoTime();
+        doWrite(bytes);
+        syncLatencyHistogram.record((System.nanoTime() - start) / 1000L);
+    }
+
     long calculateCheckSum(byte[] body) {
 
         long value = calculateCheckSum(body, 0, body.length);
@@ -997,6 +1114,7 @@ public class FileTransactionLogWriter implements TransactionLogWriter, Runnable
             raf.close();
             closed = true;
         }
+        releasePendingRecords();
     }
 
     /**
@@ -1014,6 +1132,7 @@ public class FileTransactionLogWriter implements TransactionLogWriter, Runnable
 
             closed = true;
         }
+        releasePendingRecords();
     }
 
     /**
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.io.txnlog.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.sun.messaging.jmq.io.txnlog.TransactionLogRecord;
+import com.sun.messaging.jmq.io.txnlog.TransactionLogType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileTransactionLogWriter_groupCommit_Test {
+    @TempDir
+    File dir;
+
+    private FileTransactionLogWriter writer;
+
+    private FileTransactionLogWriter newWriter() throws IOException {
+        writer = new FileTransactionLogWriter(dir, "txnlog", 4 * 1024 * 1024, FileTransactionLogWriter.RW_MODE, true, true, 0L);
+        writer.setCheckPointListener(() -> {
+        });
+        return writer;
+    }
+
+    @AfterEach
+    void closeWriter() throws IOException {
+        if (writer != null) {
+            writer.close(false);
+        }
+    }
+
+    private static TransactionLogRecord newRecord(FileTransactionLogWriter w, int i) {
+        TransactionLogRecord r = w.newTransactionLogRecord();
+        r.setType(TransactionLogType.PRODUCE_TRANSACTION);
+        r.setBody(("record-" + i).getBytes());
+        return r;
+    }
+
+    private static List<Thread> startWriters(FileTransactionLogWriter w, int threads, int records, AtomicReference<Throwable> failure) {
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int base = t * records;
+            Thread thr = new Thread(() -> {
+                try {
+                    for (int i = 0; i < records; i++) {
+                        w.write(newRecord(w, base + i));
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            thr.start();
+            writers.add(thr);
+        }
+        return writers;
+    }
+
+    private static boolean allWaiting(List<Thread> threads) {
+        for (Thread thr : threads) {
+            if (thr.getState() != Thread.State.WAITING) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    void concurrentWritersShouldShareOneSyncPerBatch() throws Exception {
+        FileTransactionLogWriter w = newWriter();
+        w.setGroupCommitParameters(64, 2000L);
+        int threads = 8;
+        int records = 100;
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        for (Thread thr : startWriters(w, threads, records, failure)) {
+            thr.join(TimeUnit.SECONDS.toMillis(30));
+            assertThat(thr.isAlive()).isFalse();
+        }
+
+        assertThat(failure.get()).isNull();
+        assertThat(w.getBatchSizeHistogram().getSum()).isEqualTo(threads * records);
+        assertThat(w.getBatchSizeHistogram().getMax()).isLessThanOrEqualTo(64);
+        // one write and sync per batch, and records were grouped
+        assertThat(w.getSyncLatencyHistogram().getCount()).isEqualTo(w.getBatchSizeHistogram().getCount());
+        assertThat(w.getBatchSizeHistogram().getCount()).isLessThan(threads * records);
+    }
+
+    @Test
+    void closeShouldReleaseQueuedWriters() throws Exception {
+        FileTransactionLogWriter w = newWriter();
+        // the writer thread waits up to a minute for a full batch
+        w.setGroupCommitParameters(1000, TimeUnit.SECONDS.toMicros(60));
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> writers = startWriters(w, 4, 1, failure);
+        // wait until all of them are blocked on their queued record
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!allWaiting(writers) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(allWaiting(writers)).isTrue();
+
+        w.close();
+        writer = null;
+
+        for (Thread thr : writers) {
+            thr.join(TimeUnit.SECONDS.toMillis(10));
+            assertThat(thr.isAlive()).isFalse();
+        }
+        assertThat(failure.get()).isNull();
+        assertThat(w.getBatchSizeHistogram().getCount()).isZero();
+    }
+}
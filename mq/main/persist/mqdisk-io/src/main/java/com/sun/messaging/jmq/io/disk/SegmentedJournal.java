@@ -0,0 +1,839 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.io.disk;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32C;
+
+/**
+ * SegmentedJournal is an append-only log of entries shared by many streams, e.g. all destinations of a message store.
+ * An entry is identified by its stream and key, and has immutable data and a small attachment that can be replaced, e.g.
+ * a message and the states of its interests.
+ * <p>
+ * The log is split into memory-mapped segment files of a fixed size. Every change appends a record to the active
+ * segment; the location of each live entry is kept in an in-memory index per stream, which is rebuilt by scanning the
+ * segments when the journal is opened. Removing an entry only appends a small record, so the space used by a segment is
+ * reclaimed by compact(), which copies the live entries of the oldest segment to the active segment and deletes the
+ * segment. Compacting oldest first means a remove record never outlives the entry it removes.
+ * <p>
+ * Segment file header: magic # (int), version (int), segment id (long).
+ * <p>
+ * Record: body length (int), type (byte), CRC32C of type and body (int), body. A zero length marks the end of the
+ * records in a segment.
+ */
+public class SegmentedJournal {
+
+    public static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+    public static final long MIN_SEGMENT_SIZE = 4096;
+    public static final long MAX_SEGMENT_SIZE = 1024L * 1024 * 1024;
+
+    static final String SEGMENT_PREFIX = "journal.";
+
+    private static final int SEGMENT_MAGIC = 0x4d514a4c;
+    private static final int SEGMENT_VERSION = 1;
+    static final int SEGMENT_HEADER_SIZE = 16;
+    static final int RECORD_HEADER_SIZE = 9;
+
+    static final byte PUT = 1;
+    static final byte ATTACH = 2;
+    static final byte REMOVE = 3;
+    static final byte REMOVE_STREAM = 4;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final File dir;
+    private final long segmentSize;
+
+    // guards appends and all index updates; reads only use the concurrent maps
+    private final Object appendLock = new Object();
+
+    // oldest first, the last one is the active segment
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+
+    private final Map<String, Stream> streams = new ConcurrentHashMap<>();
+
+    private long nextSegmentId = 1;
+
+    private volatile boolean opened;
+
+    private VRFileWarning warning;
+
+    private static final class Segment {
+        final long id;
+        final File file;
+        final MappedByteBuffer buf;
+        final int capacity;
+        int writePos = SEGMENT_HEADER_SIZE;
+        long liveBytes;
+        boolean compacted;
+
+        Segment(long id, File file, MappedByteBuffer buf) {
+            this.id = id;
+            this.file = file;
+            this.buf = buf;
+            this.capacity = buf.capacity();
+        }
+    }
+
+    /**
+     * Location of an entry, replaced as a whole when the entry changes.
+     */
+    private static final class Entry {
+        final Segment segment;
+        final int dataPos;
+        final int dataLength;
+        final int recordLength;
+        final byte[] attachment;
+        final Segment attachSegment;
+        final int attachRecordLength;
+
+        Entry(Segment segment, int dataPos, int dataLength, int recordLength, byte[] attachment, Segment attachSegment, int attachRecordLength) {
+            this.segment = segment;
+            this.dataPos = dataPos;
+            this.dataLength = dataLength;
+            this.recordLength = recordLength;
+            this.attachment = attachment;
+            this.attachSegment = attachSegment;
+            this.attachRecordLength = attachRecordLength;
+        }
+    }
+
+    private static final class Stream {
+        final Map<String, Entry> entries = new ConcurrentHashMap<>();
+        volatile long dataBytes;
+    }
+
+    /**
+     * A record read from a segment.
+     */
+    private static final class Record {
+        byte type;
+        String stream;
+        String key;
+        byte[] attachment;
+        int dataPos;
+        int dataLength;
+        int length;
+    }
+
+    /**
+     * @param dir the directory holding the segment files, created if it does not exist
+     * @param segmentSize the size of new segments; an entry larger than a segment gets a segment of its own
+     */
+    public SegmentedJournal(File dir, long segmentSize) {
+        if (segmentSize < MIN_SEGMENT_SIZE || segmentSize > MAX_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Invalid segment size " + segmentSize);
+        }
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+    }
+
+    public File getDirectory() {
+        return dir;
+    }
+
+    /**
+     * Open the journal and rebuild the index from the segment files. A record that was not completely written, e.g.
+     * because of a system crash, ends the segment it is in; the journal is still opened but a VRFileWarning listing the
+     * affected segments is thrown, and can also be retrieved with getWarning().
+     */
+    public void open() throws IOException, VRFileWarning {
+        synchronized (appendLock) {
+            if (opened) {
+                return;
+            }
+            if (!dir.exists() && !dir.mkdirs()) {
+                throw new IOException("Failed to create journal directory " + dir);
+            }
+
+            File[] files = dir.listFiles((d, name) -> name.startsWith(SEGMENT_PREFIX) && segmentId(name) > 0);
+            if (files == null) {
+                throw new IOException("Failed to list journal directory " + dir);
+            }
+            Arrays.sort(files, (a, b) -> Long.compare(segmentId(a.getName()), segmentId(b.getName())));
+
+            warning = null;
+            for (int i = 0; i < files.length; i++) {
+                Segment seg = new Segment(segmentId(files[i].getName()), files[i], map(files[i], files[i].length()));
+                if (seg.capacity < SEGMENT_HEADER_SIZE || seg.buf.getInt(0) != SEGMENT_MAGIC || seg.buf.getInt(4) != SEGMENT_VERSION
+                        || seg.buf.getLong(8) != seg.id) {
+                    throw new IOException("Not a valid journal segment: " + files[i]);
+                }
+                segments.addLast(seg);
+                nextSegmentId = seg.id + 1;
+
+                if (!replay(seg)) {
+                    addWarning("Incomplete record at offset " + seg.writePos + " in " + seg.file + ", data after it was discarded");
+                    if (i == files.length - 1) {
+                        // clear the rest so that new records cannot be mixed up with what was left behind
+                        byte[] zeros = new byte[8192];
+                        for (int pos = seg.writePos; pos < seg.capacity; pos += zeros.length) {
+                            seg.buf.put(pos, zeros, 0, Math.min(zeros.length, seg.capacity - pos));
+                        }
+                        seg.buf.force();
+                    }
+                }
+            }
+            if (segments.isEmpty()) {
+                segments.addLast(newSegment(segmentSize));
+            }
+            opened = true;
+        }
+
+        if (warning != null) {
+            throw warning;
+        }
+    }
+
+    /**
+     * Get any warning messages generated while the journal was opened.
+     */
+    public VRFileWarning getWarning() {
+        return warning;
+    }
+
+    /**
+     * Append a new entry.
+     *
+     * @return false if the stream already has an entry with this key
+     */
+    public boolean put(String stream, String key, byte[] data, byte[] attachment, boolean sync) throws IOException {
+        byte[] streamBytes = encode(stream);
+        byte[] keyBytes = encode(key);
+        byte[] att = attachment == null ? EMPTY : attachment;
+
+        synchronized (appendLock) {
+            checkOpen();
+            Stream s = streams.computeIfAbsent(stream, k -> new Stream());
+            if (s.entries.containsKey(key)) {
+                return false;
+            }
+            s.entries.put(key, appendPut(s, streamBytes, keyBytes, att, data, 0, data.length, null, sync));
+            return true;
+        }
+    }
+
+    /**
+     * Replace the attachment of an entry.
+     *
+     * @return false if the entry does not exist
+     */
+    public boolean setAttachment(String stream, String key, byte[] attachment, boolean sync) throws IOException {
+        return updateAttachment(stream, key, old -> attachment, sync);
+    }
+
+    /**
+     * Replace the attachment of an entry with the result of applying the function to the current attachment. The function
+     * is called while appends are blocked, so concurrent updates of one entry are not lost; it should return null if the
+     * attachment does not change.
+     *
+     * @return false if the entry does not exist
+     */
+    public boolean updateAttachment(String stream, String key, UnaryOperator<byte[]> fn, boolean sync) throws IOException {
+        synchronized (appendLock) {
+            checkOpen();
+            Stream s = streams.get(stream);
+            Entry e = s == null ? null : s.entries.get(key);
+            if (e == null) {
+                return false;
+            }
+            byte[] att = fn.apply(e.attachment);
+            if (att == null) {
+                return true;
+            }
+
+            byte[] streamBytes = encode(stream);
+            byte[] keyBytes = encode(key);
+            int bodyLength = 2 + streamBytes.length + 2 + keyBytes.length + 4 + att.length;
+            Segment seg = reserve(RECORD_HEADER_SIZE + bodyLength);
+            int pos = seg.writePos;
+            int p = pos + RECORD_HEADER_SIZE;
+            p = putBytes(seg, p, streamBytes);
+            p = putBytes(seg, p, keyBytes);
+            seg.buf.putInt(p, att.length);
+            seg.buf.put(p + 4, att);
+            int length = finishRecord(seg, pos, ATTACH, bodyLength, sync);
+
+            if (e.attachSegment != null) {
+                e.attachSegment.liveBytes -= e.attachRecordLength;
+            }
+            seg.liveBytes += length;
+            s.entries.put(key, new Entry(e.segment, e.dataPos, e.dataLength, e.recordLength, att, seg, length));
+            return true;
+        }
+    }
+
+    /**
+     * Remove an entry.
+     *
+     * @return false if the entry does not exist
+     */
+    public boolean remove(String stream, String key, boolean sync) throws IOException {
+        synchronized (appendLock) {
+            checkOpen();
+            Stream s = streams.get(stream);
+            Entry e = s == null ? null : s.entries.get(key);
+            if (e == null) {
+                return false;
+            }
+
+            byte[] streamBytes = encode(stream);
+            byte[] keyBytes = encode(key);
+            int bodyLength = 2 + streamBytes.length + 2 + keyBytes.length;
+            Segment seg = reserve(RECORD_HEADER_SIZE + bodyLength);
+            int pos = seg.writePos;
+            int p = putBytes(seg, pos + RECORD_HEADER_SIZE, streamBytes);
+            putBytes(seg, p, keyBytes);
+            finishRecord(seg, pos, REMOVE, bodyLength, sync);
+
+            s.entries.remove(key);
+            release(s, e);
+            return true;
+        }
+    }
+
+    /**
+     * Remove all entries of a stream.
+     */
+    public void removeStream(String stream, boolean sync) throws IOException {
+        synchronized (appendLock) {
+            checkOpen();
+            Stream s = streams.remove(stream);
+            if (s == null) {
+                return;
+            }
+
+            byte[] streamBytes = encode(stream);
+            int bodyLength = 2 + streamBytes.length;
+            Segment seg = reserve(RECORD_HEADER_SIZE + bodyLength);
+            int pos = seg.writePos;
+            putBytes(seg, pos + RECORD_HEADER_SIZE, streamBytes);
+            finishRecord(seg, pos, REMOVE_STREAM, bodyLength, sync);
+
+            for (Entry e : s.entries.values()) {
+                release(s, e);
+            }
+            s.entries.clear();
+        }
+    }
+
+    public boolean contains(String stream, String key) {
+        Stream s = streams.get(stream);
+        return s != null && s.entries.containsKey(key);
+    }
+
+    /**
+     * @return a copy of the data of the entry, or null if the entry does not exist
+     */
+    public byte[] getData(String stream, String key) {
+        Stream s = streams.get(stream);
+        Entry e = s == null ? null : s.entries.get(key);
+        if (e == null) {
+            return null;
+        }
+        byte[] data = new byte[e.dataLength];
+        e.segment.buf.get(e.dataPos, data);
+        return data;
+    }
+
+    /**
+     * @return the attachment of the entry, or null if the entry does not exist. The array must not be modified.
+     */
+    public byte[] getAttachment(String stream, String key) {
+        Stream s = streams.get(stream);
+        Entry e = s == null ? null : s.entries.get(key);
+        return e == null ? null : e.attachment;
+    }
+
+    /**
+     * @return the streams that have entries
+     */
+    public Set<String> getStreams() {
+        Set<String> result = new HashSet<>();
+        for (Map.Entry<String, Stream> s : streams.entrySet()) {
+            if (!s.getValue().entries.isEmpty()) {
+                result.add(s.getKey());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return a snapshot of the keys of the stream
+     */
+    public List<String> getKeys(String stream) {
+        Stream s = streams.get(stream);
+        if (s == null) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(s.entries.keySet());
+    }
+
+    public int getEntryCount(String stream) {
+        Stream s = streams.get(stream);
+        return s == null ? 0 : s.entries.size();
+    }
+
+    /**
+     * @return the total size of the data of the entries of the stream
+     */
+    public long getDataBytes(String stream) {
+        Stream s = streams.get(stream);
+        return s == null ? 0 : s.dataBytes;
+    }
+
+    public int getSegmentCount() {
+        synchronized (appendLock) {
+            return segments.size();
+        }
+    }
+
+    /**
+     * @return the number of bytes of all records written to the segments
+     */
+    public long getBytesUsed() {
+        synchronized (appendLock) {
+            long used = 0;
+            for (Segment seg : segments) {
+                used += seg.writePos;
+            }
+            return used;
+        }
+    }
+
+    /**
+     * @return the number of bytes of the records of live entries
+     */
+    public long getLiveBytes() {
+        synchronized (appendLock) {
+            long live = 0;
+            for (Segment seg : segments) {
+                live += seg.liveBytes;
+            }
+            return live;
+        }
+    }
+
+    /**
+     * @return the size of all segment files
+     */
+    public long getBytesReserved() {
+        synchronized (appendLock) {
+            long reserved = 0;
+            for (Segment seg : segments) {
+                reserved += seg.capacity;
+            }
+            return reserved;
+        }
+    }
+
+    /**
+     * Force all segments to disk.
+     */
+    public void force() {
+        synchronized (appendLock) {
+            if (opened) {
+                segments.peekLast().buf.force();
+            }
+        }
+    }
+
+    /**
+     * Compact the journal while the live records of the oldest segment, or of all segments but the active one, are less
+     * than minLiveRatio of their size. The live entries of the oldest segment are appended to the active segment and the
+     * segment file is deleted.
+     *
+     * @return the number of segments deleted
+     */
+    public int compact(float minLiveRatio) throws IOException {
+        int deleted = 0;
+        while (true) {
+            Segment oldest;
+            synchronized (appendLock) {
+                if (!opened || segments.size() < 2) {
+                    break;
+                }
+                oldest = segments.peekFirst();
+                if (!oldest.compacted && !needsCompaction(minLiveRatio)) {
+                    break;
+                }
+            }
+
+            if (!oldest.compacted) {
+                copyLiveEntries(oldest);
+            }
+
+            synchronized (appendLock) {
+                // the copies were appended without sync, they and the files holding them must be on disk before the
+                // originals go
+                segments.peekLast().buf.force();
+                forceDirectory(dir);
+                oldest.compacted = true;
+                try {
+                    Files.deleteIfExists(oldest.file.toPath());
+                } catch (IOException e) {
+                    // still mapped on some platforms; try again next time, newer segments must wait for it
+                    break;
+                }
+                segments.remove(oldest);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Remove all entries and delete all segment files.
+     */
+    public void clear() throws IOException {
+        synchronized (appendLock) {
+            checkOpen();
+            streams.clear();
+            for (Segment seg : segments) {
+                Files.deleteIfExists(seg.file.toPath());
+            }
+            segments.clear();
+            segments.addLast(newSegment(segmentSize));
+        }
+    }
+
+    public void close() {
+        synchronized (appendLock) {
+            if (!opened) {
+                return;
+            }
+            segments.peekLast().buf.force();
+            segments.clear();
+            streams.clear();
+            opened = false;
+        }
+    }
+
+    // caller holds appendLock
+    private boolean needsCompaction(float minLiveRatio) {
+        Segment oldest = segments.peekFirst();
+        if (oldest.liveBytes < minLiveRatio * oldest.writePos) {
+            return true;
+        }
+        long used = 0;
+        long live = 0;
+        for (Segment seg : segments) {
+            if (seg != segments.peekLast()) {
+                used += seg.writePos;
+                live += seg.liveBytes;
+            }
+        }
+        return live < minLiveRatio * used;
+    }
+
+    /**
+     * Append a fresh copy of every entry that has its data or attachment in the segment. The segment is no longer written
+     * to, so it is scanned without holding the lock.
+     */
+    private void copyLiveEntries(Segment seg) throws IOException {
+        Record r = new Record();
+        int pos = SEGMENT_HEADER_SIZE;
+        while (pos < seg.writePos && readRecord(seg, pos, r)) {
+            if (r.type == PUT || r.type == ATTACH) {
+                synchronized (appendLock) {
+                    checkOpen();
+                    Stream s = streams.get(r.stream);
+                    Entry e = s == null ? null : s.entries.get(r.key);
+                    if (e != null && (e.segment == seg || e.attachSegment == seg)) {
+                        s.entries.put(r.key, appendPut(s, encode(r.stream), encode(r.key), e.attachment, e.segment.buf, e.dataPos, e.dataLength, e, false));
+                    }
+                }
+            }
+            pos += r.length;
+        }
+    }
+
+    // caller holds appendLock
+    private Entry appendPut(Stream s, byte[] streamBytes, byte[] keyBytes, byte[] attachment, Object data, int dataOffset, int dataLength, Entry old,
+            boolean sync) throws IOException {
+        int bodyLength = 2 + streamBytes.length + 2 + keyBytes.length + 4 + attachment.length + dataLength;
+        Segment seg = reserve(RECORD_HEADER_SIZE + bodyLength);
+        int pos = seg.writePos;
+        int p = pos + RECORD_HEADER_SIZE;
+        p = putBytes(seg, p, streamBytes);
+        p = putBytes(seg, p, keyBytes);
+        seg.buf.putInt(p, attachment.length);
+        seg.buf.put(p + 4, attachment);
+        int dataPos = p + 4 + attachment.length;
+        if (data instanceof byte[] bytes) {
+            seg.buf.put(dataPos, bytes, dataOffset, dataLength);
+        } else {
+            seg.buf.put(dataPos, (MappedByteBuffer) data, dataOffset, dataLength);
+        }
+        int length = finishRecord(seg, pos, PUT, bodyLength, sync);
+
+        if (old != null) {
+            release(s, old);
+        }
+        seg.liveBytes += length;
+        s.dataBytes += dataLength;
+        return new Entry(seg, dataPos, dataLength, length, attachment, null, 0);
+    }
+
+    // caller holds appendLock
+    private static void release(Stream s, Entry e) {
+        e.segment.liveBytes -= e.recordLength;
+        if (e.attachSegment != null) {
+            e.attachSegment.liveBytes -= e.attachRecordLength;
+        }
+        s.dataBytes -= e.dataLength;
+    }
+
+    /**
+     * Return the segment to append a record of the given length to, starting a new segment if the active one is full.
+     * Caller holds appendLock.
+     */
+    private Segment reserve(int recordLength) throws IOException {
+        Segment seg = segments.peekLast();
+        // keep room for the zero length that ends the records
+        if (seg.writePos + recordLength + 4 <= seg.capacity) {
+            return seg;
+        }
+        // records appended without sync must not be lost once the segment is sealed
+        seg.buf.force();
+        seg = newSegment(Math.max(segmentSize, (long) SEGMENT_HEADER_SIZE + recordLength + 4));
+        segments.addLast(seg);
+        return seg;
+    }
+
+    /**
+     * Write the record header after the body has been written, and advance the write position. Caller holds appendLock.
+     *
+     * @return the record length
+     */
+    private static int finishRecord(Segment seg, int pos, byte type, int bodyLength, boolean sync) {
+        CRC32C crc = new CRC32C();
+        crc.update(type);
+        crc.update(seg.buf.slice(pos + RECORD_HEADER_SIZE, bodyLength));
+        seg.buf.put(pos + 4, type);
+        seg.buf.putInt(pos + 5, (int) crc.getValue());
+        seg.buf.putInt(pos, bodyLength);
+
+        int length = RECORD_HEADER_SIZE + bodyLength;
+        seg.writePos = pos + length;
+        if (sync) {
+            seg.buf.force(pos, length);
+        }
+        return length;
+    }
+
+    /**
+     * Read the record at pos.
+     *
+     * @return false if there is no complete record at pos
+     */
+    private static boolean readRecord(Segment seg, int pos, Record r) {
+        if (pos + RECORD_HEADER_SIZE > seg.capacity) {
+            return false;
+        }
+        int bodyLength = seg.buf.getInt(pos);
+        if (bodyLength <= 0 || bodyLength > seg.capacity - pos - RECORD_HEADER_SIZE) {
+            return false;
+        }
+        byte type = seg.buf.get(pos + 4);
+        CRC32C crc = new CRC32C();
+        crc.update(type);
+        crc.update(seg.buf.slice(pos + RECORD_HEADER_SIZE, bodyLength));
+        if ((int) crc.getValue() != seg.buf.getInt(pos + 5)) {
+            return false;
+        }
+
+        int p = pos + RECORD_HEADER_SIZE;
+        int end = p + bodyLength;
+        r.type = type;
+        r.length = RECORD_HEADER_SIZE + bodyLength;
+        r.key = null;
+        r.attachment = null;
+        r.dataPos = 0;
+        r.dataLength = 0;
+
+        int n = seg.buf.getShort(p) & 0xffff;
+        r.stream = decode(seg, p + 2, n);
+        p += 2 + n;
+        if (type == REMOVE_STREAM) {
+            return true;
+        }
+        n = seg.buf.getShort(p) & 0xffff;
+        r.key = decode(seg, p + 2, n);
+        p += 2 + n;
+        if (type == REMOVE) {
+            return true;
+        }
+        n = seg.buf.getInt(p);
+        r.attachment = new byte[n];
+        seg.buf.get(p + 4, r.attachment);
+        p += 4 + n;
+        if (type == PUT) {
+            r.dataPos = p;
+            r.dataLength = end - p;
+        }
+        return type == PUT || type == ATTACH;
+    }
+
+    /**
+     * Apply the records of a segment to the index while opening the journal.
+     *
+     * @return false if the segment ends with an incomplete record
+     */
+    private boolean replay(Segment seg) {
+        Record r = new Record();
+        int pos = SEGMENT_HEADER_SIZE;
+        while (pos + 4 <= seg.capacity && seg.buf.getInt(pos) != 0) {
+            if (!readRecord(seg, pos, r)) {
+                seg.writePos = pos;
+                return false;
+            }
+            Stream s = streams.get(r.stream);
+            Entry e = s == null || r.key == null ? null : s.entries.get(r.key);
+            switch (r.type) {
+            case PUT:
+                if (s == null) {
+                    s = new Stream();
+                    streams.put(r.stream, s);
+                }
+                if (e != null) {
+                    // a copy made by compaction
+                    release(s, e);
+                }
+                seg.liveBytes += r.length;
+                s.dataBytes += r.dataLength;
+                s.entries.put(r.key, new Entry(seg, r.dataPos, r.dataLength, r.length, r.attachment, null, 0));
+                break;
+            case ATTACH:
+                if (e != null) {
+                    if (e.attachSegment != null) {
+                        e.attachSegment.liveBytes -= e.attachRecordLength;
+                    }
+                    seg.liveBytes += r.length;
+                    s.entries.put(r.key, new Entry(e.segment, e.dataPos, e.dataLength, e.recordLength, r.attachment, seg, r.length));
+                }
+                break;
+            case REMOVE:
+                if (e != null) {
+                    s.entries.remove(r.key);
+                    release(s, e);
+                }
+                break;
+            case REMOVE_STREAM:
+                if (s != null) {
+                    streams.remove(r.stream);
+                    for (Entry old : s.entries.values()) {
+                        release(s, old);
+                    }
+                }
+                break;
+            default:
+                break;
+            }
+            pos += r.length;
+        }
+        seg.writePos = pos;
+        return true;
+    }
+
+    // caller holds appendLock
+    private Segment newSegment(long size) throws IOException {
+        long id = nextSegmentId++;
+        File file = new File(dir, String.format("%s%016d", SEGMENT_PREFIX, id));
+        Segment seg = new Segment(id, file, map(file, size));
+        seg.buf.putInt(0, SEGMENT_MAGIC);
+        seg.buf.putInt(4, SEGMENT_VERSION);
+        seg.buf.putLong(8, id);
+        seg.buf.force(0, SEGMENT_HEADER_SIZE);
+        return seg;
+    }
+
+    /**
+     * Make the creation of new segment files durable. Not every platform can open a directory, there the file system is
+     * left to order it.
+     */
+    private static void forceDirectory(File dir) {
+        try (FileChannel fc = FileChannel.open(dir.toPath(), StandardOpenOption.READ)) {
+            fc.force(true);
+        } catch (IOException e) {
+            // not supported, e.g. on Windows
+        }
+    }
+
+    private static MappedByteBuffer map(File file, long size) throws IOException {
+        try (FileChannel fc = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return fc.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private static long segmentId(String name) {
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int putBytes(Segment seg, int p, byte[] bytes) {
+        seg.buf.putShort(p, (short) bytes.length);
+        seg.buf.put(p + 2, bytes);
+        return p + 2 + bytes.length;
+    }
+
+    private static byte[] encode(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xffff) {
+            throw new IllegalArgumentException("Name too long: " + s);
+        }
+        return bytes;
+    }
+
+    private static String decode(Segment seg, int p, int n) {
+        byte[] bytes = new byte[n];
+        seg.buf.get(p, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void addWarning(String w) {
+        if (warning == null) {
+            warning = new VRFileWarning("Possible data loss in journal " + dir);
+        }
+        warning.addWarning(w);
+    }
+
+    private void checkOpen() throws IOException {
+        if (!opened) {
+            throw new IOException("Journal " + dir + " is not open");
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.messaging.jmq.io.disk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SegmentedJournalTest {
+    @TempDir
+    File dir;
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void entriesShouldSurviveReopen() throws Exception {
+        SegmentedJournal journal = new SegmentedJournal(dir, SegmentedJournal.MIN_SEGMENT_SIZE);
+        journal.open();
+        assertThat(journal.put("q1", "m1", bytes("body1"), bytes("a1"), false)).isTrue();
+        assertThat(journal.put("q1", "m1", bytes("other"), null, false)).isFalse();
+        journal.put("q1", "m2", bytes("body2"), null, true);
+        journal.put("q2", "m3", bytes("body3"), null, false);
+        assertThat(journal.setAttachment("q1", "m2", bytes("a2"), false)).isTrue();
+        assertThat(journal.updateAttachment("q1", "m1", old -> old.length == 2 ? bytes("a1b") : null, false)).isTrue();
+        assertThat(journal.remove("q1", "m1", false)).isTrue();
+        assertThat(journal.remove("q1", "m1", false)).isFalse();
+        journal.removeStream("q2", false);
+        journal.put("q3", "m4", bytes("body4"), null, false);
+        journal.close();
+
+        journal = new SegmentedJournal(dir, SegmentedJournal.MIN_SEGMENT_SIZE);
+        journal.open();
+        assertThat(journal.getStreams()).containsExactlyInAnyOrder("q1", "q3");
+        assertThat(journal.getKeys("q1")).containsExactly("m2");
+        assertThat(journal.getData("q1", "m2")).isEqualTo(bytes("body2"));
+        assertThat(journal.getAttachment("q1", "m2")).isEqualTo(bytes("a2"));
+        assertThat(journal.contains("q1", "m1")).isFalse();
+        assertThat(journal.getEntryCount("q2")).isZero();
+        assertThat(journal.getDataBytes("q1")).isEqualTo(5);
+        assertThat(journal.getData("q3", "m4")).isEqualTo(bytes("body4"));
+        journal.close();
+    }
+
+    @Test
+    void compactionShouldKeepLiveEntries() throws Exception {
+        SegmentedJournal journal = new SegmentedJournal(dir, SegmentedJournal.MIN_SEGMENT_SIZE);
+        journal.open();
+        byte[] body = new byte[200];
+        for (int i = 0; i < 200; i++) {
+            Arrays.fill(body, (byte) i);
+            journal.put("q", "m" + i, body, new byte[] { (byte) i }, false);
+        }
+        for (int i = 0; i < 200; i++) {
+            if (i % 10 != 0) {
+                journal.remove("q", "m" + i, false);
+            } else {
+                journal.setAttachment("q", "m" + i, new byte[] { 1, (byte) i }, false);
+            }
+        }
+        int segments = journal.getSegmentCount();
+        assertThat(segments).isGreaterThan(5);
+
+        assertThat(journal.compact(0.5f)).isPositive();
+        assertThat(journal.getSegmentCount()).isLessThan(segments);
+        assertThat(journal.getLiveBytes()).isLessThanOrEqualTo(journal.getBytesUsed());
+        journal.close();
+
+        journal = new SegmentedJournal(dir, SegmentedJournal.MIN_SEGMENT_SIZE);
+        journal.open();
+        assertThat(journal.getEntryCount("q")).isEqualTo(20);
+        for (int i = 0; i < 200; i += 10) {
+            Arrays.fill(body, (byte) i);
+            assertThat(journal.getData("q", "m" + i)).isEqualTo(body);
+            assertThat(journal.getAttachment("q", "m" + i)).containsExactly(1, (byte) i);
+        }
+        journal.close();
+    }
+
+    @Test
+    void compactedEntriesShouldSurviveReopenWithoutClose() throws Exception {
+        SegmentedJournal journal = new SegmentedJournal(dir, SegmentedJournal.MIN_SEGMENT_SIZE);
+        journal.open();
+        byte[] body = new byte[200];
+        for (int i = 0; i < 100; i++) {
+            Arrays.fill(body, (byte) i);
+            journal.put("q", "m" + i, body, null, false);
+        }
+        for (int i = 0; i < 100; i++) {
+            if (i % 4 != 0) {
+                journal.remove("q", "m" + i, false);
+            }
+        }
+        assertThat(journal.compact(0.5f)).isPositive();
+
+        // as after a crash: the journal is not closed, only what compact() forced is known to be on disk
+        SegmentedJournal reopened = new SegmentedJournal(dir, SegmentedJournal.MIN_SEGMENT_SIZE);
+        reopened.open();
+        assertThat(reopened.getEntryCount("q")).isEqualTo(25);
+        for (int i = 0; i < 100; i += 4) {
+            Arrays.fill(body, (byte) i);
+            assertThat(reopened.getData("q", "m" + i)).isEqualTo(body);
+        }
+        reopened.close();
+        journal.close();
+    }
+
+    @Test
+    void incompleteRecordShouldBeDiscarded() throws Exception {
+        SegmentedJournal journal = new SegmentedJournal(dir, SegmentedJournal.MIN_SEGMENT_SIZE);
+        journal.open();
+        journal.put("q", "m1", bytes("body1"), null, true);
+        journal.put("q", "m2", bytes("body2"), null, true);
+        journal.close();
+
+        // corrupt the last byte of the second record
+        File segment = dir.listFiles()[0];
+        int end = SegmentedJournal.SEGMENT_HEADER_SIZE + 2 * (SegmentedJournal.RECORD_HEADER_SIZE + 2 + 1 + 2 + 2 + 4 + 5);
+        try (RandomAccessFile raf = new RandomAccessFile(segment, "rw")) {
+            raf.seek(end - 1);
+            raf.write('X');
+        }
+
+        SegmentedJournal reopened = new SegmentedJournal(dir, SegmentedJournal.MIN_SEGMENT_SIZE);
+        assertThatThrownBy(reopened::open).isInstanceOf(VRFileWarning.class);
+        assertThat(reopened.getKeys("q")).containsExactly("m1");
+        reopened.put("q", "m3", bytes("body3"), null, true);
+        reopened.close();
+
+        reopened = new SegmentedJournal(dir, SegmentedJournal.MIN_SEGMENT_SIZE);
+        reopened.open();
+        assertThat(reopened.getKeys("q")).containsExactlyInAnyOrder("m1", "m3");
+        reopened.close();
+    }
+}